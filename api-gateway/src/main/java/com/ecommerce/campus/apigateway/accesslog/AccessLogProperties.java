@@ -0,0 +1,44 @@
+package com.ecommerce.campus.apigateway.accesslog;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Access log settings bound from {@code gateway.access-log}.
+ * Sampling rates are keyed by status class ({@code 2xx}, {@code 4xx}, ...) between 0.0 and 1.0.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.access-log")
+public class AccessLogProperties {
+
+    private boolean enabled = true;
+
+    private Output output = Output.STDOUT;
+
+    /** Target file when output is FILE */
+    private String file = "logs/gateway-access.log";
+
+    /** Records held in memory before new ones are dropped */
+    private int bufferSize = 8192;
+
+    /** Records written per flush */
+    private int batchSize = 512;
+
+    /** How long the writer sleeps when the buffer is empty */
+    private Duration idleWait = Duration.ofMillis(5);
+
+    /** Rates for all routes, by status class */
+    private Map<String, Double> sampling = new LinkedHashMap<>();
+
+    /** Rates by route id, overriding the defaults per status class */
+    private Map<String, Map<String, Double>> routeSampling = new LinkedHashMap<>();
+
+    public enum Output {
+        STDOUT,
+        FILE
+    }
+}
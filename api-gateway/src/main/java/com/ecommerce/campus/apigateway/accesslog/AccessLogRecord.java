@@ -0,0 +1,97 @@
+package com.ecommerce.campus.apigateway.accesslog;
+
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * One exchange in the access log. Instances are preallocated by {@link AccessLogRingBuffer} and reused.
+ */
+public final class AccessLogRecord {
+
+    long timestampMs;
+    String requestId;
+    String method;
+    String path;
+    String routeId;
+    InetSocketAddress client;
+    int status;
+    long latencyNanos;
+    long bytes;
+
+    AccessLogRecord() {
+    }
+
+    /**
+     * Append the record as one JSON line
+     */
+    public void appendJson(StringBuilder out) {
+        out.append("{\"ts\":\"");
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(timestampMs), out);
+        out.append("\",\"requestId\":");
+        appendString(out, requestId);
+        out.append(",\"method\":");
+        appendString(out, method);
+        out.append(",\"path\":");
+        appendString(out, path);
+        out.append(",\"route\":");
+        appendString(out, routeId);
+        out.append(",\"client\":");
+        appendString(out, client != null && client.getAddress() != null
+                ? client.getAddress().getHostAddress() : null);
+        out.append(",\"status\":").append(status);
+        out.append(",\"latencyMs\":").append(latencyNanos / 1_000_000).append('.');
+        long micros = (latencyNanos / 1_000) % 1_000;
+        if (micros < 100) out.append('0');
+        if (micros < 10) out.append('0');
+        out.append(micros);
+        out.append(",\"bytes\":").append(bytes);
+        out.append("}\n");
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    void clear() {
+        requestId = null;
+        method = null;
+        path = null;
+        routeId = null;
+        client = null;
+    }
+
+    private static void appendString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,101 @@
+package com.ecommerce.campus.apigateway.accesslog;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer / single-consumer ring of preallocated access log records.
+ * Producers claim a slot with one CAS, fill it in place and publish it through the slot's sequence
+ * (a volatile write), so nothing is allocated per record. When the writer falls behind, records are
+ * dropped and counted instead of blocking the event loop.
+ */
+public class AccessLogRingBuffer {
+
+    private final AccessLogRecord[] records;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    /** Only touched by the single consumer thread */
+    private long head;
+
+    public AccessLogRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.records = new AccessLogRecord[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            records[i] = new AccessLogRecord();
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Publish one exchange, returning false if the buffer was full
+     */
+    public boolean publish(long timestampMs, String requestId, String method, String path, String routeId,
+                           InetSocketAddress client, int status, long latencyNanos, long bytes) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    AccessLogRecord record = records[index];
+                    record.timestampMs = timestampMs;
+                    record.requestId = requestId;
+                    record.method = method;
+                    record.path = path;
+                    record.routeId = routeId;
+                    record.client = client;
+                    record.status = status;
+                    record.latencyNanos = latencyNanos;
+                    record.bytes = bytes;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                dropped.increment();
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Hand up to {@code max} published records to the consumer; single consumer only.
+     * The record must not be kept after the callback returns, its slot is reused.
+     *
+     * @return number of records drained
+     */
+    public int drain(Consumer<AccessLogRecord> consumer, int max) {
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            AccessLogRecord record = records[index];
+            consumer.accept(record);
+            record.clear();
+            sequences.set(index, head + records.length);
+            head++;
+            drained++;
+        }
+        return drained;
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public int capacity() {
+        return records.length;
+    }
+}
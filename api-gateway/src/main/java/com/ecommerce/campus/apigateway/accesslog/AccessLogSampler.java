@@ -0,0 +1,47 @@
+package com.ecommerce.campus.apigateway.accesslog;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether an exchange is logged, by route and status class.
+ * Rates are compiled into one small array per route at startup.
+ */
+public class AccessLogSampler {
+
+    private static final int CLASSES = 6; // index 1..5 for 1xx..5xx, 0 for anything else
+
+    private final double[] defaultRates;
+    private final Map<String, double[]> routeRates = new HashMap<>();
+
+    public AccessLogSampler(Map<String, Double> defaults, Map<String, Map<String, Double>> routes) {
+        this.defaultRates = compile(defaults, null);
+        routes.forEach((routeId, rates) -> routeRates.put(routeId, compile(rates, defaultRates)));
+    }
+
+    public boolean shouldLog(String routeId, int status) {
+        double[] rates = routeId != null ? routeRates.getOrDefault(routeId, defaultRates) : defaultRates;
+        int statusClass = status / 100;
+        double rate = rates[statusClass > 0 && statusClass < CLASSES ? statusClass : 0];
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private static double[] compile(Map<String, Double> rates, double[] fallback) {
+        double[] compiled = new double[CLASSES];
+        for (int i = 0; i < CLASSES; i++) {
+            compiled[i] = fallback != null ? fallback[i] : 1.0;
+        }
+        rates.forEach((statusClass, rate) -> {
+            if (statusClass.length() != 3 || !statusClass.toLowerCase().endsWith("xx")) {
+                throw new IllegalArgumentException("Status class must look like 2xx, got " + statusClass);
+            }
+            int index = statusClass.charAt(0) - '0';
+            if (index < 1 || index >= CLASSES) {
+                throw new IllegalArgumentException("Unknown status class " + statusClass);
+            }
+            compiled[index] = Math.max(0.0, Math.min(1.0, rate));
+        });
+        return compiled;
+    }
+}
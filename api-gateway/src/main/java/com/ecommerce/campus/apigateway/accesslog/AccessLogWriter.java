@@ -0,0 +1,92 @@
+package com.ecommerce.campus.apigateway.accesslog;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background thread draining the ring buffer in batches as JSON lines.
+ * All formatting happens here, off the event loop.
+ */
+@Slf4j
+public class AccessLogWriter implements AutoCloseable {
+
+    private final AccessLogRingBuffer buffer;
+    private final OutputStream output;
+    private final int batchSize;
+    private final long idleWaitNanos;
+    private final StringBuilder batch = new StringBuilder(16 * 1024);
+    private final LongAdder written = new LongAdder();
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    public AccessLogWriter(AccessLogRingBuffer buffer, OutputStream output, int batchSize, Duration idleWait) {
+        this.buffer = buffer;
+        this.output = output;
+        this.batchSize = batchSize;
+        this.idleWaitNanos = idleWait.toNanos();
+        this.thread = new Thread(this::run, "access-log-writer");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Write whatever is buffered now; returns the number of records written
+     */
+    int flushOnce() throws IOException {
+        int drained = buffer.drain(record -> record.appendJson(batch), batchSize);
+        if (drained > 0) {
+            output.write(batch.toString().getBytes(StandardCharsets.UTF_8));
+            output.flush();
+            batch.setLength(0);
+            written.add(drained);
+        }
+        return drained;
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(Duration.ofSeconds(5).toMillis());
+            while (flushOnce() > 0) {
+                // Drain what was published while stopping
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Could not flush access log on shutdown", e);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (flushOnce() == 0) {
+                    LockSupport.parkNanos(idleWaitNanos);
+                }
+            } catch (IOException e) {
+                batch.setLength(0);
+                log.error("Could not write access log batch", e);
+                LockSupport.parkNanos(idleWaitNanos);
+            } catch (RuntimeException e) {
+                batch.setLength(0);
+                log.error("Unexpected error in access log writer", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.campus.apigateway.cache;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Copies response body buffers as they pass, up to a size limit, without consuming them.
+ * Used by one subscriber at a time, so it needs no synchronization.
+ */
+public final class BodyCapture {
+
+    private final int maxBytes;
+    private byte[] bytes = new byte[1024];
+    private int length;
+    private boolean overflow;
+
+    public BodyCapture(long maxBytes) {
+        this.maxBytes = (int) Math.min(Integer.MAX_VALUE - 8, maxBytes);
+    }
+
+    public void append(DataBuffer buffer) {
+        if (overflow) {
+            return;
+        }
+        int readable = buffer.readableByteCount();
+        if (length + readable > maxBytes) {
+            overflow = true;
+            bytes = null;
+            return;
+        }
+        if (length + readable > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.min(maxBytes, Math.max(length + readable, bytes.length * 2)));
+        }
+        try (DataBuffer.ByteBufferIterator buffers = buffer.readableByteBuffers()) {
+            while (buffers.hasNext()) {
+                ByteBuffer chunk = buffers.next();
+                int chunkLength = chunk.remaining();
+                chunk.get(bytes, length, chunkLength);
+                length += chunkLength;
+            }
+        }
+    }
+
+    /**
+     * Whether the body outgrew the limit and was dropped
+     */
+    public boolean isOverflow() {
+        return overflow;
+    }
+
+    /**
+     * The captured body, exactly sized; only valid if not overflowed
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, length);
+    }
+}
@@ -0,0 +1,55 @@
+package com.ecommerce.campus.apigateway.cache;
+
+/**
+ * The {@code Cache-Control} directives the gateway cache acts on. Ages are in seconds, -1 when absent.
+ */
+record CacheControl(boolean noStore, boolean noCache, long maxAge, long sharedMaxAge, long staleWhileRevalidate) {
+
+    static final CacheControl EMPTY = new CacheControl(false, false, -1, -1, -1);
+
+    static CacheControl parse(String header) {
+        if (header == null || header.isBlank()) {
+            return EMPTY;
+        }
+        boolean noStore = false;
+        boolean noCache = false;
+        long maxAge = -1;
+        long sharedMaxAge = -1;
+        long staleWhileRevalidate = -1;
+        for (String directive : header.split(",")) {
+            String token = directive.trim().toLowerCase();
+            int equals = token.indexOf('=');
+            String name = equals < 0 ? token : token.substring(0, equals).trim();
+            String value = equals < 0 ? null : token.substring(equals + 1).trim().replace("\"", "");
+            switch (name) {
+                case "no-store" -> noStore = true;
+                case "no-cache" -> noCache = true;
+                case "max-age" -> maxAge = seconds(value);
+                case "s-maxage" -> sharedMaxAge = seconds(value);
+                case "stale-while-revalidate" -> staleWhileRevalidate = seconds(value);
+                default -> {
+                    // Other directives do not change what the gateway stores
+                }
+            }
+        }
+        return new CacheControl(noStore, noCache, maxAge, sharedMaxAge, staleWhileRevalidate);
+    }
+
+    /**
+     * Freshness lifetime the origin asked for, s-maxage first as the gateway is a shared cache
+     */
+    long ttlSeconds() {
+        return sharedMaxAge >= 0 ? sharedMaxAge : maxAge;
+    }
+
+    private static long seconds(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
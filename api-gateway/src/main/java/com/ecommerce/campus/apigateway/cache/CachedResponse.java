@@ -0,0 +1,95 @@
+package com.ecommerce.campus.apigateway.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable stored response. The body is a heap or direct buffer that is only ever handed out
+ * as a read-only duplicate, so any number of responses can be written from it concurrently.
+ */
+public final class CachedResponse {
+
+    /** Rough per-entry overhead of key, headers and bookkeeping, counted against the byte budget */
+    private static final int OVERHEAD_BYTES = 512;
+
+    private final int status;
+    private final HttpHeaders headers;
+    private final ByteBuffer body;
+    private final long storedAtMs;
+    private final long freshUntilMs;
+    private final long staleUntilMs;
+    /** Encoded copies of the body by content coding, added under the cache's lock */
+    private final Map<String, ByteBuffer> variants = new ConcurrentHashMap<>(2);
+    private volatile long variantBytes;
+
+    public CachedResponse(int status, HttpHeaders headers, byte[] body, boolean offHeap,
+                          long storedAtMs, long freshUntilMs, long staleUntilMs) {
+        this.status = status;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        if (offHeap) {
+            ByteBuffer direct = ByteBuffer.allocateDirect(body.length);
+            direct.put(body).flip();
+            this.body = direct.asReadOnlyBuffer();
+        } else {
+            this.body = ByteBuffer.wrap(body).asReadOnlyBuffer();
+        }
+        this.storedAtMs = storedAtMs;
+        this.freshUntilMs = freshUntilMs;
+        this.staleUntilMs = staleUntilMs;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    /**
+     * A fresh view of the body, positioned at its start
+     */
+    public ByteBuffer body() {
+        return body.duplicate();
+    }
+
+    public int getBodyLength() {
+        return body.capacity();
+    }
+
+    /**
+     * A fresh view of the body encoded with the content coding, or null if none was stored
+     */
+    public ByteBuffer variant(String coding) {
+        ByteBuffer variant = variants.get(coding);
+        return variant != null ? variant.duplicate() : null;
+    }
+
+    void addVariant(String coding, byte[] encoded) {
+        if (variants.putIfAbsent(coding, ByteBuffer.wrap(encoded).asReadOnlyBuffer()) == null) {
+            variantBytes += encoded.length;
+        }
+    }
+
+    public long sizeInBytes() {
+        return (long) body.capacity() + variantBytes + OVERHEAD_BYTES;
+    }
+
+    public boolean isFresh(long nowMs) {
+        return nowMs < freshUntilMs;
+    }
+
+    public boolean isUsable(long nowMs) {
+        return nowMs < staleUntilMs;
+    }
+
+    /**
+     * Seconds since the response was stored, for the {@code Age} header
+     */
+    public long ageSeconds(long nowMs) {
+        return Math.max(0, (nowMs - storedAtMs) / 1_000);
+    }
+}
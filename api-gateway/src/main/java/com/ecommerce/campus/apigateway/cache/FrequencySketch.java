@@ -0,0 +1,64 @@
+package com.ecommerce.campus.apigateway.cache;
+
+/**
+ * Count-min sketch of recent access frequencies for TinyLFU admission, four rows of 4-bit style
+ * counters capped at 15. All counters are halved periodically so old popularity fades.
+ * Not thread-safe; {@link ResponseCache} calls it under its lock.
+ */
+final class FrequencySketch {
+
+    private static final int MAX_COUNT = 15;
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+
+    private final byte[][] rows = new byte[SEEDS.length][];
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int width) {
+        int size = Integer.highestOneBit(Math.max(16, width - 1)) << 1;
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new byte[size];
+        }
+        this.mask = size - 1;
+        this.sampleSize = size * 10;
+    }
+
+    void increment(String key) {
+        int hash = key.hashCode();
+        boolean added = false;
+        for (int i = 0; i < rows.length; i++) {
+            int index = index(hash, i);
+            if (rows[i][index] < MAX_COUNT) {
+                rows[i][index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            halve();
+        }
+    }
+
+    int frequency(String key) {
+        int hash = key.hashCode();
+        int min = MAX_COUNT;
+        for (int i = 0; i < rows.length; i++) {
+            min = Math.min(min, rows[i][index(hash, i)]);
+        }
+        return min;
+    }
+
+    private int index(int hash, int row) {
+        long mixed = (hash + SEEDS[row]) * SEEDS[row];
+        return (int) (mixed >>> 32) & mask;
+    }
+
+    private void halve() {
+        for (byte[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>= 1;
+            }
+        }
+        additions /= 2;
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.campus.apigateway.cache;
+
+import com.ecommerce.campus.apigateway.filter.JwtAuthenticationFilter;
+import com.ecommerce.campus.common.infrastructure.security.VerifiedToken;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Identity of a request for caching and coalescing: method, route, path, query and the verified caller.
+ * Two requests with the same key may share one upstream response.
+ */
+public final class RequestKey {
+
+    private static final String ANONYMOUS = "-";
+
+    private RequestKey() {
+    }
+
+    public static String of(ServerWebExchange exchange, Route route) {
+        ServerHttpRequest request = exchange.getRequest();
+        VerifiedToken identity = exchange.getAttribute(JwtAuthenticationFilter.VERIFIED_TOKEN_ATTR);
+        String query = request.getURI().getRawQuery();
+        return request.getMethod().name() + ' ' + route.getId() + ' '
+                + request.getPath().value() + (query != null ? '?' + query : "") + ' '
+                + (identity != null ? identity.subject() : ANONYMOUS);
+    }
+}
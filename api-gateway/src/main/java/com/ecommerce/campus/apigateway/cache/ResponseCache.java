@@ -0,0 +1,192 @@
+package com.ecommerce.campus.apigateway.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Byte-bounded response store: LRU order for eviction plus TinyLFU admission, so a burst of
+ * one-off responses cannot flush the entries that are actually read again.
+ * <p>
+ * Lookups and inserts are O(1) under one short lock; no I/O or copying happens while it is held.
+ */
+public class ResponseCache {
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final FrequencySketch sketch;
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+    private long currentBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public ResponseCache(long maxBytes, long maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+        // Sized for entries of about 1 KB; a wider sketch only costs memory
+        this.sketch = new FrequencySketch((int) Math.min(1 << 20, Math.max(1024, maxBytes / 1024)));
+    }
+
+    /**
+     * Usable (fresh or stale) response for the key, or null; counts the lookup as hit, stale hit or miss
+     */
+    public CachedResponse get(String key, long nowMs) {
+        CachedResponse response;
+        lock.lock();
+        try {
+            sketch.increment(key);
+            response = entries.get(key);
+            if (response != null && !response.isUsable(nowMs)) {
+                entries.remove(key);
+                currentBytes -= response.sizeInBytes();
+                response = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (response == null) {
+            misses.increment();
+        } else if (response.isFresh(nowMs)) {
+            hits.increment();
+        } else {
+            staleHits.increment();
+        }
+        return response;
+    }
+
+    /**
+     * Store a response, unless it is too large or less popular than what it would evict
+     *
+     * @return whether the response was stored
+     */
+    public boolean put(String key, CachedResponse response) {
+        long size = response.sizeInBytes();
+        if (size > maxEntryBytes) {
+            rejections.increment();
+            return false;
+        }
+
+        lock.lock();
+        try {
+            CachedResponse previous = entries.remove(key);
+            if (previous != null) {
+                currentBytes -= previous.sizeInBytes();
+            }
+            if (currentBytes + size > maxBytes && previous == null) {
+                Map.Entry<String, CachedResponse> victim = entries.entrySet().iterator().next();
+                if (sketch.frequency(key) <= sketch.frequency(victim.getKey())) {
+                    rejections.increment();
+                    return false;
+                }
+            }
+            Iterator<Map.Entry<String, CachedResponse>> eldest = entries.entrySet().iterator();
+            while (currentBytes + size > maxBytes && eldest.hasNext()) {
+                currentBytes -= eldest.next().getValue().sizeInBytes();
+                eldest.remove();
+                evictions.increment();
+            }
+            entries.put(key, response);
+            currentBytes += size;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Keep an encoded copy of a stored body next to it, counted against the byte budget like the body
+     *
+     * @return whether it was kept: not once the entry has been replaced or evicted, nor when the cache is full
+     */
+    public boolean putVariant(String key, CachedResponse response, String coding, byte[] encoded) {
+        lock.lock();
+        try {
+            if (entries.get(key) != response || currentBytes + encoded.length > maxBytes
+                    || response.variant(coding) != null) {
+                return false;
+            }
+            response.addVariant(coding, encoded);
+            currentBytes += encoded.length;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+            currentBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Claim the background refresh of a stale entry; only one caller per key gets true
+     */
+    public boolean startRevalidation(String key) {
+        return revalidating.add(key);
+    }
+
+    public void finishRevalidation(String key) {
+        revalidating.remove(key);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getStaleHitCount() {
+        return staleHits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+
+    public long getSizeInBytes() {
+        lock.lock();
+        try {
+            return currentBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getEntryCount() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getHitRatio() {
+        long served = hits.sum() + staleHits.sum();
+        long total = served + misses.sum();
+        return total == 0 ? 0.0 : (double) served / total;
+    }
+}
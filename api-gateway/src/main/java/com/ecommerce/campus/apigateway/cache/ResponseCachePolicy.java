@@ -0,0 +1,86 @@
+package com.ecommerce.campus.apigateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Decides whether an upstream response may be stored, for how long, and which of its headers are kept.
+ */
+public class ResponseCachePolicy {
+
+    /** Per-exchange or hop-by-hop headers that must not be replayed from the cache */
+    private static final Set<String> EXCLUDED_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "content-length", "date", "age", "set-cookie",
+            "x-request-id", "x-cache");
+
+    private final boolean offHeap;
+
+    public ResponseCachePolicy(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Whether a response with this status and these headers can be stored at all, checked before its body is read
+     */
+    public boolean isCacheable(int status, HttpHeaders headers) {
+        if (status != HttpStatus.OK.value() || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        CacheControl cacheControl = CacheControl.parse(headers.getCacheControl());
+        if (cacheControl.noStore() || cacheControl.noCache() || cacheControl.ttlSeconds() == 0) {
+            return false;
+        }
+        // The key does not vary on request headers, except that compressed variants are handled downstream
+        for (String vary : headers.getVary()) {
+            if (!vary.equalsIgnoreCase(HttpHeaders.ACCEPT_ENCODING)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public CachedResponse toCachedResponse(int status, HttpHeaders headers, byte[] body,
+                                           ResponseCacheProperties.Route route, long nowMs) {
+        CacheControl cacheControl = CacheControl.parse(headers.getCacheControl());
+        long ttlMs = cacheControl.ttlSeconds() >= 0 ? cacheControl.ttlSeconds() * 1_000 : route.getTtl().toMillis();
+        long staleMs = cacheControl.staleWhileRevalidate() >= 0
+                ? cacheControl.staleWhileRevalidate() * 1_000 : route.getStaleWhileRevalidate().toMillis();
+
+        return new CachedResponse(status, replayableHeaders(headers), body, offHeap,
+                nowMs, nowMs + ttlMs, nowMs + ttlMs + staleMs);
+    }
+
+    /**
+     * Copy of the response headers that may be sent again on another exchange
+     */
+    public static HttpHeaders replayableHeaders(HttpHeaders headers) {
+        HttpHeaders replayable = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            String lower = name.toLowerCase(Locale.ROOT);
+            if (!EXCLUDED_HEADERS.contains(lower) && !lower.startsWith("access-control-")) {
+                replayable.put(name, List.copyOf(values));
+            }
+        });
+        return replayable;
+    }
+
+    /**
+     * Whether the client asked not to be served from a cache
+     */
+    public static boolean bypassLookup(HttpHeaders requestHeaders) {
+        CacheControl cacheControl = CacheControl.parse(requestHeaders.getCacheControl());
+        return cacheControl.noCache() || cacheControl.noStore() || cacheControl.maxAge() == 0
+                || "no-cache".equalsIgnoreCase(requestHeaders.getFirst(HttpHeaders.PRAGMA));
+    }
+
+    /**
+     * Whether the client forbade storing this exchange
+     */
+    public static boolean forbidsStore(HttpHeaders requestHeaders) {
+        return CacheControl.parse(requestHeaders.getCacheControl()).noStore();
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.campus.apigateway.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Response cache settings bound from {@code gateway.response-cache}.
+ * Only GET requests on the listed routes are cached.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    /** Total size of stored bodies plus a small per-entry overhead */
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    /** Larger responses are passed through without being stored */
+    private DataSize maxEntrySize = DataSize.ofKilobytes(512);
+
+    /** Keep bodies in direct buffers, outside the Java heap */
+    private boolean offHeap = false;
+
+    /** Opted-in routes by route id */
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Route {
+        /** Freshness when the response carries no max-age or s-maxage */
+        private Duration ttl = Duration.ofSeconds(30);
+        /** How long a stale response may still be served while it is refreshed, unless the response says otherwise */
+        private Duration staleWhileRevalidate = Duration.ofSeconds(10);
+    }
+}
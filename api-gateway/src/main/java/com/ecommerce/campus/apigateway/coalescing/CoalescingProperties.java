@@ -0,0 +1,31 @@
+package com.ecommerce.campus.apigateway.coalescing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request coalescing settings bound from {@code gateway.coalescing}.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.coalescing")
+public class CoalescingProperties {
+
+    private boolean enabled = true;
+
+    /** Route ids whose GET requests are coalesced */
+    private List<String> routes = new ArrayList<>();
+
+    /** Responses larger than this are not shared; waiting requests then go upstream themselves */
+    private DataSize maxBodySize = DataSize.ofKilobytes(256);
+
+    /** Requests that may wait on one upstream call; the rest go upstream themselves */
+    private int maxWaiters = 1000;
+
+    /** Longest a request waits on another's upstream call before making its own */
+    private Duration maxWait = Duration.ofSeconds(10);
+}
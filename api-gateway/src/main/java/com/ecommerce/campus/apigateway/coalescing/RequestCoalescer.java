@@ -0,0 +1,113 @@
+package com.ecommerce.campus.apigateway.coalescing;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single-flight table: the first request for a key becomes the leader and calls upstream, identical
+ * requests arriving while it is in flight wait for its response instead.
+ */
+public class RequestCoalescer {
+
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+    private final int maxWaiters;
+
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+
+    public RequestCoalescer(int maxWaiters) {
+        this.maxWaiters = maxWaiters;
+    }
+
+    /**
+     * Start a flight for the key, or return null if one is already in flight
+     */
+    public Flight lead(String key) {
+        Flight created = new Flight(key);
+        if (flights.putIfAbsent(key, created) == null) {
+            leaders.increment();
+            return created;
+        }
+        return null;
+    }
+
+    /**
+     * Wait on the flight in progress for the key. Empty when there is none any more, when it is
+     * already full, or when its response cannot be shared: the caller then goes upstream itself.
+     */
+    public Mono<SharedResponse> follow(String key) {
+        Flight flight = flights.get(key);
+        if (flight == null) {
+            return Mono.empty();
+        }
+        if (flight.waiters.incrementAndGet() > maxWaiters) {
+            flight.waiters.decrementAndGet();
+            overflows.increment();
+            return Mono.empty();
+        }
+        return flight.result.asMono()
+                .doOnNext(response -> coalesced.increment())
+                .switchIfEmpty(Mono.fromRunnable(fallbacks::increment));
+    }
+
+    public long getLeaderCount() {
+        return leaders.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getFallbackCount() {
+        return fallbacks.sum();
+    }
+
+    public long getOverflowCount() {
+        return overflows.sum();
+    }
+
+    public int getInFlightCount() {
+        return flights.size();
+    }
+
+    /**
+     * One upstream call and the requests waiting on it
+     */
+    public final class Flight {
+
+        private final String key;
+        private final Sinks.One<SharedResponse> result = Sinks.one();
+        private final AtomicInteger waiters = new AtomicInteger();
+
+        private Flight(String key) {
+            this.key = key;
+        }
+
+        /**
+         * Hand the leader's response to the waiters; later calls are ignored
+         */
+        public void complete(SharedResponse response) {
+            flights.remove(key, this);
+            result.tryEmitValue(response);
+        }
+
+        /**
+         * The leader's response cannot be shared; waiters go upstream themselves
+         */
+        public void abandon() {
+            flights.remove(key, this);
+            result.tryEmitEmpty();
+        }
+
+        public int getWaiterCount() {
+            return waiters.get();
+        }
+    }
+}
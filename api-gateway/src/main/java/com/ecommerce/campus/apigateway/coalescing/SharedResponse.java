@@ -0,0 +1,9 @@
+package com.ecommerce.campus.apigateway.coalescing;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * A buffered upstream response handed to every request coalesced onto the same call.
+ */
+public record SharedResponse(int status, HttpHeaders headers, byte[] body) {
+}
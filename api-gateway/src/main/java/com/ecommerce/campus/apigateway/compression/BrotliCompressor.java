@@ -0,0 +1,59 @@
+package com.ecommerce.campus.apigateway.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.BrotliEncoder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Brotli through Netty's encoder, driven by an embedded channel. Only used when
+ * {@link io.netty.handler.codec.compression.Brotli#isAvailable()}, as it needs Brotli4j's native library.
+ */
+final class BrotliCompressor implements Compressor {
+
+    private final EmbeddedChannel channel = new EmbeddedChannel(new BrotliEncoder());
+    private boolean closed;
+
+    @Override
+    public byte[] update(ByteBuffer input) {
+        channel.writeOutbound(Unpooled.wrappedBuffer(input));
+        // The encoder takes the whole chunk synchronously
+        input.position(input.limit());
+        return drain();
+    }
+
+    @Override
+    public byte[] finish() {
+        channel.finish();
+        return drain();
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    private byte[] drain() {
+        ByteArrayOutputStream out = null;
+        ByteBuf encoded;
+        while ((encoded = channel.readOutbound()) != null) {
+            try {
+                if (out == null) {
+                    out = new ByteArrayOutputStream(encoded.readableBytes());
+                }
+                byte[] bytes = new byte[encoded.readableBytes()];
+                encoded.readBytes(bytes);
+                out.write(bytes, 0, bytes.length);
+            } finally {
+                encoded.release();
+            }
+        }
+        return out != null ? out.toByteArray() : EMPTY;
+    }
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.campus.apigateway.compression;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response compression settings bound from {@code gateway.compression}.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.compression")
+public class CompressionProperties {
+
+    private boolean enabled = true;
+
+    /** Smaller bodies are sent as they are; compressing less than about one packet saves nothing */
+    private DataSize minSize = DataSize.ofKilobytes(1);
+
+    /** Deflate level for gzip and deflate, 1 (fastest) to 9 (smallest) */
+    private int level = 6;
+
+    /** Offer br when the Brotli native library is on the classpath */
+    private boolean brotli = true;
+
+    /** Compressed content types; +json and +xml subtypes are included with their base types */
+    private List<String> mimeTypes = new ArrayList<>(List.of(
+            "application/json", "application/xml", "application/javascript",
+            "text/html", "text/plain", "text/css", "text/xml", "text/javascript"));
+
+    /** Routes whose responses are never compressed */
+    private List<String> excludedRoutes = new ArrayList<>();
+}
@@ -0,0 +1,185 @@
+package com.ecommerce.campus.apigateway.compression;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Content negotiation and per-route counters for response compression. Counters are created and
+ * registered with Micrometer on first use.
+ * <p>
+ * Clients send only a handful of distinct {@code Accept-Encoding} values, so each is parsed once
+ * and its answer kept.
+ */
+public class CompressionRegistry {
+
+    /** Distinct Accept-Encoding values whose negotiation result is kept */
+    private static final int NEGOTIATION_CACHE_SIZE = 256;
+
+    private final CompressionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final List<ContentCoding> codings;
+    private final Set<String> mimeTypes;
+    private final Set<String> excludedRoutes;
+    private final Map<String, Optional<ContentCoding>> negotiated = new ConcurrentHashMap<>();
+    private final Map<String, RouteCompression> routes = new ConcurrentHashMap<>();
+
+    public CompressionRegistry(CompressionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.codings = Arrays.stream(ContentCoding.values())
+                .filter(coding -> coding != ContentCoding.BR || properties.isBrotli())
+                .filter(ContentCoding::isAvailable)
+                .toList();
+        this.mimeTypes = properties.getMimeTypes().stream()
+                .map(MediaType::parseMediaType)
+                .map(type -> type.getType() + "/" + type.getSubtype())
+                .collect(Collectors.toUnmodifiableSet());
+        this.excludedRoutes = Set.copyOf(properties.getExcludedRoutes());
+    }
+
+    public boolean isEnabled(String routeId) {
+        return properties.isEnabled() && !excludedRoutes.contains(routeId);
+    }
+
+    public int getLevel() {
+        return properties.getLevel();
+    }
+
+    public long getMinSize() {
+        return properties.getMinSize().toBytes();
+    }
+
+    /**
+     * Codings this gateway can produce, most preferred first
+     */
+    public List<ContentCoding> getCodings() {
+        return codings;
+    }
+
+    /**
+     * Best coding the {@code Accept-Encoding} value allows, or null to send the body as it is
+     */
+    public ContentCoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return null;
+        }
+        Optional<ContentCoding> result = negotiated.get(acceptEncoding);
+        if (result == null) {
+            result = Optional.ofNullable(parse(acceptEncoding));
+            if (negotiated.size() < NEGOTIATION_CACHE_SIZE) {
+                negotiated.put(acceptEncoding, result);
+            }
+        }
+        return result.orElse(null);
+    }
+
+    /**
+     * Whether bodies of this content type are worth compressing
+     */
+    public boolean isCompressible(MediaType contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        // application/problem+json is compressed like application/json
+        String subtype = contentType.getSubtypeSuffix() != null ? contentType.getSubtypeSuffix() : contentType.getSubtype();
+        return mimeTypes.contains(contentType.getType() + "/" + subtype);
+    }
+
+    public RouteCompression get(String routeId) {
+        RouteCompression route = routes.get(routeId);
+        return route != null ? route : routes.computeIfAbsent(routeId, this::create);
+    }
+
+    public Map<String, RouteCompression> getAll() {
+        return Collections.unmodifiableMap(routes);
+    }
+
+    /**
+     * Highest q-value wins; ties go to the more preferred coding, {@code *} stands for any coding not listed
+     */
+    private ContentCoding parse(String acceptEncoding) {
+        double[] quality = new double[ContentCoding.values().length];
+        Arrays.fill(quality, -1);
+        double wildcard = -1;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String token = parts[0].trim();
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        q = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if ("*".equals(token)) {
+                wildcard = q;
+                continue;
+            }
+            for (ContentCoding coding : codings) {
+                if (coding.token().equalsIgnoreCase(token)) {
+                    quality[coding.ordinal()] = q;
+                }
+            }
+        }
+        ContentCoding best = null;
+        double bestQuality = 0;
+        for (ContentCoding coding : codings) {
+            double q = quality[coding.ordinal()] >= 0 ? quality[coding.ordinal()] : wildcard;
+            if (q > bestQuality) {
+                best = coding;
+                bestQuality = q;
+            }
+        }
+        return best;
+    }
+
+    private RouteCompression create(String routeId) {
+        RouteCompression route = new RouteCompression(routeId);
+        Tags tags = Tags.of("route", routeId);
+        FunctionCounter.builder("gateway.compression.responses", route, RouteCompression::getCompressedCount)
+                .tags(tags.and("result", "compressed"))
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.compression.responses", route, RouteCompression::getReusedCount)
+                .tags(tags.and("result", "reused"))
+                .description("Compressed bodies served from the response cache without encoding them again")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.compression.responses", route, RouteCompression::getSkippedCount)
+                .tags(tags.and("result", "below_threshold"))
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.compression.bytes", route, RouteCompression::getBytesIn)
+                .tags(tags.and("stage", "original"))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.compression.bytes", route, RouteCompression::getBytesOut)
+                .tags(tags.and("stage", "compressed"))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.compression.bytes.saved", route, RouteCompression::getBytesSaved)
+                .tags(tags)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionTimer.builder("gateway.compression.time", route,
+                        RouteCompression::getCompressedCount, RouteCompression::getCompressNanos, TimeUnit.NANOSECONDS)
+                .tags(tags)
+                .description("Time spent in the encoder, on the event loop")
+                .register(meterRegistry);
+        return route;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ecommerce.campus.apigateway.compression;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Streaming encoder for one response body. Not thread-safe; a body's chunks arrive one at a time.
+ */
+public interface Compressor {
+
+    byte[] EMPTY = new byte[0];
+
+    /**
+     * Encode the next chunk, consuming all of it. Encoders hold small inputs back, so the result may be empty.
+     */
+    byte[] update(ByteBuffer input);
+
+    /**
+     * Flush what was held back and end the stream
+     */
+    byte[] finish();
+
+    /**
+     * Free native memory; safe to call more than once and without finishing
+     */
+    void close();
+
+    /**
+     * Encode a whole body at once
+     */
+    default byte[] compress(ByteBuffer body) {
+        try {
+            byte[] head = update(body);
+            byte[] tail = finish();
+            byte[] all = new byte[head.length + tail.length];
+            System.arraycopy(head, 0, all, 0, head.length);
+            System.arraycopy(tail, 0, all, head.length, tail.length);
+            return all;
+        } finally {
+            close();
+        }
+    }
+}
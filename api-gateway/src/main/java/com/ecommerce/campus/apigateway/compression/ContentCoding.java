@@ -0,0 +1,38 @@
+package com.ecommerce.campus.apigateway.compression;
+
+import io.netty.handler.codec.compression.Brotli;
+
+/**
+ * Content codings the gateway can produce, in order of preference when a client accepts several equally.
+ */
+public enum ContentCoding {
+
+    BR("br"),
+    GZIP("gzip"),
+    DEFLATE("deflate");
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Name in {@code Accept-Encoding} and {@code Content-Encoding}
+     */
+    public String token() {
+        return token;
+    }
+
+    public boolean isAvailable() {
+        return this != BR || Brotli.isAvailable();
+    }
+
+    public Compressor newCompressor(int level) {
+        return switch (this) {
+            case BR -> new BrotliCompressor();
+            case GZIP -> new DeflateCompressor(level, true);
+            case DEFLATE -> new DeflateCompressor(level, false);
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package com.ecommerce.campus.apigateway.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * gzip or deflate (zlib format, as HTTP defines it) on top of the JDK's {@link Deflater}.
+ * gzip is raw deflate data framed by a fixed header and a CRC-32/length trailer written here.
+ */
+final class DeflateCompressor implements Compressor {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final Deflater deflater;
+    private final CRC32 crc;
+    private final byte[] chunk = new byte[8192];
+    private boolean headerWritten;
+    private boolean closed;
+
+    DeflateCompressor(int level, boolean gzip) {
+        this.deflater = new Deflater(level, gzip);
+        this.crc = gzip ? new CRC32() : null;
+        this.headerWritten = !gzip;
+    }
+
+    @Override
+    public byte[] update(ByteBuffer input) {
+        int expected = input.remaining() / 2;
+        if (crc != null) {
+            crc.update(input.duplicate());
+        }
+        deflater.setInput(input);
+        ByteArrayOutputStream out = null;
+        if (!headerWritten) {
+            out = new ByteArrayOutputStream(expected + GZIP_HEADER.length);
+            out.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+            headerWritten = true;
+        }
+        while (!deflater.needsInput()) {
+            int length = deflater.deflate(chunk);
+            if (length > 0) {
+                if (out == null) {
+                    out = new ByteArrayOutputStream(Math.max(length, expected));
+                }
+                out.write(chunk, 0, length);
+            }
+        }
+        return out != null ? out.toByteArray() : EMPTY;
+    }
+
+    @Override
+    public byte[] finish() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        if (!headerWritten) {
+            out.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+            headerWritten = true;
+        }
+        deflater.finish();
+        while (!deflater.finished()) {
+            out.write(chunk, 0, deflater.deflate(chunk));
+        }
+        if (crc != null) {
+            writeIntLe(out, crc.getValue());
+            writeIntLe(out, deflater.getBytesRead());
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            deflater.end();
+        }
+    }
+
+    private static void writeIntLe(ByteArrayOutputStream out, long value) {
+        out.write((int) value);
+        out.write((int) (value >>> 8));
+        out.write((int) (value >>> 16));
+        out.write((int) (value >>> 24));
+    }
+}
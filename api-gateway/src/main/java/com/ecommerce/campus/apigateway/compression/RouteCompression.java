@@ -0,0 +1,84 @@
+package com.ecommerce.campus.apigateway.compression;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compression counters of one route.
+ */
+public class RouteCompression {
+
+    private final String routeId;
+    private final LongAdder compressed = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+    private final LongAdder compressNanos = new LongAdder();
+
+    public RouteCompression(String routeId) {
+        this.routeId = routeId;
+    }
+
+    /**
+     * A body compressed here, with the time spent in the encoder
+     */
+    public void recordCompressed(long originalBytes, long compressedBytes, long nanos) {
+        compressed.increment();
+        compressNanos.add(nanos);
+        recordBytes(originalBytes, compressedBytes);
+    }
+
+    /**
+     * A stored compressed body sent again without encoding it
+     */
+    public void recordReused(long originalBytes, long compressedBytes) {
+        reused.increment();
+        recordBytes(originalBytes, compressedBytes);
+    }
+
+    /**
+     * A compressible body sent as it is, being below the size threshold
+     */
+    public void recordSkipped() {
+        skipped.increment();
+    }
+
+    private void recordBytes(long originalBytes, long compressedBytes) {
+        bytesIn.add(originalBytes);
+        bytesOut.add(compressedBytes);
+        bytesSaved.add(Math.max(0, originalBytes - compressedBytes));
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public long getCompressedCount() {
+        return compressed.sum();
+    }
+
+    public long getReusedCount() {
+        return reused.sum();
+    }
+
+    public long getSkippedCount() {
+        return skipped.sum();
+    }
+
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    public long getBytesSaved() {
+        return bytesSaved.sum();
+    }
+
+    public double getCompressNanos() {
+        return compressNanos.sum();
+    }
+}
@@ -0,0 +1,175 @@
+package com.ecommerce.campus.apigateway.concurrency;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Vegas-style adaptive concurrency limit for one upstream.
+ * <p>
+ * The queue building up at the upstream is estimated each window from the gradient between its
+ * unloaded and current round trip: {@code queue = limit * (1 - rttNoLoad / rtt)}. The limit grows while
+ * that queue is short, shrinks once it exceeds a few requests (both thresholds scale with log10 of the
+ * limit) and backs off multiplicatively on errors. Requests beyond the limit are rejected at once.
+ * <p>
+ * The unloaded round trip is the lowest window average seen (single calls vary too much to be a
+ * baseline). Every probe interval the limit is halved for one
+ * window, which drains the upstream's queue so the minimum can be measured again.
+ * <p>
+ * Acquiring is one CAS; samples go to striped adders and only the thread closing a window does the math.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final int minWindowSamples;
+    private final long probeIntervalNanos;
+    private final double backoff;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder shed = new LongAdder();
+
+    private final LongAdder windowSamples = new LongAdder();
+    private final LongAdder windowRttNanos = new LongAdder();
+    private final LongAdder windowDrops = new LongAdder();
+    private final LongAccumulator windowMaxInFlight = new LongAccumulator(Math::max, 0);
+    private final AtomicBoolean updating = new AtomicBoolean();
+
+    /** Guarded by {@link #updating} */
+    private double estimatedLimit;
+    private long windowStartNanos;
+    private long nextProbeNanos;
+    private boolean probing;
+
+    private volatile int limit;
+    private volatile long noLoadRttNanos;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, long nowNanos) {
+        this.minLimit = Math.max(1, properties.getMinLimit());
+        this.maxLimit = Math.max(minLimit, properties.getMaxLimit());
+        this.windowNanos = properties.getWindow().toNanos();
+        this.minWindowSamples = properties.getMinWindowSamples();
+        this.probeIntervalNanos = properties.getProbeInterval().toNanos();
+        this.backoff = properties.getBackoff();
+        this.estimatedLimit = Math.clamp(properties.getInitialLimit(), minLimit, maxLimit);
+        this.limit = (int) estimatedLimit;
+        this.windowStartNanos = nowNanos;
+        this.nextProbeNanos = nowNanos + probeIntervalNanos;
+    }
+
+    /**
+     * Take an in-flight slot, or count the request as shed if the limit is reached
+     */
+    public boolean tryAcquire() {
+        int current = inFlight.get();
+        while (current < limit) {
+            if (inFlight.compareAndSet(current, current + 1)) {
+                windowMaxInFlight.accumulate(current + 1);
+                return true;
+            }
+            current = inFlight.get();
+        }
+        shed.increment();
+        return false;
+    }
+
+    /**
+     * Free the slot of a completed call and feed its round trip to the limit.
+     *
+     * @param dropped whether the upstream failed or answered 5xx
+     */
+    public void onSample(long startNanos, long endNanos, boolean dropped) {
+        inFlight.decrementAndGet();
+        long rtt = endNanos - startNanos;
+        windowSamples.increment();
+        windowRttNanos.add(rtt);
+        if (dropped) {
+            windowDrops.increment();
+        }
+        if (endNanos - windowStartNanos >= windowNanos && windowSamples.sum() >= minWindowSamples
+                && updating.compareAndSet(false, true)) {
+            try {
+                closeWindow(endNanos);
+            } finally {
+                updating.set(false);
+            }
+        }
+    }
+
+    /**
+     * Free the slot of a call that says nothing about the upstream, such as a cancelled one
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    private void closeWindow(long nowNanos) {
+        long samples = windowSamples.sumThenReset();
+        long averageRtt = windowRttNanos.sumThenReset() / Math.max(1, samples);
+        long maxInFlight = windowMaxInFlight.getThenReset();
+        boolean dropped = windowDrops.sumThenReset() > 0;
+        windowStartNanos = nowNanos;
+
+        if (probing) {
+            // The halved limit drained the upstream's queue: this is its unloaded round trip
+            probing = false;
+            noLoadRttNanos = averageRtt;
+            nextProbeNanos = nowNanos + probeIntervalNanos;
+            limit = (int) estimatedLimit;
+            return;
+        }
+        if (noLoadRttNanos == 0 || averageRtt < noLoadRttNanos) {
+            noLoadRttNanos = averageRtt;
+        }
+
+        double current = estimatedLimit;
+        double log = Math.max(1, Math.log10(current));
+        double next;
+        if (dropped) {
+            next = current * backoff;
+        } else if (maxInFlight * 2 < current) {
+            // Traffic did not come close to the limit, so the round trips say nothing about it
+            next = current;
+        } else {
+            double queue = current * (1 - (double) noLoadRttNanos / averageRtt);
+            if (queue <= log) {
+                next = current + 6 * log;
+            } else if (queue < 3 * log) {
+                next = current + log;
+            } else if (queue > 6 * log) {
+                next = current - log;
+            } else {
+                next = current;
+            }
+        }
+        estimatedLimit = Math.clamp(next, minLimit, maxLimit);
+
+        if (nowNanos >= nextProbeNanos) {
+            probing = true;
+            limit = Math.max(minLimit, (int) estimatedLimit / 2);
+        } else {
+            limit = (int) estimatedLimit;
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getShedCount() {
+        return shed.sum();
+    }
+
+    /**
+     * Smallest round trip of the upstream, the baseline its queueing is measured against
+     */
+    public double getNoLoadRttMs() {
+        return noLoadRttNanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.campus.apigateway.concurrency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adaptive concurrency limit settings bound from {@code gateway.concurrency-limit}.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Route ids left unlimited; forward: routes never are */
+    private List<String> excludedRoutes = new ArrayList<>();
+
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 1000;
+
+    /** Round trips are averaged over this period before the limit is adjusted */
+    private Duration window = Duration.ofMillis(100);
+    private int minWindowSamples = 10;
+
+    /** How often the limit is halved for one window to measure the upstream's unloaded round trip */
+    private Duration probeInterval = Duration.ofSeconds(10);
+
+    /** Factor the limit is multiplied by after a window with errors or 5xx */
+    private double backoff = 0.9;
+
+    /** Retry-After sent with shed requests */
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
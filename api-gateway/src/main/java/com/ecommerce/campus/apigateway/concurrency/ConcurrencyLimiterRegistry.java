@@ -0,0 +1,64 @@
+package com.ecommerce.campus.apigateway.concurrency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One adaptive limiter per upstream route, created and registered with Micrometer on first use.
+ */
+public class ConcurrencyLimiterRegistry {
+
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> excludedRoutes;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimiterRegistry(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.excludedRoutes = new HashSet<>(properties.getExcludedRoutes());
+    }
+
+    /**
+     * Limiter of the route, or null if the route is not limited
+     */
+    public AdaptiveConcurrencyLimiter get(String routeId) {
+        if (!properties.isEnabled() || excludedRoutes.contains(routeId)) {
+            return null;
+        }
+        AdaptiveConcurrencyLimiter limiter = limiters.get(routeId);
+        return limiter != null ? limiter : limiters.computeIfAbsent(routeId, this::create);
+    }
+
+    public Map<String, AdaptiveConcurrencyLimiter> getAll() {
+        return Collections.unmodifiableMap(limiters);
+    }
+
+    private AdaptiveConcurrencyLimiter create(String routeId) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, System.nanoTime());
+        Tags tags = Tags.of("route", routeId);
+        Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.rtt.noload", limiter, AdaptiveConcurrencyLimiter::getNoLoadRttMs)
+                .tags(tags)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.concurrency.shed", limiter, AdaptiveConcurrencyLimiter::getShedCount)
+                .tags(tags)
+                .description("Requests rejected with 503 because the route was at its concurrency limit")
+                .register(meterRegistry);
+        return limiter;
+    }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.campus.apigateway.config;
+
+import com.ecommerce.campus.apigateway.accesslog.AccessLogProperties;
+import com.ecommerce.campus.apigateway.accesslog.AccessLogRingBuffer;
+import com.ecommerce.campus.apigateway.accesslog.AccessLogSampler;
+import com.ecommerce.campus.apigateway.accesslog.AccessLogWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.FileDescriptor;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(AccessLogProperties.class)
+public class AccessLogConfig {
+
+    @Bean
+    public AccessLogRingBuffer accessLogRingBuffer(AccessLogProperties properties, MeterRegistry meterRegistry) {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(properties.getBufferSize());
+        FunctionCounter.builder("gateway.accesslog.dropped", buffer, AccessLogRingBuffer::getDroppedCount)
+                .description("Access log records lost because the writer fell behind")
+                .register(meterRegistry);
+        return buffer;
+    }
+
+    @Bean
+    public AccessLogSampler accessLogSampler(AccessLogProperties properties) {
+        return new AccessLogSampler(properties.getSampling(), properties.getRouteSampling());
+    }
+
+    @Bean(destroyMethod = "close")
+    public AccessLogWriter accessLogWriter(AccessLogProperties properties,
+                                           AccessLogRingBuffer buffer,
+                                           MeterRegistry meterRegistry) throws Exception {
+        AccessLogWriter writer = new AccessLogWriter(buffer, openOutput(properties),
+                properties.getBatchSize(), properties.getIdleWait());
+        FunctionCounter.builder("gateway.accesslog.written", writer, AccessLogWriter::getWrittenCount)
+                .register(meterRegistry);
+        if (properties.isEnabled()) {
+            writer.start();
+            log.info("Access log writing to {}", properties.getOutput() == AccessLogProperties.Output.FILE
+                    ? properties.getFile() : "stdout");
+        }
+        return writer;
+    }
+
+    private OutputStream openOutput(AccessLogProperties properties) throws Exception {
+        if (properties.getOutput() == AccessLogProperties.Output.STDOUT) {
+            // Not System.out: its PrintStream locks and flushes on every line
+            return new FileOutputStream(FileDescriptor.out);
+        }
+        Path file = Path.of(properties.getFile());
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try {
+            return new FileOutputStream(file.toFile(), true);
+        } catch (FileNotFoundException e) {
+            throw new IllegalStateException("Cannot open access log file " + file, e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.campus.apigateway.config;
+
+import com.ecommerce.campus.apigateway.coalescing.CoalescingProperties;
+import com.ecommerce.campus.apigateway.coalescing.RequestCoalescer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CoalescingProperties.class)
+public class CoalescingConfig {
+
+    @Bean
+    public RequestCoalescer requestCoalescer(CoalescingProperties properties, MeterRegistry meterRegistry) {
+        RequestCoalescer coalescer = new RequestCoalescer(properties.getMaxWaiters());
+        FunctionCounter.builder("gateway.coalescing.requests", coalescer, RequestCoalescer::getLeaderCount)
+                .tag("result", "leader")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.coalescing.requests", coalescer, RequestCoalescer::getCoalescedCount)
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.coalescing.requests", coalescer, RequestCoalescer::getFallbackCount)
+                .tag("result", "fallback")
+                .description("Waiters that went upstream because the shared response could not be used")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.coalescing.requests", coalescer, RequestCoalescer::getOverflowCount)
+                .tag("result", "overflow")
+                .description("Requests that went upstream because the flight already had max-waiters")
+                .register(meterRegistry);
+        Gauge.builder("gateway.coalescing.inflight", coalescer, RequestCoalescer::getInFlightCount)
+                .register(meterRegistry);
+        return coalescer;
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.campus.apigateway.config;
+
+import com.ecommerce.campus.apigateway.compression.CompressionProperties;
+import com.ecommerce.campus.apigateway.compression.CompressionRegistry;
+import com.ecommerce.campus.apigateway.compression.ContentCoding;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(CompressionProperties.class)
+public class CompressionConfig {
+
+    @Bean
+    public CompressionRegistry compressionRegistry(CompressionProperties properties, MeterRegistry meterRegistry) {
+        CompressionRegistry registry = new CompressionRegistry(properties, meterRegistry);
+        if (properties.isEnabled()) {
+            log.info("Compressing responses from {} with {}", properties.getMinSize(),
+                    registry.getCodings().stream().map(ContentCoding::token).toList());
+        }
+        return registry;
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.campus.apigateway.config;
+
+import com.ecommerce.campus.apigateway.concurrency.ConcurrencyLimitProperties;
+import com.ecommerce.campus.apigateway.concurrency.ConcurrencyLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public ConcurrencyLimiterRegistry concurrencyLimiterRegistry(ConcurrencyLimitProperties properties,
+                                                                 MeterRegistry meterRegistry) {
+        return new ConcurrencyLimiterRegistry(properties, meterRegistry);
+    }
+}
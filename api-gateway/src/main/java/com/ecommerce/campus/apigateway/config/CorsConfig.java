@@ -0,0 +1,38 @@
+package com.ecommerce.campus.apigateway.config;
+
+import com.ecommerce.campus.apigateway.cors.CorsEngine;
+import com.ecommerce.campus.apigateway.cors.CorsProperties;
+import com.ecommerce.campus.apigateway.cors.UpstreamCorsHeadersFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CorsProperties.class)
+public class CorsConfig {
+
+    @Bean
+    public CorsEngine corsEngine(CorsProperties properties, MeterRegistry meterRegistry) {
+        CorsEngine engine = new CorsEngine(properties);
+        FunctionCounter.builder("gateway.cors.preflight", engine, CorsEngine::getPreflightsAnswered)
+                .tag("result", "answered")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.cors.preflight", engine, CorsEngine::getPreflightsRejected)
+                .tag("result", "rejected")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.cors.denied", engine, CorsEngine::getDeniedCount)
+                .description("Requests from origins no CORS policy allows")
+                .register(meterRegistry);
+        Gauge.builder("gateway.cors.origins.cached", engine, CorsEngine::getCachedOriginCount)
+                .register(meterRegistry);
+        return engine;
+    }
+
+    @Bean
+    public UpstreamCorsHeadersFilter upstreamCorsHeadersFilter(CorsProperties properties) {
+        return new UpstreamCorsHeadersFilter(properties.isEnabled());
+    }
+}
@@ -0,0 +1,79 @@
+package com.ecommerce.campus.apigateway.config;
+
+import com.ecommerce.campus.apigateway.routing.ConsulKvRouteSource;
+import com.ecommerce.campus.apigateway.routing.DynamicRouteDefinitionLocator;
+import com.ecommerce.campus.apigateway.routing.DynamicRouteProperties;
+import com.ecommerce.campus.apigateway.routing.FileRouteSource;
+import com.ecommerce.campus.apigateway.routing.RouteReloader;
+import com.ecommerce.campus.apigateway.routing.RouteSource;
+import com.ecommerce.campus.apigateway.routing.RouteTableParser;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.predicate.RoutePredicateFactory;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Configuration
+@EnableConfigurationProperties(DynamicRouteProperties.class)
+public class DynamicRouteConfig {
+
+    @Bean
+    public DynamicRouteDefinitionLocator dynamicRouteDefinitionLocator() {
+        return new DynamicRouteDefinitionLocator();
+    }
+
+    @Bean
+    public RouteReloader routeReloader(DynamicRouteDefinitionLocator locator,
+                                       List<RoutePredicateFactory<?>> predicates,
+                                       List<GatewayFilterFactory<?>> filters,
+                                       GatewayProperties gatewayProperties,
+                                       ApplicationEventPublisher publisher,
+                                       MeterRegistry meterRegistry) {
+        RouteTableParser parser = new RouteTableParser(
+                predicates.stream().map(RoutePredicateFactory::name).collect(Collectors.toSet()),
+                filters.stream().map(GatewayFilterFactory::name).collect(Collectors.toSet()),
+                gatewayProperties.getRoutes().stream().map(RouteDefinition::getId).collect(Collectors.toSet()));
+        RouteReloader reloader = new RouteReloader(locator, parser, publisher);
+
+        Gauge.builder("gateway.routes.table.version", reloader, r -> r.getActiveTable().version())
+                .register(meterRegistry);
+        Gauge.builder("gateway.routes.reload.latency", reloader, RouteReloader::getLastReloadMs)
+                .baseUnit("milliseconds")
+                .description("Time from reading the last route document to routing with it")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.routes.reloads", reloader, RouteReloader::getAppliedCount)
+                .tag("result", "applied")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.routes.reloads", reloader, RouteReloader::getRejectedCount)
+                .tag("result", "rejected")
+                .register(meterRegistry);
+        return reloader;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public RouteSource routeSource(DynamicRouteProperties properties, RouteReloader reloader) {
+        return switch (properties.getSource()) {
+            case FILE -> new FileRouteSource(Path.of(properties.getFile()), properties.getPollInterval(), reloader);
+            case CONSUL -> new ConsulKvRouteSource(properties, reloader);
+            case NONE -> new RouteSource() {
+                @Override
+                public void start() {
+                }
+
+                @Override
+                public void stop() {
+                }
+            };
+        };
+    }
+}
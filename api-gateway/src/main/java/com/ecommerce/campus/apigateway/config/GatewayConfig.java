@@ -1,20 +1,54 @@
 package com.ecommerce.campus.apigateway.config;
 
+import com.ecommerce.campus.apigateway.routing.IndexedRoutePredicateHandlerMapping;
+import com.ecommerce.campus.apigateway.routing.RouteIndex;
+import com.ecommerce.campus.apigateway.routing.RoutingProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
 import org.springframework.cloud.gateway.route.RouteLocator;
-import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
+/**
+ * Routes are declared once, under {@code spring.cloud.gateway.routes}; this replaces the default
+ * sequential route lookup with the indexed one.
+ */
 @Configuration
+@EnableConfigurationProperties(RoutingProperties.class)
 public class GatewayConfig {
 
     @Bean
-    public RouteLocator customRouteLocator(RouteLocatorBuilder builder) {
-        return builder.routes()
-                // Forwarding path
-                .route("auth-service", r -> r
-                        .path("/api/auth/**")
-                        .uri("lb://auth-service"))
-                .build();
+    public IndexedRoutePredicateHandlerMapping routePredicateHandlerMapping(FilteringWebHandler webHandler,
+                                                                            RouteLocator routeLocator,
+                                                                            GlobalCorsProperties globalCorsProperties,
+                                                                            Environment environment,
+                                                                            RoutingProperties properties,
+                                                                            MeterRegistry meterRegistry) {
+        IndexedRoutePredicateHandlerMapping mapping = new IndexedRoutePredicateHandlerMapping(
+                webHandler, routeLocator, globalCorsProperties, environment, properties.isIndexed());
+        FunctionCounter.builder("gateway.routing.lookups", mapping, IndexedRoutePredicateHandlerMapping::getLookupCount)
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.routing.candidates", mapping,
+                        IndexedRoutePredicateHandlerMapping::getCandidateCount)
+                .description("Routes whose predicates indexed lookups had to consider")
+                .register(meterRegistry);
+        Gauge.builder("gateway.routing.index.routes", mapping, m -> indexSize(m.getIndex(), false))
+                .register(meterRegistry);
+        Gauge.builder("gateway.routing.index.unindexed", mapping, m -> indexSize(m.getIndex(), true))
+                .description("Routes tested on every lookup because their predicates could not be indexed")
+                .register(meterRegistry);
+        return mapping;
     }
-}
\ No newline at end of file
+
+    private static double indexSize(RouteIndex index, boolean unindexed) {
+        if (index == null) {
+            return 0;
+        }
+        return unindexed ? index.getUnindexedCount() : index.getRouteCount();
+    }
+}
@@ -0,0 +1,61 @@
+package com.ecommerce.campus.apigateway.config;
+
+import com.ecommerce.campus.apigateway.health.HealthAwareServiceInstanceListSupplier;
+import com.ecommerce.campus.apigateway.loadbalancer.InstanceStatsLifecycle;
+import com.ecommerce.campus.apigateway.loadbalancer.InstanceStatsRegistry;
+import com.ecommerce.campus.apigateway.loadbalancer.LoadBalancingProperties;
+import com.ecommerce.campus.apigateway.loadbalancer.PeakEwmaLoadBalancer;
+import com.ecommerce.campus.apigateway.registry.RegistryServiceInstanceListSupplier;
+import com.ecommerce.campus.apigateway.registry.ServiceRegistryCache;
+import com.ecommerce.campus.apigateway.service.HealthCheckService;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Beans of each per-service load balancer context, registered through {@link LoadBalancerConfig}.
+ * Deliberately not a {@code @Configuration}: component scanning would otherwise load it into the main context.
+ */
+public class GatewayLoadBalancerConfiguration {
+
+    @Bean
+    public ServiceInstanceListSupplier serviceInstanceListSupplier(ConfigurableApplicationContext context,
+                                                                   Environment environment) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        // Instances come from the registry cache, which is already in memory and push-updated
+        return ServiceInstanceListSupplier.builder()
+                .withBase(new RegistryServiceInstanceListSupplier(serviceId, context.getBean(ServiceRegistryCache.class)))
+                .with((ctx, delegate) -> new HealthAwareServiceInstanceListSupplier(
+                        delegate, ctx.getBean(HealthCheckService.class)))
+                .build(context);
+    }
+
+    @Bean
+    public InstanceStatsRegistry instanceStatsRegistry(LoadBalancingProperties properties) {
+        return new InstanceStatsRegistry(properties);
+    }
+
+    @Bean
+    public InstanceStatsLifecycle instanceStatsLifecycle(InstanceStatsRegistry registry) {
+        return new InstanceStatsLifecycle(registry);
+    }
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> reactorServiceInstanceLoadBalancer(Environment environment,
+                                                                                   LoadBalancerClientFactory factory,
+                                                                                   LoadBalancingProperties properties,
+                                                                                   InstanceStatsRegistry registry) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        if (properties.strategyFor(serviceId) == LoadBalancingProperties.Strategy.ROUND_ROBIN) {
+            return new RoundRobinLoadBalancer(
+                    factory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), serviceId);
+        }
+        return new PeakEwmaLoadBalancer(
+                factory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), serviceId, registry);
+    }
+}
@@ -0,0 +1,44 @@
+package com.ecommerce.campus.apigateway.config;
+
+import com.ecommerce.campus.apigateway.hedging.HedgingProperties;
+import com.ecommerce.campus.apigateway.hedging.HedgingRegistry;
+import com.ecommerce.campus.apigateway.hedging.RouteHedging;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(HedgingProperties.class)
+public class HedgingConfig {
+
+    @Bean
+    public HedgingRegistry hedgingRegistry(HedgingProperties properties, MeterRegistry meterRegistry) {
+        HedgingRegistry registry = new HedgingRegistry(properties);
+        for (RouteHedging route : registry.getAll()) {
+            Tags tags = Tags.of("route", route.getRouteId());
+            FunctionCounter.builder("gateway.hedging.requests", route, RouteHedging::getRequestCount)
+                    .tags(tags)
+                    .register(meterRegistry);
+            FunctionCounter.builder("gateway.hedging.hedges", route, RouteHedging::getHedgeCount)
+                    .tags(tags)
+                    .description("Second attempts sent because the first was slower than the hedge delay")
+                    .register(meterRegistry);
+            FunctionCounter.builder("gateway.hedging.wins", route, RouteHedging::getHedgeWinCount)
+                    .tags(tags)
+                    .description("Hedges that answered before the first attempt")
+                    .register(meterRegistry);
+            FunctionCounter.builder("gateway.hedging.budget.exhausted", route, RouteHedging::getBudgetExhaustedCount)
+                    .tags(tags)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.hedging.delay", route, r -> r.getDelay().toNanos() / 1_000_000.0)
+                    .tags(tags)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+        return registry;
+    }
+}
@@ -1,16 +1,26 @@
 package com.ecommerce.campus.apigateway.config;
 
+import com.ecommerce.campus.apigateway.health.HealthProbeProperties;
+import com.ecommerce.campus.apigateway.loadbalancer.LoadBalancingProperties;
+import com.ecommerce.campus.apigateway.upstream.UpstreamPoolRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.reactive.function.client.WebClient;
 
 @Configuration
+@EnableConfigurationProperties({HealthProbeProperties.class, LoadBalancingProperties.class})
+@LoadBalancerClients(defaultConfiguration = GatewayLoadBalancerConfiguration.class)
 public class LoadBalancerConfig {
 
+    /**
+     * Requests go out through the chosen instance's service pool, not Reactor Netty's global one
+     */
     @Bean
     @LoadBalanced
-    public WebClient.Builder loadBalancedWebClientBuilder() {
-        return WebClient.builder();
+    public WebClient.Builder loadBalancedWebClientBuilder(UpstreamPoolRegistry upstreamPools) {
+        return WebClient.builder().clientConnector(upstreamPools.connector());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package com.ecommerce.campus.apigateway.config;
+
+import com.ecommerce.campus.apigateway.ratelimit.DistributedRateLimiter;
+import com.ecommerce.campus.apigateway.ratelimit.RateLimitPolicyResolver;
+import com.ecommerce.campus.apigateway.ratelimit.RateLimitProperties;
+import com.ecommerce.campus.apigateway.ratelimit.RateLimiter;
+import com.ecommerce.campus.apigateway.ratelimit.RedisPermitStore;
+import com.ecommerce.campus.apigateway.ratelimit.SlidingWindowRateLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimiter rateLimiter(RateLimitProperties properties,
+                                   ObjectProvider<ReactiveStringRedisTemplate> redisTemplate,
+                                   MeterRegistry meterRegistry) {
+        SlidingWindowRateLimiter local = new SlidingWindowRateLimiter(properties.getSlots());
+        bindLocalMetrics(local, meterRegistry);
+
+        if (properties.getMode() == RateLimitProperties.Mode.LOCAL) {
+            return local;
+        }
+
+        RateLimitProperties.Distributed distributed = properties.getDistributed();
+        DistributedRateLimiter limiter = new DistributedRateLimiter(
+                new RedisPermitStore(redisTemplate.getObject()),
+                local,
+                distributed.getLeaseSlots(),
+                distributed.getBatchSize(),
+                distributed.getLeaseTtl(),
+                distributed.getStoreTimeout(),
+                distributed.getDegradedBackoff());
+        bindDistributedMetrics(limiter, meterRegistry);
+        log.info("Distributed rate limiting enabled, leasing {} permits per round trip", distributed.getBatchSize());
+        return limiter;
+    }
+
+    @Bean
+    public RateLimitPolicyResolver rateLimitPolicyResolver(RateLimitProperties properties) {
+        return new RateLimitPolicyResolver(properties);
+    }
+
+    private void bindLocalMetrics(SlidingWindowRateLimiter limiter, MeterRegistry registry) {
+        FunctionCounter.builder("gateway.ratelimit.local.allowed", limiter, SlidingWindowRateLimiter::getAllowedCount)
+                .register(registry);
+        FunctionCounter.builder("gateway.ratelimit.local.rejected", limiter, SlidingWindowRateLimiter::getRejectedCount)
+                .register(registry);
+        FunctionCounter.builder("gateway.ratelimit.local.evictions", limiter, SlidingWindowRateLimiter::getEvictionCount)
+                .description("Active clients pushed out of a full stripe")
+                .register(registry);
+    }
+
+    private void bindDistributedMetrics(DistributedRateLimiter limiter, MeterRegistry registry) {
+        FunctionCounter.builder("gateway.ratelimit.lease.requests", limiter, DistributedRateLimiter::getLeaseRequestCount)
+                .description("Round trips to the shared Redis bucket")
+                .register(registry);
+        FunctionCounter.builder("gateway.ratelimit.lease.failures", limiter, DistributedRateLimiter::getLeaseFailureCount)
+                .register(registry);
+        FunctionCounter.builder("gateway.ratelimit.lease.latency", limiter, DistributedRateLimiter::getLeaseLatencyTotalMs)
+                .description("Total round trip time in milliseconds, divide by lease.requests for the mean")
+                .baseUnit("milliseconds")
+                .register(registry);
+        FunctionCounter.builder("gateway.ratelimit.fallbacks", limiter, DistributedRateLimiter::getFallbackCount)
+                .description("Decisions taken by the local limiter")
+                .register(registry);
+        FunctionCounter.builder("gateway.ratelimit.rejected", limiter, DistributedRateLimiter::getRejectedCount)
+                .register(registry);
+        Gauge.builder("gateway.ratelimit.local.hit.ratio", limiter, DistributedRateLimiter::getLocalHitRatio)
+                .register(registry);
+        Gauge.builder("gateway.ratelimit.degraded", limiter, l -> l.isDegraded() ? 1 : 0)
+                .register(registry);
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.campus.apigateway.config;
+
+import com.ecommerce.campus.apigateway.registry.ConsulCatalogWatcher;
+import com.ecommerce.campus.apigateway.registry.DiscoveryClientPoller;
+import com.ecommerce.campus.apigateway.registry.RegistryProperties;
+import com.ecommerce.campus.apigateway.registry.RegistryWatcher;
+import com.ecommerce.campus.apigateway.registry.ServiceRegistryCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(RegistryProperties.class)
+public class RegistryConfig {
+
+    @Bean
+    public ServiceRegistryCache serviceRegistryCache(MeterRegistry meterRegistry) {
+        ServiceRegistryCache cache = new ServiceRegistryCache();
+        Gauge.builder("gateway.registry.version", cache, c -> c.getSnapshot().getVersion())
+                .register(meterRegistry);
+        Gauge.builder("gateway.registry.instances", cache, c -> c.getSnapshot().getTotalInstances())
+                .register(meterRegistry);
+        return cache;
+    }
+
+    /**
+     * Without a configured source, the catalog is only watched when Consul discovery is enabled;
+     * otherwise the DiscoveryClient in use, e.g. simple discovery, is polled
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public RegistryWatcher registryWatcher(RegistryProperties properties,
+                                           ServiceRegistryCache cache,
+                                           ObjectProvider<DiscoveryClient> discoveryClient,
+                                           @Value("${spring.cloud.consul.enabled:true}") boolean consulEnabled,
+                                           @Value("${spring.cloud.consul.discovery.enabled:true}") boolean discoveryEnabled) {
+        RegistryProperties.Source source = properties.getSource();
+        if (source == null) {
+            source = consulEnabled && discoveryEnabled ? RegistryProperties.Source.CONSUL : RegistryProperties.Source.POLL;
+        }
+        log.info("Service registry source: {}", source);
+        if (source == RegistryProperties.Source.CONSUL) {
+            return new ConsulCatalogWatcher(cache, properties);
+        }
+        return new DiscoveryClientPoller(discoveryClient.getObject(), cache, properties.getPollInterval());
+    }
+}
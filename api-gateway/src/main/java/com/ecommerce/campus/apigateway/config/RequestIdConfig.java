@@ -0,0 +1,32 @@
+package com.ecommerce.campus.apigateway.config;
+
+import com.ecommerce.campus.apigateway.tracing.RequestIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+public class RequestIdConfig {
+
+    /**
+     * Node id must differ between replicas, so it is only defaulted for a gateway that runs alone:
+     * one that finds upstreams through Consul or shares rate limits through Redis may have peers,
+     * and refuses to start without {@code gateway.request-id.node-id}
+     */
+    @Bean
+    public RequestIdGenerator requestIdGenerator(@Value("${gateway.request-id.node-id:-1}") int nodeId,
+                                                 @Value("${spring.cloud.consul.enabled:true}") boolean consulEnabled,
+                                                 @Value("${spring.cloud.consul.discovery.enabled:true}") boolean discoveryEnabled,
+                                                 @Value("${gateway.rate-limit.mode:local}") String rateLimitMode) {
+        boolean replicated = consulEnabled && discoveryEnabled || "distributed".equalsIgnoreCase(rateLimitMode);
+        if (nodeId < 0 && replicated) {
+            throw new IllegalStateException("gateway.request-id.node-id must be set to a value unique per replica "
+                    + "when the gateway uses Consul discovery or distributed rate limiting");
+        }
+        int node = Math.max(0, nodeId);
+        log.info("Request id generator using node id {}", node);
+        return new RequestIdGenerator(node);
+    }
+}
@@ -0,0 +1,44 @@
+package com.ecommerce.campus.apigateway.config;
+
+import com.ecommerce.campus.apigateway.resilience.ResilienceProperties;
+import com.ecommerce.campus.apigateway.resilience.ResilienceRegistry;
+import com.ecommerce.campus.apigateway.resilience.RouteResilience;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ResilienceProperties.class)
+public class ResilienceConfig {
+
+    @Bean
+    public ResilienceRegistry resilienceRegistry(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        ResilienceRegistry registry = new ResilienceRegistry(properties);
+        for (RouteResilience route : registry.getAll()) {
+            Tags tags = Tags.of("route", route.getRouteId());
+            Gauge.builder("gateway.resilience.state", route, r -> r.getCircuitBreaker().getState().getOrder())
+                    .tags(tags)
+                    .description("Circuit breaker state: 0 closed, 1 open, 2 half open")
+                    .register(meterRegistry);
+            Gauge.builder("gateway.resilience.failure.rate", route.getCircuitBreaker(),
+                            breaker -> breaker.getMetrics().getFailureRate())
+                    .tags(tags)
+                    .baseUnit("percent")
+                    .register(meterRegistry);
+            Gauge.builder("gateway.resilience.bulkhead.available", route,
+                            r -> r.getBulkhead().getMetrics().getAvailableConcurrentCalls())
+                    .tags(tags)
+                    .register(meterRegistry);
+            for (RouteResilience.Rejection rejection : RouteResilience.Rejection.values()) {
+                FunctionCounter.builder("gateway.resilience.rejections", route, r -> r.getRejectionCount(rejection))
+                        .tags(tags.and("reason", rejection.tag()))
+                        .register(meterRegistry);
+            }
+        }
+        return registry;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.campus.apigateway.config;
+
+import com.ecommerce.campus.apigateway.cache.ResponseCache;
+import com.ecommerce.campus.apigateway.cache.ResponseCachePolicy;
+import com.ecommerce.campus.apigateway.cache.ResponseCacheProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCacheConfig {
+
+    @Bean
+    public ResponseCache responseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        ResponseCache cache = new ResponseCache(properties.getMaxSize().toBytes(), properties.getMaxEntrySize().toBytes());
+        FunctionCounter.builder("gateway.cache.requests", cache, ResponseCache::getHitCount)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.cache.requests", cache, ResponseCache::getStaleHitCount)
+                .tag("result", "stale")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.cache.requests", cache, ResponseCache::getMissCount)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.cache.evictions", cache, ResponseCache::getEvictionCount)
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.cache.rejections", cache, ResponseCache::getRejectionCount)
+                .description("Responses not admitted: too large, or less popular than the entry they would evict")
+                .register(meterRegistry);
+        Gauge.builder("gateway.cache.size", cache, ResponseCache::getSizeInBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("gateway.cache.entries", cache, ResponseCache::getEntryCount)
+                .register(meterRegistry);
+        return cache;
+    }
+
+    @Bean
+    public ResponseCachePolicy responseCachePolicy(ResponseCacheProperties properties) {
+        return new ResponseCachePolicy(properties.isOffHeap());
+    }
+}
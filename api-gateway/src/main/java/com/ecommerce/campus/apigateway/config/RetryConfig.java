@@ -0,0 +1,18 @@
+package com.ecommerce.campus.apigateway.config;
+
+import com.ecommerce.campus.apigateway.retry.RetryProperties;
+import com.ecommerce.campus.apigateway.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(RetryProperties.class)
+public class RetryConfig {
+
+    @Bean
+    public RetryRegistry gatewayRetryRegistry(RetryProperties properties, MeterRegistry meterRegistry) {
+        return new RetryRegistry(properties, meterRegistry);
+    }
+}
@@ -1,24 +1,108 @@
 package com.ecommerce.campus.apigateway.config;
 
+import com.ecommerce.campus.apigateway.filter.JwtAuthenticationFilter;
+import com.ecommerce.campus.apigateway.security.JwksKeySet;
+import com.ecommerce.campus.apigateway.security.JwtVerifier;
+import com.ecommerce.campus.apigateway.security.TokenRevocations;
+import com.ecommerce.campus.common.infrastructure.security.VerifiedToken;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.authentication.ServerAuthenticationEntryPointFailureHandler;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.NegatedServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebFluxSecurity
 public class SecurityConfig {
 
+    /**
+     * auth-service's public signing keys, fetched through the load balancer
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public JwksKeySet jwksKeySet(WebClient.Builder loadBalancedWebClientBuilder,
+                                 @Value("${gateway.security.jwks.uri:}") String uri,
+                                 @Value("${gateway.security.jwks.refresh-interval:5m}") Duration refreshInterval) {
+        return new JwksKeySet(loadBalancedWebClientBuilder, uri, refreshInterval, Duration.ofSeconds(10));
+    }
+
     @Bean
-    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, JwtVerifier jwtVerifier,
+                                                         TokenRevocations tokenRevocations) {
+        HttpStatusServerEntryPoint entryPoint = new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED);
+
         return http
                 .csrf(csrf -> csrf.disable())
+                .httpBasic(basic -> basic.disable())
+                .formLogin(form -> form.disable())
+                // Stateless: the bearer token is the only credential
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(entryPoint))
+                .addFilterAt(bearerAuthenticationFilter(jwtVerifier, tokenRevocations, entryPoint),
+                        SecurityWebFiltersOrder.AUTHENTICATION)
                 .authorizeExchange(exchanges -> exchanges
                         .pathMatchers("/actuator/health").permitAll()
-                        .pathMatchers("/api/auth/**").permitAll()
+                        .pathMatchers(JwtAuthenticationFilter.PUBLIC_PATHS.toArray(String[]::new)).permitAll()
                         .anyExchange().authenticated()
                 )
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Authenticates requests from the bearer token using the edge verifier, rejecting revoked tokens.
+     * The verified token is stored on the exchange so JwtAuthenticationFilter does not verify it twice.
+     */
+    private AuthenticationWebFilter bearerAuthenticationFilter(JwtVerifier jwtVerifier,
+                                                               TokenRevocations tokenRevocations,
+                                                               HttpStatusServerEntryPoint entryPoint) {
+        // The converter already verified the token, the manager only has to accept it
+        ReactiveAuthenticationManager manager = Mono::just;
+        AuthenticationWebFilter filter = new AuthenticationWebFilter(manager);
+        filter.setRequiresAuthenticationMatcher(new NegatedServerWebExchangeMatcher(
+                ServerWebExchangeMatchers.pathMatchers(JwtAuthenticationFilter.PUBLIC_PATHS.toArray(String[]::new))));
+        filter.setServerAuthenticationConverter(exchange -> {
+            String token = JwtAuthenticationFilter.extractToken(exchange.getRequest());
+            if (token == null) {
+                return Mono.empty();
+            }
+            VerifiedToken verified;
+            try {
+                verified = jwtVerifier.verify(token);
+            } catch (JwtException ex) {
+                return Mono.error(new BadCredentialsException("Invalid access token", ex));
+            }
+            return tokenRevocations.isRevoked(verified).flatMap(revoked -> {
+                if (revoked) {
+                    return Mono.error(new BadCredentialsException("Access token has been revoked"));
+                }
+                exchange.getAttributes().put(JwtAuthenticationFilter.VERIFIED_TOKEN_ATTR, verified);
+                return Mono.just(new UsernamePasswordAuthenticationToken(
+                        verified.subject(),
+                        token,
+                        verified.roles() != null
+                                ? AuthorityUtils.commaSeparatedStringToAuthorityList(verified.roles())
+                                : AuthorityUtils.NO_AUTHORITIES));
+            });
+        });
+        filter.setAuthenticationFailureHandler(new ServerAuthenticationEntryPointFailureHandler(entryPoint));
+        filter.setSecurityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+        return filter;
+    }
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.campus.apigateway.config;
+
+import com.ecommerce.campus.apigateway.security.RedisRevocationStore;
+import com.ecommerce.campus.apigateway.security.RevocationProperties;
+import com.ecommerce.campus.apigateway.security.RevocationStore;
+import com.ecommerce.campus.apigateway.security.TokenRevocations;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+@Configuration
+@EnableConfigurationProperties(RevocationProperties.class)
+public class TokenRevocationConfig {
+
+    @Bean
+    public RevocationStore revocationStore(ReactiveStringRedisTemplate redisTemplate) {
+        return new RedisRevocationStore(redisTemplate);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public TokenRevocations tokenRevocations(RevocationStore revocationStore, RevocationProperties properties,
+                                             MeterRegistry meterRegistry) {
+        TokenRevocations revocations = new TokenRevocations(revocationStore, properties);
+        FunctionCounter.builder("gateway.security.revocation.lookups", revocations, TokenRevocations::getStoreLookupCount)
+                .description("Revocation checks the local filter and watermark cache could not answer")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.security.revocation.errors", revocations, TokenRevocations::getStoreErrorCount)
+                .description("Revocation checks that failed or timed out and accepted the token")
+                .register(meterRegistry);
+        return revocations;
+    }
+}
@@ -0,0 +1,61 @@
+package com.ecommerce.campus.apigateway.config;
+
+import com.ecommerce.campus.apigateway.service.DiscoveryService;
+import com.ecommerce.campus.apigateway.upstream.PooledHttpClientFactory;
+import com.ecommerce.campus.apigateway.upstream.UpstreamPoolProperties;
+import com.ecommerce.campus.apigateway.upstream.UpstreamPoolRegistry;
+import com.ecommerce.campus.apigateway.upstream.UpstreamRoutingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(UpstreamPoolProperties.class)
+public class UpstreamPoolConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public UpstreamPoolRegistry upstreamPoolRegistry(UpstreamPoolProperties properties,
+                                                     HttpClientProperties httpClientProperties,
+                                                     ServerProperties serverProperties,
+                                                     HttpClientSslConfigurer sslConfigurer,
+                                                     ObjectProvider<HttpClientCustomizer> customizers,
+                                                     DiscoveryService discoveryService,
+                                                     MeterRegistry meterRegistry) {
+        return new UpstreamPoolRegistry(properties,
+                provider -> new PooledHttpClientFactory(httpClientProperties, serverProperties, sslConfigurer,
+                        customizers.orderedStream().toList(), provider).build(),
+                discoveryService, meterRegistry);
+    }
+
+    /**
+     * Stands in for the stock routing filter, disabled in application.yml
+     */
+    @Bean
+    public UpstreamRoutingFilter upstreamRoutingFilter(HttpClient httpClient,
+                                                       ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                                       HttpClientProperties httpClientProperties,
+                                                       UpstreamPoolRegistry pools) {
+        return new UpstreamRoutingFilter(httpClient, headersFilters, httpClientProperties, pools);
+    }
+
+    /**
+     * Writes the upstream body to the client. Switching the stock routing filter off removes this one too,
+     * and without it clients get status and headers and then wait forever.
+     */
+    @Bean
+    public NettyWriteResponseFilter nettyWriteResponseFilter(GatewayProperties gatewayProperties) {
+        return new NettyWriteResponseFilter(gatewayProperties.getStreamingMediaTypes());
+    }
+}
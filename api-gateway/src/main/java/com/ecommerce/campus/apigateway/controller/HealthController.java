@@ -1,5 +1,6 @@
 package com.ecommerce.campus.apigateway.controller;
 
+import com.ecommerce.campus.apigateway.service.HealthCheckService;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -11,6 +12,12 @@ import java.util.Map;
 @RequestMapping("/api/gateway")
 public class HealthController {
 
+    private final HealthCheckService healthCheckService;
+
+    public HealthController(HealthCheckService healthCheckService) {
+        this.healthCheckService = healthCheckService;
+    }
+
     @GetMapping("/health")
     public Mono<Map<String, Object>> health() {
         return Mono.just(Map.of(
@@ -20,6 +27,11 @@ public class HealthController {
         ));
     }
 
+    @GetMapping("/health/services")
+    public Mono<HealthCheckService.GatewayHealth> servicesHealth() {
+        return healthCheckService.getGatewayHealth();
+    }
+
     @GetMapping("/info")
     public Mono<Map<String, Object>> info() {
         return Mono.just(Map.of(
@@ -0,0 +1,23 @@
+package com.ecommerce.campus.apigateway.controller;
+
+import com.ecommerce.campus.apigateway.service.MetricsService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/gateway")
+public class MetricsController {
+
+    private final MetricsService metricsService;
+
+    public MetricsController(MetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
+    @GetMapping("/metrics")
+    public Mono<MetricsService.GatewayMetrics> metrics() {
+        return metricsService.getMetrics();
+    }
+}
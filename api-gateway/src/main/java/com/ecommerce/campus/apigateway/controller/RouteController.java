@@ -1,5 +1,6 @@
 package com.ecommerce.campus.apigateway.controller;
 
+import com.ecommerce.campus.apigateway.service.RouteService;
 import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,13 +13,20 @@ import reactor.core.publisher.Flux;
 public class RouteController {
 
     private final RouteLocator routeLocator;
+    private final RouteService routeService;
 
-    public RouteController(RouteLocator routeLocator) {
+    public RouteController(RouteLocator routeLocator, RouteService routeService) {
         this.routeLocator = routeLocator;
+        this.routeService = routeService;
     }
 
     @GetMapping("/routes")
     public Flux<Route> getRoutes() {
         return routeLocator.getRoutes();
     }
-}
\ No newline at end of file
+
+    @GetMapping("/routes/table")
+    public RouteService.RouteTableInfo getRouteTable() {
+        return routeService.getRouteTableInfo();
+    }
+}
@@ -0,0 +1,152 @@
+package com.ecommerce.campus.apigateway.cors;
+
+import com.ecommerce.campus.apigateway.cors.CorsPolicy.ResolvedOrigin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Origin matcher compiled from {@link CorsProperties} at startup.
+ * <p>
+ * Exact origins resolve with one hash lookup to header sets built at startup. Patterns such as
+ * {@code https://*.example.com} are split into a scheme prefix and a domain suffix and checked in
+ * configuration order; the header sets of origins they match are built once and cached, up to
+ * {@code originCacheSize}. A {@code *} policy answers every remaining origin with one shared set.
+ * Origins are compared as browsers serialize them: lower case, without a trailing slash.
+ */
+public class CorsEngine {
+
+    private final Map<String, ResolvedOrigin> exactOrigins;
+    private final String[] patternPrefixes;
+    private final String[] patternSuffixes;
+    private final CorsPolicy[] patternPolicies;
+    private final ResolvedOrigin anyOrigin;
+
+    private final ConcurrentHashMap<String, ResolvedOrigin> patternOrigins = new ConcurrentHashMap<>();
+    private final int originCacheSize;
+
+    private final LongAdder preflightsAnswered = new LongAdder();
+    private final LongAdder preflightsRejected = new LongAdder();
+    private final LongAdder deniedRequests = new LongAdder();
+
+    public CorsEngine(CorsProperties properties) {
+        Map<String, ResolvedOrigin> exact = new HashMap<>();
+        List<String> prefixes = new ArrayList<>();
+        List<String> suffixes = new ArrayList<>();
+        List<CorsPolicy> policies = new ArrayList<>();
+        ResolvedOrigin any = null;
+
+        for (CorsProperties.Policy config : properties.getPolicies()) {
+            CorsPolicy policy = new CorsPolicy(config);
+            for (String configured : config.getAllowedOrigins()) {
+                String origin = normalize(configured);
+                int wildcard = origin.indexOf('*');
+                if (origin.equals("*")) {
+                    if (policy.allowsCredentials()) {
+                        throw new IllegalArgumentException(
+                                "CORS credentials cannot be allowed for origin *, list the origins or use patterns");
+                    }
+                    if (any == null) {
+                        any = policy.resolve("*");
+                    }
+                } else if (wildcard < 0) {
+                    exact.putIfAbsent(origin, policy.resolve(origin));
+                } else {
+                    String prefix = origin.substring(0, wildcard);
+                    String suffix = origin.substring(wildcard + 1);
+                    if (!prefix.endsWith("://") || !suffix.startsWith(".") || suffix.indexOf('*') >= 0) {
+                        throw new IllegalArgumentException("Invalid CORS origin pattern " + configured
+                                + ", expected scheme://*.domain[:port]");
+                    }
+                    prefixes.add(prefix);
+                    suffixes.add(suffix);
+                    policies.add(policy);
+                }
+            }
+        }
+
+        this.exactOrigins = Map.copyOf(exact);
+        this.patternPrefixes = prefixes.toArray(String[]::new);
+        this.patternSuffixes = suffixes.toArray(String[]::new);
+        this.patternPolicies = policies.toArray(CorsPolicy[]::new);
+        this.anyOrigin = any;
+        this.originCacheSize = properties.getOriginCacheSize();
+    }
+
+    /**
+     * Header sets for an Origin request header, or null if no policy allows it
+     */
+    public ResolvedOrigin resolve(String origin) {
+        ResolvedOrigin resolved = exactOrigins.get(origin);
+        if (resolved != null) {
+            return resolved;
+        }
+        if (patternPolicies.length > 0) {
+            resolved = patternOrigins.get(origin);
+            if (resolved != null) {
+                return resolved;
+            }
+            CorsPolicy policy = matchPattern(origin);
+            if (policy != null) {
+                resolved = policy.resolve(origin);
+                if (patternOrigins.size() < originCacheSize) {
+                    ResolvedOrigin raced = patternOrigins.putIfAbsent(origin, resolved);
+                    return raced != null ? raced : resolved;
+                }
+                return resolved;
+            }
+        }
+        return anyOrigin;
+    }
+
+    private CorsPolicy matchPattern(String origin) {
+        for (int i = 0; i < patternPolicies.length; i++) {
+            String prefix = patternPrefixes[i];
+            String suffix = patternSuffixes[i];
+            // The wildcard stands for at least one more label, so https://example.com does not match
+            if (origin.length() > prefix.length() + suffix.length()
+                    && origin.startsWith(prefix) && origin.endsWith(suffix)
+                    && origin.indexOf('/', prefix.length()) < 0) {
+                return patternPolicies[i];
+            }
+        }
+        return null;
+    }
+
+    private static String normalize(String origin) {
+        String trimmed = origin.trim().toLowerCase(Locale.ROOT);
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    public void recordPreflight(boolean answered) {
+        (answered ? preflightsAnswered : preflightsRejected).increment();
+    }
+
+    public void recordDenied() {
+        deniedRequests.increment();
+    }
+
+    public long getPreflightsAnswered() {
+        return preflightsAnswered.sum();
+    }
+
+    public long getPreflightsRejected() {
+        return preflightsRejected.sum();
+    }
+
+    /**
+     * Requests from origins no policy allows, sent on without CORS headers
+     */
+    public long getDeniedCount() {
+        return deniedRequests.sum();
+    }
+
+    public int getCachedOriginCount() {
+        return patternOrigins.size();
+    }
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.campus.apigateway.cors;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, preserialized set of response headers. Applying it replaces any value already present,
+ * so a header is never sent twice, and allocates nothing on the gateway side.
+ */
+public final class CorsHeaders {
+
+    private final String[] names;
+    private final List<List<String>> values;
+
+    CorsHeaders(Map<String, String> headers) {
+        this.names = headers.keySet().toArray(String[]::new);
+        this.values = headers.values().stream().map(List::of).toList();
+    }
+
+    public void applyTo(HttpHeaders target) {
+        for (int i = 0; i < names.length; i++) {
+            target.put(names[i], values.get(i));
+        }
+    }
+
+    public String getFirst(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equalsIgnoreCase(name)) {
+                return values.get(i).get(0);
+            }
+        }
+        return null;
+    }
+}
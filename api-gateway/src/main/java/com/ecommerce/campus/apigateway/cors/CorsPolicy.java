@@ -0,0 +1,125 @@
+package com.ecommerce.campus.apigateway.cors;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * One configured policy compiled once: allowed methods and headers as sets, header values serialized.
+ */
+public class CorsPolicy {
+
+    private static final String PREFLIGHT_VARY = String.join(", ", HttpHeaders.ORIGIN,
+            HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS);
+    private static final int MAX_CHECKED_HEADER_LISTS = 256;
+
+    private final boolean allowCredentials;
+    private final Set<String> methods;
+    private final boolean anyHeader;
+    private final Set<String> headers;
+    private final String allowMethods;
+    private final String allowHeaders;
+    private final String exposeHeaders;
+    private final String maxAge;
+
+    /** Access-Control-Request-Headers values already checked; browsers repeat the same few */
+    private final ConcurrentHashMap<String, Boolean> checkedHeaderLists = new ConcurrentHashMap<>();
+
+    public CorsPolicy(CorsProperties.Policy policy) {
+        this.allowCredentials = policy.isAllowCredentials();
+        this.methods = policy.getAllowedMethods().stream()
+                .map(method -> method.trim().toUpperCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.anyHeader = policy.getAllowedHeaders().contains("*");
+        this.headers = policy.getAllowedHeaders().stream()
+                .map(header -> header.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.allowMethods = String.join(", ", methods.stream().sorted().toList());
+        this.allowHeaders = anyHeader ? "*" : String.join(", ", policy.getAllowedHeaders());
+        this.exposeHeaders = String.join(", ", policy.getExposedHeaders());
+        this.maxAge = String.valueOf(policy.getMaxAge().toSeconds());
+    }
+
+    public boolean allowsMethod(String method) {
+        return methods.contains(method);
+    }
+
+    /**
+     * Whether every header named in an Access-Control-Request-Headers value is allowed
+     */
+    public boolean allowsHeaders(String requestHeaders) {
+        if (requestHeaders == null || requestHeaders.isBlank() || anyHeader) {
+            return true;
+        }
+        Boolean checked = checkedHeaderLists.get(requestHeaders);
+        if (checked != null) {
+            return checked;
+        }
+        boolean allowed = true;
+        for (String header : requestHeaders.split(",")) {
+            String name = header.trim().toLowerCase(Locale.ROOT);
+            if (!name.isEmpty() && !headers.contains(name)) {
+                allowed = false;
+                break;
+            }
+        }
+        if (checkedHeaderLists.size() < MAX_CHECKED_HEADER_LISTS) {
+            checkedHeaderLists.put(requestHeaders, allowed);
+        }
+        return allowed;
+    }
+
+    /**
+     * With credentials the * wildcard is taken literally by browsers, so requested headers are echoed
+     */
+    public boolean echoesRequestHeaders() {
+        return anyHeader && allowCredentials;
+    }
+
+    public boolean allowsCredentials() {
+        return allowCredentials;
+    }
+
+    /**
+     * Header sets for one allowed origin; {@code allowOrigin} is the origin itself or {@code *}
+     */
+    ResolvedOrigin resolve(String allowOrigin) {
+        boolean echo = !"*".equals(allowOrigin);
+
+        Map<String, String> actual = new LinkedHashMap<>();
+        actual.put(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, allowOrigin);
+        if (echo) {
+            actual.put(HttpHeaders.VARY, HttpHeaders.ORIGIN);
+        }
+        if (allowCredentials) {
+            actual.put(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+        }
+        if (!exposeHeaders.isEmpty()) {
+            actual.put(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, exposeHeaders);
+        }
+
+        Map<String, String> preflight = new LinkedHashMap<>();
+        preflight.put(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, allowOrigin);
+        preflight.put(HttpHeaders.VARY, PREFLIGHT_VARY);
+        preflight.put(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS, allowMethods);
+        if (!echoesRequestHeaders()) {
+            preflight.put(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, allowHeaders);
+        }
+        preflight.put(HttpHeaders.ACCESS_CONTROL_MAX_AGE, maxAge);
+        if (allowCredentials) {
+            preflight.put(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+        }
+        return new ResolvedOrigin(this, new CorsHeaders(actual), new CorsHeaders(preflight));
+    }
+
+    /**
+     * Everything needed to answer requests from one origin
+     */
+    public record ResolvedOrigin(CorsPolicy policy, CorsHeaders actual, CorsHeaders preflight) {
+    }
+}
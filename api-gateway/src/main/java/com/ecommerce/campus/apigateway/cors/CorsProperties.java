@@ -0,0 +1,37 @@
+package com.ecommerce.campus.apigateway.cors;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CORS settings bound from {@code gateway.cors}.
+ * An origin is matched exactly first, then against the patterns in policy order, then against {@code *}.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.cors")
+public class CorsProperties {
+
+    private boolean enabled = true;
+
+    private List<Policy> policies = new ArrayList<>(List.of(new Policy()));
+
+    /** Pattern-matched origins whose header sets are kept; exact origins are always precompiled */
+    private int originCacheSize = 1024;
+
+    @Data
+    public static class Policy {
+        /** Exact origins such as https://shop.example.com, patterns such as https://*.example.com, or * */
+        private List<String> allowedOrigins = new ArrayList<>(List.of("*"));
+        private List<String> allowedMethods = new ArrayList<>(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        /** Request headers a preflight may ask for, * allows any */
+        private List<String> allowedHeaders = new ArrayList<>(List.of("Content-Type", "Authorization"));
+        private List<String> exposedHeaders = new ArrayList<>();
+        /** Not allowed together with the * origin */
+        private boolean allowCredentials = false;
+        private Duration maxAge = Duration.ofHours(1);
+    }
+}
@@ -0,0 +1,55 @@
+package com.ecommerce.campus.apigateway.cors;
+
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.Locale;
+
+/**
+ * Drops Access-Control-* headers from upstream responses, since the gateway answers CORS itself
+ * and upstream copies would otherwise be added next to the gateway's.
+ */
+public class UpstreamCorsHeadersFilter implements HttpHeadersFilter {
+
+    private static final String PREFIX = "access-control-";
+
+    private final boolean enabled;
+
+    public UpstreamCorsHeadersFilter(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public HttpHeaders filter(HttpHeaders input, ServerWebExchange exchange) {
+        if (!enabled) {
+            return input;
+        }
+        boolean found = false;
+        for (String name : input.keySet()) {
+            if (isCorsHeader(name)) {
+                found = true;
+                break;
+            }
+        }
+        if (!found) {
+            return input;
+        }
+        HttpHeaders filtered = new HttpHeaders();
+        input.forEach((name, values) -> {
+            if (!isCorsHeader(name)) {
+                filtered.put(name, values);
+            }
+        });
+        return filtered;
+    }
+
+    @Override
+    public boolean supports(Type type) {
+        return type == Type.RESPONSE;
+    }
+
+    private static boolean isCorsHeader(String name) {
+        return name.regionMatches(true, 0, PREFIX, 0, PREFIX.length());
+    }
+}
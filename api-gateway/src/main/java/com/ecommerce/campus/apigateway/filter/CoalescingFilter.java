@@ -0,0 +1,120 @@
+package com.ecommerce.campus.apigateway.filter;
+
+import com.ecommerce.campus.apigateway.cache.BodyCapture;
+import com.ecommerce.campus.apigateway.cache.RequestKey;
+import com.ecommerce.campus.apigateway.cache.ResponseCachePolicy;
+import com.ecommerce.campus.apigateway.coalescing.CoalescingProperties;
+import com.ecommerce.campus.apigateway.coalescing.RequestCoalescer;
+import com.ecommerce.campus.apigateway.coalescing.SharedResponse;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Collapses concurrent identical GET requests of opted-in routes into one upstream call.
+ * The leader streams its response to its own client while buffering it. Waiting requests then
+ * get the same status, headers and body ({@code X-Coalesced: true}). A response that is too
+ * large, sets cookies or fails is not shared, and each waiter falls back to its own upstream call.
+ */
+@Component
+public class CoalescingFilter implements GlobalFilter, Ordered {
+
+    public static final String COALESCED_HEADER = "X-Coalesced";
+
+    private final RequestCoalescer coalescer;
+    private final CoalescingProperties properties;
+    private final Set<String> routes;
+
+    public CoalescingFilter(RequestCoalescer coalescer, CoalescingProperties properties) {
+        this.coalescer = coalescer;
+        this.properties = properties;
+        this.routes = new HashSet<>(properties.getRoutes());
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null || !routes.contains(route.getId())
+                || exchange.getRequest().getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+
+        String key = RequestKey.of(exchange, route);
+        RequestCoalescer.Flight flight = coalescer.lead(key);
+        if (flight != null) {
+            LeaderResponse response = new LeaderResponse(exchange.getResponse(), flight);
+            return chain.filter(exchange.mutate().response(response).build())
+                    // Errors, cancellations and bodyless completions leave nothing to share
+                    .doFinally(signal -> flight.abandon());
+        }
+
+        return coalescer.follow(key)
+                .timeout(properties.getMaxWait(), Mono.empty())
+                .flatMap(shared -> writeShared(exchange.getResponse(), shared).thenReturn(true))
+                .switchIfEmpty(Mono.defer(() -> chain.filter(exchange).thenReturn(true)))
+                .then();
+    }
+
+    private static Mono<Void> writeShared(ServerHttpResponse response, SharedResponse shared) {
+        response.setStatusCode(HttpStatusCode.valueOf(shared.status()));
+        HttpHeaders headers = response.getHeaders();
+        shared.headers().forEach(headers::put);
+        headers.setContentLength(shared.body().length);
+        headers.set(COALESCED_HEADER, "true");
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    @Override
+    public int getOrder() {
+        // After the response cache (-3), since only misses need an upstream call, and before
+        // NettyWriteResponseFilter (-1), which writes the upstream body through the leader's response
+        return -2;
+    }
+
+    private final class LeaderResponse extends ServerHttpResponseDecorator {
+
+        private final RequestCoalescer.Flight flight;
+
+        LeaderResponse(ServerHttpResponse delegate, RequestCoalescer.Flight flight) {
+            super(delegate);
+            this.flight = flight;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (status == null || getHeaders().containsKey(HttpHeaders.SET_COOKIE)) {
+                flight.abandon();
+                return super.writeWith(body);
+            }
+            // Taken now: outer stages such as compression rewrite the headers of what they send on
+            HttpHeaders headers = ResponseCachePolicy.replayableHeaders(getHeaders());
+            BodyCapture capture = new BodyCapture(properties.getMaxBodySize().toBytes());
+            return super.writeWith(Flux.from(body)
+                    .doOnNext(capture::append)
+                    .doOnComplete(() -> {
+                        if (capture.isOverflow()) {
+                            flight.abandon();
+                        } else {
+                            flight.complete(new SharedResponse(status.value(), headers, capture.toByteArray()));
+                        }
+                    }));
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.ecommerce.campus.apigateway.filter;
+
+import com.ecommerce.campus.apigateway.cache.CachedResponse;
+import com.ecommerce.campus.apigateway.cache.ResponseCache;
+import com.ecommerce.campus.apigateway.compression.CompressionRegistry;
+import com.ecommerce.campus.apigateway.compression.Compressor;
+import com.ecommerce.campus.apigateway.compression.ContentCoding;
+import com.ecommerce.campus.apigateway.compression.RouteCompression;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Compresses response bodies with the best coding the client accepts, chunk by chunk as they stream
+ * through, so no body is held in memory. Bodies below the size threshold are sent as they are; without
+ * a Content-Length only the first chunks up to the threshold are held back to find out.
+ * <p>
+ * Responses written from the {@link ResponseCache} are compressed once, and the result is stored with
+ * the entry for every later hit that accepts the same coding.
+ */
+@Component
+public class CompressionFilter implements GlobalFilter, Ordered {
+
+    private final CompressionRegistry registry;
+    private final ResponseCache cache;
+
+    public CompressionFilter(CompressionRegistry registry, ResponseCache cache) {
+        this.registry = registry;
+        this.cache = cache;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null || !registry.isEnabled(route.getId()) || exchange.getRequest().getMethod() == HttpMethod.HEAD) {
+            return chain.filter(exchange);
+        }
+        List<String> acceptEncoding = exchange.getRequest().getHeaders().get(HttpHeaders.ACCEPT_ENCODING);
+        ContentCoding coding = acceptEncoding == null ? null
+                : registry.negotiate(acceptEncoding.size() == 1 ? acceptEncoding.get(0) : String.join(",", acceptEncoding));
+        if (coding == null) {
+            return chain.filter(exchange);
+        }
+        CompressingResponse response = new CompressingResponse(exchange, coding, registry.get(route.getId()));
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return -4; // Outside every other response decorator, so they and the response cache see bodies as the upstream sent them
+    }
+
+    private final class CompressingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final ContentCoding coding;
+        private final RouteCompression stats;
+
+        CompressingResponse(ServerWebExchange exchange, ContentCoding coding, RouteCompression stats) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.coding = coding;
+            this.stats = stats;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!isCompressible()) {
+                return super.writeWith(body);
+            }
+            ResponseCacheFilter.CacheHit hit = exchange.getAttribute(ResponseCacheFilter.CACHE_HIT_ATTR);
+            if (hit != null) {
+                return writeCached(hit, body);
+            }
+
+            long minSize = registry.getMinSize();
+            long contentLength = getHeaders().getContentLength();
+            if (contentLength >= 0) {
+                if (contentLength < minSize) {
+                    stats.recordSkipped();
+                    return super.writeWith(body);
+                }
+                prepareHeaders();
+                return super.writeWith(compress(Flux.from(body)));
+            }
+
+            // Unknown length: hold chunks back until the threshold is reached or the body ends
+            return super.writeWith(Flux.<DataBuffer>from(body)
+                    .bufferUntil(new ThresholdReached(minSize))
+                    .switchOnFirst((first, lists) -> {
+                        Flux<DataBuffer> buffers = lists.flatMapIterable(list -> list);
+                        List<DataBuffer> head = first.get();
+                        if (head == null || byteCount(head) < minSize) {
+                            stats.recordSkipped();
+                            return buffers;
+                        }
+                        prepareHeaders();
+                        return compress(buffers);
+                    })
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release));
+        }
+
+        private boolean isCompressible() {
+            HttpStatusCode status = getStatusCode();
+            HttpHeaders headers = getHeaders();
+            String cacheControl = headers.getCacheControl();
+            return status != null && status.value() != 204 && status.value() != 206 && status.value() != 304
+                    && !headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+                    && (cacheControl == null || !cacheControl.contains("no-transform"))
+                    && registry.isCompressible(headers.getContentType());
+        }
+
+        private void prepareHeaders() {
+            HttpHeaders headers = getHeaders();
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            headers.set(HttpHeaders.CONTENT_ENCODING, coding.token());
+            if (!headers.getVary().contains(HttpHeaders.ACCEPT_ENCODING)) {
+                headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+            // The encoded body is no longer byte-for-byte the one a strong validator describes
+            String etag = headers.getETag();
+            if (etag != null && !etag.startsWith("W/")) {
+                headers.setETag("W/" + etag);
+            }
+        }
+
+        private Flux<DataBuffer> compress(Flux<DataBuffer> buffers) {
+            return Flux.defer(() -> {
+                Compressor compressor = coding.newCompressor(registry.getLevel());
+                long[] totals = new long[3]; // bytes in, bytes out, nanos
+                return buffers
+                        .<DataBuffer>handle((buffer, sink) -> {
+                            byte[] encoded = Compressor.EMPTY;
+                            long started = System.nanoTime();
+                            try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+                                totals[0] += buffer.readableByteCount();
+                                while (chunks.hasNext()) {
+                                    encoded = concat(encoded, compressor.update(chunks.next()));
+                                }
+                            } finally {
+                                DataBufferUtils.release(buffer);
+                            }
+                            totals[2] += System.nanoTime() - started;
+                            if (encoded.length > 0) {
+                                totals[1] += encoded.length;
+                                sink.next(bufferFactory().wrap(encoded));
+                            }
+                        })
+                        .concatWith(Mono.fromSupplier(() -> {
+                            long started = System.nanoTime();
+                            byte[] encoded = compressor.finish();
+                            totals[1] += encoded.length;
+                            totals[2] += System.nanoTime() - started;
+                            stats.recordCompressed(totals[0], totals[1], totals[2]);
+                            return bufferFactory().wrap(encoded);
+                        }))
+                        .doFinally(signal -> compressor.close());
+            });
+        }
+
+        /**
+         * Send the cached entry's stored variant, encoding and storing it first if this is the first hit asking for it
+         */
+        private Mono<Void> writeCached(ResponseCacheFilter.CacheHit hit, Publisher<? extends DataBuffer> body) {
+            CachedResponse cached = hit.response();
+            if (cached.getBodyLength() < registry.getMinSize()) {
+                stats.recordSkipped();
+                return super.writeWith(body);
+            }
+            ByteBuffer variant = cached.variant(coding.token());
+            if (variant != null) {
+                stats.recordReused(cached.getBodyLength(), variant.remaining());
+            } else {
+                long started = System.nanoTime();
+                byte[] encoded = coding.newCompressor(registry.getLevel()).compress(cached.body());
+                stats.recordCompressed(cached.getBodyLength(), encoded.length, System.nanoTime() - started);
+                cache.putVariant(hit.key(), cached, coding.token(), encoded);
+                variant = ByteBuffer.wrap(encoded);
+            }
+            prepareHeaders();
+            getHeaders().setContentLength(variant.remaining());
+            DataBuffer encoded = bufferFactory().wrap(variant);
+            // The identity body was wrapped around the entry's buffer, there is nothing to release
+            return super.writeWith(Mono.just(encoded));
+        }
+    }
+
+    private static byte[] concat(byte[] head, byte[] tail) {
+        if (head.length == 0) {
+            return tail;
+        }
+        byte[] all = new byte[head.length + tail.length];
+        System.arraycopy(head, 0, all, 0, head.length);
+        System.arraycopy(tail, 0, all, head.length, tail.length);
+        return all;
+    }
+
+    private static long byteCount(List<DataBuffer> buffers) {
+        long total = 0;
+        for (DataBuffer buffer : buffers) {
+            total += buffer.readableByteCount();
+        }
+        return total;
+    }
+
+    /**
+     * Closes the first buffer group once the threshold is reached; every later chunk passes on its own
+     */
+    private static final class ThresholdReached implements Predicate<DataBuffer> {
+
+        private final long threshold;
+        private long seen;
+
+        ThresholdReached(long threshold) {
+            this.threshold = threshold;
+        }
+
+        @Override
+        public boolean test(DataBuffer buffer) {
+            seen += buffer.readableByteCount();
+            return seen >= threshold;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.campus.apigateway.filter;
+
+import com.ecommerce.campus.apigateway.concurrency.AdaptiveConcurrencyLimiter;
+import com.ecommerce.campus.apigateway.concurrency.ConcurrencyLimitProperties;
+import com.ecommerce.campus.apigateway.concurrency.ConcurrencyLimiterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sheds load in front of each upstream route: requests beyond the route's adaptive concurrency
+ * limit get 503 with Retry-After at once instead of queueing until they time out.
+ */
+@Slf4j
+@Component
+public class ConcurrencyLimitFilter implements GlobalFilter, Ordered {
+
+    /** Set when the request was shed, so the circuit breaker around it does not count the 503 against the upstream */
+    public static final String SHED_ATTR = ConcurrencyLimitFilter.class.getName() + ".shed";
+
+    private static final byte[] OVERLOADED_BODY =
+            "{\"status\":503,\"error\":\"Service Unavailable\",\"message\":\"Service is overloaded, retry later\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private final ConcurrencyLimiterRegistry registry;
+    private final String retryAfter;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiterRegistry registry, ConcurrencyLimitProperties properties) {
+        this.registry = registry;
+        this.retryAfter = String.valueOf(Math.max(1, properties.getRetryAfter().toSeconds()));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null || "forward".equals(route.getUri().getScheme())) {
+            return chain.filter(exchange);
+        }
+        AdaptiveConcurrencyLimiter limiter = registry.get(route.getId());
+        if (limiter == null) {
+            return chain.filter(exchange);
+        }
+
+        if (!limiter.tryAcquire()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Shedding request to route {} at concurrency limit {}", route.getId(), limiter.getLimit());
+            }
+            exchange.getAttributes().put(SHED_ATTR, Boolean.TRUE);
+            return shed(exchange.getResponse());
+        }
+
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doOnSuccess(ignored -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    limiter.onSample(start, System.nanoTime(), status != null && status.is5xxServerError());
+                })
+                .doOnError(error -> limiter.onSample(start, System.nanoTime(), true))
+                .doOnCancel(limiter::release);
+    }
+
+    private Mono<Void> shed(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentLength(OVERLOADED_BODY.length);
+        headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        headers.set(ResilienceFilter.FALLBACK_HEADER, "overloaded");
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(OVERLOADED_BODY)));
+    }
+
+    @Override
+    public int getOrder() {
+        return 6; // Closest to the upstream, so round trips are not skewed by the gateway's own work
+    }
+}
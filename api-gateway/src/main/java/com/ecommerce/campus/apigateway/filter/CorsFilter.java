@@ -1,7 +1,9 @@
 package com.ecommerce.campus.apigateway.filter;
 
-import org.springframework.cloud.gateway.filter.GatewayFilterChain;
-import org.springframework.cloud.gateway.filter.GlobalFilter;
+import com.ecommerce.campus.apigateway.cors.CorsEngine;
+import com.ecommerce.campus.apigateway.cors.CorsPolicy;
+import com.ecommerce.campus.apigateway.cors.CorsPolicy.ResolvedOrigin;
+import com.ecommerce.campus.apigateway.cors.CorsProperties;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -10,34 +12,78 @@ import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
+/**
+ * Applies the precompiled CORS header set of the request's origin, replacing any existing values.
+ * Preflights are answered here from the origin's cached set without running the rest of the chain;
+ * preflights from unknown origins or for disallowed methods or headers get 403.
+ * <p>
+ * A web filter ahead of rate limiting and Spring Security, so preflights (which carry no credentials)
+ * never reach either and the 401s and 429s they send still carry the headers browsers need to read them.
+ */
 @Component
-public class CorsFilter implements GlobalFilter, Ordered {
+public class CorsFilter implements WebFilter, Ordered {
+
+    private final CorsEngine engine;
+    private final boolean enabled;
+
+    public CorsFilter(CorsEngine engine, CorsProperties properties) {
+        this.engine = engine;
+        this.enabled = properties.isEnabled();
+    }
 
     @Override
-    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled) {
+            return chain.filter(exchange);
+        }
         ServerHttpRequest request = exchange.getRequest();
-        ServerHttpResponse response = exchange.getResponse();
-        HttpHeaders headers = response.getHeaders();
-
-        // Add CORS headers
-        headers.add("Access-Control-Allow-Origin", "*");
-        headers.add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        headers.add("Access-Control-Allow-Headers", "Content-Type, Authorization");
-        headers.add("Access-Control-Max-Age", "3600");
+        HttpHeaders requestHeaders = request.getHeaders();
+        String origin = requestHeaders.getOrigin();
+        if (origin == null) {
+            return chain.filter(exchange);
+        }
 
-        // Handle preflight OPTIONS requests
+        ResolvedOrigin resolved = engine.resolve(origin);
         if (request.getMethod() == HttpMethod.OPTIONS) {
-            response.setStatusCode(HttpStatus.OK);
-            return response.setComplete();
+            String requestMethod = requestHeaders.getFirst(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD);
+            if (requestMethod != null) {
+                return preflight(exchange.getResponse(), resolved, requestMethod,
+                        requestHeaders.getFirst(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS));
+            }
         }
 
+        if (resolved == null) {
+            engine.recordDenied();
+        } else {
+            resolved.actual().applyTo(exchange.getResponse().getHeaders());
+        }
         return chain.filter(exchange);
     }
 
+    private Mono<Void> preflight(ServerHttpResponse response, ResolvedOrigin resolved,
+                                 String requestMethod, String requestHeaders) {
+        CorsPolicy policy = resolved != null ? resolved.policy() : null;
+        if (policy == null || !policy.allowsMethod(requestMethod) || !policy.allowsHeaders(requestHeaders)) {
+            engine.recordPreflight(false);
+            response.setStatusCode(HttpStatus.FORBIDDEN);
+            return response.setComplete();
+        }
+        engine.recordPreflight(true);
+        HttpHeaders headers = response.getHeaders();
+        resolved.preflight().applyTo(headers);
+        if (requestHeaders != null && policy.echoesRequestHeaders()) {
+            headers.set(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, requestHeaders);
+        }
+        response.setStatusCode(HttpStatus.OK);
+        return response.setComplete();
+    }
+
     @Override
     public int getOrder() {
-        return -2; // Execute before logging
+        return -120; // After logging and metrics, before rate limiting (-110) and Spring Security (-100)
     }
-}
\ No newline at end of file
+}
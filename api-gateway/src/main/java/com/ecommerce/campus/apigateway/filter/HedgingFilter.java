@@ -0,0 +1,119 @@
+package com.ecommerce.campus.apigateway.filter;
+
+import com.ecommerce.campus.apigateway.hedging.HedgingRegistry;
+import com.ecommerce.campus.apigateway.hedging.RouteHedging;
+import com.ecommerce.campus.apigateway.loadbalancer.InstanceStatsLifecycle;
+import com.ecommerce.campus.apigateway.loadbalancer.InstanceStatsRegistry;
+import com.ecommerce.campus.apigateway.upstream.UpstreamClient;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hedges idempotent requests of opted-in lb:// routes. When the instance the load balancer chose has
+ * not answered within the route's hedge delay, the same request is sent to another healthy instance.
+ * Whichever answers first is streamed to the client and the other is cancelled. The hedge budget
+ * keeps the extra load to a small share of requests.
+ * <p>
+ * Runs right after the load balancer filter and sends the attempts through {@link UpstreamClient},
+ * so the request has already been through the route's filters and Netty routing is skipped for it.
+ * Each attempt is recorded in the {@link InstanceStatsRegistry} under its own instance, from the
+ * moment it is sent until its response headers arrive, it fails or it is cancelled as the loser.
+ */
+@Component
+public class HedgingFilter implements GlobalFilter, Ordered {
+
+    private final HedgingRegistry registry;
+    private final UpstreamClient upstreamClient;
+    private final ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancers;
+
+    public HedgingFilter(HedgingRegistry registry, UpstreamClient upstreamClient,
+                         ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancers) {
+        this.registry = registry;
+        this.upstreamClient = upstreamClient;
+        this.loadBalancers = loadBalancers;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        RouteHedging hedging = route != null ? registry.get(route.getId()) : null;
+        if (hedging == null || !UpstreamClient.isReplayable(exchange)) {
+            return chain.filter(exchange);
+        }
+
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+        hedging.onRequest();
+        HttpMethod method = exchange.getRequest().getMethod();
+        URI primaryUri = exchange.getRequiredAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        HttpHeaders requestHeaders = upstreamClient.requestHeaders(exchange);
+
+        String serviceId = route.getUri().getHost();
+        InstanceStatsRegistry stats = loadBalancers.getInstance(serviceId, InstanceStatsRegistry.class);
+        Response<ServiceInstance> chosen = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        ServiceInstance primaryInstance = chosen != null && chosen.hasServer() ? chosen.getServer() : null;
+        if (stats != null && primaryInstance != null) {
+            // The load balancer started the first attempt; it is completed here rather than with the exchange
+            exchange.getAttributes().put(InstanceStatsLifecycle.ATTEMPTS_RECORDED_ATTR, Boolean.TRUE);
+        }
+
+        long start = System.nanoTime();
+        AtomicReference<Throwable> primaryError = new AtomicReference<>();
+        Mono<Attempt> primary = UpstreamClient.recorded(upstreamClient.send(method, primaryUri, requestHeaders), stats, primaryInstance, start)
+                .doOnNext(response -> hedging.recordLatency(System.nanoTime() - start))
+                .doOnError(primaryError::set)
+                .map(response -> new Attempt(primaryUri, response, false));
+        Mono<Attempt> hedge = Mono.delay(hedging.getDelay())
+                .flatMap(tick -> {
+                    ServiceInstance instance = upstreamClient.chooseOther(serviceId, List.of(primaryUri));
+                    if (instance == null || !hedging.tryHedge()) {
+                        return Mono.empty();
+                    }
+                    URI alternative = LoadBalancerUriTools.reconstructURI(instance, primaryUri);
+                    if (stats != null) {
+                        stats.onStart(instance);
+                    }
+                    return UpstreamClient.recorded(upstreamClient.send(method, alternative, requestHeaders), stats, instance, System.nanoTime())
+                            .map(response -> new Attempt(alternative, response, true))
+                            // A failed hedge must not fail the request; the first attempt may still answer
+                            .onErrorResume(error -> Mono.empty());
+                });
+
+        // The first response wins; a failed attempt only decides the outcome if the other one has nothing either
+        return Mono.firstWithValue(primary, hedge)
+                .onErrorMap(error -> primaryError.get() != null ? primaryError.get() : error)
+                .flatMap(winner -> {
+                    if (winner.hedged()) {
+                        hedging.onHedgeWon();
+                    }
+                    exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, winner.uri());
+                    return upstreamClient.write(exchange, winner.response());
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+
+    private record Attempt(URI uri, ResponseEntity<Flux<DataBuffer>> response, boolean hedged) {}
+}
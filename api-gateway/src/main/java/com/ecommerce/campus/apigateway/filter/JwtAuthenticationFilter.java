@@ -0,0 +1,136 @@
+package com.ecommerce.campus.apigateway.filter;
+
+import com.ecommerce.campus.apigateway.security.JwtVerifier;
+import com.ecommerce.campus.apigateway.security.TokenRevocations;
+import com.ecommerce.campus.common.infrastructure.security.VerifiedToken;
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Verifies bearer access tokens for routed traffic and forwards the identity downstream.
+ * Public paths (login, register, refresh) pass through without a token; a valid token sent to them
+ * is still forwarded as identity, an invalid one is ignored (e.g. an expired token sent to /refresh).
+ * A revoked token counts as invalid.
+ */
+@Slf4j
+@Component
+public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_ROLES_HEADER = "X-User-Roles";
+    public static final String VERIFIED_TOKEN_ATTR = JwtAuthenticationFilter.class.getName() + ".verifiedToken";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    public static final List<String> PUBLIC_PATHS = List.of("/api/auth/**");
+
+    private final JwtVerifier jwtVerifier;
+    private final TokenRevocations tokenRevocations;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public JwtAuthenticationFilter(JwtVerifier jwtVerifier, TokenRevocations tokenRevocations) {
+        this.jwtVerifier = jwtVerifier;
+        this.tokenRevocations = tokenRevocations;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        boolean publicPath = isPublicPath(request.getPath().value());
+        String token = extractToken(request);
+
+        if (token == null) {
+            if (publicPath) {
+                return chain.filter(withoutIdentityHeaders(exchange));
+            }
+            return unauthorized(exchange);
+        }
+
+        // The security chain may already have verified this token for the same exchange, revocation included
+        VerifiedToken verified = exchange.getAttribute(VERIFIED_TOKEN_ATTR);
+        if (verified != null) {
+            return forward(exchange, chain, verified);
+        }
+        VerifiedToken candidate;
+        try {
+            candidate = jwtVerifier.verify(token);
+        } catch (JwtException ex) {
+            log.debug("Rejected access token: {}", ex.getMessage());
+            return publicPath ? chain.filter(withoutIdentityHeaders(exchange)) : unauthorized(exchange);
+        }
+        return tokenRevocations.isRevoked(candidate).flatMap(revoked -> {
+            if (revoked) {
+                log.debug("Rejected revoked access token {}", candidate.jti());
+                return publicPath ? chain.filter(withoutIdentityHeaders(exchange)) : unauthorized(exchange);
+            }
+            exchange.getAttributes().put(VERIFIED_TOKEN_ATTR, candidate);
+            return forward(exchange, chain, candidate);
+        });
+    }
+
+    private Mono<Void> forward(ServerWebExchange exchange, GatewayFilterChain chain, VerifiedToken identity) {
+        ServerHttpRequest mutated = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.set(USER_ID_HEADER, identity.subject());
+                    headers.set(USER_ROLES_HEADER, identity.roles());
+                })
+                .build();
+
+        return chain.filter(exchange.mutate().request(mutated).build());
+    }
+
+    private boolean isPublicPath(String path) {
+        for (String pattern : PUBLIC_PATHS) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static String extractToken(ServerHttpRequest request) {
+        String header = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return null;
+        }
+        String token = header.substring(BEARER_PREFIX.length()).trim();
+        return token.isEmpty() ? null : token;
+    }
+
+    // Clients must never be able to spoof the identity headers
+    private ServerWebExchange withoutIdentityHeaders(ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        if (!headers.containsKey(USER_ID_HEADER) && !headers.containsKey(USER_ROLES_HEADER)) {
+            return exchange;
+        }
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(h -> {
+                    h.remove(USER_ID_HEADER);
+                    h.remove(USER_ROLES_HEADER);
+                })
+                .build();
+        return exchange.mutate().request(request).build();
+    }
+
+    private Mono<Void> unauthorized(ServerWebExchange exchange) {
+        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+        exchange.getResponse().getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        return exchange.getResponse().setComplete();
+    }
+
+    @Override
+    public int getOrder() {
+        return -5; // Before the response cache and coalescing (-3, -2), which key their entries on the verified caller
+    }
+}
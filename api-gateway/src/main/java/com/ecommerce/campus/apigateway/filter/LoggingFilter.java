@@ -1,40 +1,108 @@
 package com.ecommerce.campus.apigateway.filter;
 
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.cloud.gateway.filter.GatewayFilterChain;
-import org.springframework.cloud.gateway.filter.GlobalFilter;
+import com.ecommerce.campus.apigateway.accesslog.AccessLogProperties;
+import com.ecommerce.campus.apigateway.accesslog.AccessLogRingBuffer;
+import com.ecommerce.campus.apigateway.accesslog.AccessLogSampler;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
-@Slf4j
+/**
+ * Records one access log entry per exchange into the {@link AccessLogRingBuffer}.
+ * Nothing is formatted or written here; the writer thread does that in batches.
+ * <p>
+ * A web filter rather than a gateway filter, so exchanges answered before routing (rejected tokens,
+ * rate limits, CORS preflights, the gateway's own endpoints) are logged too. The route, if any, is
+ * read once the exchange completes.
+ */
 @Component
-public class LoggingFilter implements GlobalFilter, Ordered {
+public class LoggingFilter implements WebFilter, Ordered {
+
+    private final AccessLogRingBuffer buffer;
+    private final AccessLogSampler sampler;
+    private final boolean enabled;
+
+    public LoggingFilter(AccessLogRingBuffer buffer, AccessLogSampler sampler, AccessLogProperties properties) {
+        this.buffer = buffer;
+        this.sampler = sampler;
+        this.enabled = properties.isEnabled();
+    }
 
     @Override
-    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        ServerHttpRequest request = exchange.getRequest();
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled) {
+            return chain.filter(exchange);
+        }
+
+        long startNanos = System.nanoTime();
+        long startMs = System.currentTimeMillis();
+        ByteCountingResponse response = new ByteCountingResponse(exchange.getResponse());
+
+        return chain.filter(exchange.mutate().response(response).build())
+                .doFinally(signal -> record(exchange, response, signal, startMs, startNanos));
+    }
+
+    private void record(ServerWebExchange exchange, ByteCountingResponse response, SignalType signal,
+                        long startMs, long startNanos) {
+        HttpStatusCode statusCode = response.getStatusCode();
+        int status = statusCode != null ? statusCode.value() : signal == SignalType.ON_ERROR ? 500 : 200;
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : null;
+        if (!sampler.shouldLog(routeId, status)) {
+            return;
+        }
 
-        // Log incoming request
-        log.info("Gateway Request: {} {} from {}",
-                request.getMethod(),
-                request.getPath(),
-                request.getRemoteAddress());
-
-        // Continue with the request and log response
-        return chain.filter(exchange).then(Mono.fromRunnable(() -> {
-            int statusCode = exchange.getResponse().getStatusCode().value();
-            log.info("Gateway Response: {} {} - Status: {}",
-                    request.getMethod(),
-                    request.getPath(),
-                    statusCode);
-        }));
+        ServerHttpRequest request = exchange.getRequest();
+        buffer.publish(startMs,
+                exchange.getAttribute(RequestHeaderFilter.REQUEST_ID_KEY),
+                request.getMethod().name(),
+                request.getPath().value(),
+                routeId,
+                request.getRemoteAddress(),
+                status,
+                System.nanoTime() - startNanos,
+                response.bytes);
     }
 
     @Override
     public int getOrder() {
-        return -1; // Execute first
+        return -140; // Right after the request id is assigned, before Spring Security (-100)
+    }
+
+    private static final class ByteCountingResponse extends ServerHttpResponseDecorator {
+
+        /** Only written by the thread serving the response, read once it completes */
+        private volatile long bytes;
+
+        ByteCountingResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(Flux.from(body).doOnNext(this::count));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return super.writeAndFlushWith(Flux.from(body).map(part -> Flux.from(part).doOnNext(this::count)));
+        }
+
+        private void count(DataBuffer dataBuffer) {
+            bytes += dataBuffer.readableByteCount();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,69 @@
+package com.ecommerce.campus.apigateway.filter;
+
+import com.ecommerce.campus.apigateway.metrics.RouteMetrics;
+import com.ecommerce.campus.apigateway.service.MetricsService;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Records latency, status class and in-flight count of every exchange in {@link MetricsService}'s totals,
+ * including those answered before routing: rejected tokens, rate limits, CORS preflights and the gateway's
+ * own endpoints. Those are also counted under the {@value #UNROUTED} route; routed exchanges are counted
+ * per route by {@link RouteMetricsFilter}.
+ */
+@Component
+public class MetricsFilter implements WebFilter, Ordered {
+
+    public static final String UNROUTED = "unrouted";
+
+    /** Client went away before a status was written, as nginx logs it */
+    private static final int CLIENT_CLOSED_REQUEST = 499;
+
+    private final MetricsService metricsService;
+
+    public MetricsFilter(MetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long startNanos = System.nanoTime();
+        metricsService.recordStart();
+
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    int status = statusOf(exchange, signal);
+                    long latencyNanos = System.nanoTime() - startNanos;
+                    metricsService.recordCompletion(status, latencyNanos);
+                    if (exchange.getAttribute(RouteMetricsFilter.ROUTE_METRICS_ATTR) == null) {
+                        // Only known to be unrouted once complete, so it is never in flight
+                        RouteMetrics unrouted = metricsService.routeMetrics(UNROUTED);
+                        metricsService.recordStart(unrouted);
+                        metricsService.recordCompletion(unrouted, status, latencyNanos);
+                    }
+                });
+    }
+
+    static int statusOf(ServerWebExchange exchange, SignalType signal) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (status != null) {
+            return status.value();
+        }
+        return switch (signal) {
+            case ON_ERROR -> 500;
+            case CANCEL -> CLIENT_CLOSED_REQUEST;
+            default -> 200;
+        };
+    }
+
+    @Override
+    public int getOrder() {
+        return -130; // Before rate limiting and Spring Security (-100), so their rejections are measured too
+    }
+}
@@ -1,56 +1,83 @@
 package com.ecommerce.campus.apigateway.filter;
 
+import com.ecommerce.campus.apigateway.ratelimit.ClientKeyResolver;
+import com.ecommerce.campus.apigateway.ratelimit.RateLimitPolicy;
+import com.ecommerce.campus.apigateway.ratelimit.RateLimitPolicyResolver;
+import com.ecommerce.campus.apigateway.ratelimit.RateLimitProperties;
+import com.ecommerce.campus.apigateway.ratelimit.RateLimiter;
+import com.ecommerce.campus.apigateway.routing.IndexedRoutePredicateHandlerMapping;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cloud.gateway.filter.GatewayFilterChain;
-import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Optional;
 
+/**
+ * Per-client rate limiting for every exchange, ahead of Spring Security: a flood of requests with bogus
+ * tokens is turned away before any signature is checked. Routing has not happened yet at this point,
+ * so the route whose policy applies is looked up here; exchanges no route matches get the default policy.
+ */
 @Slf4j
 @Component
-public class RateLimitFilter implements GlobalFilter, Ordered {
+public class RateLimitFilter implements WebFilter, Ordered {
 
-    private final ConcurrentHashMap<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
-    private final int MAX_REQUESTS_PER_MINUTE = 100;
+    private final RateLimiter rateLimiter;
+    private final RateLimitPolicyResolver policyResolver;
+    private final IndexedRoutePredicateHandlerMapping routes;
+    private final boolean enabled;
+
+    public RateLimitFilter(RateLimiter rateLimiter,
+                           RateLimitPolicyResolver policyResolver,
+                           IndexedRoutePredicateHandlerMapping routes,
+                           RateLimitProperties properties) {
+        this.rateLimiter = rateLimiter;
+        this.policyResolver = policyResolver;
+        this.routes = routes;
+        this.enabled = properties.isEnabled();
+    }
 
     @Override
-    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        String clientIp = getClientIp(exchange);
-        String key = clientIp + ":" + getCurrentMinute();
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled) {
+            return chain.filter(exchange);
+        }
+        return routes.resolveRoute(exchange)
+                .map(route -> Optional.of(route.getId()))
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(routeId -> limit(exchange, chain, routeId.orElse(null)));
+    }
 
-        AtomicInteger count = requestCounts.computeIfAbsent(key, k -> new AtomicInteger(0));
+    private Mono<Void> limit(ServerWebExchange exchange, WebFilterChain chain, String routeId) {
+        long clientKey = ClientKeyResolver.resolve(exchange.getRequest());
+        RateLimitPolicy policy = policyResolver.resolve(routeId, clientKey);
+        long now = System.currentTimeMillis();
 
-        if (count.incrementAndGet() > MAX_REQUESTS_PER_MINUTE) {
-            log.warn("Rate limit exceeded for IP: {}", clientIp);
+        if (!rateLimiter.tryAcquire(clientKey, policy, now)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Rate limit '{}' exceeded for client {}", policy.name(), exchange.getRequest().getRemoteAddress());
+            }
             exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(policy, now)));
             return exchange.getResponse().setComplete();
         }
 
         return chain.filter(exchange);
     }
 
-    private String getClientIp(ServerWebExchange exchange) {
-        String xForwardedFor = exchange.getRequest().getHeaders().getFirst("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-        return exchange.getRequest().getRemoteAddress() != null
-                ? exchange.getRequest().getRemoteAddress().getAddress().getHostAddress()
-                : "unknown";
-    }
-
-    private long getCurrentMinute() {
-        return System.currentTimeMillis() / 60000; // Current minute
+    // Time until the current window rolls over, the earliest moment the estimate can drop
+    private long retryAfterSeconds(RateLimitPolicy policy, long now) {
+        long remainingMs = policy.windowMs() - (now % policy.windowMs());
+        return Math.max(1, (remainingMs + 999) / 1000);
     }
 
     @Override
     public int getOrder() {
-        return 1;
+        return -110; // Before Spring Security (-100), so floods are rejected before any crypto work
     }
 }
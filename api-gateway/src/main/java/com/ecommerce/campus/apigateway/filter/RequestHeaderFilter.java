@@ -1,32 +1,69 @@
 package com.ecommerce.campus.apigateway.filter;
 
-import org.springframework.cloud.gateway.filter.GatewayFilterChain;
-import org.springframework.cloud.gateway.filter.GlobalFilter;
+import com.ecommerce.campus.apigateway.tracing.RequestIdGenerator;
 import org.springframework.core.Ordered;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
+/**
+ * Assigns every exchange a request id, routed or not, and forwards it downstream
+ */
 @Component
-public class RequestHeaderFilter implements GlobalFilter, Ordered {
+public class RequestHeaderFilter implements WebFilter, Ordered {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    /** Exchange attribute and Reactor context key holding the request id */
+    public static final String REQUEST_ID_KEY = "requestId";
+
+    private static final int MAX_INCOMING_ID_LENGTH = 64;
+
+    private final RequestIdGenerator requestIdGenerator;
+
+    public RequestHeaderFilter(RequestIdGenerator requestIdGenerator) {
+        this.requestIdGenerator = requestIdGenerator;
+    }
 
     @Override
-    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String incoming = exchange.getRequest().getHeaders().getFirst(REQUEST_ID_HEADER);
+        String requestId = isAcceptable(incoming) ? incoming : requestIdGenerator.nextId();
+
         ServerHttpRequest request = exchange.getRequest().mutate()
                 .header("X-Gateway-Source", "api-gateway")
-                .header("X-Request-Id", generateRequestId())
+                .headers(headers -> headers.set(REQUEST_ID_HEADER, requestId))
                 .build();
 
-        return chain.filter(exchange.mutate().request(request).build());
+        exchange.getAttributes().put(REQUEST_ID_KEY, requestId);
+        exchange.getResponse().getHeaders().set(REQUEST_ID_HEADER, requestId);
+
+        return chain.filter(exchange.mutate().request(request).build())
+                .contextWrite(context -> context.put(REQUEST_ID_KEY, requestId));
     }
 
-    private String generateRequestId() {
-        return "req-" + System.currentTimeMillis();
+    /**
+     * Honour ids from upstream proxies, but never forward arbitrary text in a header
+     */
+    static boolean isAcceptable(String requestId) {
+        if (requestId == null || requestId.isEmpty() || requestId.length() > MAX_INCOMING_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < requestId.length(); i++) {
+            char c = requestId.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == ':';
+            if (!allowed) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int getOrder() {
-        return 0;
+        return -150; // Execute first, so every other filter and log line sees the request id
     }
-}
\ No newline at end of file
+}
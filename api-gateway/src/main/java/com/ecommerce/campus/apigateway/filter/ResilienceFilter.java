@@ -0,0 +1,108 @@
+package com.ecommerce.campus.apigateway.filter;
+
+import com.ecommerce.campus.apigateway.resilience.ResilienceRegistry;
+import com.ecommerce.campus.apigateway.resilience.RouteResilience;
+import com.ecommerce.campus.apigateway.resilience.RouteResilience.Rejection;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.timelimiter.TimeLimiterOperator;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Guards routes with a circuit breaker, a semaphore bulkhead and a time limiter.
+ * Requests the guards turn away get a prebuilt 503 at once, without touching the upstream,
+ * so a degraded service cannot tie up gateway connections until its timeouts fire.
+ */
+@Component
+public class ResilienceFilter implements GlobalFilter, Ordered {
+
+    public static final String FALLBACK_HEADER = "X-Gateway-Fallback";
+
+    private final ResilienceRegistry registry;
+
+    public ResilienceFilter(ResilienceRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        RouteResilience resilience = route != null ? registry.get(route.getId()) : null;
+        if (resilience == null) {
+            return chain.filter(exchange);
+        }
+
+        CircuitBreaker circuitBreaker = resilience.getCircuitBreaker();
+        Bulkhead bulkhead = resilience.getBulkhead();
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return fallback(exchange, resilience, Rejection.CIRCUIT_OPEN);
+        }
+        if (!bulkhead.tryAcquirePermission()) {
+            circuitBreaker.releasePermission();
+            return fallback(exchange, resilience, Rejection.BULKHEAD_FULL);
+        }
+
+        long start = circuitBreaker.getCurrentTimestamp();
+        return chain.filter(exchange)
+                .transformDeferred(TimeLimiterOperator.of(resilience.getTimeLimiter()))
+                .doOnSuccess(ignored -> {
+                    if (exchange.getAttribute(ConcurrencyLimitFilter.SHED_ATTR) != null) {
+                        // The gateway's own load shedding never reached the upstream
+                        circuitBreaker.releasePermission();
+                        return;
+                    }
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    circuitBreaker.onResult(elapsed(circuitBreaker, start), circuitBreaker.getTimestampUnit(),
+                            status != null ? status.value() : HttpStatus.OK.value());
+                })
+                .onErrorResume(error -> {
+                    circuitBreaker.onError(elapsed(circuitBreaker, start), circuitBreaker.getTimestampUnit(), error);
+                    if (error instanceof TimeoutException && !exchange.getResponse().isCommitted()) {
+                        return fallback(exchange, resilience, Rejection.TIMEOUT);
+                    }
+                    return Mono.error(error);
+                })
+                // Free the bulkhead before completion is signalled, so the next request sees the permit
+                .doOnTerminate(bulkhead::onComplete)
+                // Client went away: the call says nothing about the upstream
+                .doOnCancel(() -> {
+                    circuitBreaker.releasePermission();
+                    bulkhead.onComplete();
+                });
+    }
+
+    private static long elapsed(CircuitBreaker circuitBreaker, long start) {
+        return circuitBreaker.getCurrentTimestamp() - start;
+    }
+
+    private static Mono<Void> fallback(ServerWebExchange exchange, RouteResilience resilience, Rejection rejection) {
+        byte[] body = resilience.reject(rejection);
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentLength(body.length);
+        headers.set(HttpHeaders.RETRY_AFTER, resilience.retryAfter(rejection));
+        headers.set(FALLBACK_HEADER, rejection.tag());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    @Override
+    public int getOrder() {
+        return 5; // After caching and coalescing, so only requests that really go upstream are guarded
+    }
+}
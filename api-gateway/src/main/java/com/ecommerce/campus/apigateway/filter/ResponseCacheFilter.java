@@ -0,0 +1,195 @@
+package com.ecommerce.campus.apigateway.filter;
+
+import com.ecommerce.campus.apigateway.cache.BodyCapture;
+import com.ecommerce.campus.apigateway.cache.CachedResponse;
+import com.ecommerce.campus.apigateway.cache.DetachedResponse;
+import com.ecommerce.campus.apigateway.cache.RequestKey;
+import com.ecommerce.campus.apigateway.cache.ResponseCache;
+import com.ecommerce.campus.apigateway.cache.ResponseCachePolicy;
+import com.ecommerce.campus.apigateway.cache.ResponseCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves GET requests of opted-in routes from the {@link ResponseCache}.
+ * <ul>
+ *   <li>Fresh entries are answered directly ({@code X-Cache: HIT}).</li>
+ *   <li>Stale entries inside their stale-while-revalidate window are answered directly
+ *   ({@code X-Cache: STALE}) while one background request refreshes them. The refresh runs the rest
+ *   of the route's filters, so it reaches the upstream exactly as a miss would.</li>
+ *   <li>Misses are forwarded, and the body is copied as it streams to the client ({@code X-Cache: MISS}).</li>
+ * </ul>
+ * The key includes the authenticated subject, so one user's response is never served to another.
+ */
+@Slf4j
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    /** Set to a {@link CacheHit} when the response is written from the cache */
+    public static final String CACHE_HIT_ATTR = ResponseCacheFilter.class.getName() + ".cacheHit";
+
+    private final ResponseCache cache;
+    private final ResponseCachePolicy policy;
+    private final ResponseCacheProperties properties;
+
+    public ResponseCacheFilter(ResponseCache cache,
+                               ResponseCachePolicy policy,
+                               ResponseCacheProperties properties) {
+        this.cache = cache;
+        this.policy = policy;
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        ResponseCacheProperties.Route routeConfig = route != null ? properties.getRoutes().get(route.getId()) : null;
+        if (!properties.isEnabled() || routeConfig == null || request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+
+        HttpHeaders requestHeaders = request.getHeaders();
+        if (ResponseCachePolicy.forbidsStore(requestHeaders)) {
+            return chain.filter(exchange);
+        }
+
+        String key = RequestKey.of(exchange, route);
+        long now = System.currentTimeMillis();
+        if (!ResponseCachePolicy.bypassLookup(requestHeaders)) {
+            CachedResponse cached = cache.get(key, now);
+            if (cached != null && cached.isFresh(now)) {
+                return writeCached(exchange, key, cached, "HIT", now);
+            }
+            if (cached != null) {
+                revalidate(exchange, chain, key, routeConfig);
+                return writeCached(exchange, key, cached, "STALE", now);
+            }
+        }
+
+        CapturingResponse response = new CapturingResponse(exchange.getResponse(), key, routeConfig);
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, String key, CachedResponse cached, String cacheStatus,
+                                   long now) {
+        exchange.getAttributes().put(CACHE_HIT_ATTR, new CacheHit(key, cached));
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(cached.getStatus()));
+        HttpHeaders headers = response.getHeaders();
+        cached.getHeaders().forEach(headers::put);
+        headers.setContentLength(cached.getBodyLength());
+        headers.set(HttpHeaders.AGE, Long.toString(cached.ageSeconds(now)));
+        headers.set(CACHE_STATUS_HEADER, cacheStatus);
+        // Zero copy: the stored buffer is wrapped, not duplicated into a new allocation
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    /**
+     * Refresh a stale entry in the background. The remaining filters run on a copy of the exchange whose
+     * response goes nowhere, so path rewrites, header filters, load balancing and the writing of the upstream
+     * body apply as they would on a miss, and the response is stored the same way.
+     */
+    private void revalidate(ServerWebExchange exchange, GatewayFilterChain chain, String key,
+                            ResponseCacheProperties.Route routeConfig) {
+        if (!cache.startRevalidation(key)) {
+            return;
+        }
+        CapturingResponse response = new CapturingResponse(
+                new DetachedResponse(exchange.getResponse().bufferFactory()), key, routeConfig);
+        chain.filter(new RevalidationExchange(exchange, response))
+                .timeout(routeConfig.getStaleWhileRevalidate().plusSeconds(5))
+                .doFinally(signal -> cache.finishRevalidation(key))
+                .subscribe(null, error -> log.debug("Revalidation of {} failed: {}", key, error.getMessage()));
+    }
+
+    @Override
+    public int getOrder() {
+        // After authentication (-5), so cached data is only served to verified callers, and before
+        // NettyWriteResponseFilter (-1), which writes the upstream body to the response decorated here
+        return -3;
+    }
+
+    /**
+     * A response written from the cache, so later stages can store derived forms of it with the entry
+     */
+    public record CacheHit(String key, CachedResponse response) {
+    }
+
+    /**
+     * The exchange a revalidation routes, with its own response and its own attributes: routing state the
+     * remaining filters record must not land on the client's exchange, which is answered from the cache meanwhile
+     */
+    private static final class RevalidationExchange extends ServerWebExchangeDecorator {
+
+        private final Map<String, Object> attributes;
+
+        RevalidationExchange(ServerWebExchange exchange, ServerHttpResponse response) {
+            super(exchange.mutate().response(response).build());
+            this.attributes = new ConcurrentHashMap<>(exchange.getAttributes());
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+    }
+
+    /**
+     * Copies the body into a cache entry while it streams to the client, without delaying it
+     */
+    private final class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final ResponseCacheProperties.Route routeConfig;
+
+        CapturingResponse(ServerHttpResponse delegate, String key, ResponseCacheProperties.Route routeConfig) {
+            super(delegate);
+            this.key = key;
+            this.routeConfig = routeConfig;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+            if (status == null || !policy.isCacheable(status.value(), getHeaders())) {
+                return super.writeWith(body);
+            }
+            int statusCode = status.value();
+            // Taken now: outer stages such as compression rewrite the headers of what they send on
+            HttpHeaders headers = ResponseCachePolicy.replayableHeaders(getHeaders());
+            BodyCapture capture = new BodyCapture(properties.getMaxEntrySize().toBytes());
+            return super.writeWith(Flux.from(body)
+                    .doOnNext(capture::append)
+                    .doOnComplete(() -> {
+                        if (!capture.isOverflow()) {
+                            cache.put(key, policy.toCachedResponse(statusCode, headers, capture.toByteArray(),
+                                    routeConfig, System.currentTimeMillis()));
+                        }
+                    }));
+        }
+    }
+}
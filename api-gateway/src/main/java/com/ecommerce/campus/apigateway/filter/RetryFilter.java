@@ -0,0 +1,166 @@
+package com.ecommerce.campus.apigateway.filter;
+
+import com.ecommerce.campus.apigateway.loadbalancer.InstanceStatsLifecycle;
+import com.ecommerce.campus.apigateway.loadbalancer.InstanceStatsRegistry;
+import com.ecommerce.campus.apigateway.retry.RetryProperties;
+import com.ecommerce.campus.apigateway.retry.RetryRegistry;
+import com.ecommerce.campus.apigateway.retry.UpstreamRetries;
+import com.ecommerce.campus.apigateway.retry.UpstreamRetries.Outcome;
+import com.ecommerce.campus.apigateway.upstream.UpstreamClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries idempotent requests of opted-in lb:// routes on another instance when the connection
+ * fails or the upstream answers with a retryable status. Retries are paid from a budget per upstream
+ * service that only successful responses refill, so during an incident the gateway adds at most a
+ * small share of extra load instead of multiplying it. Each wait is a random share of an exponential
+ * backoff, so clients that failed together do not retry together.
+ * <p>
+ * Each attempt is recorded in the {@link InstanceStatsRegistry} under its own instance, so the load
+ * balancer sees the failure of the first instance and the latency of the one that answered.
+ */
+@Slf4j
+@Component
+public class RetryFilter implements GlobalFilter, Ordered {
+
+    private final RetryRegistry registry;
+    private final UpstreamClient upstreamClient;
+    private final ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancers;
+
+    public RetryFilter(RetryRegistry registry, UpstreamClient upstreamClient,
+                       ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancers) {
+        this.registry = registry;
+        this.upstreamClient = upstreamClient;
+        this.loadBalancers = loadBalancers;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        RetryProperties.Route policy = route != null ? registry.policy(route.getId()) : null;
+        if (policy == null || !UpstreamClient.isReplayable(exchange)) {
+            return chain.filter(exchange);
+        }
+
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+        URI first = exchange.getRequiredAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        List<URI> tried = new ArrayList<>(policy.getMaxAttempts());
+        tried.add(first);
+
+        String serviceId = route.getUri().getHost();
+        InstanceStatsRegistry stats = loadBalancers.getInstance(serviceId, InstanceStatsRegistry.class);
+        Response<ServiceInstance> chosen = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        ServiceInstance firstInstance = chosen != null && chosen.hasServer() ? chosen.getServer() : null;
+        if (stats != null && firstInstance != null) {
+            // The load balancer started the first attempt; it is completed here rather than with the exchange
+            exchange.getAttributes().put(InstanceStatsLifecycle.ATTEMPTS_RECORDED_ATTR, Boolean.TRUE);
+        }
+        Call call = new Call(exchange, policy, registry.get(serviceId), stats,
+                upstreamClient.requestHeaders(exchange), tried);
+        return attempt(call, first, firstInstance);
+    }
+
+    private Mono<Void> attempt(Call call, URI uri, ServiceInstance instance) {
+        ServerWebExchange exchange = call.exchange();
+        Mono<ResponseEntity<Flux<DataBuffer>>> sent = upstreamClient.send(exchange.getRequest().getMethod(), uri, call.headers());
+        return UpstreamClient.recorded(sent, call.stats(), instance, System.nanoTime())
+                .map(response -> new Result(response, null))
+                // Only failures before a response are safe to retry: the request may not have arrived
+                .onErrorResume(WebClientRequestException.class, error -> Mono.just(new Result(null, error)))
+                .flatMap(result -> {
+                    UpstreamRetries retries = call.retries();
+                    int attempt = call.tried().size();
+                    if (!result.failed(call.policy())) {
+                        retries.onSuccess();
+                        if (attempt > 1) {
+                            retries.record(Outcome.RECOVERED);
+                        }
+                        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, uri);
+                        return upstreamClient.write(exchange, result.response());
+                    }
+
+                    Outcome giveUp = null;
+                    ServiceInstance next = null;
+                    if (attempt >= call.policy().getMaxAttempts()) {
+                        giveUp = Outcome.FAILED;
+                    } else if ((next = upstreamClient.chooseOther(retries.getServiceId(), call.tried())) == null) {
+                        giveUp = attempt > 1 ? Outcome.FAILED : Outcome.NO_INSTANCE;
+                    } else if (!retries.tryRetry()) {
+                        giveUp = Outcome.BUDGET_EXHAUSTED;
+                    }
+                    if (giveUp != null) {
+                        retries.record(giveUp);
+                        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, uri);
+                        return result.error() != null
+                                ? Mono.error(result.error())
+                                : upstreamClient.write(exchange, result.response());
+                    }
+
+                    URI target = LoadBalancerUriTools.reconstructURI(next, uri);
+                    if (log.isDebugEnabled()) {
+                        log.debug("Retrying {} on {} after {}", exchange.getRequest().getPath(), target,
+                                result.error() != null ? result.error().getMessage() : result.response().getStatusCode());
+                    }
+                    call.tried().add(target);
+                    ServiceInstance nextInstance = next;
+                    Mono<Void> discard = result.response() != null ? UpstreamClient.discard(result.response()) : Mono.empty();
+                    return discard
+                            .then(Mono.delay(backoff(call.policy(), attempt)))
+                            .then(Mono.defer(() -> {
+                                if (call.stats() != null) {
+                                    call.stats().onStart(nextInstance);
+                                }
+                                return attempt(call, target, nextInstance);
+                            }));
+                });
+    }
+
+    /**
+     * Full jitter: uniform between zero and the exponential backoff of the attempt
+     */
+    private static Duration backoff(RetryProperties.Route policy, int attempt) {
+        long base = policy.getBackoff().toNanos();
+        long cap = policy.getMaxBackoff().toNanos();
+        long ceiling = Math.min(cap, base << Math.min(attempt - 1, 20));
+        return Duration.ofNanos(ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 2; // Hedged routes are already routed
+    }
+
+    private record Call(ServerWebExchange exchange, RetryProperties.Route policy, UpstreamRetries retries,
+                        InstanceStatsRegistry stats, HttpHeaders headers, List<URI> tried) {}
+
+    private record Result(ResponseEntity<Flux<DataBuffer>> response, Throwable error) {
+
+        boolean failed(RetryProperties.Route policy) {
+            return error != null || policy.getStatuses().contains(response.getStatusCode().value());
+        }
+    }
+}
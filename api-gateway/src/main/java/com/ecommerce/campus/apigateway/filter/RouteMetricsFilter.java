@@ -0,0 +1,47 @@
+package com.ecommerce.campus.apigateway.filter;
+
+import com.ecommerce.campus.apigateway.metrics.RouteMetrics;
+import com.ecommerce.campus.apigateway.service.MetricsService;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records latency, status class and in-flight count of every routed exchange under its route,
+ * from the moment it is routed. Gateway-wide totals are recorded by {@link MetricsFilter}.
+ */
+@Component
+public class RouteMetricsFilter implements GlobalFilter, Ordered {
+
+    /** The route's metrics, once the exchange has been counted under its route */
+    public static final String ROUTE_METRICS_ATTR = RouteMetricsFilter.class.getName() + ".routeMetrics";
+
+    private final MetricsService metricsService;
+
+    public RouteMetricsFilter(MetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        RouteMetrics metrics = metricsService.routeMetrics(route != null ? route.getId() : MetricsFilter.UNROUTED);
+        exchange.getAttributes().put(ROUTE_METRICS_ATTR, metrics);
+        long startNanos = System.nanoTime();
+        metricsService.recordStart(metrics);
+
+        return chain.filter(exchange)
+                .doFinally(signal -> metricsService.recordCompletion(metrics,
+                        MetricsFilter.statusOf(exchange, signal), System.nanoTime() - startNanos));
+    }
+
+    @Override
+    public int getOrder() {
+        return -6; // Ahead of every other route filter, so each routed exchange is counted
+    }
+}
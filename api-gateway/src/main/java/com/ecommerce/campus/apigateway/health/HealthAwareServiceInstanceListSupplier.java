@@ -0,0 +1,41 @@
+package com.ecommerce.campus.apigateway.health;
+
+import com.ecommerce.campus.apigateway.service.HealthCheckService;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.DelegatingServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drops instances the background prober has marked DOWN before the load balancer picks one.
+ * If every instance is down the full list is kept, so a broken probe cannot take a service offline.
+ */
+public class HealthAwareServiceInstanceListSupplier extends DelegatingServiceInstanceListSupplier {
+
+    private final HealthCheckService healthCheckService;
+
+    public HealthAwareServiceInstanceListSupplier(ServiceInstanceListSupplier delegate,
+                                                  HealthCheckService healthCheckService) {
+        super(delegate);
+        this.healthCheckService = healthCheckService;
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        return delegate.get().map(this::routable);
+    }
+
+    private List<ServiceInstance> routable(List<ServiceInstance> instances) {
+        HealthSnapshot snapshot = healthCheckService.getSnapshot();
+        List<ServiceInstance> routable = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            if (snapshot.isRoutable(instance)) {
+                routable.add(instance);
+            }
+        }
+        return routable.isEmpty() ? instances : routable;
+    }
+}
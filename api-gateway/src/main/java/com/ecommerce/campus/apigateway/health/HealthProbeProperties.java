@@ -0,0 +1,37 @@
+package com.ecommerce.campus.apigateway.health;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Background health probing settings bound from {@code gateway.health}.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.health")
+public class HealthProbeProperties {
+
+    private boolean enabled = true;
+
+    /** Time between the end of one probe round and the start of the next */
+    private Duration interval = Duration.ofSeconds(10);
+
+    /** Each probe is delayed by a random amount up to this, spreading load on the services */
+    private Duration jitter = Duration.ofSeconds(2);
+
+    private Duration timeout = Duration.ofSeconds(2);
+
+    /** Probes in flight at once across all services */
+    private int concurrency = 16;
+
+    /** Consecutive failures before an instance is taken out of rotation */
+    private int unhealthyThreshold = 2;
+
+    private String path = "/actuator/health";
+
+    /** Services that are not probed, such as Consul itself */
+    private List<String> excludedServices = new ArrayList<>(List.of("consul"));
+}
@@ -0,0 +1,72 @@
+package com.ecommerce.campus.apigateway.health;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of every probed instance, replaced as a whole after each probe round.
+ * <p>
+ * Health is looked up by the very {@link ServiceInstance} objects of the registry snapshot that was
+ * probed, which is what the load balancer hands in, so routing checks are one identity lookup. Other
+ * instances, e.g. from a registry version newer than the probe round, are matched by host and port.
+ */
+public final class HealthSnapshot {
+
+    public static final HealthSnapshot EMPTY = new HealthSnapshot(Map.of(), Map.of(), null);
+
+    private final Map<String, List<InstanceHealth>> services;
+    private final Map<ServiceInstance, InstanceHealth> instances;
+    private final Instant takenAt;
+
+    /**
+     * @param services  health of each service's instances
+     * @param instances the same results keyed by the probed instance
+     */
+    public HealthSnapshot(Map<String, List<InstanceHealth>> services,
+                          Map<ServiceInstance, InstanceHealth> instances, Instant takenAt) {
+        this.services = Map.copyOf(services);
+        this.instances = Collections.unmodifiableMap(new IdentityHashMap<>(instances));
+        this.takenAt = takenAt;
+    }
+
+    public Map<String, List<InstanceHealth>> getServices() {
+        return services;
+    }
+
+    public List<InstanceHealth> getService(String serviceId) {
+        return services.getOrDefault(serviceId, List.of());
+    }
+
+    /**
+     * Latest health of the instance, or null if it has not been probed yet
+     */
+    public InstanceHealth get(ServiceInstance instance) {
+        InstanceHealth health = instances.get(instance);
+        if (health != null) {
+            return health;
+        }
+        for (InstanceHealth candidate : getService(instance.getServiceId())) {
+            if (candidate.port() == instance.getPort() && candidate.host().equals(instance.getHost())) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    public boolean isRoutable(ServiceInstance instance) {
+        InstanceHealth health = get(instance);
+        return health == null || health.isRoutable();
+    }
+
+    /**
+     * When the probe round that produced this snapshot finished, null before the first one
+     */
+    public Instant getTakenAt() {
+        return takenAt;
+    }
+}
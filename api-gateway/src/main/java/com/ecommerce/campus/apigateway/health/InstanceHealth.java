@@ -0,0 +1,33 @@
+package com.ecommerce.campus.apigateway.health;
+
+import java.time.Instant;
+
+/**
+ * Result of the latest probes of one service instance.
+ */
+public record InstanceHealth(
+        String serviceId,
+        String instanceId,
+        String host,
+        int port,
+        Status status,
+        long latencyMs,
+        int consecutiveFailures,
+        Instant lastCheck,
+        String lastError
+) {
+
+    public enum Status {
+        /** Not probed yet, or failing but below the threshold without ever having been up */
+        UNKNOWN,
+        UP,
+        DOWN
+    }
+
+    /**
+     * Whether the load balancer may send traffic to the instance; unknown instances are given the benefit of the doubt
+     */
+    public boolean isRoutable() {
+        return status != Status.DOWN;
+    }
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.campus.apigateway.hedging;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Request hedging settings bound from {@code gateway.hedging}.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.hedging")
+public class HedgingProperties {
+
+    private boolean enabled = true;
+
+    /** Policies by route id; only GET and HEAD requests of lb:// routes are hedged */
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Route {
+        /** Hedge once the first attempt is slower than this percentile of recent attempts */
+        private double percentile = 95;
+        private Duration minDelay = Duration.ofMillis(5);
+        /** Also the delay until enough attempts have been seen */
+        private Duration maxDelay = Duration.ofMillis(500);
+        /** Attempts the percentile is computed over, it is recomputed once this many are seen */
+        private int window = 1000;
+        /** Hedges allowed per request, 0.05 caps the extra load at 5% */
+        private double budget = 0.05;
+        /** Unused hedges that may be saved up for a burst of slow calls */
+        private int maxBurst = 10;
+    }
+}
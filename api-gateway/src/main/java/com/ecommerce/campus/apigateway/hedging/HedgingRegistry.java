@@ -0,0 +1,38 @@
+package com.ecommerce.campus.apigateway.hedging;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hedging state of the configured routes, built once at startup.
+ */
+@Slf4j
+public class HedgingRegistry {
+
+    private final Map<String, RouteHedging> routes = new LinkedHashMap<>();
+
+    public HedgingRegistry(HedgingProperties properties) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        properties.getRoutes().forEach((routeId, policy) -> routes.put(routeId, new RouteHedging(routeId, policy)));
+        if (!routes.isEmpty()) {
+            log.info("Hedging GET requests of routes {}", routes.keySet());
+        }
+    }
+
+    /**
+     * Hedging state of the route, or null if it is not hedged
+     */
+    public RouteHedging get(String routeId) {
+        return routes.get(routeId);
+    }
+
+    public Collection<RouteHedging> getAll() {
+        return Collections.unmodifiableCollection(routes.values());
+    }
+}
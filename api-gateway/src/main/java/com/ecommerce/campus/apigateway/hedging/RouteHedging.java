@@ -0,0 +1,125 @@
+package com.ecommerce.campus.apigateway.hedging;
+
+import com.ecommerce.campus.apigateway.metrics.LatencyHistogram;
+import com.ecommerce.campus.apigateway.upstream.AttemptBudget;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hedging state of one route: its budget, the delay derived from recent first-attempt latencies
+ * and the counters behind its hedge rate and win ratio.
+ */
+public class RouteHedging {
+
+    private final String routeId;
+    private final AttemptBudget budget;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final int window;
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder windowCount = new LongAdder();
+    private final AtomicBoolean recomputing = new AtomicBoolean();
+    private volatile Duration delay;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+
+    public RouteHedging(String routeId, HedgingProperties.Route policy) {
+        this.routeId = routeId;
+        this.budget = new AttemptBudget(policy.getBudget(), policy.getMaxBurst());
+        this.percentile = policy.getPercentile();
+        this.minDelayNanos = policy.getMinDelay().toNanos();
+        this.maxDelayNanos = policy.getMaxDelay().toNanos();
+        this.window = Math.max(1, policy.getWindow());
+        this.delay = policy.getMaxDelay();
+    }
+
+    /**
+     * Count a request and credit the budget for it
+     */
+    public void onRequest() {
+        requests.increment();
+        budget.deposit();
+    }
+
+    /**
+     * Whether a hedge may be sent now; counts it if so
+     */
+    public boolean tryHedge() {
+        if (budget.tryWithdraw()) {
+            hedges.increment();
+            return true;
+        }
+        budgetExhausted.increment();
+        return false;
+    }
+
+    public void onHedgeWon() {
+        hedgeWins.increment();
+    }
+
+    /**
+     * Record how long an attempt took to answer; every {@code window} attempts the delay moves to
+     * the configured percentile of them
+     */
+    public void recordLatency(long nanos) {
+        latencies.recordNanos(nanos);
+        windowCount.increment();
+        if (windowCount.sum() >= window && recomputing.compareAndSet(false, true)) {
+            try {
+                long micros = latencies.snapshot().valueAtPercentile(percentile);
+                delay = Duration.ofNanos(Math.clamp(micros * 1_000, minDelayNanos, maxDelayNanos));
+                latencies.reset();
+                windowCount.reset();
+            } finally {
+                recomputing.set(false);
+            }
+        }
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public Duration getDelay() {
+        return delay;
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    public long getHedgeWinCount() {
+        return hedgeWins.sum();
+    }
+
+    public long getBudgetExhaustedCount() {
+        return budgetExhausted.sum();
+    }
+
+    /**
+     * Share of requests that were hedged
+     */
+    public double getHedgeRate() {
+        long total = requests.sum();
+        return total == 0 ? 0.0 : (double) hedges.sum() / total;
+    }
+
+    /**
+     * Share of hedges that answered before the first attempt
+     */
+    public double getWinRatio() {
+        long sent = hedges.sum();
+        return sent == 0 ? 0.0 : (double) hedgeWins.sum() / sent;
+    }
+}
@@ -0,0 +1,82 @@
+package com.ecommerce.campus.apigateway.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load signals of one instance: requests in flight, a peak-EWMA of response times and an error cooldown.
+ * <p>
+ * Peak-EWMA (as in Finagle and Linkerd) jumps straight to any latency above the average and decays
+ * slowly below it, so a pausing instance is avoided at once and only trusted again gradually.
+ * The average also decays while the instance is idle, so an instance that stopped getting traffic
+ * is eventually tried again.
+ */
+public final class InstanceStats {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final double decayNanos;
+
+    private double ewmaNanos;
+    private long lastUpdateNanos;
+    private int consecutiveErrors;
+    private volatile long cooldownUntilNanos;
+
+    InstanceStats(double decayNanos, double initialLatencyNanos, long nowNanos) {
+        this.decayNanos = decayNanos;
+        this.ewmaNanos = initialLatencyNanos;
+        this.lastUpdateNanos = nowNanos;
+    }
+
+    void start() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * @param latencyNanos response time, or a negative value if unknown
+     */
+    synchronized void complete(long latencyNanos, boolean error, long nowNanos,
+                               int errorThreshold, long cooldownNanos, long maxCooldownNanos) {
+        inFlight.decrementAndGet();
+        if (latencyNanos >= 0) {
+            if (latencyNanos > ewmaNanos) {
+                ewmaNanos = latencyNanos;
+            } else {
+                double weight = Math.exp(-(nowNanos - lastUpdateNanos) / decayNanos);
+                ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+            }
+            lastUpdateNanos = nowNanos;
+        }
+
+        if (!error) {
+            consecutiveErrors = 0;
+        } else if (++consecutiveErrors >= errorThreshold) {
+            // Back off exponentially while the instance keeps failing
+            int doublings = Math.min(20, consecutiveErrors - errorThreshold);
+            cooldownUntilNanos = nowNanos + Math.min(maxCooldownNanos, cooldownNanos << doublings);
+        }
+    }
+
+    /**
+     * Expected cost of sending one more request: decayed latency times the queue it would join
+     */
+    synchronized double cost(long nowNanos) {
+        double decayed = ewmaNanos * Math.exp(-(nowNanos - lastUpdateNanos) / decayNanos);
+        // The floor keeps the queue length relevant once an idle instance has decayed to zero
+        return (decayed + 1_000) * (inFlight.get() + 1);
+    }
+
+    boolean isCoolingDown(long nowNanos) {
+        return nowNanos < cooldownUntilNanos;
+    }
+
+    long getCooldownUntilNanos() {
+        return cooldownUntilNanos;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public synchronized double getEwmaMs() {
+        return ewmaNanos / 1_000_000.0;
+    }
+}
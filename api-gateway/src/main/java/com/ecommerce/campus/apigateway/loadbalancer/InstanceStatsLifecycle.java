@@ -0,0 +1,74 @@
+package com.ecommerce.campus.apigateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+
+/**
+ * Feeds the outcome of every load-balanced gateway request into the {@link InstanceStatsRegistry}.
+ * Connection failures and 5xx responses count as errors.
+ * <p>
+ * Filters that send the attempts of a request themselves set {@link #ATTEMPTS_RECORDED_ATTR} and
+ * complete each attempt on its own instance, including the one started here.
+ */
+public class InstanceStatsLifecycle implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    public static final String ATTEMPTS_RECORDED_ATTR = InstanceStatsLifecycle.class.getName() + ".attemptsRecorded";
+
+    private final InstanceStatsRegistry registry;
+
+    public InstanceStatsLifecycle(InstanceStatsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                && ResponseData.class.isAssignableFrom(responseClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext timed && timed.getRequestStartTime() == 0) {
+            timed.setRequestStartTime(System.nanoTime());
+        }
+        registry.onStart(lbResponse.getServer());
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()
+                || completionContext.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+        Request<RequestDataContext> request = completionContext.getLoadBalancerRequest();
+        // The gateway hands the exchange's own attribute map to the request data, so late changes show
+        if (request != null && request.getContext() != null && request.getContext().getClientRequest() != null
+                && Boolean.TRUE.equals(request.getContext().getClientRequest().getAttributes().get(ATTEMPTS_RECORDED_ATTR))) {
+            return;
+        }
+        long latency = -1;
+        if (request != null && request.getContext() instanceof TimedRequestContext timed
+                && timed.getRequestStartTime() > 0) {
+            latency = System.nanoTime() - timed.getRequestStartTime();
+        }
+        ResponseData response = completionContext.getClientResponse();
+        boolean error = completionContext.status() == CompletionContext.Status.FAILED
+                || (response != null && response.getHttpStatus() != null && response.getHttpStatus().is5xxServerError());
+        registry.onComplete(lbResponse.getServer(), latency, error);
+    }
+}
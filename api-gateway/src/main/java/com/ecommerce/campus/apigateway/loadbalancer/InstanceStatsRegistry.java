@@ -0,0 +1,72 @@
+package com.ecommerce.campus.apigateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link InstanceStats} of the instances of one service, fed by {@link InstanceStatsLifecycle}.
+ */
+public class InstanceStatsRegistry {
+
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+    private final double decayNanos;
+    private final double initialLatencyNanos;
+    private final int errorThreshold;
+    private final long cooldownNanos;
+    private final long maxCooldownNanos;
+    private final LongSupplier nanoClock;
+
+    public InstanceStatsRegistry(LoadBalancingProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    InstanceStatsRegistry(LoadBalancingProperties properties, LongSupplier nanoClock) {
+        this.decayNanos = properties.getDecayTime().toNanos();
+        this.initialLatencyNanos = properties.getInitialLatency().toNanos();
+        this.errorThreshold = Math.max(1, properties.getErrorThreshold());
+        this.cooldownNanos = properties.getCooldown().toNanos();
+        this.maxCooldownNanos = Math.max(cooldownNanos, properties.getMaxCooldown().toNanos());
+        this.nanoClock = nanoClock;
+    }
+
+    public InstanceStats get(ServiceInstance instance) {
+        String key = key(instance);
+        InstanceStats existing = stats.get(key);
+        return existing != null ? existing
+                : stats.computeIfAbsent(key, k -> new InstanceStats(decayNanos, initialLatencyNanos, nanoClock.getAsLong()));
+    }
+
+    public void onStart(ServiceInstance instance) {
+        get(instance).start();
+    }
+
+    public void onComplete(ServiceInstance instance, long latencyNanos, boolean error) {
+        get(instance).complete(latencyNanos, error, nanoClock.getAsLong(), errorThreshold, cooldownNanos, maxCooldownNanos);
+    }
+
+    long now() {
+        return nanoClock.getAsLong();
+    }
+
+    /**
+     * Forget instances that left the service, once they clearly outnumber the live ones
+     */
+    void retain(List<ServiceInstance> instances) {
+        if (stats.size() <= instances.size() * 2 + 8) {
+            return;
+        }
+        Set<String> live = new HashSet<>();
+        instances.forEach(instance -> live.add(key(instance)));
+        stats.entrySet().removeIf(entry -> !live.contains(entry.getKey()) && entry.getValue().getInFlight() == 0);
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ':' + instance.getPort();
+    }
+}
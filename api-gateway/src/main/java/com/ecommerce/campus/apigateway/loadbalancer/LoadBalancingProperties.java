@@ -0,0 +1,44 @@
+package com.ecommerce.campus.apigateway.loadbalancer;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load balancing settings bound from {@code gateway.load-balancing}.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.load-balancing")
+public class LoadBalancingProperties {
+
+    private Strategy strategy = Strategy.PEAK_EWMA;
+
+    /** Strategy by service id, overriding the default */
+    private Map<String, Strategy> services = new LinkedHashMap<>();
+
+    /** How quickly the latency average forgets a slow response */
+    private Duration decayTime = Duration.ofSeconds(10);
+
+    /** Latency assumed for an instance before its first response */
+    private Duration initialLatency = Duration.ofMillis(50);
+
+    /** Consecutive errors before an instance is cooled down */
+    private int errorThreshold = 3;
+
+    /** First cooldown, doubled for every further error up to max-cooldown */
+    private Duration cooldown = Duration.ofSeconds(5);
+
+    private Duration maxCooldown = Duration.ofSeconds(60);
+
+    public Strategy strategyFor(String serviceId) {
+        return services.getOrDefault(serviceId, strategy);
+    }
+
+    public enum Strategy {
+        PEAK_EWMA,
+        ROUND_ROBIN
+    }
+}
@@ -0,0 +1,81 @@
+package com.ecommerce.campus.apigateway.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Power of two choices over peak-EWMA cost: pick two instances at random and send the request to
+ * the one with the lower {@code latency x (in flight + 1)}. Instances cooling down after errors
+ * lose every comparison against one that is not.
+ */
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+    private final InstanceStatsRegistry stats;
+
+    public PeakEwmaLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                String serviceId,
+                                InstanceStatsRegistry stats) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.stats = stats;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            if (instances.isEmpty()) {
+                return new EmptyResponse();
+            }
+            return new DefaultResponse(choose(instances));
+        });
+    }
+
+    ServiceInstance choose(List<ServiceInstance> instances) {
+        int size = instances.size();
+        if (size == 1) {
+            return instances.get(0);
+        }
+        stats.retain(instances);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        InstanceStats statsA = stats.get(a);
+        InstanceStats statsB = stats.get(b);
+
+        long now = stats.now();
+        boolean coolingA = statsA.isCoolingDown(now);
+        boolean coolingB = statsB.isCoolingDown(now);
+        if (coolingA != coolingB) {
+            return coolingA ? b : a;
+        }
+        if (coolingA) {
+            // Both cooling down: the one that recovers first
+            return statsA.getCooldownUntilNanos() <= statsB.getCooldownUntilNanos() ? a : b;
+        }
+        return statsA.cost(now) <= statsB.cost(now) ? a : b;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+}
@@ -0,0 +1,224 @@
+package com.ecommerce.campus.apigateway.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-linear latency histogram in microseconds, HdrHistogram style: every power of two is split
+ * into 32 linear sub-buckets, so any recorded value is off by at most ~3%.
+ * <p>
+ * Counts live in a few stripes picked by thread, so event-loop threads recording at the same
+ * time rarely touch the same cache line. Recording is a few shifts and one atomic add; nothing
+ * is allocated until a {@link Snapshot} is taken.
+ * <p>
+ * With a window, recordings go to one of {@value #PHASES} phases of half a window each, reused
+ * once they have rolled out, so a snapshot covers the last window plus the phase being filled and
+ * old latencies stop weighing on the percentiles. Without one, everything is kept until {@link #reset}.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    /** Values are clamped to 2^32 us, a bit more than an hour */
+    private static final long MAX_VALUE = (1L << 32) - 1;
+    static final int BUCKETS = (32 - SUB_BITS + 1) * SUB_COUNT;
+    static final int PHASES = 3;
+
+    private final Phase[] phases;
+    /** Period each phase currently counts: epoch ms divided by the phase length */
+    private final AtomicLongArray periods;
+    private final long phaseMs;
+    private final int stripeMask;
+
+    /**
+     * Keeps everything recorded until {@link #reset}
+     */
+    public LatencyHistogram() {
+        this(0);
+    }
+
+    /**
+     * Keeps about the last {@code window} of recordings
+     */
+    public LatencyHistogram(Duration window) {
+        this(Math.max(1, window.toMillis() / (PHASES - 1)));
+    }
+
+    private LatencyHistogram(long phaseMs) {
+        int cpus = Math.min(8, Runtime.getRuntime().availableProcessors());
+        int stripes = Integer.highestOneBit(cpus * 2 - 1);
+        this.stripeMask = stripes - 1;
+        this.phaseMs = phaseMs;
+        this.phases = new Phase[phaseMs > 0 ? PHASES : 1];
+        this.periods = new AtomicLongArray(phases.length);
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new Phase(stripes);
+        }
+    }
+
+    public void recordNanos(long nanos) {
+        record(nanos / 1_000);
+    }
+
+    public void record(long micros) {
+        record(micros, phaseMs > 0 ? System.currentTimeMillis() : 0);
+    }
+
+    void record(long micros, long nowMs) {
+        long value = Math.max(0, Math.min(MAX_VALUE, micros));
+        Phase phase = phaseAt(nowMs);
+        int stripe = (int) Thread.currentThread().threadId() & stripeMask;
+        phase.stripes[stripe].incrementAndGet(indexOf(value));
+        phase.sum.add(value);
+        phase.max.accumulate(value);
+    }
+
+    public void reset() {
+        for (Phase phase : phases) {
+            phase.clear();
+        }
+    }
+
+    public Snapshot snapshot() {
+        return snapshot(phaseMs > 0 ? System.currentTimeMillis() : 0);
+    }
+
+    Snapshot snapshot(long nowMs) {
+        long period = period(nowMs);
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        long sum = 0;
+        long max = 0;
+        for (int p = 0; p < phases.length; p++) {
+            long phasePeriod = periods.get(p);
+            if (phasePeriod > period || phasePeriod <= period - phases.length) {
+                continue;
+            }
+            Phase phase = phases[p];
+            for (AtomicLongArray stripe : phase.stripes) {
+                for (int i = 0; i < BUCKETS; i++) {
+                    long count = stripe.get(i);
+                    counts[i] += count;
+                    total += count;
+                }
+            }
+            sum += phase.sum.sum();
+            max = Math.max(max, phase.max.get());
+        }
+        return new Snapshot(counts, total, sum, max);
+    }
+
+    private long period(long nowMs) {
+        return phaseMs > 0 ? nowMs / phaseMs : 0;
+    }
+
+    private Phase phaseAt(long nowMs) {
+        long period = period(nowMs);
+        int slot = (int) (period % phases.length);
+        long current = periods.get(slot);
+        if (current < period && periods.compareAndSet(slot, current, period)) {
+            // First recording of a new period in this phase; racing recordings may be lost, which is fine for percentiles
+            phases[slot].clear();
+        }
+        return phases[slot];
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        int mantissa = (int) (value >>> shift); // in [SUB_COUNT, 2 * SUB_COUNT)
+        return (shift + 1) * SUB_COUNT + mantissa - SUB_COUNT;
+    }
+
+    /**
+     * Largest value that lands in the bucket, as HdrHistogram reports it
+     */
+    static long highestValueAt(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_COUNT - 1;
+        long mantissa = SUB_COUNT + index % SUB_COUNT;
+        return (mantissa << shift) + (1L << shift) - 1;
+    }
+
+    private static final class Phase {
+
+        private final AtomicLongArray[] stripes;
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        Phase(int stripeCount) {
+            stripes = new AtomicLongArray[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new AtomicLongArray(BUCKETS);
+            }
+        }
+
+        void clear() {
+            for (AtomicLongArray stripe : stripes) {
+                for (int i = 0; i < BUCKETS; i++) {
+                    stripe.set(i, 0);
+                }
+            }
+            sum.reset();
+            max.reset();
+        }
+    }
+
+    /**
+     * Point-in-time copy of the histogram
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long sumMicros;
+        private final long maxMicros;
+
+        Snapshot(long[] counts, long count, long sumMicros, long maxMicros) {
+            this.counts = counts;
+            this.count = count;
+            this.sumMicros = sumMicros;
+            this.maxMicros = maxMicros;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        /**
+         * Value below which the given percentage of recordings fall, in microseconds
+         */
+        public long valueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueAt(i), maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+
+        public double valueAtPercentileMs(double percentile) {
+            return valueAtPercentile(percentile) / 1_000.0;
+        }
+
+        public double meanMs() {
+            return count == 0 ? 0.0 : (double) sumMicros / count / 1_000.0;
+        }
+
+        public double maxMs() {
+            return maxMicros / 1_000.0;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.ecommerce.campus.apigateway.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histogram for one route. Every field is striped, so the event loops
+ * can record concurrently without contending on a shared counter.
+ */
+public class RouteMetrics {
+
+    private static final long SNAPSHOT_TTL_MS = 1_000;
+    /** Latencies describe about the last minute, like the longest throughput window */
+    private static final Duration LATENCY_WINDOW = Duration.ofMinutes(1);
+
+    private final String routeId;
+    /** Index 1..5 for 1xx..5xx, 0 for anything else */
+    private final LongAdder[] statusClasses = new LongAdder[6];
+    private final LongAdder inFlight = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram(LATENCY_WINDOW);
+    private final SlidingWindowCounter throughput = new SlidingWindowCounter();
+
+    private volatile LatencyHistogram.Snapshot cachedSnapshot;
+    private volatile long cachedAtMs;
+
+    public RouteMetrics(String routeId) {
+        this.routeId = routeId;
+        for (int i = 0; i < statusClasses.length; i++) {
+            statusClasses[i] = new LongAdder();
+        }
+    }
+
+    public void start() {
+        inFlight.increment();
+    }
+
+    public void complete(int status, long latencyNanos, long nowMs) {
+        inFlight.decrement();
+        int statusClass = status / 100;
+        statusClasses[statusClass > 0 && statusClass < statusClasses.length ? statusClass : 0].increment();
+        latency.recordNanos(latencyNanos);
+        throughput.increment(nowMs);
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public long getRequestCount() {
+        long total = 0;
+        for (LongAdder count : statusClasses) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    /**
+     * @param statusClass 1 to 5 for 1xx to 5xx
+     */
+    public long getStatusClassCount(int statusClass) {
+        return statusClasses[statusClass].sum();
+    }
+
+    public long getFailedCount() {
+        return statusClasses[5].sum();
+    }
+
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    public double getThroughput(int windowSeconds) {
+        return throughput.ratePerSecond(windowSeconds, System.currentTimeMillis());
+    }
+
+    /**
+     * Latency snapshot, recomputed at most once a second so scrapes of several quantiles stay cheap
+     */
+    public LatencyHistogram.Snapshot latencySnapshot() {
+        long now = System.currentTimeMillis();
+        LatencyHistogram.Snapshot snapshot = cachedSnapshot;
+        if (snapshot == null || now - cachedAtMs >= SNAPSHOT_TTL_MS) {
+            snapshot = latency.snapshot();
+            cachedSnapshot = snapshot;
+            cachedAtMs = now;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Clear totals and latencies; requests in flight are still counted
+     */
+    public void reset() {
+        for (LongAdder count : statusClasses) {
+            count.reset();
+        }
+        latency.reset();
+        throughput.reset();
+        cachedSnapshot = null;
+    }
+}
@@ -0,0 +1,58 @@
+package com.ecommerce.campus.apigateway.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Events per second over the last minute, one striped counter per second.
+ * A bucket is reused once its second has rolled out of the window, so memory is fixed.
+ */
+public class SlidingWindowCounter {
+
+    private static final int SLOTS = 64; // 60 s window plus room for the second being filled
+
+    private final LongAdder[] counts = new LongAdder[SLOTS];
+    /** Epoch second each bucket currently counts */
+    private final AtomicLongArray seconds = new AtomicLongArray(SLOTS);
+
+    public SlidingWindowCounter() {
+        for (int i = 0; i < SLOTS; i++) {
+            counts[i] = new LongAdder();
+            seconds.set(i, -1);
+        }
+    }
+
+    public void increment(long nowMs) {
+        long second = nowMs / 1_000;
+        int slot = (int) (second & (SLOTS - 1));
+        long current = seconds.get(slot);
+        if (current < second && seconds.compareAndSet(slot, current, second)) {
+            // First event of a new second in this bucket; racing increments may be lost, which is fine for a rate
+            counts[slot].reset();
+        }
+        counts[slot].increment();
+    }
+
+    /**
+     * Mean rate over the last {@code windowSeconds} complete seconds
+     */
+    public double ratePerSecond(int windowSeconds, long nowMs) {
+        int window = Math.max(1, Math.min(SLOTS - 2, windowSeconds));
+        long currentSecond = nowMs / 1_000;
+        long total = 0;
+        for (long second = currentSecond - window; second < currentSecond; second++) {
+            int slot = (int) (second & (SLOTS - 1));
+            if (seconds.get(slot) == second) {
+                total += counts[slot].sum();
+            }
+        }
+        return (double) total / window;
+    }
+
+    public void reset() {
+        for (int i = 0; i < SLOTS; i++) {
+            seconds.set(i, -1);
+            counts[i].reset();
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.ecommerce.campus.apigateway.ratelimit;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+/**
+ * Turns the client address of a request into a 64-bit key without building strings.
+ * IPv4 and IPv6 are normalised to the same 128-bit form (IPv4 as ::ffff:a.b.c.d), so the same
+ * client gets the same key whether it arrives directly or through X-Forwarded-For.
+ */
+public final class ClientKeyResolver {
+
+    public static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    /** Key used when no client address can be determined */
+    public static final long UNKNOWN_CLIENT = mix(0L, 0L);
+
+    private static final long IPV4_MAPPED_PREFIX = 0x0000FFFF00000000L;
+
+    private ClientKeyResolver() {
+    }
+
+    /**
+     * Resolve the client key from the first X-Forwarded-For entry or the remote address
+     */
+    public static long resolve(ServerHttpRequest request) {
+        String forwardedFor = request.getHeaders().getFirst(X_FORWARDED_FOR);
+        if (forwardedFor != null && !forwardedFor.isEmpty()) {
+            return keyOfForwardedFor(forwardedFor);
+        }
+        return keyOf(request.getRemoteAddress());
+    }
+
+    /**
+     * Key of the first (client) entry of an X-Forwarded-For header value
+     */
+    public static long keyOfForwardedFor(String header) {
+        int start = 0;
+        int end = header.indexOf(',');
+        if (end < 0) {
+            end = header.length();
+        }
+        while (start < end && Character.isWhitespace(header.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(header.charAt(end - 1))) {
+            end--;
+        }
+        return keyOf(header, start, end);
+    }
+
+    /**
+     * Key of an address literal; anything that is not an IP literal is hashed as text
+     */
+    public static long keyOf(CharSequence text, int start, int end) {
+        if (start >= end) {
+            return UNKNOWN_CLIENT;
+        }
+        if (text.charAt(start) == '[') {
+            int close = indexOf(text, ']', start, end);
+            if (close > 0) {
+                return keyOfIpv6(text, start + 1, close);
+            }
+            return hashText(text, start, end);
+        }
+
+        // A dot before any colon means IPv4, possibly followed by :port
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '.') {
+                long ipv4 = parseIpv4(text, start, end, true);
+                return ipv4 >= 0 ? mix(0L, IPV4_MAPPED_PREFIX | ipv4) : hashText(text, start, end);
+            }
+            if (c == ':') {
+                return keyOfIpv6(text, start, end);
+            }
+        }
+        return hashText(text, start, end);
+    }
+
+    public static long keyOf(String address) {
+        return keyOf(address, 0, address.length());
+    }
+
+    public static long keyOf(InetSocketAddress remoteAddress) {
+        if (remoteAddress == null) {
+            return UNKNOWN_CLIENT;
+        }
+        InetAddress address = remoteAddress.getAddress();
+        if (address == null) {
+            String host = remoteAddress.getHostString();
+            return keyOf(host, 0, host.length());
+        }
+        if (address instanceof Inet4Address) {
+            // Inet4Address.hashCode() is the address itself, avoids cloning the byte array
+            return mix(0L, IPV4_MAPPED_PREFIX | (address.hashCode() & 0xFFFFFFFFL));
+        }
+        byte[] bytes = address.getAddress();
+        long hi = 0;
+        long lo = 0;
+        for (int i = 0; i < 8; i++) {
+            hi = (hi << 8) | (bytes[i] & 0xFF);
+            lo = (lo << 8) | (bytes[i + 8] & 0xFF);
+        }
+        return mix(hi, lo);
+    }
+
+    private static long keyOfIpv6(CharSequence text, int start, int end) {
+        int zone = indexOf(text, '%', start, end);
+        int limit = zone > 0 ? zone : end;
+
+        long headHi = 0, headLo = 0, tailHi = 0, tailLo = 0;
+        int headGroups = 0, tailGroups = 0;
+        boolean compressed = false;
+        int i = start;
+
+        if (limit - start >= 2 && text.charAt(start) == ':' && text.charAt(start + 1) == ':') {
+            compressed = true;
+            i += 2;
+        }
+
+        while (i < limit) {
+            int groupStart = i;
+            int value = 0;
+            int digits = 0;
+            while (i < limit && digits <= 4) {
+                int d = Character.digit(text.charAt(i), 16);
+                if (d < 0) {
+                    break;
+                }
+                value = (value << 4) | d;
+                digits++;
+                i++;
+            }
+
+            if (i < limit && text.charAt(i) == '.') {
+                // Embedded IPv4 tail, e.g. ::ffff:10.0.0.1
+                long ipv4 = parseIpv4(text, groupStart, limit, false);
+                if (ipv4 < 0) {
+                    return hashText(text, start, end);
+                }
+                for (int half = 1; half >= 0; half--) {
+                    int group = (int) ((ipv4 >>> (16 * half)) & 0xFFFF);
+                    if (compressed) {
+                        tailHi = (tailHi << 16) | (tailLo >>> 48);
+                        tailLo = (tailLo << 16) | group;
+                        tailGroups++;
+                    } else {
+                        headHi = (headHi << 16) | (headLo >>> 48);
+                        headLo = (headLo << 16) | group;
+                        headGroups++;
+                    }
+                }
+                i = limit;
+                break;
+            }
+
+            if (digits == 0 || digits > 4) {
+                return hashText(text, start, end);
+            }
+            if (compressed) {
+                tailHi = (tailHi << 16) | (tailLo >>> 48);
+                tailLo = (tailLo << 16) | value;
+                tailGroups++;
+            } else {
+                headHi = (headHi << 16) | (headLo >>> 48);
+                headLo = (headLo << 16) | value;
+                headGroups++;
+            }
+
+            if (i == limit) {
+                break;
+            }
+            if (text.charAt(i) != ':') {
+                return hashText(text, start, end);
+            }
+            i++;
+            if (i < limit && text.charAt(i) == ':') {
+                if (compressed) {
+                    return hashText(text, start, end);
+                }
+                compressed = true;
+                i++;
+            }
+        }
+
+        int groups = headGroups + tailGroups;
+        if (groups > 8 || (!compressed && groups != 8)) {
+            return hashText(text, start, end);
+        }
+
+        // Move the head groups to the top of the 128-bit value
+        for (int shift = headGroups; shift < 8; shift++) {
+            headHi = (headHi << 16) | (headLo >>> 48);
+            headLo = headLo << 16;
+        }
+        return mix(headHi | tailHi, headLo | tailLo);
+    }
+
+    /**
+     * Parse a dotted quad, returning the address as unsigned int or -1 when invalid
+     */
+    private static long parseIpv4(CharSequence text, int start, int end, boolean allowPort) {
+        long address = 0;
+        int octets = 0;
+        int i = start;
+        while (i < end && octets < 4) {
+            int value = 0;
+            int digits = 0;
+            while (i < end) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                value = value * 10 + (c - '0');
+                digits++;
+                i++;
+            }
+            if (digits == 0 || digits > 3 || value > 255) {
+                return -1;
+            }
+            address = (address << 8) | value;
+            octets++;
+            if (octets < 4) {
+                if (i >= end || text.charAt(i) != '.') {
+                    return -1;
+                }
+                i++;
+            }
+        }
+        if (octets != 4) {
+            return -1;
+        }
+        if (i < end && !(allowPort && text.charAt(i) == ':')) {
+            return -1;
+        }
+        return address;
+    }
+
+    private static int indexOf(CharSequence text, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long hashText(CharSequence text, int start, int end) {
+        long hash = 0xcbf29ce484222325L; // FNV-1a
+        for (int i = start; i < end; i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash, 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Fold a 128-bit value into a well distributed 64-bit key
+     */
+    static long mix(long hi, long lo) {
+        return fmix64(hi * 0x9E3779B97F4A7C15L ^ fmix64(lo));
+    }
+
+    static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,207 @@
+package com.ecommerce.campus.apigateway.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cluster-wide limiter: every replica leases batches of permits from a shared token bucket
+ * ({@link PermitStore}) and spends them locally, so the store is only contacted once per batch.
+ * <p>
+ * Refills are asynchronous and start when a lease runs low. While a client has no permits in hand
+ * and the store has not reported its bucket empty, requests are decided by the local limiter until
+ * the batch arrives. When the store fails, the replica falls back to the local limiter for
+ * {@code degradedBackoff} before trying again.
+ */
+@Slf4j
+public class DistributedRateLimiter implements RateLimiter {
+
+    private final PermitStore permitStore;
+    private final RateLimiter localLimiter;
+    private final AtomicReferenceArray<Lease> leases;
+    private final int leaseMask;
+    private final int batchSize;
+    private final long leaseTtlMs;
+    private final Duration storeTimeout;
+    private final long degradedBackoffMs;
+
+    private volatile long degradedUntilMs;
+
+    private final LongAdder decisions = new LongAdder();
+    private final LongAdder leaseRequests = new LongAdder();
+    private final LongAdder leaseFailures = new LongAdder();
+    private final LongAdder leaseLatencyNanos = new LongAdder();
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder fallbackDecisions = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public DistributedRateLimiter(PermitStore permitStore,
+                                  RateLimiter localLimiter,
+                                  int leaseSlots,
+                                  int batchSize,
+                                  Duration leaseTtl,
+                                  Duration storeTimeout,
+                                  Duration degradedBackoff) {
+        int size = Integer.highestOneBit(Math.max(2, leaseSlots - 1)) << 1;
+        this.permitStore = permitStore;
+        this.localLimiter = localLimiter;
+        this.leases = new AtomicReferenceArray<>(size);
+        this.leaseMask = size - 1;
+        this.batchSize = Math.max(1, batchSize);
+        this.leaseTtlMs = leaseTtl.toMillis();
+        this.storeTimeout = storeTimeout;
+        this.degradedBackoffMs = degradedBackoff.toMillis();
+    }
+
+    @Override
+    public boolean tryAcquire(long clientKey, RateLimitPolicy policy, long nowMs) {
+        decisions.increment();
+        if (nowMs < degradedUntilMs) {
+            return decideLocally(clientKey, policy, nowMs);
+        }
+
+        long key = ClientKeyResolver.fmix64(clientKey ^ policy.salt());
+        Lease lease = leaseFor(key, policy);
+        int batch = Math.min(batchSize, policy.permits());
+
+        if (nowMs >= lease.expiresAtMs) {
+            // Unused permits of an old lease go back to nobody, so a replica cannot hoard them
+            lease.permits.set(0);
+        }
+
+        int remaining = lease.permits.getAndDecrement();
+        if (remaining > 0) {
+            localHits.increment();
+            if (remaining - 1 <= batch / 2) {
+                refill(lease, policy, batch, nowMs);
+            }
+            return true;
+        }
+        lease.permits.incrementAndGet();
+
+        if (nowMs < lease.retryAfterMs) {
+            // The shared bucket told us recently that it is empty
+            rejected.increment();
+            return false;
+        }
+
+        // Lease not fetched yet or ran dry: the refill may complete right away on a fast store
+        refill(lease, policy, batch, nowMs);
+        if (lease.permits.getAndDecrement() > 0) {
+            localHits.increment();
+            return true;
+        }
+        lease.permits.incrementAndGet();
+        return decideLocally(clientKey, policy, nowMs);
+    }
+
+    private boolean decideLocally(long clientKey, RateLimitPolicy policy, long nowMs) {
+        fallbackDecisions.increment();
+        boolean allowed = localLimiter.tryAcquire(clientKey, policy, nowMs);
+        if (!allowed) {
+            rejected.increment();
+        }
+        return allowed;
+    }
+
+    public long getLeaseRequestCount() {
+        return leaseRequests.sum();
+    }
+
+    public long getLeaseFailureCount() {
+        return leaseFailures.sum();
+    }
+
+    public double getLeaseLatencyTotalMs() {
+        return leaseLatencyNanos.sum() / 1_000_000.0;
+    }
+
+    public long getLocalHitCount() {
+        return localHits.sum();
+    }
+
+    public long getFallbackCount() {
+        return fallbackDecisions.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Share of decisions answered from leased permits without touching the store
+     */
+    public double getLocalHitRatio() {
+        long total = decisions.sum();
+        return total == 0 ? 0.0 : (double) localHits.sum() / total;
+    }
+
+    public boolean isDegraded() {
+        return System.currentTimeMillis() < degradedUntilMs;
+    }
+
+    private Lease leaseFor(long key, RateLimitPolicy policy) {
+        int index = (int) (key & leaseMask);
+        Lease lease = leases.get(index);
+        if (lease != null && lease.key == key) {
+            return lease;
+        }
+        // Direct mapped: a colliding client simply replaces the previous lease
+        Lease fresh = new Lease(key, bucketKey(policy, key));
+        return leases.compareAndSet(index, lease, fresh) ? fresh : leaseFor(key, policy);
+    }
+
+    private void refill(Lease lease, RateLimitPolicy policy, int batch, long nowMs) {
+        if (nowMs < lease.retryAfterMs || !lease.refilling.compareAndSet(false, true)) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        leaseRequests.increment();
+        double refillPerMs = (double) policy.permits() / policy.windowMs();
+
+        permitStore.lease(lease.bucketKey, policy.permits(), refillPerMs, batch)
+                .timeout(storeTimeout)
+                .subscribe(granted -> {
+                    long now = System.currentTimeMillis();
+                    leaseLatencyNanos.add(System.nanoTime() - started);
+                    if (granted > 0) {
+                        lease.expiresAtMs = now + leaseTtlMs;
+                        lease.permits.addAndGet(granted.intValue());
+                    } else {
+                        // Empty bucket: do not ask again before one token has been refilled
+                        lease.retryAfterMs = now + (long) Math.ceil(1 / refillPerMs);
+                    }
+                    lease.refilling.set(false);
+                }, error -> {
+                    leaseLatencyNanos.add(System.nanoTime() - started);
+                    leaseFailures.increment();
+                    degradedUntilMs = System.currentTimeMillis() + degradedBackoffMs;
+                    log.warn("Permit store unavailable, using local rate limits for {} ms: {}",
+                            degradedBackoffMs, error.getMessage());
+                    lease.refilling.set(false);
+                });
+    }
+
+    private static String bucketKey(RateLimitPolicy policy, long key) {
+        return "gateway:ratelimit:" + policy.name() + ":" + Long.toHexString(key);
+    }
+
+    private static final class Lease {
+        final long key;
+        final String bucketKey;
+        final AtomicInteger permits = new AtomicInteger();
+        final AtomicBoolean refilling = new AtomicBoolean();
+        volatile long expiresAtMs;
+        volatile long retryAfterMs;
+
+        Lease(long key, String bucketKey) {
+            this.key = key;
+            this.bucketKey = bucketKey;
+        }
+    }
+}
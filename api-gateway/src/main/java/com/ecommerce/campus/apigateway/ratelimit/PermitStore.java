@@ -0,0 +1,20 @@
+package com.ecommerce.campus.apigateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Shared token bucket that replicas lease permits from.
+ */
+public interface PermitStore {
+
+    /**
+     * Take up to {@code requested} tokens from the bucket, refilling it first
+     *
+     * @param bucketKey   store key of the bucket
+     * @param capacity    bucket size
+     * @param refillPerMs tokens added per millisecond
+     * @param requested   batch size wanted by the replica
+     * @return number of tokens granted, between 0 and requested
+     */
+    Mono<Long> lease(String bucketKey, int capacity, double refillPerMs, int requested);
+}
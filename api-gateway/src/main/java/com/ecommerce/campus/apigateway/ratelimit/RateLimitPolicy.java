@@ -0,0 +1,23 @@
+package com.ecommerce.campus.apigateway.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * A limit of {@code permits} requests per sliding {@code window}.
+ * The salt separates the counters of different policies for the same client.
+ */
+public record RateLimitPolicy(String name, int permits, long windowMs, long salt) {
+
+    public RateLimitPolicy {
+        if (permits <= 0 || permits > SlidingWindowRateLimiter.MAX_COUNT) {
+            throw new IllegalArgumentException("permits must be between 1 and " + SlidingWindowRateLimiter.MAX_COUNT);
+        }
+        if (windowMs <= 0) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+    }
+
+    public static RateLimitPolicy of(String name, int permits, Duration window) {
+        return new RateLimitPolicy(name, permits, window.toMillis(), ClientKeyResolver.fmix64(name.hashCode() + 1L));
+    }
+}
@@ -0,0 +1,64 @@
+package com.ecommerce.campus.apigateway.ratelimit;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Picks the policy for a request: client override, then route limit, then the default.
+ * Client overrides are looked up by key with a binary search, so no strings are built per request.
+ */
+public class RateLimitPolicyResolver {
+
+    private final RateLimitPolicy defaultPolicy;
+    private final Map<String, RateLimitPolicy> routePolicies = new HashMap<>();
+    private final long[] clientKeys;
+    private final RateLimitPolicy[] clientPolicies;
+
+    public RateLimitPolicyResolver(RateLimitProperties properties) {
+        this.defaultPolicy = toPolicy("default", properties.getDefaultLimit());
+        properties.getRoutes().forEach((routeId, limit) ->
+                routePolicies.put(routeId, toPolicy("route:" + routeId, limit)));
+
+        long[][] entries = new long[properties.getClients().size()][];
+        RateLimitPolicy[] policies = new RateLimitPolicy[entries.length];
+        int i = 0;
+        for (Map.Entry<String, RateLimitProperties.Limit> client : properties.getClients().entrySet()) {
+            policies[i] = toPolicy("client:" + client.getKey(), client.getValue());
+            entries[i] = new long[]{ClientKeyResolver.keyOf(client.getKey()), i};
+            i++;
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+
+        this.clientKeys = new long[entries.length];
+        this.clientPolicies = new RateLimitPolicy[entries.length];
+        for (int j = 0; j < entries.length; j++) {
+            clientKeys[j] = entries[j][0];
+            clientPolicies[j] = policies[(int) entries[j][1]];
+        }
+    }
+
+    public RateLimitPolicy resolve(String routeId, long clientKey) {
+        if (clientKeys.length > 0) {
+            int index = Arrays.binarySearch(clientKeys, clientKey);
+            if (index >= 0) {
+                return clientPolicies[index];
+            }
+        }
+        if (routeId != null) {
+            RateLimitPolicy routePolicy = routePolicies.get(routeId);
+            if (routePolicy != null) {
+                return routePolicy;
+            }
+        }
+        return defaultPolicy;
+    }
+
+    public RateLimitPolicy getDefaultPolicy() {
+        return defaultPolicy;
+    }
+
+    private static RateLimitPolicy toPolicy(String name, RateLimitProperties.Limit limit) {
+        return RateLimitPolicy.of(name, limit.getRequests(), limit.getWindow());
+    }
+}
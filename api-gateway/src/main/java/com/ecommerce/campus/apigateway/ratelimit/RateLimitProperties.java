@@ -0,0 +1,59 @@
+package com.ecommerce.campus.apigateway.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rate limit settings bound from {@code gateway.rate-limit}.
+ * Client overrides are keyed by IP literal, written as {@code "[10.0.0.5]"} in YAML so the dots are kept.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** LOCAL enforces limits per replica, DISTRIBUTED shares them through Redis */
+    private Mode mode = Mode.LOCAL;
+
+    /** Number of client slots kept in memory, rounded up to a power of two */
+    private int slots = 65536;
+
+    private Limit defaultLimit = new Limit();
+
+    /** Limits by route id, applied to every client of that route */
+    private Map<String, Limit> routes = new LinkedHashMap<>();
+
+    /** Limits by client IP, taking precedence over route limits */
+    private Map<String, Limit> clients = new LinkedHashMap<>();
+
+    private Distributed distributed = new Distributed();
+
+    public enum Mode {
+        LOCAL,
+        DISTRIBUTED
+    }
+
+    @Data
+    public static class Limit {
+        private int requests = 100;
+        private Duration window = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Distributed {
+        /** Number of client leases kept per replica */
+        private int leaseSlots = 16384;
+        /** Permits taken from the shared bucket per round trip */
+        private int batchSize = 10;
+        /** Leased permits not spent within this time are dropped */
+        private Duration leaseTtl = Duration.ofSeconds(1);
+        private Duration storeTimeout = Duration.ofMillis(100);
+        /** How long to stay on local limits after Redis fails */
+        private Duration degradedBackoff = Duration.ofSeconds(5);
+    }
+}
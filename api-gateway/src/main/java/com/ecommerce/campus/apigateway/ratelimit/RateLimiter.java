@@ -0,0 +1,16 @@
+package com.ecommerce.campus.apigateway.ratelimit;
+
+/**
+ * Decides whether a client may make one more request under a policy.
+ * Implementations must be non-blocking, they run on the Netty event loop.
+ */
+public interface RateLimiter {
+
+    /**
+     * @param clientKey key from {@link ClientKeyResolver}
+     * @param policy    the limit to enforce
+     * @param nowMs     current time in milliseconds
+     * @return true if the request is within the limit
+     */
+    boolean tryAcquire(long clientKey, RateLimitPolicy policy, long nowMs);
+}
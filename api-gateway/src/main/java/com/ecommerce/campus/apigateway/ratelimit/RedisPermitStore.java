@@ -0,0 +1,34 @@
+package com.ecommerce.campus.apigateway.ratelimit;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Token bucket kept in Redis and updated atomically by a Lua script, using Redis' own clock
+ * so replicas with skewed clocks still agree on the refill.
+ */
+public class RedisPermitStore implements PermitStore {
+
+    private static final RedisScript<Long> TOKEN_BUCKET_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/rate-limit-token-bucket.lua"), Long.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public RedisPermitStore(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Mono<Long> lease(String bucketKey, int capacity, double refillPerMs, int requested) {
+        return redisTemplate.execute(
+                        TOKEN_BUCKET_SCRIPT,
+                        List.of(bucketKey),
+                        List.of(String.valueOf(capacity), String.valueOf(refillPerMs), String.valueOf(requested)))
+                .next()
+                .defaultIfEmpty(0L);
+    }
+}
@@ -0,0 +1,157 @@
+package com.ecommerce.campus.apigateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free sliding-window counter limiter with a fixed memory footprint.
+ * <p>
+ * Counters live in a preallocated {@link AtomicLongArray} split into 4-way stripes. Each slot packs
+ * the whole state of one client into a single long, so every update is one CAS:
+ * <pre>
+ *   | fingerprint 16 | window 16 | current count 16 | previous count 16 |
+ * </pre>
+ * The estimate is {@code previous * (1 - elapsed/window) + current}, which smooths the 2x burst a
+ * fixed window allows at its boundary. When a stripe is full the stale or least active slot is
+ * reused, so memory stays flat no matter how many distinct clients are seen; the cost is that an
+ * evicted client starts again from zero.
+ * <p>
+ * The window number wraps after 65536 windows, about 18 hours of one-second windows or 45 days of
+ * one-minute ones. Only a slot untouched for exactly a multiple of that could pass its old counts
+ * off as recent.
+ */
+public class SlidingWindowRateLimiter implements RateLimiter {
+
+    public static final int MAX_COUNT = (1 << 16) - 1;
+
+    private static final int WAYS = 4;
+    private static final int COUNT_BITS = 16;
+    private static final int WINDOW_BITS = 16;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long WINDOW_MASK = (1L << WINDOW_BITS) - 1;
+    private static final int PREVIOUS_SHIFT = 0;
+    private static final int CURRENT_SHIFT = COUNT_BITS;
+    private static final int WINDOW_SHIFT = COUNT_BITS * 2;
+    private static final int FINGERPRINT_SHIFT = WINDOW_SHIFT + WINDOW_BITS;
+
+    private final AtomicLongArray slots;
+    private final int stripeMask;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity number of client slots, rounded up to a power of two
+     */
+    public SlidingWindowRateLimiter(int capacity) {
+        int size = Integer.highestOneBit(Math.max(WAYS, capacity - 1)) << 1;
+        this.slots = new AtomicLongArray(size);
+        this.stripeMask = size / WAYS - 1;
+    }
+
+    @Override
+    public boolean tryAcquire(long clientKey, RateLimitPolicy policy, long nowMs) {
+        long key = ClientKeyResolver.fmix64(clientKey ^ policy.salt());
+        long fingerprint = (key >>> 48) == 0 ? 1 : key >>> 48; // 0 marks an empty slot
+        int base = (int) (key & stripeMask) * WAYS;
+
+        long windowMs = policy.windowMs();
+        long window = (nowMs / windowMs) & WINDOW_MASK;
+        double elapsed = (double) (nowMs % windowMs) / windowMs;
+
+        while (true) {
+            int victim = -1;
+            long victimState = 0;
+            double victimScore = Double.MAX_VALUE;
+
+            for (int way = 0; way < WAYS; way++) {
+                int index = base + way;
+                long state = slots.get(index);
+
+                if (state != 0 && (state >>> FINGERPRINT_SHIFT) == fingerprint) {
+                    long current = currentOf(state, window);
+                    long previous = previousOf(state, window);
+                    if (previous * (1.0 - elapsed) + current + 1 > policy.permits()) {
+                        rejected.increment();
+                        return false;
+                    }
+                    long next = pack(fingerprint, window, Math.min(current + 1, MAX_COUNT), previous);
+                    if (slots.compareAndSet(index, state, next)) {
+                        allowed.increment();
+                        return true;
+                    }
+                    victim = -2; // Lost a race on our own slot, rescan
+                    break;
+                }
+
+                double score = state == 0 ? -1 : estimateOf(state, window, elapsed);
+                if (score < victimScore) {
+                    victimScore = score;
+                    victim = index;
+                    victimState = state;
+                }
+            }
+
+            if (victim == -2) {
+                continue;
+            }
+
+            // Client not tracked: take the empty, stale or least active slot of the stripe
+            long fresh = pack(fingerprint, window, 1, 0);
+            if (slots.compareAndSet(victim, victimState, fresh)) {
+                if (victimState != 0 && victimScore > 0) {
+                    evictions.increment();
+                }
+                allowed.increment();
+                return true;
+            }
+        }
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Number of times a still active client was pushed out of its stripe
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private static long currentOf(long state, long window) {
+        long slotWindow = (state >>> WINDOW_SHIFT) & WINDOW_MASK;
+        return slotWindow == window ? (state >>> CURRENT_SHIFT) & COUNT_MASK : 0;
+    }
+
+    private static long previousOf(long state, long window) {
+        long slotWindow = (state >>> WINDOW_SHIFT) & WINDOW_MASK;
+        if (slotWindow == window) {
+            return (state >>> PREVIOUS_SHIFT) & COUNT_MASK;
+        }
+        if (slotWindow == ((window - 1) & WINDOW_MASK)) {
+            return (state >>> CURRENT_SHIFT) & COUNT_MASK;
+        }
+        return 0;
+    }
+
+    private static double estimateOf(long state, long window, double elapsed) {
+        return previousOf(state, window) * (1.0 - elapsed) + currentOf(state, window);
+    }
+
+    private static long pack(long fingerprint, long window, long current, long previous) {
+        return (fingerprint << FINGERPRINT_SHIFT)
+                | (window << WINDOW_SHIFT)
+                | (current << CURRENT_SHIFT)
+                | (previous << PREVIOUS_SHIFT);
+    }
+}
@@ -0,0 +1,148 @@
+package com.ecommerce.campus.apigateway.registry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Follows the Consul catalog with blocking queries: one watch on the service list, plus one per
+ * service on its passing instances. Consul answers as soon as something changes, so the cache
+ * is updated within one round trip, and only the service that changed is re-read.
+ */
+@Slf4j
+public class ConsulCatalogWatcher implements RegistryWatcher {
+
+    private static final String INDEX_HEADER = "X-Consul-Index";
+
+    private final ServiceRegistryCache cache;
+    private final WebClient webClient;
+    private final Duration wait;
+    private final Duration retryDelay;
+    private final Map<String, Disposable> serviceWatches = new ConcurrentHashMap<>();
+
+    private volatile Disposable catalogWatch;
+
+    public ConsulCatalogWatcher(ServiceRegistryCache cache, RegistryProperties properties) {
+        this.cache = cache;
+        this.webClient = WebClient.builder().baseUrl(properties.getConsulUrl()).build();
+        this.wait = properties.getConsulWait();
+        this.retryDelay = properties.getRetryDelay();
+    }
+
+    @Override
+    public void start() {
+        catalogWatch = watch("/v1/catalog/services", this::onCatalogChange);
+        log.info("Watching Consul catalog for service changes");
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = catalogWatch;
+        if (current != null) {
+            current.dispose();
+        }
+        serviceWatches.values().forEach(Disposable::dispose);
+        serviceWatches.clear();
+    }
+
+    private void onCatalogChange(JsonNode services) {
+        Set<String> names = new HashSet<>();
+        services.fieldNames().forEachRemaining(names::add);
+
+        Iterator<Map.Entry<String, Disposable>> watches = serviceWatches.entrySet().iterator();
+        while (watches.hasNext()) {
+            Map.Entry<String, Disposable> entry = watches.next();
+            if (!names.contains(entry.getKey())) {
+                entry.getValue().dispose();
+                watches.remove();
+            }
+        }
+        cache.retainServices(names);
+        for (String name : names) {
+            serviceWatches.computeIfAbsent(name, service -> watch(
+                    "/v1/health/service/" + UriUtils.encodePathSegment(service, StandardCharsets.UTF_8) + "?passing=true",
+                    entries -> onServiceChange(service, entries)));
+        }
+    }
+
+    private void onServiceChange(String serviceId, JsonNode entries) {
+        if (!serviceWatches.containsKey(serviceId)) {
+            return; // Deregistered while the query was in flight
+        }
+        List<ServiceInstance> instances = new ArrayList<>(entries.size());
+        for (JsonNode entry : entries) {
+            JsonNode service = entry.path("Service");
+            String address = service.path("Address").asText("");
+            if (address.isEmpty()) {
+                address = entry.path("Node").path("Address").asText();
+            }
+            Map<String, String> metadata = new HashMap<>();
+            service.path("Meta").fields().forEachRemaining(field -> metadata.put(field.getKey(), field.getValue().asText()));
+            instances.add(new DefaultServiceInstance(service.path("ID").asText(), serviceId, address,
+                    service.path("Port").asInt(), "true".equals(metadata.get("secure")), metadata));
+        }
+        cache.updateService(serviceId, instances);
+    }
+
+    /**
+     * Repeat a blocking query forever, calling the handler whenever the Consul index moves
+     */
+    private Disposable watch(String path, Consumer<JsonNode> handler) {
+        AtomicLong index = new AtomicLong();
+        return Mono.defer(() -> query(path, index.get()))
+                .flatMap(response -> {
+                    long next = parseIndex(response);
+                    long previous = index.get();
+                    if (next != previous && response.getBody() != null) {
+                        handler.accept(response.getBody());
+                    }
+                    // Consul asks clients to start over when the index goes backwards, and to never send 0 twice
+                    index.set(next < previous ? 0 : next);
+                    return next <= 0 ? Mono.delay(retryDelay).then() : Mono.<Void>empty();
+                })
+                .onErrorResume(error -> {
+                    log.warn("Consul watch on {} failed, retrying in {}: {}", path, retryDelay, error.getMessage());
+                    return Mono.delay(retryDelay).then();
+                })
+                .repeat()
+                .subscribe();
+    }
+
+    private Mono<ResponseEntity<JsonNode>> query(String path, long index) {
+        String separator = path.contains("?") ? "&" : "?";
+        return webClient.get()
+                .uri(path + separator + "index=" + index + "&wait=" + wait.toSeconds() + "s")
+                .retrieve()
+                .toEntity(JsonNode.class)
+                // Consul adds up to wait/16 of jitter to blocking queries
+                .timeout(wait.plus(wait.dividedBy(16)).plusSeconds(5));
+    }
+
+    private static long parseIndex(ResponseEntity<JsonNode> response) {
+        String value = response.getHeaders().getFirst(INDEX_HEADER);
+        try {
+            return value != null ? Long.parseLong(value) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.ecommerce.campus.apigateway.registry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Refreshes the cache from any {@link DiscoveryClient} at a fixed interval, for registries without watches.
+ * The cache only publishes a new version when the result differs.
+ */
+@Slf4j
+public class DiscoveryClientPoller implements RegistryWatcher {
+
+    private final DiscoveryClient discoveryClient;
+    private final ServiceRegistryCache cache;
+    private final Duration interval;
+
+    private volatile Disposable poller;
+
+    public DiscoveryClientPoller(DiscoveryClient discoveryClient, ServiceRegistryCache cache, Duration interval) {
+        this.discoveryClient = discoveryClient;
+        this.cache = cache;
+        this.interval = interval;
+    }
+
+    @Override
+    public void start() {
+        poller = Mono.fromRunnable(this::refresh)
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(error -> {
+                    log.warn("Service registry refresh failed: {}", error.getMessage());
+                    return Mono.empty();
+                })
+                .then(Mono.delay(interval))
+                .repeat()
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = poller;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    void refresh() {
+        Map<String, List<ServiceInstance>> services = new LinkedHashMap<>();
+        for (String service : discoveryClient.getServices()) {
+            services.put(service, discoveryClient.getInstances(service));
+        }
+        cache.replaceAll(services);
+    }
+}
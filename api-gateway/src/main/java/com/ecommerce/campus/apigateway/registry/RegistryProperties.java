@@ -0,0 +1,35 @@
+package com.ecommerce.campus.apigateway.registry;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Registry cache settings bound from {@code gateway.registry}.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.registry")
+public class RegistryProperties {
+
+    /**
+     * CONSUL watches the catalog with blocking queries, POLL asks the DiscoveryClient periodically.
+     * Unset, it is CONSUL when Consul discovery is enabled and POLL otherwise
+     */
+    private Source source;
+
+    private String consulUrl = "http://localhost:8500";
+
+    /** How long Consul may hold a blocking query open before answering unchanged */
+    private Duration consulWait = Duration.ofSeconds(30);
+
+    private Duration pollInterval = Duration.ofSeconds(15);
+
+    /** Delay before a failed watch or poll is retried */
+    private Duration retryDelay = Duration.ofSeconds(2);
+
+    public enum Source {
+        CONSUL,
+        POLL
+    }
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.campus.apigateway.registry;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Load balancer instance source backed by the registry cache, so registry changes reach routing at once.
+ */
+public class RegistryServiceInstanceListSupplier implements ServiceInstanceListSupplier {
+
+    private final String serviceId;
+    private final ServiceRegistryCache cache;
+
+    public RegistryServiceInstanceListSupplier(String serviceId, ServiceRegistryCache cache) {
+        this.serviceId = serviceId;
+        this.cache = cache;
+    }
+
+    @Override
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        return Flux.just(cache.getSnapshot().getInstances(serviceId));
+    }
+}
@@ -0,0 +1,73 @@
+package com.ecommerce.campus.apigateway.registry;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, versioned view of the service registry. Every derived view is computed once here,
+ * so reads never touch the registry or iterate over it.
+ */
+public final class RegistrySnapshot {
+
+    public static final RegistrySnapshot EMPTY = new RegistrySnapshot(0, Map.of(), null);
+
+    private final long version;
+    private final Map<String, List<ServiceInstance>> instances;
+    private final List<String> services;
+    private final Map<String, Integer> instanceCounts;
+    private final int totalInstances;
+    private final Instant updatedAt;
+
+    public RegistrySnapshot(long version, Map<String, List<ServiceInstance>> instances, Instant updatedAt) {
+        Map<String, List<ServiceInstance>> copy = new LinkedHashMap<>();
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        int total = 0;
+        for (Map.Entry<String, List<ServiceInstance>> entry : instances.entrySet()) {
+            copy.put(entry.getKey(), List.copyOf(entry.getValue()));
+            counts.put(entry.getKey(), entry.getValue().size());
+            total += entry.getValue().size();
+        }
+        this.version = version;
+        this.instances = Collections.unmodifiableMap(copy);
+        this.services = List.copyOf(copy.keySet());
+        this.instanceCounts = Collections.unmodifiableMap(counts);
+        this.totalInstances = total;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Incremented on every change, starting at 1 for the first loaded registry
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public List<String> getServices() {
+        return services;
+    }
+
+    public List<ServiceInstance> getInstances(String serviceId) {
+        return instances.getOrDefault(serviceId, List.of());
+    }
+
+    public Map<String, List<ServiceInstance>> getAllInstances() {
+        return instances;
+    }
+
+    public Map<String, Integer> getInstanceCounts() {
+        return instanceCounts;
+    }
+
+    public int getTotalInstances() {
+        return totalInstances;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.campus.apigateway.registry;
+
+/**
+ * Keeps a {@link ServiceRegistryCache} up to date in the background.
+ */
+public interface RegistryWatcher {
+
+    void start();
+
+    void stop();
+}
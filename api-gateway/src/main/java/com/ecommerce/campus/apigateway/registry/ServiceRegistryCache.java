@@ -0,0 +1,101 @@
+package com.ecommerce.campus.apigateway.registry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Holds the current {@link RegistrySnapshot} and publishes every new version.
+ * Writers are the registry watchers; readers get the snapshot with a single volatile read.
+ */
+@Slf4j
+public class ServiceRegistryCache {
+
+    private volatile RegistrySnapshot snapshot = RegistrySnapshot.EMPTY;
+    private final Sinks.Many<RegistrySnapshot> changes = Sinks.many().replay().latest();
+
+    public RegistrySnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * The current snapshot once loaded, then every new version as it is published
+     */
+    public Flux<RegistrySnapshot> changes() {
+        return changes.asFlux();
+    }
+
+    /**
+     * Replace the whole registry, publishing a new version only if something changed
+     */
+    public synchronized void replaceAll(Map<String, List<ServiceInstance>> services) {
+        Map<String, List<ServiceInstance>> normalized = new LinkedHashMap<>();
+        services.forEach((serviceId, instances) -> normalized.put(serviceId, normalize(instances)));
+        if (snapshot.getVersion() > 0 && normalized.equals(snapshot.getAllInstances())) {
+            return;
+        }
+        publish(normalized);
+    }
+
+    /**
+     * Replace the instances of one service, publishing a new version only if they changed
+     */
+    public synchronized void updateService(String serviceId, List<ServiceInstance> instances) {
+        List<ServiceInstance> normalized = normalize(instances);
+        if (snapshot.getAllInstances().containsKey(serviceId)
+                && normalized.equals(snapshot.getInstances(serviceId))) {
+            return;
+        }
+        Map<String, List<ServiceInstance>> next = new LinkedHashMap<>(snapshot.getAllInstances());
+        next.put(serviceId, normalized);
+        publish(next);
+    }
+
+    /**
+     * Keep only the given services, dropping the rest
+     */
+    public synchronized void retainServices(Iterable<String> serviceIds) {
+        Map<String, List<ServiceInstance>> next = new LinkedHashMap<>();
+        for (String serviceId : serviceIds) {
+            next.put(serviceId, snapshot.getInstances(serviceId));
+        }
+        if (next.keySet().equals(snapshot.getAllInstances().keySet()) && snapshot.getVersion() > 0) {
+            return;
+        }
+        publish(next);
+    }
+
+    private void publish(Map<String, List<ServiceInstance>> services) {
+        RegistrySnapshot next = new RegistrySnapshot(snapshot.getVersion() + 1, services, Instant.now());
+        snapshot = next;
+        log.debug("Service registry version {}: {} services, {} instances",
+                next.getVersion(), next.getServices().size(), next.getTotalInstances());
+        // Writers are synchronized, so emissions are serialized
+        changes.tryEmitNext(next);
+    }
+
+    /**
+     * Plain, comparable copies in a stable order, whatever client produced them
+     */
+    private static List<ServiceInstance> normalize(List<ServiceInstance> instances) {
+        return instances.stream()
+                .<ServiceInstance>map(instance -> instance instanceof DefaultServiceInstance
+                        ? instance
+                        : new DefaultServiceInstance(instance.getInstanceId(), instance.getServiceId(),
+                                instance.getHost(), instance.getPort(), instance.isSecure(),
+                                Objects.requireNonNullElse(instance.getMetadata(), Map.of())))
+                .sorted((a, b) -> {
+                    int byHost = a.getHost().compareTo(b.getHost());
+                    return byHost != 0 ? byHost : Integer.compare(a.getPort(), b.getPort());
+                })
+                .toList();
+    }
+}
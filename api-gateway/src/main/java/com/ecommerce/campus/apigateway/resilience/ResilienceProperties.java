@@ -0,0 +1,42 @@
+package com.ecommerce.campus.apigateway.resilience;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Circuit breaker, bulkhead and time limiter settings bound from {@code gateway.resilience}.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.resilience")
+public class ResilienceProperties {
+
+    private boolean enabled = true;
+
+    /** Policies by route id; routes without one are not guarded */
+    private Map<String, Policy> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Policy {
+        /** Share of failed calls (5xx, errors, timeouts), in percent, that opens the breaker */
+        private float failureRateThreshold = 50;
+        /** Share of calls slower than slow-call-duration, in percent, that opens the breaker */
+        private float slowCallRateThreshold = 80;
+        private Duration slowCallDuration = Duration.ofSeconds(2);
+        /** Number of most recent calls the rates are computed over */
+        private int slidingWindowSize = 20;
+        private int minimumCalls = 10;
+        /** How long an open breaker fails fast before letting trial calls through */
+        private Duration openDuration = Duration.ofSeconds(10);
+        private int halfOpenCalls = 3;
+        /** Concurrent upstream calls allowed; the rest are rejected at once, never queued */
+        private int maxConcurrentCalls = 100;
+        /** Upstream calls taking longer are cancelled and answered with the fallback */
+        private Duration timeout = Duration.ofSeconds(5);
+        /** JSON body of the 503 fallback; a generic error naming the route and reason is used when empty */
+        private String fallbackBody;
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecommerce.campus.apigateway.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resilience guards of the configured routes, built once at startup so the request path is a map lookup.
+ */
+@Slf4j
+public class ResilienceRegistry {
+
+    private final Map<String, RouteResilience> routes = new LinkedHashMap<>();
+
+    public ResilienceRegistry(ResilienceProperties properties) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        properties.getRoutes().forEach((routeId, policy) -> routes.put(routeId, create(routeId, policy)));
+        if (!routes.isEmpty()) {
+            log.info("Circuit breakers enabled for routes {}", routes.keySet());
+        }
+    }
+
+    /**
+     * Guards of the route, or null if it has none
+     */
+    public RouteResilience get(String routeId) {
+        return routes.get(routeId);
+    }
+
+    public Collection<RouteResilience> getAll() {
+        return Collections.unmodifiableCollection(routes.values());
+    }
+
+    static RouteResilience create(String routeId, ResilienceProperties.Policy policy) {
+        CircuitBreakerConfig breakerConfig = CircuitBreakerConfig.custom()
+                .failureRateThreshold(policy.getFailureRateThreshold())
+                .slowCallRateThreshold(policy.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(policy.getSlowCallDuration())
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(policy.getSlidingWindowSize())
+                .minimumNumberOfCalls(policy.getMinimumCalls())
+                .waitDurationInOpenState(policy.getOpenDuration())
+                .permittedNumberOfCallsInHalfOpenState(policy.getHalfOpenCalls())
+                // Results are response status codes: upstream 5xx counts against the service
+                .recordResult(result -> result instanceof Integer status && status >= 500)
+                .build();
+        // Never wait for a permit: the caller is an event loop thread
+        BulkheadConfig bulkheadConfig = BulkheadConfig.custom()
+                .maxConcurrentCalls(policy.getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+        TimeLimiterConfig timeLimiterConfig = TimeLimiterConfig.custom()
+                .timeoutDuration(policy.getTimeout())
+                .cancelRunningFuture(true)
+                .build();
+
+        CircuitBreaker circuitBreaker = CircuitBreaker.of(routeId, breakerConfig);
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Circuit breaker of route {}: {}", routeId, event.getStateTransition()));
+        return new RouteResilience(routeId,
+                circuitBreaker,
+                Bulkhead.of(routeId, bulkheadConfig),
+                TimeLimiter.of(routeId, timeLimiterConfig),
+                policy.getFallbackBody());
+    }
+}
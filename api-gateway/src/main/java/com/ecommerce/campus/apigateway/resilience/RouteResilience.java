@@ -0,0 +1,98 @@
+package com.ecommerce.campus.apigateway.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The circuit breaker, bulkhead and time limiter guarding one route, with its prebuilt fallback bodies.
+ */
+public class RouteResilience {
+
+    /**
+     * Why a request got the fallback instead of an upstream response
+     */
+    public enum Rejection {
+        CIRCUIT_OPEN("circuit-open", "Service temporarily unavailable, circuit breaker is open"),
+        BULKHEAD_FULL("bulkhead-full", "Service is at its concurrency limit"),
+        TIMEOUT("timeout", "Service did not respond in time");
+
+        private final String tag;
+        private final String message;
+
+        Rejection(String tag, String message) {
+            this.tag = tag;
+            this.message = message;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    private final String routeId;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final TimeLimiter timeLimiter;
+    private final Map<Rejection, byte[]> fallbackBodies = new EnumMap<>(Rejection.class);
+    private final Map<Rejection, LongAdder> rejections = new EnumMap<>(Rejection.class);
+    private final String openRetryAfter;
+
+    public RouteResilience(String routeId, CircuitBreaker circuitBreaker, Bulkhead bulkhead,
+                           TimeLimiter timeLimiter, String fallbackBody) {
+        this.routeId = routeId;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.timeLimiter = timeLimiter;
+        long openMs = circuitBreaker.getCircuitBreakerConfig().getWaitIntervalFunctionInOpenState().apply(1);
+        this.openRetryAfter = String.valueOf(Math.max(1, (openMs + 999) / 1000));
+        for (Rejection rejection : Rejection.values()) {
+            String body = fallbackBody != null && !fallbackBody.isEmpty()
+                    ? fallbackBody
+                    : "{\"status\":503,\"error\":\"Service Unavailable\",\"route\":\"" + routeId
+                      + "\",\"reason\":\"" + rejection.tag + "\",\"message\":\"" + rejection.message + "\"}";
+            fallbackBodies.put(rejection, body.getBytes(StandardCharsets.UTF_8));
+            rejections.put(rejection, new LongAdder());
+        }
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    public TimeLimiter getTimeLimiter() {
+        return timeLimiter;
+    }
+
+    /**
+     * Count a rejection and return the fallback body for it
+     */
+    public byte[] reject(Rejection rejection) {
+        rejections.get(rejection).increment();
+        return fallbackBodies.get(rejection);
+    }
+
+    /**
+     * Retry-After value of the fallback: the open period for an open breaker, otherwise one second
+     */
+    public String retryAfter(Rejection rejection) {
+        return rejection == Rejection.CIRCUIT_OPEN ? openRetryAfter : "1";
+    }
+
+    public long getRejectionCount(Rejection rejection) {
+        return rejections.get(rejection).sum();
+    }
+}
@@ -0,0 +1,45 @@
+package com.ecommerce.campus.apigateway.retry;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Budgeted retry settings bound from {@code gateway.retry}.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.retry")
+public class RetryProperties {
+
+    private boolean enabled = true;
+
+    /** Policies by route id; only GET, HEAD and OPTIONS requests of lb:// routes are retried */
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    /** Shared by all routes to the same upstream service */
+    private Budget budget = new Budget();
+
+    @Data
+    public static class Route {
+        /** Attempts per request including the first, each on a different instance */
+        private int maxAttempts = 3;
+        /** Upstream statuses worth another instance; connection failures are always retried */
+        private List<Integer> statuses = new ArrayList<>(List.of(502, 503, 504));
+        /** Base of the exponential backoff; the actual wait is random between zero and the backoff */
+        private Duration backoff = Duration.ofMillis(50);
+        private Duration maxBackoff = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Budget {
+        /** Retries allowed per successful response, 0.1 caps retries at 10% of healthy traffic */
+        private double ratio = 0.1;
+        /** Unused retries that may be saved up */
+        private int maxBurst = 10;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.campus.apigateway.retry;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Retry budgets per upstream service, created and registered with Micrometer on first use.
+ */
+public class RetryRegistry {
+
+    private final RetryProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, UpstreamRetries> upstreams = new ConcurrentHashMap<>();
+
+    public RetryRegistry(RetryProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Retry policy of the route, or null if its requests are not retried
+     */
+    public RetryProperties.Route policy(String routeId) {
+        return properties.isEnabled() ? properties.getRoutes().get(routeId) : null;
+    }
+
+    public UpstreamRetries get(String serviceId) {
+        UpstreamRetries retries = upstreams.get(serviceId);
+        return retries != null ? retries : upstreams.computeIfAbsent(serviceId, this::create);
+    }
+
+    public Map<String, UpstreamRetries> getAll() {
+        return Collections.unmodifiableMap(upstreams);
+    }
+
+    private UpstreamRetries create(String serviceId) {
+        UpstreamRetries retries = new UpstreamRetries(serviceId, properties.getBudget());
+        Tags tags = Tags.of("upstream", serviceId);
+        FunctionCounter.builder("gateway.retry.attempts", retries, UpstreamRetries::getRetryCount)
+                .tags(tags)
+                .description("Retries sent, each to an instance not tried before for the request")
+                .register(meterRegistry);
+        for (UpstreamRetries.Outcome outcome : UpstreamRetries.Outcome.values()) {
+            FunctionCounter.builder("gateway.retry.outcomes", retries, r -> r.getOutcomeCount(outcome))
+                    .tags(tags.and("outcome", outcome.tag()))
+                    .register(meterRegistry);
+        }
+        Gauge.builder("gateway.retry.budget", retries, UpstreamRetries::getBudgetBalance)
+                .tags(tags)
+                .description("Retries that can be made right now")
+                .register(meterRegistry);
+        return retries;
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.campus.apigateway.retry;
+
+import com.ecommerce.campus.apigateway.upstream.AttemptBudget;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retry budget of one upstream service, shared by every route to it, and what became of the
+ * requests that needed a retry.
+ */
+public class UpstreamRetries {
+
+    /**
+     * Fate of a request whose first attempt failed
+     */
+    public enum Outcome {
+        /** A retry got a good response */
+        RECOVERED("recovered"),
+        /** Every attempt failed */
+        FAILED("failed"),
+        /** The budget was spent, the failure was relayed */
+        BUDGET_EXHAUSTED("budget_exhausted"),
+        /** No untried healthy instance was left, the failure was relayed */
+        NO_INSTANCE("no_instance");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    private final String serviceId;
+    private final AttemptBudget budget;
+    private final LongAdder retries = new LongAdder();
+    private final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+
+    public UpstreamRetries(String serviceId, RetryProperties.Budget budget) {
+        this.serviceId = serviceId;
+        this.budget = new AttemptBudget(budget.getRatio(), budget.getMaxBurst());
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    /**
+     * Credit the budget for a good response
+     */
+    public void onSuccess() {
+        budget.deposit();
+    }
+
+    /**
+     * Spend budget on one retry, false if there is none left
+     */
+    public boolean tryRetry() {
+        if (budget.tryWithdraw()) {
+            retries.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public void record(Outcome outcome) {
+        outcomes.get(outcome).increment();
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    public long getOutcomeCount(Outcome outcome) {
+        return outcomes.get(outcome).sum();
+    }
+
+    public double getBudgetBalance() {
+        return budget.getBalance();
+    }
+}
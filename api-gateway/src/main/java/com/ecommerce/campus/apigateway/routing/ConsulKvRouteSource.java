@@ -0,0 +1,92 @@
+package com.ecommerce.campus.apigateway.routing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Follows one Consul KV key holding the route document with blocking queries, so a change is picked
+ * up within one round trip. Documents are parsed and applied on a worker thread, not the event loop.
+ */
+@Slf4j
+public class ConsulKvRouteSource implements RouteSource {
+
+    private static final String INDEX_HEADER = "X-Consul-Index";
+
+    private final WebClient webClient;
+    private final String key;
+    private final Duration wait;
+    private final Duration retryDelay;
+    private final RouteReloader reloader;
+
+    private volatile Disposable watch;
+
+    public ConsulKvRouteSource(DynamicRouteProperties properties, RouteReloader reloader) {
+        this.webClient = WebClient.builder().baseUrl(properties.getConsulUrl()).build();
+        this.key = properties.getConsulKey();
+        this.wait = properties.getConsulWait();
+        this.retryDelay = properties.getRetryDelay();
+        this.reloader = reloader;
+    }
+
+    @Override
+    public void start() {
+        AtomicLong index = new AtomicLong();
+        watch = Mono.defer(() -> query(index.get()))
+                .publishOn(Schedulers.boundedElastic())
+                .flatMap(response -> {
+                    long next = parseIndex(response);
+                    long previous = index.get();
+                    if (next != previous && response.getBody() != null) {
+                        reloader.submit("consul:" + key, String.valueOf(next), response.getBody());
+                    }
+                    // Consul asks clients to start over when the index goes backwards, and to never send 0 twice
+                    index.set(next < previous ? 0 : next);
+                    return next <= 0 ? Mono.delay(retryDelay).then() : Mono.<Void>empty();
+                })
+                .onErrorResume(error -> {
+                    if (error instanceof WebClientResponseException.NotFound) {
+                        log.debug("Consul key {} does not exist yet, retrying in {}", key, retryDelay);
+                    } else {
+                        log.warn("Consul watch on key {} failed, retrying in {}: {}", key, retryDelay, error.getMessage());
+                    }
+                    return Mono.delay(retryDelay).then();
+                })
+                .repeat()
+                .subscribe();
+        log.info("Watching Consul key {} for route changes", key);
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = watch;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    private Mono<ResponseEntity<String>> query(long index) {
+        return webClient.get()
+                .uri("/v1/kv/" + key + "?raw&index=" + index + "&wait=" + wait.toSeconds() + "s")
+                .retrieve()
+                .toEntity(String.class)
+                // Consul adds up to wait/16 of jitter to blocking queries
+                .timeout(wait.plus(wait.dividedBy(16)).plusSeconds(5));
+    }
+
+    private static long parseIndex(ResponseEntity<String> response) {
+        String value = response.getHeaders().getFirst(INDEX_HEADER);
+        try {
+            return value != null ? Long.parseLong(value) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
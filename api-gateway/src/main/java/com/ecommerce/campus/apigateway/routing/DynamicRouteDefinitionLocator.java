@@ -0,0 +1,42 @@
+package com.ecommerce.campus.apigateway.routing;
+
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves the current {@link RouteTable} next to the routes of application.yml.
+ * Tables are replaced whole, so a route refresh always sees one consistent generation.
+ */
+public class DynamicRouteDefinitionLocator implements RouteDefinitionLocator {
+
+    private final AtomicReference<RouteTable> table = new AtomicReference<>(RouteTable.EMPTY);
+    private volatile RouteTable lastRead = RouteTable.EMPTY;
+
+    @Override
+    public Flux<RouteDefinition> getRouteDefinitions() {
+        RouteTable current = table.get();
+        lastRead = current;
+        return Flux.fromIterable(current.definitions());
+    }
+
+    /**
+     * Publish a new table, returning the one it replaces
+     */
+    public RouteTable swap(RouteTable next) {
+        return table.getAndSet(next);
+    }
+
+    public RouteTable getTable() {
+        return table.get();
+    }
+
+    /**
+     * Table the latest route refresh was built from
+     */
+    public RouteTable getLastRead() {
+        return lastRead;
+    }
+}
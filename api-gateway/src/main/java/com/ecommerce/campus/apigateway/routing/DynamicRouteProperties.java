@@ -0,0 +1,39 @@
+package com.ecommerce.campus.apigateway.routing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Hot-reloaded route settings bound from {@code gateway.dynamic-routes}.
+ * The document has the same shape as {@code spring.cloud.gateway}: a {@code routes} list of route definitions.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.dynamic-routes")
+public class DynamicRouteProperties {
+
+    /** NONE keeps only the routes of application.yml, FILE watches a file, CONSUL watches a KV key */
+    private Source source = Source.NONE;
+
+    private String file = "config/routes.yml";
+
+    /** How often the file's modification time and size are checked */
+    private Duration pollInterval = Duration.ofSeconds(2);
+
+    private String consulUrl = "http://localhost:8500";
+
+    private String consulKey = "gateway/routes";
+
+    /** How long Consul may hold a blocking query open before answering unchanged */
+    private Duration consulWait = Duration.ofSeconds(30);
+
+    /** Delay before a failed read or watch is retried */
+    private Duration retryDelay = Duration.ofSeconds(2);
+
+    public enum Source {
+        NONE,
+        FILE,
+        CONSUL
+    }
+}
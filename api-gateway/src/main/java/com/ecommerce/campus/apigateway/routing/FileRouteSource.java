@@ -0,0 +1,84 @@
+package com.ecommerce.campus.apigateway.routing;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Polls a route file's modification time and size, and reloads it when either changes.
+ * Polling rather than a WatchService also follows files replaced through symlinks, as with mounted config maps.
+ */
+@Slf4j
+public class FileRouteSource implements RouteSource {
+
+    private final Path file;
+    private final Duration interval;
+    private final RouteReloader reloader;
+
+    private volatile Disposable poller;
+
+    /** Only touched by the polling task, which never runs concurrently with itself */
+    private long lastModified = Long.MIN_VALUE;
+    private long lastSize = -1;
+    private boolean missingLogged;
+
+    public FileRouteSource(Path file, Duration interval, RouteReloader reloader) {
+        this.file = file;
+        this.interval = interval;
+        this.reloader = reloader;
+    }
+
+    @Override
+    public void start() {
+        log.info("Watching {} for route changes", file.toAbsolutePath());
+        poller = Mono.fromRunnable(this::check)
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(error -> {
+                    log.warn("Reading route file {} failed: {}", file, error.getMessage());
+                    return Mono.empty();
+                })
+                .then(Mono.delay(interval))
+                .repeat()
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = poller;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    void check() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            long modified = attributes.lastModifiedTime().toMillis();
+            if (modified == lastModified && attributes.size() == lastSize) {
+                return;
+            }
+            String document = Files.readString(file);
+            lastModified = modified;
+            lastSize = attributes.size();
+            missingLogged = false;
+            reloader.submit("file:" + file, Instant.ofEpochMilli(modified).toString(), document);
+        } catch (NoSuchFileException e) {
+            if (!missingLogged) {
+                log.warn("Route file {} does not exist, keeping the current routes", file.toAbsolutePath());
+                missingLogged = true;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
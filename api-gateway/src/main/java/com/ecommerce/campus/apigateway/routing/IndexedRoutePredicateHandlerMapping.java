@@ -0,0 +1,126 @@
+package com.ecommerce.campus.apigateway.routing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_PREDICATE_ROUTE_ATTR;
+
+/**
+ * Route lookup through a {@link RouteIndex}: only the routes the index returns have their predicates
+ * applied, in the same order and with the same side effects as the default sequential scan.
+ * The index is rebuilt after every route refresh and replaced in one volatile write; until the first
+ * one is built, lookups fall back to the scan.
+ */
+@Slf4j
+public class IndexedRoutePredicateHandlerMapping extends RoutePredicateHandlerMapping
+        implements ApplicationListener<RefreshRoutesResultEvent> {
+
+    private final RouteLocator routeLocator;
+    private final boolean indexed;
+
+    private volatile RouteIndex index;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder candidates = new LongAdder();
+
+    public IndexedRoutePredicateHandlerMapping(FilteringWebHandler webHandler,
+                                               RouteLocator routeLocator,
+                                               GlobalCorsProperties globalCorsProperties,
+                                               Environment environment,
+                                               boolean indexed) {
+        super(webHandler, routeLocator, globalCorsProperties, environment);
+        this.routeLocator = routeLocator;
+        this.indexed = indexed;
+    }
+
+    @Override
+    public void onApplicationEvent(RefreshRoutesResultEvent event) {
+        if (indexed && event.isSuccess()) {
+            rebuildIndex().subscribe(null, error -> log.warn("Route index rebuild failed, keeping the previous one", error));
+        }
+    }
+
+    /**
+     * Compile the current route table and swap it in
+     */
+    public Mono<RouteIndex> rebuildIndex() {
+        return routeLocator.getRoutes()
+                .collectList()
+                .map(routes -> {
+                    long started = System.nanoTime();
+                    RouteIndex rebuilt = RouteIndex.build(routes);
+                    index = rebuilt;
+                    log.info("Indexed {} routes ({} tested on every request) in {} us", rebuilt.getRouteCount(),
+                            rebuilt.getUnindexedCount(), (System.nanoTime() - started) / 1_000);
+                    return rebuilt;
+                });
+    }
+
+    /**
+     * The route this exchange would be handed to, for web filters that run before routing.
+     * Predicates are evaluated again when the exchange is routed.
+     */
+    public Mono<Route> resolveRoute(ServerWebExchange exchange) {
+        return lookupRoute(exchange);
+    }
+
+    @Override
+    protected Mono<Route> lookupRoute(ServerWebExchange exchange) {
+        RouteIndex current = index;
+        if (current == null) {
+            return super.lookupRoute(exchange);
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        List<Route> matches = current.candidates(request.getMethod(), request.getHeaders().getFirst(HttpHeaders.HOST),
+                request.getPath().pathWithinApplication().value());
+        lookups.increment();
+        candidates.add(matches.size());
+
+        return Flux.fromIterable(matches)
+                .concatMap(route -> Mono.just(route)
+                        .filterWhen(r -> {
+                            exchange.getAttributes().put(GATEWAY_PREDICATE_ROUTE_ATTR, r.getId());
+                            return r.getPredicate().apply(exchange);
+                        })
+                        .doOnError(e -> log.error("Error applying predicate for route: {}", route.getId(), e))
+                        .onErrorResume(e -> Mono.empty()))
+                .next()
+                .map(route -> {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Route matched: {}", route.getId());
+                    }
+                    validateRoute(route, exchange);
+                    return route;
+                });
+    }
+
+    public RouteIndex getIndex() {
+        return index;
+    }
+
+    public long getLookupCount() {
+        return lookups.sum();
+    }
+
+    /**
+     * Routes whose predicates were handed to lookups, at most one evaluation each
+     */
+    public long getCandidateCount() {
+        return candidates.sum();
+    }
+}
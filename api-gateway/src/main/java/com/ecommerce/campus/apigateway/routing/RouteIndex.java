@@ -0,0 +1,243 @@
+package com.ecommerce.campus.apigateway.routing;
+
+import org.springframework.cloud.gateway.handler.predicate.HostRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.MethodRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable routing index compiled from the route table: a trie of path segments whose nodes hold
+ * the routes ending there ({@code /api/auth}) or matching everything below ({@code /api/auth/**}),
+ * with the allowed methods and hosts of each route kept next to it.
+ * <p>
+ * A lookup walks the request path once, so its cost depends on the path depth and not on the number
+ * of routes. The index only narrows the table down: it returns, in route order, every route that
+ * could match, and the caller still applies their predicates. Routes it cannot reason about (no Path
+ * predicate, {@code ||} or {@code !} combinations, {@code **} in the middle of a pattern) are
+ * returned for every request.
+ */
+public final class RouteIndex {
+
+    private final Node root = new Node();
+    private final Entry[] unindexed;
+    private final Route[] routes;
+
+    private RouteIndex(List<Route> routes) {
+        this.routes = routes.toArray(Route[]::new);
+        List<Entry> always = new ArrayList<>();
+        for (int rank = 0; rank < this.routes.length; rank++) {
+            Route route = this.routes[rank];
+            Shape shape = Shape.of(route);
+            Entry entry = new Entry(rank, route, shape.methods, HostMatcher.of(shape.hosts));
+            if (shape.paths == null || !shape.paths.stream().allMatch(path -> insert(path, entry))) {
+                always.add(entry);
+            }
+        }
+        this.unindexed = always.toArray(Entry[]::new);
+    }
+
+    /**
+     * Compile a route table, which must be in lookup order
+     */
+    public static RouteIndex build(List<Route> routes) {
+        return new RouteIndex(routes);
+    }
+
+    /**
+     * Routes that may match the request, in route order
+     */
+    public List<Route> candidates(HttpMethod method, String host, String path) {
+        if (path.indexOf('%') >= 0 || path.indexOf(';') >= 0) {
+            // Encoded characters and matrix variables are compared decoded by the predicates
+            return Arrays.asList(routes);
+        }
+        List<Entry> found = new ArrayList<>(4);
+        collect(root, path, 0, found);
+        found.addAll(Arrays.asList(unindexed));
+        if (found.size() > 1) {
+            found.sort(Comparator.comparingInt(Entry::rank));
+        }
+
+        List<Route> candidates = new ArrayList<>(found.size());
+        int lastRank = -1;
+        for (Entry entry : found) {
+            // A route with several patterns can be reached twice
+            if (entry.rank != lastRank && entry.accepts(method, host)) {
+                candidates.add(entry.route);
+            }
+            lastRank = entry.rank;
+        }
+        return candidates;
+    }
+
+    public int getRouteCount() {
+        return routes.length;
+    }
+
+    /**
+     * Routes tested on every lookup because their predicates could not be indexed
+     */
+    public int getUnindexedCount() {
+        return unindexed.length;
+    }
+
+    private static void collect(Node node, String path, int position, List<Entry> found) {
+        found.addAll(node.catchAll);
+        int start = position;
+        while (start < path.length() && path.charAt(start) == '/') {
+            start++;
+        }
+        if (start == path.length()) {
+            found.addAll(node.terminal);
+            return;
+        }
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        Node literal = node.literals.isEmpty() ? null : node.literals.get(path.substring(start, end));
+        if (literal != null) {
+            collect(literal, path, end, found);
+        }
+        if (node.wildcard != null) {
+            collect(node.wildcard, path, end, found);
+        }
+    }
+
+    private boolean insert(String pattern, Entry entry) {
+        String[] segments = Arrays.stream(pattern.split("/")).filter(s -> !s.isEmpty()).toArray(String[]::new);
+        Node node = root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.equals("**") || segment.startsWith("{*")) {
+                if (i != segments.length - 1) {
+                    return false;
+                }
+                node.catchAll.add(entry);
+                return true;
+            }
+            if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0) {
+                if (node.wildcard == null) {
+                    node.wildcard = new Node();
+                }
+                node = node.wildcard;
+            } else {
+                node = node.literals.computeIfAbsent(segment, s -> new Node());
+            }
+        }
+        node.terminal.add(entry);
+        return true;
+    }
+
+    private static final class Node {
+        final Map<String, Node> literals = new HashMap<>();
+        final List<Entry> terminal = new ArrayList<>(1);
+        final List<Entry> catchAll = new ArrayList<>(1);
+        Node wildcard;
+    }
+
+    private record Entry(int rank, Route route, Set<HttpMethod> methods, HostMatcher hosts) {
+
+        boolean accepts(HttpMethod method, String host) {
+            return (methods == null || methods.contains(method)) && (hosts == null || hosts.matches(host));
+        }
+    }
+
+    /**
+     * Path, Method and Host constraints found in a route's predicate, null where unconstrained
+     */
+    private static final class Shape {
+        List<String> paths;
+        Set<HttpMethod> methods;
+        List<String> hosts;
+
+        static Shape of(Route route) {
+            Shape shape = new Shape();
+            String description = String.valueOf(route.getPredicate());
+            // Only a conjunction of predicates narrows the route down; || and ! are not visible to a visitor
+            if (description.contains("||") || description.contains("!")) {
+                return shape;
+            }
+            route.getPredicate().accept(predicate -> {
+                Object config = predicate.getConfig();
+                if (config instanceof PathRoutePredicateFactory.Config path && shape.paths == null) {
+                    shape.paths = List.copyOf(path.getPatterns());
+                } else if (config instanceof MethodRoutePredicateFactory.Config method) {
+                    Set<HttpMethod> methods = new HashSet<>(Arrays.asList(method.getMethods()));
+                    if (shape.methods != null) {
+                        methods.retainAll(shape.methods);
+                    }
+                    shape.methods = Set.copyOf(methods);
+                } else if (config instanceof HostRoutePredicateFactory.Config host && shape.hosts == null) {
+                    shape.hosts = List.copyOf(host.getPatterns());
+                }
+            });
+            return shape;
+        }
+    }
+
+    /**
+     * Host header check for exact hosts and leading-wildcard patterns such as {@code **.example.com};
+     * any other pattern leaves the route unconstrained by host. Wildcards may over-match (a single
+     * {@code *} is treated like {@code **}), since candidates are still tested against their predicates.
+     */
+    private record HostMatcher(String[] exact, String[] suffixes) {
+
+        static HostMatcher of(List<String> patterns) {
+            if (patterns == null || patterns.isEmpty()) {
+                return null;
+            }
+            List<String> exact = new ArrayList<>();
+            List<String> suffixes = new ArrayList<>();
+            for (String pattern : patterns) {
+                int dot = pattern.indexOf('.');
+                String head = dot < 0 ? pattern : pattern.substring(0, dot);
+                String tail = dot < 0 ? "" : pattern.substring(dot);
+                if (pattern.indexOf('*') < 0 && pattern.indexOf('{') < 0 && pattern.indexOf('?') < 0) {
+                    exact.add(pattern);
+                } else if ((head.equals("*") || head.equals("**") || (head.startsWith("{") && head.endsWith("}")))
+                        && !tail.isEmpty() && tail.indexOf('*') < 0 && tail.indexOf('{') < 0) {
+                    suffixes.add(tail);
+                    if (head.equals("**") && tail.length() > 1) {
+                        // ** also matches no label at all: **.example.com accepts example.com itself
+                        exact.add(tail.substring(1));
+                    }
+                } else {
+                    return null;
+                }
+            }
+            return new HostMatcher(exact.toArray(String[]::new), suffixes.toArray(String[]::new));
+        }
+
+        boolean matches(String host) {
+            if (host == null) {
+                return false;
+            }
+            // Compare the host name without the port
+            int end = host.startsWith("[") ? host.indexOf(']') + 1 : host.indexOf(':');
+            int length = end <= 0 ? host.length() : end;
+            for (String name : exact) {
+                if (name.length() == length && host.regionMatches(true, 0, name, 0, length)) {
+                    return true;
+                }
+            }
+            for (String suffix : suffixes) {
+                if (length > suffix.length()
+                        && host.regionMatches(true, length - suffix.length(), suffix, 0, suffix.length())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
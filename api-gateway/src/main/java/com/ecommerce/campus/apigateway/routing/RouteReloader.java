@@ -0,0 +1,150 @@
+package com.ecommerce.campus.apigateway.routing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Applies route documents from a {@link RouteSource}: validates them, publishes the new
+ * {@link RouteTable} and asks the gateway to refresh its routes. Spring Cloud Gateway then rebuilds
+ * its route cache and our route index on the calling thread, which the sources keep off the event
+ * loop, and replaces each in one step; requests already routed keep the {@code Route} they matched.
+ * If the gateway fails to build the new routes it keeps the previous ones, and so does this reloader.
+ * <p>
+ * Refreshes are also triggered elsewhere, e.g. by the discovery locator, and their result events carry
+ * nothing that ties them to a request. A result settles the pending table only if the refresh that
+ * produced it read that table from the locator, so one that started before the swap is ignored.
+ */
+@Slf4j
+public class RouteReloader implements ApplicationListener<RefreshRoutesResultEvent>, Ordered {
+
+    private final DynamicRouteDefinitionLocator locator;
+    private final RouteTableParser parser;
+    private final ApplicationEventPublisher publisher;
+
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicReference<Pending> pending = new AtomicReference<>();
+
+    private volatile RouteTable active = RouteTable.EMPTY;
+    private volatile long lastReloadNanos = -1;
+    private volatile String lastError;
+
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public RouteReloader(DynamicRouteDefinitionLocator locator, RouteTableParser parser,
+                         ApplicationEventPublisher publisher) {
+        this.locator = locator;
+        this.parser = parser;
+        this.publisher = publisher;
+    }
+
+    /**
+     * Validate a route document and apply it unless it is unchanged
+     *
+     * @return whether a new table was published
+     */
+    public synchronized boolean submit(String source, String revision, String document) {
+        long started = System.nanoTime();
+        String digest = digest(document);
+        if (digest.equals(locator.getTable().digest())) {
+            return false;
+        }
+
+        List<RouteDefinition> definitions;
+        try {
+            definitions = parser.parse(document);
+        } catch (IllegalArgumentException e) {
+            rejected.increment();
+            lastError = e.getMessage();
+            log.warn("Rejected route table {} from {}: {}", revision, source, e.getMessage());
+            return false;
+        }
+
+        RouteTable next = new RouteTable(versions.incrementAndGet(), source, revision, digest, definitions, Instant.now());
+        RouteTable previous = locator.swap(next);
+        pending.set(new Pending(next, previous, started));
+        publisher.publishEvent(new RefreshRoutesEvent(this));
+        return true;
+    }
+
+    @Override
+    public void onApplicationEvent(RefreshRoutesResultEvent event) {
+        Pending done = pending.get();
+        if (done == null || locator.getLastRead() != done.table() || !pending.compareAndSet(done, null)) {
+            return;
+        }
+        if (event.isSuccess()) {
+            lastReloadNanos = System.nanoTime() - done.started();
+            lastError = null;
+            active = done.table();
+            applied.increment();
+            log.info("Route table version {} from {} ({} routes) active after {} ms", done.table().version(),
+                    done.table().source(), done.table().definitions().size(), lastReloadNanos / 1_000_000);
+        } else {
+            locator.swap(done.previous());
+            rejected.increment();
+            lastError = String.valueOf(event.getThrowable());
+            log.warn("Gateway could not build route table version {}, keeping version {}: {}",
+                    done.table().version(), done.previous().version(), lastError);
+        }
+    }
+
+    /**
+     * Run after the gateway's own listeners, so the route cache and index are already rebuilt
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    public RouteTable getActiveTable() {
+        return active;
+    }
+
+    /**
+     * Time from reading a document to the gateway routing with it, or -1 before the first reload
+     */
+    public double getLastReloadMs() {
+        long nanos = lastReloadNanos;
+        return nanos < 0 ? -1 : nanos / 1_000_000.0;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public long getAppliedCount() {
+        return applied.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private static String digest(String document) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(document.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Pending(RouteTable table, RouteTable previous, long started) {
+    }
+}
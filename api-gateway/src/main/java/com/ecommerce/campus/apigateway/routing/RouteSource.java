@@ -0,0 +1,11 @@
+package com.ecommerce.campus.apigateway.routing;
+
+/**
+ * Watches where dynamic routes are kept and hands changed documents to a {@link RouteReloader}.
+ */
+public interface RouteSource {
+
+    void start();
+
+    void stop();
+}
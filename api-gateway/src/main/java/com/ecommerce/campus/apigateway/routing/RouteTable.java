@@ -0,0 +1,19 @@
+package com.ecommerce.campus.apigateway.routing;
+
+import org.springframework.cloud.gateway.route.RouteDefinition;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One immutable generation of dynamic routes.
+ *
+ * @param version  increases by one with every table published
+ * @param revision the source's own version of the document: file timestamp or Consul modify index
+ * @param digest   content hash, an unchanged document is not applied again
+ */
+public record RouteTable(long version, String source, String revision, String digest,
+                         List<RouteDefinition> definitions, Instant loadedAt) {
+
+    public static final RouteTable EMPTY = new RouteTable(0, "none", "", "", List.of(), Instant.EPOCH);
+}
@@ -0,0 +1,92 @@
+package com.ecommerce.campus.apigateway.routing;
+
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads a route document (YAML or JSON) with the same binder as application.yml, so shortcuts such as
+ * {@code Path=/api/**} work, and rejects it whole if any route is invalid.
+ */
+public class RouteTableParser {
+
+    private final Set<String> predicateNames;
+    private final Set<String> filterNames;
+    private final Set<String> staticRouteIds;
+
+    /**
+     * @param staticRouteIds ids of the application.yml routes, which dynamic routes may not reuse
+     */
+    public RouteTableParser(Set<String> predicateNames, Set<String> filterNames, Set<String> staticRouteIds) {
+        this.predicateNames = Set.copyOf(predicateNames);
+        this.filterNames = Set.copyOf(filterNames);
+        this.staticRouteIds = Set.copyOf(staticRouteIds);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the document cannot be read or a route is invalid
+     */
+    public List<RouteDefinition> parse(String document) {
+        List<RouteDefinition> routes;
+        try {
+            List<PropertySource<?>> sources = new YamlPropertySourceLoader()
+                    .load("dynamic-routes", new ByteArrayResource(document.getBytes(StandardCharsets.UTF_8)));
+            routes = new Binder(ConfigurationPropertySources.from(sources))
+                    .bind("routes", Bindable.listOf(RouteDefinition.class))
+                    .orElse(List.of());
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Unreadable route document: " + e.getMessage(), e);
+        }
+        validate(routes);
+        return List.copyOf(routes);
+    }
+
+    private void validate(List<RouteDefinition> routes) {
+        List<String> errors = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < routes.size(); i++) {
+            RouteDefinition route = routes.get(i);
+            String id = route.getId();
+            String label = id != null ? id : "#" + i;
+            if (id == null || id.isBlank()) {
+                errors.add("route " + label + " has no id");
+            } else if (staticRouteIds.contains(id)) {
+                errors.add("route " + id + " is already defined in application.yml");
+            } else if (!ids.add(id)) {
+                errors.add("route " + id + " is defined twice");
+            }
+            if (route.getUri() == null || route.getUri().getScheme() == null) {
+                errors.add("route " + label + " needs an absolute uri");
+            }
+            if (route.getPredicates().isEmpty()) {
+                errors.add("route " + label + " has no predicates");
+            }
+            for (PredicateDefinition predicate : route.getPredicates()) {
+                if (!predicateNames.contains(predicate.getName())) {
+                    errors.add("route " + label + " uses unknown predicate " + predicate.getName());
+                }
+            }
+            for (FilterDefinition filter : route.getFilters()) {
+                if (!filterNames.contains(filter.getName())) {
+                    errors.add("route " + label + " uses unknown filter " + filter.getName());
+                }
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", errors));
+        }
+    }
+}
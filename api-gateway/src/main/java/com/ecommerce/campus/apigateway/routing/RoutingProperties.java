@@ -0,0 +1,15 @@
+package com.ecommerce.campus.apigateway.routing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Route lookup settings bound from {@code gateway.routing}.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.routing")
+public class RoutingProperties {
+
+    /** Look routes up in a compiled path/method/host index instead of testing every predicate in turn */
+    private boolean indexed = true;
+}
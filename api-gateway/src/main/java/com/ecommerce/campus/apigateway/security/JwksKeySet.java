@@ -0,0 +1,113 @@
+package com.ecommerce.campus.apigateway.security;
+
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Public signing keys of auth-service, fetched from its JWKS document and kept in memory, so access tokens
+ * are verified without calling auth-service. The document is refreshed on a schedule; a token naming an
+ * unknown kid triggers an early refresh, at most once per {@code minRefreshInterval}.
+ * <p>
+ * auth-service publishes a key well before signing with it, so the scheduled refresh normally has it first.
+ */
+@Slf4j
+public class JwksKeySet {
+
+    private final WebClient webClient;
+    private final String uri;
+    private final Duration refreshInterval;
+    private final long minRefreshIntervalMs;
+    private final AtomicLong lastRefreshMs = new AtomicLong();
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private Disposable schedule;
+
+    public JwksKeySet(WebClient.Builder webClientBuilder, String uri, Duration refreshInterval,
+                      Duration minRefreshInterval) {
+        this.webClient = webClientBuilder.build();
+        this.uri = uri;
+        this.refreshInterval = refreshInterval;
+        this.minRefreshIntervalMs = minRefreshInterval.toMillis();
+    }
+
+    public boolean isEnabled() {
+        return uri != null && !uri.isBlank();
+    }
+
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        schedule = Flux.interval(Duration.ZERO, refreshInterval)
+                .concatMap(tick -> refresh())
+                .subscribe();
+    }
+
+    public void stop() {
+        if (schedule != null) {
+            schedule.dispose();
+        }
+    }
+
+    /**
+     * Public key for a kid, or null if it is not (yet) known
+     */
+    public PublicKey get(String kid) {
+        PublicKey key = keys.get(kid);
+        if (key == null && isEnabled()) {
+            long last = lastRefreshMs.get();
+            long now = System.currentTimeMillis();
+            if (now - last >= minRefreshIntervalMs && lastRefreshMs.compareAndSet(last, now)) {
+                refresh().subscribe();
+            }
+        }
+        return key;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Fetch the JWKS document; on failure the keys already known are kept
+     */
+    Mono<Void> refresh() {
+        return webClient.get()
+                .uri(uri)
+                .retrieve()
+                .bodyToMono(String.class)
+                .doOnNext(this::update)
+                .onErrorResume(error -> {
+                    log.warn("Could not refresh signing keys from {}: {}", uri, error.getMessage());
+                    return Mono.empty();
+                })
+                .doFinally(signal -> lastRefreshMs.set(System.currentTimeMillis()))
+                .then();
+    }
+
+    void update(String json) {
+        // Keys of algorithms this jjwt build does not know are skipped rather than failing the whole set
+        JwkSet set = Jwks.setParser().ignoreUnsupported(true).build().parse(json);
+        Map<String, PublicKey> updated = new HashMap<>();
+        for (Jwk<?> jwk : set.getKeys()) {
+            if (jwk.getId() != null && jwk.toKey() instanceof PublicKey publicKey) {
+                updated.put(jwk.getId(), publicKey);
+            }
+        }
+        if (!updated.keySet().equals(keys.keySet())) {
+            log.info("Signing keys now {}", updated.keySet());
+        }
+        keys = Map.copyOf(updated);
+    }
+}
@@ -0,0 +1,129 @@
+package com.ecommerce.campus.apigateway.security;
+
+import com.ecommerce.campus.common.infrastructure.security.TokenDigest;
+import com.ecommerce.campus.common.infrastructure.security.VerifiedToken;
+import com.ecommerce.campus.common.infrastructure.security.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.security.Key;
+import java.time.Duration;
+
+/**
+ * Verifies access tokens issued by auth-service at the edge.
+ * Tokens naming a kid are checked against auth-service's published keys ({@link JwksKeySet}), tokens
+ * without one against the shared HMAC secret, with the same key derivation as JwtProvider. Recently
+ * verified tokens are kept in a {@link VerifiedTokenCache} so repeated requests skip parsing and signature checks.
+ */
+@Slf4j
+@Component
+public class JwtVerifier {
+
+    // Issue time in epoch ms, as JwtProvider.ISSUED_AT_MS_CLAIM writes it; iat only has whole seconds
+    static final String ISSUED_AT_MS_CLAIM = "iat_ms";
+    // As JwtProvider.TOKEN_TYPE_CLAIM: refresh tokens are signed with the same keys but are no bearer credentials
+    static final String TOKEN_TYPE_CLAIM = "token_type";
+    static final String ACCESS_TOKEN_TYPE = "access";
+
+    private final JwtParser parser;
+    private final VerifiedTokenCache cache;
+
+    public JwtVerifier(
+            @Value("${jwt.secret:}") String secret,
+            @Value("${gateway.security.token-cache.max-entries:10000}") int maxEntries,
+            @Value("${gateway.security.token-cache.max-ttl:60s}") Duration maxTtl,
+            JwksKeySet signingKeys) {
+
+        SecretKey key = secret.isBlank() ? null : Keys.hmacShaKeyFor(secret.getBytes());
+        if (key == null && !signingKeys.isEnabled()) {
+            throw new IllegalStateException("Set jwt.secret or gateway.security.jwks.uri to verify access tokens");
+        }
+        // JwtParser is immutable and thread-safe, build it once
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        // jjwt rejects a key that does not fit the header's alg, so neither can stand in for the other
+                        String kid = header.getKeyId();
+                        Key located = kid != null ? signingKeys.get(kid) : key;
+                        if (located == null) {
+                            throw new JwtException(kid != null ? "Unknown signing key " + kid : "JWT has no key id");
+                        }
+                        return located;
+                    }
+                })
+                .build();
+        this.cache = new VerifiedTokenCache(maxEntries, maxTtl.toMillis());
+    }
+
+    /**
+     * Verify a token, answering from the cache when possible
+     *
+     * @param token raw compact JWT (without the Bearer prefix)
+     * @return the verified identity
+     * @throws JwtException if the token is malformed, badly signed or expired
+     */
+    public VerifiedToken verify(String token) {
+        long now = System.currentTimeMillis();
+        TokenDigest digest = TokenDigest.of(token);
+
+        VerifiedToken cached = cache.get(digest, now);
+        if (cached != null) {
+            return cached;
+        }
+
+        VerifiedToken verified = parse(token, digest);
+        cache.put(digest, verified, now);
+        return verified;
+    }
+
+    public VerifiedTokenCache getCache() {
+        return cache;
+    }
+
+    private VerifiedToken parse(String token, TokenDigest digest) {
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (IllegalArgumentException ex) {
+            throw new JwtException("JWT claims string is empty", ex);
+        }
+
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            throw new JwtException("JWT is missing subject or expiration");
+        }
+        String roles = claims.get("role", String.class);
+        String type = claims.get(TOKEN_TYPE_CLAIM, String.class);
+        // Access tokens issued before the type claim was added are the only ones with a role
+        if (roles == null || (type != null && !ACCESS_TOKEN_TYPE.equals(type))) {
+            throw new JwtException("JWT is not an access token");
+        }
+
+        return new VerifiedToken(
+                claims.getSubject(),
+                // Tokens issued before jti was added are revoked by an id derived from their digest
+                claims.getId() != null ? claims.getId() : digest.shortId(),
+                roles,
+                issuedAtMs(claims),
+                claims.getExpiration().getTime()
+        );
+    }
+
+    // Tokens issued before the millisecond claim was added fall back to iat, rounded down to its second
+    private static long issuedAtMs(Claims claims) {
+        Long issuedAtMs = claims.get(ISSUED_AT_MS_CLAIM, Long.class);
+        if (issuedAtMs != null) {
+            return issuedAtMs;
+        }
+        return claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.campus.apigateway.security;
+
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reads the keys and channels auth-service's TokenBlackListService and TokenWatermarkService write to.
+ */
+public class RedisRevocationStore implements RevocationStore {
+
+    public static final String BLACKLIST_PREFIX = "blacklist:jti:";
+    public static final String REVOCATIONS_CHANNEL = "blacklist:revoked";
+    public static final String WATERMARK_PREFIX = "watermark:user:";
+    public static final String WATERMARKS_CHANNEL = "watermark:changed";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public RedisRevocationStore(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Mono<Boolean> isBlacklisted(String jti) {
+        return redisTemplate.hasKey(BLACKLIST_PREFIX + jti);
+    }
+
+    @Override
+    public Flux<String> blacklistedIds() {
+        return redisTemplate.scan(ScanOptions.scanOptions()
+                        .match(BLACKLIST_PREFIX + "*")
+                        .count(1000)
+                        .build())
+                .map(key -> key.substring(BLACKLIST_PREFIX.length()));
+    }
+
+    @Override
+    public Flux<String> revocations() {
+        return redisTemplate.listenToChannel(REVOCATIONS_CHANNEL).map(ReactiveSubscription.Message::getMessage);
+    }
+
+    @Override
+    public Mono<Long> watermark(String userId) {
+        return redisTemplate.opsForValue().get(WATERMARK_PREFIX + userId).map(Long::parseLong);
+    }
+
+    @Override
+    public Flux<String> watermarkChanges() {
+        return redisTemplate.listenToChannel(WATERMARKS_CHANNEL).map(ReactiveSubscription.Message::getMessage);
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.campus.apigateway.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Token revocation checks bound from {@code gateway.security.revocation}.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.security.revocation")
+public class RevocationProperties {
+
+    private boolean enabled = true;
+
+    /** Revocations the local Bloom filter is sized for, ~1.8 bytes each at 0.1% false positives */
+    private int expectedRevocations = 100_000;
+    private double falsePositiveRate = 0.001;
+    /** How often the filter is reloaded from Redis, dropping expired ids and any missed messages */
+    private Duration rebuildInterval = Duration.ofMinutes(5);
+    /** Longest a request waits on Redis; past it the token is accepted */
+    private Duration timeout = Duration.ofMillis(200);
+    /** How long a user's watermark is answered locally before it is read again, in case a message was missed */
+    private Duration watermarkTtl = Duration.ofMinutes(1);
+    /** Users whose watermark is kept locally, whether or not they have one */
+    private int maxWatermarks = 100_000;
+}
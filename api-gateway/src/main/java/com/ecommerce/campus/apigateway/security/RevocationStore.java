@@ -0,0 +1,35 @@
+package com.ecommerce.campus.apigateway.security;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Token revocations recorded by auth-service, read by the gateway.
+ */
+public interface RevocationStore {
+
+    /**
+     * Whether the token id is on the blacklist
+     */
+    Mono<Boolean> isBlacklisted(String jti);
+
+    /**
+     * Every token id currently on the blacklist
+     */
+    Flux<String> blacklistedIds();
+
+    /**
+     * Token ids as they are blacklisted from now on; never completes while connected
+     */
+    Flux<String> revocations();
+
+    /**
+     * The user's "not valid before" watermark in epoch ms, empty if all their tokens are valid
+     */
+    Mono<Long> watermark(String userId);
+
+    /**
+     * Watermarks as they move from now on, as "userId:watermark"; never completes while connected
+     */
+    Flux<String> watermarkChanges();
+}
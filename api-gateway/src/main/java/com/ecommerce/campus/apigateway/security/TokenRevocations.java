@@ -0,0 +1,187 @@
+package com.ecommerce.campus.apigateway.security;
+
+import com.ecommerce.campus.common.infrastructure.security.BloomFilter;
+import com.ecommerce.campus.common.infrastructure.security.VerifiedToken;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rejects access tokens auth-service revoked before they expired, for every request the gateway verifies:
+ * tokens logged out one by one are on its jti blacklist, tokens of a user who logged out from every device
+ * were issued before that user's watermark.
+ * <p>
+ * Nearly every token checked was never revoked, so a local Bloom filter of the blacklisted ids answers
+ * those checks without calling Redis; only ids the filter might contain are confirmed there. New
+ * revocations reach the filter through auth-service's pub/sub channel, and the filter is rebuilt from
+ * Redis periodically to drop expired ids and pick up messages missed while disconnected. Watermarks are
+ * cached per user in {@link TokenWatermarks} the same way auth-service caches them.
+ * <p>
+ * Redis being slow or down must not take the gateway down with it: a check that cannot be answered
+ * in time accepts the token, as a gateway without revocation checks would.
+ */
+@Slf4j
+public class TokenRevocations {
+
+    private static final Mono<Boolean> NOT_REVOKED = Mono.just(false);
+    private static final Mono<Boolean> REVOKED = Mono.just(true);
+
+    private final RevocationStore store;
+    private final RevocationProperties properties;
+    private final TokenWatermarks watermarks;
+
+    private final Object lock = new Object();
+    private volatile BloomFilter revoked; // null until first loaded: every check goes to Redis
+    private Set<String> revokedDuringRebuild;
+    private final AtomicLong storeLookups = new AtomicLong();
+    private final AtomicLong storeErrors = new AtomicLong();
+    private Disposable subscriptions;
+
+    public TokenRevocations(RevocationStore store, RevocationProperties properties) {
+        this.store = store;
+        this.properties = properties;
+        this.watermarks = new TokenWatermarks(properties.getWatermarkTtl().toMillis(), properties.getMaxWatermarks());
+    }
+
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        subscriptions = Disposables.composite(
+                resubscribing(store.revocations(), "revocations")
+                        .subscribe(this::addRevoked),
+                resubscribing(store.watermarkChanges(), "watermarks")
+                        .subscribe(watermarks::onMessage),
+                Flux.interval(Duration.ZERO, properties.getRebuildInterval())
+                        .concatMap(tick -> rebuild())
+                        .subscribe());
+    }
+
+    public void stop() {
+        if (subscriptions != null) {
+            subscriptions.dispose();
+        }
+    }
+
+    /**
+     * Whether the token was revoked since it was issued
+     */
+    public Mono<Boolean> isRevoked(VerifiedToken token) {
+        if (!properties.isEnabled()) {
+            return NOT_REVOKED;
+        }
+        return watermark(token.subject())
+                .flatMap(watermark -> token.issuedAtMs() < watermark ? REVOKED : isBlacklisted(token));
+    }
+
+    /**
+     * Checks that had to ask Redis
+     */
+    public long getStoreLookupCount() {
+        return storeLookups.get();
+    }
+
+    /**
+     * Checks that timed out or failed and accepted the token
+     */
+    public long getStoreErrorCount() {
+        return storeErrors.get();
+    }
+
+    private Mono<Long> watermark(String userId) {
+        Long cached = watermarks.get(userId, System.currentTimeMillis());
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        storeLookups.incrementAndGet();
+        return store.watermark(userId)
+                .timeout(properties.getTimeout())
+                .defaultIfEmpty(TokenWatermarks.NONE)
+                .map(watermark -> watermarks.update(userId, watermark))
+                .onErrorResume(error -> {
+                    storeErrors.incrementAndGet();
+                    log.debug("Could not read the watermark of user {}: {}", userId, error.toString());
+                    // Keep what was known and ask again once it expires, not on every request meanwhile
+                    return Mono.just(watermarks.update(userId, TokenWatermarks.NONE));
+                });
+    }
+
+    private Mono<Boolean> isBlacklisted(VerifiedToken token) {
+        BloomFilter filter = revoked;
+        if (filter != null && !filter.mightContain(token.jti())) {
+            return NOT_REVOKED;
+        }
+        storeLookups.incrementAndGet();
+        return store.isBlacklisted(token.jti())
+                .timeout(properties.getTimeout())
+                .map(Boolean.TRUE::equals)
+                .defaultIfEmpty(false)
+                .onErrorResume(error -> {
+                    storeErrors.incrementAndGet();
+                    log.debug("Could not check whether token {} was revoked: {}", token.jti(), error.toString());
+                    return NOT_REVOKED;
+                });
+    }
+
+    /**
+     * Rebuild the filter from the ids in Redis, sized for what it holds; on failure the current one is kept
+     */
+    Mono<Void> rebuild() {
+        synchronized (lock) {
+            revokedDuringRebuild = new HashSet<>();
+        }
+        return store.blacklistedIds()
+                .collect(HashSet<String>::new, Set::add)
+                .doOnNext(ids -> {
+                    // Room to grow until the next rebuild without losing accuracy
+                    BloomFilter filter = new BloomFilter(Math.max(properties.getExpectedRevocations(), ids.size() * 2),
+                            properties.getFalsePositiveRate());
+                    ids.forEach(filter::put);
+                    synchronized (lock) {
+                        revokedDuringRebuild.forEach(filter::put);
+                        revokedDuringRebuild = null;
+                        revoked = filter;
+                    }
+                    log.debug("Rebuilt revoked token filter with {} ids ({} bits)", ids.size(), filter.getBitCount());
+                })
+                .onErrorResume(error -> {
+                    synchronized (lock) {
+                        revokedDuringRebuild = null;
+                    }
+                    log.warn("Could not load revoked tokens, keeping the current filter: {}", error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    void addRevoked(String jti) {
+        synchronized (lock) {
+            BloomFilter filter = revoked;
+            if (filter != null) {
+                filter.put(jti);
+            }
+            // A rebuild in progress may have scanned past this id already
+            if (revokedDuringRebuild != null) {
+                revokedDuringRebuild.add(jti);
+            }
+        }
+    }
+
+    /**
+     * Subscribe again after the connection drops; the next rebuild covers what was published meanwhile
+     */
+    private static <T> Flux<T> resubscribing(Flux<T> messages, String name) {
+        return messages.retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                .maxBackoff(Duration.ofSeconds(30))
+                .doBeforeRetry(signal -> log.warn("Lost the {} subscription, retrying: {}",
+                        name, signal.failure().getMessage())));
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecommerce.campus.apigateway.security;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local copy of auth-service's per-user watermarks, the same cache its TokenWatermarkService keeps:
+ * users without a watermark are cached too, entries are reloaded after {@code ttlMs} and moves published
+ * by auth-service are applied as they arrive.
+ */
+@Slf4j
+class TokenWatermarks {
+
+    static final long NONE = 0;
+
+    private final long ttlMs;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, Entry> watermarks = new ConcurrentHashMap<>();
+
+    TokenWatermarks(long ttlMs, int maxEntries) {
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * The user's watermark if it was loaded recently enough, otherwise null
+     */
+    Long get(String userId, long nowMs) {
+        Entry entry = watermarks.get(userId);
+        return entry != null && nowMs - entry.loadedAtMs() < ttlMs ? entry.watermark() : null;
+    }
+
+    /**
+     * Record a watermark read or published, returning the one now in effect
+     */
+    long update(String userId, long watermark) {
+        if (watermarks.size() >= maxEntries && !watermarks.containsKey(userId)) {
+            evict();
+        }
+        long now = System.currentTimeMillis();
+        // Watermarks only move forward; a reload may still see an older value than a message just applied
+        return watermarks.merge(userId, new Entry(watermark, now),
+                (current, loaded) -> new Entry(Math.max(current.watermark(), loaded.watermark()), now)).watermark();
+    }
+
+    /**
+     * A watermark moved by auth-service: "userId:watermark"
+     */
+    void onMessage(String body) {
+        int separator = body.indexOf(':');
+        try {
+            update(body.substring(0, separator), Long.parseLong(body.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed watermark message '{}'", body);
+        }
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        watermarks.values().removeIf(entry -> now - entry.loadedAtMs() >= ttlMs);
+
+        // Still full of fresh entries: drop an eighth of the table (hash order is effectively random)
+        int toRemove = watermarks.size() - maxEntries + Math.max(1, maxEntries / 8);
+        Iterator<Map.Entry<String, Entry>> it = watermarks.entrySet().iterator();
+        while (toRemove > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+            toRemove--;
+        }
+    }
+
+    private record Entry(long watermark, long loadedAtMs) {}
+}
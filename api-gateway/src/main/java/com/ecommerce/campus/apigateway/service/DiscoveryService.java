@@ -1,63 +1,52 @@
 package com.ecommerce.campus.apigateway.service;
 
-import lombok.extern.slf4j.Slf4j;
+import com.ecommerce.campus.apigateway.registry.RegistrySnapshot;
+import com.ecommerce.campus.apigateway.registry.ServiceRegistryCache;
 import org.springframework.cloud.client.ServiceInstance;
-import org.springframework.cloud.client.discovery.DiscoveryClient;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
-@Slf4j
+/**
+ * Registry queries answered from the in-memory {@link ServiceRegistryCache}; nothing here calls the registry.
+ */
 @Service
 public class DiscoveryService {
 
-    private final DiscoveryClient discoveryClient;
+    private final ServiceRegistryCache registryCache;
 
-    public DiscoveryService(DiscoveryClient discoveryClient) {
-        this.discoveryClient = discoveryClient;
+    public DiscoveryService(ServiceRegistryCache registryCache) {
+        this.registryCache = registryCache;
     }
 
     /**
      * Get all registered services
      */
     public Mono<List<String>> getRegisteredServices() {
-        return Mono.fromCallable(() -> {
-            List<String> services = discoveryClient.getServices();
-            log.info("Found {} registered services: {}", services.size(), services);
-            return services;
-        });
+        return Mono.fromSupplier(() -> registryCache.getSnapshot().getServices());
     }
 
     /**
      * Get instances of a specific service
      */
     public Mono<List<ServiceInstance>> getServiceInstances(String serviceId) {
-        return Mono.fromCallable(() -> {
-            List<ServiceInstance> instances = discoveryClient.getInstances(serviceId);
-            log.info("Found {} instances for service '{}'", instances.size(), serviceId);
-            return instances;
-        });
+        return Mono.fromSupplier(() -> registryCache.getSnapshot().getInstances(serviceId));
     }
 
     /**
      * Get service registry summary
      */
     public Mono<ServiceRegistryInfo> getServiceRegistryInfo() {
-        return Mono.fromCallable(() -> {
-            List<String> services = discoveryClient.getServices();
-            Map<String, Integer> serviceInstanceCounts = services.stream()
-                    .collect(Collectors.toMap(
-                            service -> service,
-                            service -> discoveryClient.getInstances(service).size()
-                    ));
-
+        return Mono.fromSupplier(() -> {
+            RegistrySnapshot snapshot = registryCache.getSnapshot();
             return new ServiceRegistryInfo(
-                    services.size(),
-                    serviceInstanceCounts.values().stream().mapToInt(Integer::intValue).sum(),
-                    serviceInstanceCounts
+                    snapshot.getServices().size(),
+                    snapshot.getTotalInstances(),
+                    snapshot.getInstanceCounts(),
+                    snapshot.getVersion()
             );
         });
     }
@@ -70,12 +59,27 @@ public class DiscoveryService {
                 .map(instances -> !instances.isEmpty());
     }
 
+    /**
+     * Current registry snapshot
+     */
+    public RegistrySnapshot getSnapshot() {
+        return registryCache.getSnapshot();
+    }
+
+    /**
+     * Registry snapshots as they change, starting with the current one
+     */
+    public Flux<RegistrySnapshot> changes() {
+        return registryCache.changes();
+    }
+
     /**
      * Service registry info DTO
      */
     public record ServiceRegistryInfo(
             int totalServices,
             int totalInstances,
-            Map<String, Integer> serviceInstanceCounts
+            Map<String, Integer> serviceInstanceCounts,
+            long version
     ) {}
 }
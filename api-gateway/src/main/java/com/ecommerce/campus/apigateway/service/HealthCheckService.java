@@ -1,66 +1,183 @@
 package com.ecommerce.campus.apigateway.service;
 
+import com.ecommerce.campus.apigateway.health.HealthProbeProperties;
+import com.ecommerce.campus.apigateway.health.HealthSnapshot;
+import com.ecommerce.campus.apigateway.health.InstanceHealth;
+import com.ecommerce.campus.apigateway.registry.RegistrySnapshot;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
-import java.util.HashMap;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Probes every instance of every registered service in the background and keeps the results in an
+ * immutable {@link HealthSnapshot}. Health queries and the load balancer read the snapshot, so
+ * polling dashboards never trigger probes of their own.
+ */
 @Slf4j
 @Service
 public class HealthCheckService {
 
     private final DiscoveryService discoveryService;
+    private final HealthProbeProperties properties;
     private final WebClient webClient;
 
-    public HealthCheckService(DiscoveryService discoveryService, WebClient.Builder webClientBuilder) {
+    private volatile HealthSnapshot snapshot = HealthSnapshot.EMPTY;
+    private volatile Disposable prober;
+    private volatile long probedRegistryVersion;
+
+    public HealthCheckService(DiscoveryService discoveryService, HealthProbeProperties properties) {
         this.discoveryService = discoveryService;
-        this.webClient = webClientBuilder.build();
+        this.properties = properties;
+        // Not the @LoadBalanced builder: probes address instances directly, not through service ids
+        this.webClient = WebClient.builder().build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled() || prober != null) {
+            return;
+        }
+        prober = Mono.defer(this::probeAll)
+                .onErrorResume(error -> {
+                    log.warn("Health probe round failed: {}", error.getMessage());
+                    return Mono.empty();
+                })
+                .then(Mono.defer(this::nextRound))
+                .repeat()
+                .subscribe();
+        log.info("Background health probing every {} with up to {} probes in flight",
+                properties.getInterval(), properties.getConcurrency());
+    }
+
+    @PreDestroy
+    public void stop() {
+        Disposable current = prober;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    /**
+     * Latest probe results, never null
+     */
+    public HealthSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Run one probe round over all instances and publish the new snapshot
+     */
+    public Mono<HealthSnapshot> probeAll() {
+        HealthSnapshot previous = snapshot;
+        RegistrySnapshot registry = discoveryService.getSnapshot();
+        probedRegistryVersion = registry.getVersion();
+        return Flux.fromIterable(registry.getAllInstances().entrySet())
+                .filter(service -> !properties.getExcludedServices().contains(service.getKey()))
+                .flatMapIterable(Map.Entry::getValue)
+                .flatMap(instance -> Mono.delay(jitter())
+                        .then(probe(instance, previous.get(instance)))
+                        .map(health -> Map.entry(instance, health)), properties.getConcurrency())
+                .collectList()
+                .map(results -> {
+                    Map<ServiceInstance, InstanceHealth> byInstance = new IdentityHashMap<>();
+                    results.forEach(result -> byInstance.put(result.getKey(), result.getValue()));
+                    Map<String, List<InstanceHealth>> services = results.stream()
+                            .map(Map.Entry::getValue)
+                            .collect(Collectors.groupingBy(InstanceHealth::serviceId, LinkedHashMap::new, Collectors.toList()));
+                    services.values().forEach(list -> list.sort(Comparator.comparing(InstanceHealth::host)
+                            .thenComparingInt(InstanceHealth::port)));
+                    HealthSnapshot next = new HealthSnapshot(services, byInstance, Instant.now());
+                    snapshot = next;
+                    return next;
+                });
+    }
+
+    /**
+     * Wait for the interval, or less if the registry changes, so new instances are probed right away
+     */
+    private Mono<Void> nextRound() {
+        long probed = probedRegistryVersion;
+        return Mono.firstWithSignal(
+                Mono.delay(properties.getInterval()).then(),
+                discoveryService.changes().filter(registry -> registry.getVersion() != probed).next().then());
+    }
+
+    private Mono<InstanceHealth> probe(ServiceInstance instance, InstanceHealth previous) {
+        long started = System.nanoTime();
+        return webClient.get()
+                .uri(buildHealthUrl(instance))
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(properties.getTimeout())
+                .map(response -> result(instance, previous, started, null))
+                .onErrorResume(error -> Mono.just(result(instance, previous, started,
+                        error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName())));
+    }
+
+    private InstanceHealth result(ServiceInstance instance, InstanceHealth previous, long startedNanos, String error) {
+        long latencyMs = Duration.ofNanos(System.nanoTime() - startedNanos).toMillis();
+        InstanceHealth.Status status;
+        int failures;
+        if (error == null) {
+            status = InstanceHealth.Status.UP;
+            failures = 0;
+        } else {
+            failures = previous != null ? previous.consecutiveFailures() + 1 : 1;
+            if (failures >= properties.getUnhealthyThreshold()) {
+                status = InstanceHealth.Status.DOWN;
+            } else {
+                status = previous != null ? previous.status() : InstanceHealth.Status.UNKNOWN;
+            }
+            if (status == InstanceHealth.Status.DOWN && (previous == null || previous.status() != status)) {
+                log.warn("Instance {}:{} of '{}' is DOWN after {} failed probes: {}",
+                        instance.getHost(), instance.getPort(), instance.getServiceId(), failures, error);
+            }
+        }
+        if (status == InstanceHealth.Status.UP && previous != null && previous.status() == InstanceHealth.Status.DOWN) {
+            log.info("Instance {}:{} of '{}' is back UP", instance.getHost(), instance.getPort(), instance.getServiceId());
+        }
+        return new InstanceHealth(instance.getServiceId(), instance.getInstanceId(), instance.getHost(),
+                instance.getPort(), status, latencyMs, failures, Instant.now(), error);
+    }
+
+    private Duration jitter() {
+        long maxMs = properties.getJitter().toMillis();
+        return maxMs <= 0 ? Duration.ZERO : Duration.ofMillis(ThreadLocalRandom.current().nextLong(maxMs + 1));
     }
 
     /**
      * Check health of all registered services
      */
     public Mono<Map<String, HealthStatus>> checkAllServicesHealth() {
-        return discoveryService.getRegisteredServices()
-                .flatMap(services -> {
-                    Map<String, HealthStatus> healthMap = new HashMap<>();
-
-                    return Mono.just(services)
-                            .flatMapIterable(serviceList -> serviceList)
-                            .flatMap(service -> checkServiceHealth(service)
-                                    .doOnNext(status -> healthMap.put(service, status)))
-                            .then(Mono.just(healthMap));
-                });
+        return Mono.fromSupplier(() -> {
+            Map<String, HealthStatus> healthMap = new LinkedHashMap<>();
+            snapshot.getServices().forEach((service, instances) -> healthMap.put(service, toHealthStatus(instances)));
+            return healthMap;
+        });
     }
 
     /**
      * Check health of a specific service
      */
     public Mono<HealthStatus> checkServiceHealth(String serviceId) {
-        return discoveryService.getServiceInstances(serviceId)
-                .flatMap(instances -> {
-                    if (instances.isEmpty()) {
-                        return Mono.just(new HealthStatus("DOWN", "No instances found", 0));
-                    }
-
-                    // Check first instance (simple approach)
-                    ServiceInstance instance = instances.get(0);
-                    String healthUrl = buildHealthUrl(instance);
-
-                    return webClient.get()
-                            .uri(healthUrl)
-                            .retrieve()
-                            .bodyToMono(String.class)
-                            .map(response -> new HealthStatus("UP", "Service responding", instances.size()))
-                            .timeout(Duration.ofSeconds(5))
-                            .onErrorReturn(new HealthStatus("DOWN", "Health check failed", instances.size()));
-                });
+        return Mono.fromSupplier(() -> toHealthStatus(snapshot.getService(serviceId)));
     }
 
     /**
@@ -80,20 +197,40 @@ public class HealthCheckService {
                             overallStatus,
                             totalServices,
                             upServices,
-                            serviceHealthMap
+                            serviceHealthMap,
+                            snapshot.getTakenAt()
                     );
                 });
     }
 
+    private static HealthStatus toHealthStatus(List<InstanceHealth> instances) {
+        if (instances.isEmpty()) {
+            return new HealthStatus("DOWN", "No instances found", 0, 0, List.of());
+        }
+        int up = (int) instances.stream().filter(instance -> instance.status() == InstanceHealth.Status.UP).count();
+        if (up == instances.size()) {
+            return new HealthStatus("UP", "All instances responding", instances.size(), up, instances);
+        }
+        String status = up == 0 ? "DOWN" : "DEGRADED";
+        return new HealthStatus(status, up + " of " + instances.size() + " instances responding",
+                instances.size(), up, instances);
+    }
+
     private String buildHealthUrl(ServiceInstance instance) {
-        return String.format("http://%s:%d/actuator/health",
-                instance.getHost(), instance.getPort());
+        return String.format("http://%s:%d%s",
+                instance.getHost(), instance.getPort(), properties.getPath());
     }
 
     /**
      * Health status DTO
      */
-    public record HealthStatus(String status, String message, int instanceCount) {}
+    public record HealthStatus(
+            String status,
+            String message,
+            int instanceCount,
+            int upInstances,
+            List<InstanceHealth> instances
+    ) {}
 
     /**
      * Gateway health DTO
@@ -102,6 +239,7 @@ public class HealthCheckService {
             String overallStatus,
             long totalServices,
             long upServices,
-            Map<String, HealthStatus> serviceHealth
+            Map<String, HealthStatus> serviceHealth,
+            Instant lastProbe
     ) {}
-}
\ No newline at end of file
+}
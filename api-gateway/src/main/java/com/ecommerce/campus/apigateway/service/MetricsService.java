@@ -1,48 +1,130 @@
 package com.ecommerce.campus.apigateway.service;
 
+import com.ecommerce.campus.apigateway.cache.ResponseCache;
+import com.ecommerce.campus.apigateway.concurrency.AdaptiveConcurrencyLimiter;
+import com.ecommerce.campus.apigateway.concurrency.ConcurrencyLimiterRegistry;
+import com.ecommerce.campus.apigateway.hedging.HedgingRegistry;
+import com.ecommerce.campus.apigateway.hedging.RouteHedging;
+import com.ecommerce.campus.apigateway.metrics.LatencyHistogram;
+import com.ecommerce.campus.apigateway.metrics.RouteMetrics;
+import com.ecommerce.campus.apigateway.resilience.ResilienceRegistry;
+import com.ecommerce.campus.apigateway.retry.RetryRegistry;
+import com.ecommerce.campus.apigateway.retry.UpstreamRetries;
+import com.ecommerce.campus.apigateway.resilience.RouteResilience;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Service
 public class MetricsService {
 
-    private final AtomicLong totalRequests = new AtomicLong(0);
-    private final AtomicLong successfulRequests = new AtomicLong(0);
-    private final AtomicLong failedRequests = new AtomicLong(0);
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final int[] THROUGHPUT_WINDOWS = {1, 10, 60};
+
+    private final MeterRegistry meterRegistry;
+    private final ResponseCache responseCache;
+    private final ResilienceRegistry resilienceRegistry;
+    private final ConcurrencyLimiterRegistry concurrencyLimiters;
+    private final HedgingRegistry hedgingRegistry;
+    private final RetryRegistry retryRegistry;
+    private final RouteMetrics total = new RouteMetrics("all");
+    private final Map<String, RouteMetrics> routes = new ConcurrentHashMap<>();
     private final LocalDateTime startTime = LocalDateTime.now();
 
+    public MetricsService(MeterRegistry meterRegistry, ResponseCache responseCache,
+                          ResilienceRegistry resilienceRegistry, ConcurrencyLimiterRegistry concurrencyLimiters,
+                          HedgingRegistry hedgingRegistry, RetryRegistry retryRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.responseCache = responseCache;
+        this.resilienceRegistry = resilienceRegistry;
+        this.concurrencyLimiters = concurrencyLimiters;
+        this.hedgingRegistry = hedgingRegistry;
+        this.retryRegistry = retryRegistry;
+        bindGatewayMetrics();
+    }
+
     /**
-     * Record a successful request
+     * Metrics of a route, registered with Micrometer the first time the route is seen
      */
-    public void recordSuccessfulRequest() {
-        totalRequests.incrementAndGet();
-        successfulRequests.incrementAndGet();
+    public RouteMetrics routeMetrics(String routeId) {
+        RouteMetrics metrics = routes.get(routeId);
+        return metrics != null ? metrics : routes.computeIfAbsent(routeId, this::createRouteMetrics);
     }
 
     /**
-     * Record a failed request
+     * Record a request entering the gateway
      */
-    public void recordFailedRequest() {
-        totalRequests.incrementAndGet();
-        failedRequests.incrementAndGet();
+    public void recordStart() {
+        total.start();
+    }
+
+    /**
+     * Record a completed request; 5xx responses count as failed
+     */
+    public void recordCompletion(int status, long latencyNanos) {
+        total.complete(status, latencyNanos, System.currentTimeMillis());
+    }
+
+    /**
+     * Record a request handed to a route
+     */
+    public void recordStart(RouteMetrics route) {
+        route.start();
+    }
+
+    /**
+     * Record a completed request of a route; 5xx responses count as failed
+     */
+    public void recordCompletion(RouteMetrics route, int status, long latencyNanos) {
+        route.complete(status, latencyNanos, System.currentTimeMillis());
     }
 
     /**
      * Get gateway metrics
      */
     public Mono<GatewayMetrics> getMetrics() {
-        return Mono.just(new GatewayMetrics(
-                totalRequests.get(),
-                successfulRequests.get(),
-                failedRequests.get(),
-                calculateSuccessRate(),
-                startTime
-        ));
+        return Mono.fromSupplier(() -> {
+            Map<String, RouteStats> routeStats = new LinkedHashMap<>();
+            routes.values().forEach(route -> routeStats.put(route.getRouteId(), toRouteStats(route)));
+            Map<String, ResilienceStats> resilienceStats = new LinkedHashMap<>();
+            resilienceRegistry.getAll().forEach(route -> resilienceStats.put(route.getRouteId(), toResilienceStats(route)));
+            Map<String, ConcurrencyStats> concurrencyStats = new LinkedHashMap<>();
+            concurrencyLimiters.getAll().forEach((routeId, limiter) -> concurrencyStats.put(routeId, toConcurrencyStats(limiter)));
+            Map<String, HedgingStats> hedgingStats = new LinkedHashMap<>();
+            hedgingRegistry.getAll().forEach(route -> hedgingStats.put(route.getRouteId(), toHedgingStats(route)));
+            Map<String, RetryStats> retryStats = new LinkedHashMap<>();
+            retryRegistry.getAll().forEach((serviceId, retries) -> retryStats.put(serviceId, toRetryStats(retries)));
+
+            long totalRequests = total.getRequestCount();
+            long failedRequests = total.getFailedCount();
+            return new GatewayMetrics(
+                    totalRequests,
+                    totalRequests - failedRequests,
+                    failedRequests,
+                    calculateSuccessRate(totalRequests, failedRequests),
+                    startTime,
+                    total.getInFlight(),
+                    toThroughput(total),
+                    toLatency(total.latencySnapshot()),
+                    routeStats,
+                    toCacheStats(responseCache),
+                    resilienceStats,
+                    concurrencyStats,
+                    hedgingStats,
+                    retryStats
+            );
+        });
     }
 
     /**
@@ -50,17 +132,138 @@ public class MetricsService {
      */
     public Mono<Void> resetMetrics() {
         return Mono.fromRunnable(() -> {
-            totalRequests.set(0);
-            successfulRequests.set(0);
-            failedRequests.set(0);
+            total.reset();
+            routes.values().forEach(RouteMetrics::reset);
             log.info("Gateway metrics reset");
         });
     }
 
-    private double calculateSuccessRate() {
-        long total = totalRequests.get();
+    private double calculateSuccessRate(long total, long failed) {
         if (total == 0) return 0.0;
-        return (double) successfulRequests.get() / total * 100;
+        return (double) (total - failed) / total * 100;
+    }
+
+    private RouteStats toRouteStats(RouteMetrics route) {
+        Map<String, Long> statusClasses = new LinkedHashMap<>();
+        for (int statusClass = 1; statusClass <= 5; statusClass++) {
+            statusClasses.put(statusClass + "xx", route.getStatusClassCount(statusClass));
+        }
+        return new RouteStats(
+                route.getRequestCount(),
+                statusClasses,
+                route.getInFlight(),
+                toThroughput(route),
+                toLatency(route.latencySnapshot())
+        );
+    }
+
+    private static Throughput toThroughput(RouteMetrics metrics) {
+        return new Throughput(metrics.getThroughput(1), metrics.getThroughput(10), metrics.getThroughput(60));
+    }
+
+    private static Latency toLatency(LatencyHistogram.Snapshot snapshot) {
+        return new Latency(
+                snapshot.valueAtPercentileMs(50),
+                snapshot.valueAtPercentileMs(90),
+                snapshot.valueAtPercentileMs(99),
+                snapshot.valueAtPercentileMs(99.9),
+                snapshot.meanMs(),
+                snapshot.maxMs()
+        );
+    }
+
+    private static CacheStats toCacheStats(ResponseCache cache) {
+        return new CacheStats(
+                cache.getHitCount(),
+                cache.getStaleHitCount(),
+                cache.getMissCount(),
+                cache.getEvictionCount(),
+                cache.getRejectionCount(),
+                cache.getHitRatio(),
+                cache.getEntryCount(),
+                cache.getSizeInBytes()
+        );
+    }
+
+    private static ResilienceStats toResilienceStats(RouteResilience route) {
+        CircuitBreaker.Metrics breaker = route.getCircuitBreaker().getMetrics();
+        return new ResilienceStats(
+                route.getCircuitBreaker().getState().name(),
+                breaker.getFailureRate(),
+                breaker.getSlowCallRate(),
+                breaker.getNumberOfBufferedCalls(),
+                route.getBulkhead().getMetrics().getAvailableConcurrentCalls(),
+                route.getRejectionCount(RouteResilience.Rejection.CIRCUIT_OPEN),
+                route.getRejectionCount(RouteResilience.Rejection.BULKHEAD_FULL),
+                route.getRejectionCount(RouteResilience.Rejection.TIMEOUT)
+        );
+    }
+
+    private static ConcurrencyStats toConcurrencyStats(AdaptiveConcurrencyLimiter limiter) {
+        return new ConcurrencyStats(
+                limiter.getLimit(),
+                limiter.getInFlight(),
+                limiter.getShedCount(),
+                limiter.getNoLoadRttMs()
+        );
+    }
+
+    private static HedgingStats toHedgingStats(RouteHedging route) {
+        return new HedgingStats(
+                route.getRequestCount(),
+                route.getHedgeCount(),
+                route.getHedgeWinCount(),
+                route.getBudgetExhaustedCount(),
+                route.getHedgeRate(),
+                route.getWinRatio(),
+                route.getDelay().toNanos() / 1_000_000.0
+        );
+    }
+
+    private static RetryStats toRetryStats(UpstreamRetries retries) {
+        return new RetryStats(
+                retries.getRetryCount(),
+                retries.getOutcomeCount(UpstreamRetries.Outcome.RECOVERED),
+                retries.getOutcomeCount(UpstreamRetries.Outcome.FAILED),
+                retries.getOutcomeCount(UpstreamRetries.Outcome.BUDGET_EXHAUSTED),
+                retries.getOutcomeCount(UpstreamRetries.Outcome.NO_INSTANCE),
+                retries.getBudgetBalance()
+        );
+    }
+
+    private RouteMetrics createRouteMetrics(String routeId) {
+        RouteMetrics metrics = new RouteMetrics(routeId);
+        Tags tags = Tags.of("route", routeId);
+        for (int statusClass = 1; statusClass <= 5; statusClass++) {
+            int index = statusClass;
+            FunctionCounter.builder("gateway.requests", metrics, m -> m.getStatusClassCount(index))
+                    .tags(tags.and("status", statusClass + "xx"))
+                    .register(meterRegistry);
+        }
+        bindLiveMetrics("gateway.requests", metrics, tags);
+        return metrics;
+    }
+
+    private void bindGatewayMetrics() {
+        bindLiveMetrics("gateway.requests.all", total, Tags.empty());
+    }
+
+    private void bindLiveMetrics(String prefix, RouteMetrics metrics, Tags tags) {
+        Gauge.builder(prefix + ".inflight", metrics, RouteMetrics::getInFlight)
+                .tags(tags)
+                .register(meterRegistry);
+        for (double quantile : QUANTILES) {
+            Gauge.builder(prefix + ".latency", metrics, m -> m.latencySnapshot().valueAtPercentileMs(quantile * 100))
+                    .tags(tags.and("quantile", Double.toString(quantile)))
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+        for (int window : THROUGHPUT_WINDOWS) {
+            Gauge.builder(prefix + ".throughput", metrics, m -> m.getThroughput(window))
+                    .tags(tags.and("window", window + "s"))
+                    .description("Completed requests per second")
+                    .register(meterRegistry);
+        }
     }
 
     /**
@@ -71,6 +274,94 @@ public class MetricsService {
             long successfulRequests,
             long failedRequests,
             double successRate,
-            LocalDateTime startTime
+            LocalDateTime startTime,
+            long inFlight,
+            Throughput throughput,
+            Latency latency,
+            Map<String, RouteStats> routes,
+            CacheStats responseCache,
+            Map<String, ResilienceStats> resilience,
+            Map<String, ConcurrencyStats> concurrency,
+            Map<String, HedgingStats> hedging,
+            Map<String, RetryStats> retries
+    ) {}
+
+    /**
+     * Per-route metrics DTO
+     */
+    public record RouteStats(
+            long requests,
+            Map<String, Long> statusClasses,
+            long inFlight,
+            Throughput throughput,
+            Latency latency
+    ) {}
+
+    /**
+     * Response cache DTO
+     */
+    public record CacheStats(
+            long hits,
+            long staleHits,
+            long misses,
+            long evictions,
+            long rejections,
+            double hitRatio,
+            int entries,
+            long sizeBytes
+    ) {}
+
+    /**
+     * Circuit breaker and bulkhead DTO; rates are -1 until the breaker has seen its minimum number of calls
+     */
+    public record ResilienceStats(
+            String state,
+            float failureRate,
+            float slowCallRate,
+            int bufferedCalls,
+            int availableConcurrentCalls,
+            long rejectedOpen,
+            long rejectedBulkheadFull,
+            long timeouts
     ) {}
-}
\ No newline at end of file
+
+    /**
+     * Adaptive concurrency limit DTO
+     */
+    public record ConcurrencyStats(int limit, int inFlight, long shed, double noLoadRttMs) {}
+
+    /**
+     * Request hedging DTO; hedgeRate is hedges per request, winRatio the share of hedges answering first
+     */
+    public record HedgingStats(
+            long requests,
+            long hedges,
+            long wins,
+            long budgetExhausted,
+            double hedgeRate,
+            double winRatio,
+            double delayMs
+    ) {}
+
+    /**
+     * Retry budget DTO per upstream service; outcomes count requests whose first attempt failed
+     */
+    public record RetryStats(
+            long retries,
+            long recovered,
+            long failed,
+            long budgetExhausted,
+            long noInstance,
+            double budgetBalance
+    ) {}
+
+    /**
+     * Completed requests per second over the last 1, 10 and 60 seconds
+     */
+    public record Throughput(double last1s, double last10s, double last60s) {}
+
+    /**
+     * Latency percentiles in milliseconds
+     */
+    public record Latency(double p50, double p90, double p99, double p999, double mean, double max) {}
+}
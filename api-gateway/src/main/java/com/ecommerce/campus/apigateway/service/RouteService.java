@@ -1,5 +1,7 @@
 package com.ecommerce.campus.apigateway.service;
 
+import com.ecommerce.campus.apigateway.routing.RouteReloader;
+import com.ecommerce.campus.apigateway.routing.RouteTable;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.route.RouteLocator;
@@ -7,6 +9,7 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -15,9 +18,11 @@ import java.util.stream.Collectors;
 public class RouteService {
 
     private final RouteLocator routeLocator;
+    private final RouteReloader routeReloader;
 
-    public RouteService(RouteLocator routeLocator) {
+    public RouteService(RouteLocator routeLocator, RouteReloader routeReloader) {
         this.routeLocator = routeLocator;
+        this.routeReloader = routeReloader;
     }
 
     /**
@@ -57,8 +62,42 @@ public class RouteService {
         return getAllRoutes().count();
     }
 
+    /**
+     * Get the active dynamic route table and how its last reload went
+     */
+    public RouteTableInfo getRouteTableInfo() {
+        RouteTable table = routeReloader.getActiveTable();
+        double reloadMs = routeReloader.getLastReloadMs();
+        return new RouteTableInfo(
+                table.version(),
+                table.source(),
+                table.revision(),
+                table.version() == 0 ? null : table.loadedAt(),
+                table.definitions().size(),
+                reloadMs < 0 ? null : reloadMs,
+                routeReloader.getAppliedCount(),
+                routeReloader.getRejectedCount(),
+                routeReloader.getLastError()
+        );
+    }
+
     /**
      * Simple route info DTO
      */
     public record RouteInfo(String id, String uri, String predicate) {}
+
+    /**
+     * Dynamic route table DTO
+     */
+    public record RouteTableInfo(
+            long version,
+            String source,
+            String revision,
+            Instant loadedAt,
+            int dynamicRoutes,
+            Double lastReloadMs,
+            long reloads,
+            long rejected,
+            String lastError
+    ) {}
 }
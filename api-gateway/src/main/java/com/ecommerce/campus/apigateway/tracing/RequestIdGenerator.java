@@ -0,0 +1,76 @@
+package com.ecommerce.campus.apigateway.tracing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered, collision-free request IDs (Snowflake layout, ULID-style text).
+ * <pre>
+ *   | timestamp ms 48 | node 10 | sequence 22 |  = 80 bits = 16 Crockford base32 chars
+ * </pre>
+ * Timestamp and sequence share one {@link AtomicLong}, so any number of event-loop threads can
+ * generate IDs with a single CAS and no locks. IDs never go backwards: if the clock does, or the
+ * 4M IDs of a millisecond are used up, the generator keeps counting on the last timestamp it saw.
+ * IDs sort lexicographically in creation order per node.
+ */
+public class RequestIdGenerator {
+
+    public static final int LENGTH = 16;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 22;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long NODE_MASK = (1L << NODE_BITS) - 1;
+    private static final long TIMESTAMP_MASK = (1L << 48) - 1;
+    private static final byte[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".getBytes(StandardCharsets.US_ASCII);
+
+    private final long node;
+    /** timestamp << SEQUENCE_BITS | sequence of the last ID handed out */
+    private final AtomicLong state = new AtomicLong();
+
+    public RequestIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > NODE_MASK) {
+            throw new IllegalArgumentException("nodeId must be between 0 and " + NODE_MASK);
+        }
+        this.node = nodeId;
+    }
+
+    public String nextId() {
+        long next = nextState(System.currentTimeMillis());
+        long timestamp = (next >>> SEQUENCE_BITS) & TIMESTAMP_MASK;
+        long low = (node << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+        return encode(timestamp, low);
+    }
+
+    long nextState(long nowMs) {
+        long candidate = nowMs << SEQUENCE_BITS;
+        while (true) {
+            long current = state.get();
+            // Same or earlier millisecond: next sequence number, which rolls into the next ms when exhausted
+            long next = candidate > current ? candidate : current + 1;
+            if (state.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * 48-bit timestamp then 32 bits of node and sequence, most significant 5 bits first
+     */
+    static String encode(long timestamp, long low) {
+        byte[] chars = new byte[LENGTH];
+        // 80 bits: top 48 are timestamp, bottom 32 node + sequence
+        long hi = timestamp >>> 16;                       // 32 bits
+        long lo = ((timestamp & 0xFFFF) << 32) | low;     // 48 bits
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = CROCKFORD[(int) (lo & 31)];
+            lo = (lo >>> 5) | ((hi & 31) << 43);
+            hi >>>= 5;
+        }
+        return new String(chars, StandardCharsets.US_ASCII);
+    }
+
+    public int getNodeId() {
+        return (int) node;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.campus.apigateway.upstream;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket capping extra upstream attempts (hedges, retries) to a share of regular traffic:
+ * each request deposits a fraction of a token, each extra attempt spends a whole one. The cap on
+ * saved tokens keeps the budget tied to recent traffic, and the bucket starts full so the first
+ * slow or failed calls after startup are covered. Balances are kept in thousandths of a token so
+ * one CAS suffices.
+ */
+public class AttemptBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    public AttemptBudget(double ratio, int maxBurst) {
+        this.deposit = Math.round(ratio * SCALE);
+        this.capacity = Math.max(1, maxBurst) * SCALE;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    /**
+     * Credit one request of regular traffic
+     */
+    public void deposit() {
+        long current = balance.get();
+        while (current < capacity) {
+            long next = Math.min(capacity, current + deposit);
+            if (balance.compareAndSet(current, next)) {
+                return;
+            }
+            current = balance.get();
+        }
+    }
+
+    /**
+     * Spend a token for one extra attempt, false if the budget is used up
+     */
+    public boolean tryWithdraw() {
+        long current = balance.get();
+        while (current >= SCALE) {
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+            current = balance.get();
+        }
+        return false;
+    }
+
+    /**
+     * Extra attempts that can be made right now
+     */
+    public double getBalance() {
+        return (double) balance.get() / SCALE;
+    }
+}
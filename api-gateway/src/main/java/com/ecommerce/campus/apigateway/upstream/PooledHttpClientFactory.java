@@ -0,0 +1,36 @@
+package com.ecommerce.campus.apigateway.upstream;
+
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
+
+/**
+ * Builds an HttpClient exactly like the gateway's own, with its timeouts, TLS, proxy and customizers,
+ * but on top of the given pool instead of the one configured under {@code spring.cloud.gateway.httpclient.pool}.
+ */
+public class PooledHttpClientFactory extends HttpClientFactory {
+
+    private final ConnectionProvider provider;
+
+    public PooledHttpClientFactory(HttpClientProperties properties, ServerProperties serverProperties,
+                                   HttpClientSslConfigurer sslConfigurer, List<HttpClientCustomizer> customizers,
+                                   ConnectionProvider provider) {
+        super(properties, serverProperties, sslConfigurer, customizers);
+        this.provider = provider;
+    }
+
+    public HttpClient build() {
+        return createInstance();
+    }
+
+    @Override
+    protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+        return provider;
+    }
+}
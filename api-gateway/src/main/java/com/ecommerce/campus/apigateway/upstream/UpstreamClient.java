@@ -0,0 +1,170 @@
+package com.ecommerce.campus.apigateway.upstream;
+
+import com.ecommerce.campus.apigateway.loadbalancer.InstanceStatsRegistry;
+import com.ecommerce.campus.apigateway.service.DiscoveryService;
+import com.ecommerce.campus.apigateway.service.HealthCheckService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sends a routed request to chosen instances itself, for filters that make more than one attempt
+ * per request (hedging, retries) and so cannot leave the call to Netty routing. Headers go through
+ * the gateway's {@link HttpHeadersFilter}s both ways, as they would with Netty routing.
+ */
+@Component
+public class UpstreamClient {
+
+    private final DiscoveryService discoveryService;
+    private final HealthCheckService healthCheckService;
+    private final ObjectProvider<HttpHeadersFilter> headersFilters;
+    private final WebClient webClient;
+
+    private volatile List<HttpHeadersFilter> resolvedHeadersFilters;
+
+    public UpstreamClient(DiscoveryService discoveryService,
+                          HealthCheckService healthCheckService,
+                          ObjectProvider<HttpHeadersFilter> headersFilters,
+                          UpstreamPoolRegistry upstreamPools) {
+        this.discoveryService = discoveryService;
+        this.healthCheckService = healthCheckService;
+        this.headersFilters = headersFilters;
+        // Attempts share their service's pool with Netty routing
+        this.webClient = WebClient.builder().clientConnector(upstreamPools.connector()).build();
+    }
+
+    /**
+     * Whether the exchange is an idempotent, bodyless request of an lb:// route whose instance the
+     * load balancer has already chosen, and that nothing else has routed yet
+     */
+    public static boolean isReplayable(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        URI requestUrl = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        HttpMethod method = exchange.getRequest().getMethod();
+        return route != null && requestUrl != null
+                && "lb".equals(route.getUri().getScheme())
+                && ("http".equals(requestUrl.getScheme()) || "https".equals(requestUrl.getScheme()))
+                && (method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS)
+                && !ServerWebExchangeUtils.isAlreadyRouted(exchange);
+    }
+
+    /**
+     * Request headers to send upstream, as Netty routing would send them
+     */
+    public HttpHeaders requestHeaders(ServerWebExchange exchange) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(HttpHeadersFilter.filterRequest(headersFilters(), exchange));
+        if (!Boolean.TRUE.equals(exchange.getAttribute(ServerWebExchangeUtils.PRESERVE_HOST_HEADER_ATTRIBUTE))) {
+            headers.remove(HttpHeaders.HOST);
+        }
+        return headers;
+    }
+
+    /**
+     * Send one attempt; completes with the response as soon as its headers arrive, whatever the status
+     */
+    public Mono<ResponseEntity<Flux<DataBuffer>>> send(HttpMethod method, URI uri, HttpHeaders headers) {
+        return webClient.method(method)
+                .uri(uri)
+                .headers(target -> target.addAll(headers))
+                .retrieve()
+                // Every status is relayed as is, like Netty routing does
+                .onStatus(status -> true, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class);
+    }
+
+    /**
+     * Stream an upstream response to the client
+     */
+    public Mono<Void> write(ServerWebExchange exchange, ResponseEntity<Flux<DataBuffer>> upstream) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(upstream.getStatusCode());
+        HttpHeaders headers = HttpHeadersFilter.filter(headersFilters(), upstream.getHeaders(), exchange,
+                HttpHeadersFilter.Type.RESPONSE);
+        response.getHeaders().putAll(headers);
+        // Framing is up to the gateway's own connection
+        response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        Flux<DataBuffer> body = upstream.getBody();
+        return body != null ? response.writeWith(body) : response.setComplete();
+    }
+
+    /**
+     * Read and release the body of a response that will not be relayed, so its connection can be reused
+     */
+    public static Mono<Void> discard(ResponseEntity<Flux<DataBuffer>> upstream) {
+        Flux<DataBuffer> body = upstream.getBody();
+        return body != null ? body.doOnNext(DataBufferUtils::release).then() : Mono.empty();
+    }
+
+    /**
+     * Complete the instance's attempt once, when its response headers arrive, it fails or it is cancelled.
+     * A cancelled attempt was overtaken, so the time it had taken still counts as latency.
+     */
+    public static Mono<ResponseEntity<Flux<DataBuffer>>> recorded(Mono<ResponseEntity<Flux<DataBuffer>>> attempt,
+                                                                  InstanceStatsRegistry stats,
+                                                                  ServiceInstance instance, long start) {
+        if (stats == null || instance == null) {
+            return attempt;
+        }
+        AtomicBoolean completed = new AtomicBoolean();
+        return attempt
+                .doOnNext(response -> {
+                    if (completed.compareAndSet(false, true)) {
+                        stats.onComplete(instance, System.nanoTime() - start, response.getStatusCode().is5xxServerError());
+                    }
+                })
+                .doOnError(error -> {
+                    if (completed.compareAndSet(false, true)) {
+                        stats.onComplete(instance, System.nanoTime() - start, true);
+                    }
+                })
+                .doOnCancel(() -> {
+                    if (completed.compareAndSet(false, true)) {
+                        stats.onComplete(instance, System.nanoTime() - start, false);
+                    }
+                });
+    }
+
+    /**
+     * A random routable instance of the service other than the ones already tried, or null if there is none
+     */
+    public ServiceInstance chooseOther(String serviceId, Collection<URI> tried) {
+        List<ServiceInstance> candidates = discoveryService.getSnapshot().getInstances(serviceId).stream()
+                .filter(instance -> tried.stream().noneMatch(uri ->
+                        uri.getPort() == instance.getPort() && instance.getHost().equals(uri.getHost())))
+                .filter(healthCheckService.getSnapshot()::isRoutable)
+                .toList();
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+    }
+
+    private List<HttpHeadersFilter> headersFilters() {
+        List<HttpHeadersFilter> filters = resolvedHeadersFilters;
+        if (filters == null) {
+            filters = headersFilters.orderedStream().toList();
+            resolvedHeadersFilters = filters;
+        }
+        return filters;
+    }
+}
@@ -0,0 +1,209 @@
+package com.ecommerce.campus.apigateway.upstream;
+
+import com.ecommerce.campus.apigateway.metrics.LatencyHistogram;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * The connections of one upstream service: a named Reactor Netty pool, the HttpClient and
+ * WebClient connector on top of it, and what they report about it.
+ * <p>
+ * Reactor Netty hands the pool of every remote address to the registrar below, so the gauges read
+ * its own counters and nothing is tracked per request except the time to acquire a connection.
+ */
+public class UpstreamPool {
+
+    private static final long SNAPSHOT_TTL_MS = 1_000;
+
+    private final String name;
+    private final UpstreamPoolProperties.Pool settings;
+    private final ConnectionProvider provider;
+    private final HttpClient httpClient;
+    private final ClientHttpConnector connector;
+    /** Pool metrics by Reactor Netty's pool id, one pool per instance address */
+    private final Map<String, ConnectionPoolMetrics> instancePools = new ConcurrentHashMap<>();
+    private final LatencyHistogram acquireLatency = new LatencyHistogram(Duration.ofMinutes(1));
+    private final LongAdder acquires = new LongAdder();
+    private final LongAdder acquireFailures = new LongAdder();
+
+    private volatile LatencyHistogram.Snapshot cachedSnapshot;
+    private volatile long cachedAtMs;
+
+    public UpstreamPool(String name, UpstreamPoolProperties.Pool settings,
+                        Function<ConnectionProvider, HttpClient> clients) {
+        this.name = name;
+        this.settings = settings;
+        this.provider = ConnectionProvider.builder("upstream-" + name)
+                .maxConnections(settings.getMaxConnections())
+                .pendingAcquireMaxCount(settings.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(settings.getPendingAcquireTimeout())
+                .maxIdleTime(settings.getMaxIdleTime())
+                .maxLifeTime(settings.getMaxLifeTime())
+                .evictInBackground(settings.getEvictionInterval())
+                .metrics(true, () -> new Registrar())
+                .build();
+        this.httpClient = withProtocol(clients.apply(provider), settings.getProtocol())
+                .mapConnect(this::timeAcquire);
+        this.connector = new ReactorClientHttpConnector(httpClient);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public UpstreamPoolProperties.Pool getSettings() {
+        return settings;
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public ClientHttpConnector getConnector() {
+        return connector;
+    }
+
+    /**
+     * Open connections to one instance ahead of traffic by sending concurrent requests to it, which
+     * leave their connections idle in the pool. An HTTP/2 pool multiplexes them over one connection.
+     */
+    public Mono<Integer> warmUp(URI target, int connections, Duration timeout) {
+        return httpClient.warmup()
+                .then(Flux.range(0, connections)
+                        .flatMap(i -> httpClient.get()
+                                .uri(target)
+                                .responseContent()
+                                .then(Mono.just(1))
+                                .timeout(timeout)
+                                .onErrorResume(error -> Mono.empty()), connections)
+                        .count())
+                .map(Long::intValue);
+    }
+
+    public void dispose() {
+        provider.dispose();
+    }
+
+    /**
+     * Connections handed out and in use
+     */
+    public int getActive() {
+        int total = 0;
+        for (ConnectionPoolMetrics pool : instancePools.values()) {
+            total += pool.acquiredSize();
+        }
+        return total;
+    }
+
+    public int getIdle() {
+        int total = 0;
+        for (ConnectionPoolMetrics pool : instancePools.values()) {
+            total += pool.idleSize();
+        }
+        return total;
+    }
+
+    /**
+     * Requests waiting for a connection
+     */
+    public int getPending() {
+        int total = 0;
+        for (ConnectionPoolMetrics pool : instancePools.values()) {
+            total += pool.pendingAcquireSize();
+        }
+        return total;
+    }
+
+    /**
+     * Share of the busiest instance's connections in use: one saturated instance makes requests wait
+     * even when the service as a whole has room
+     */
+    public double getUtilisation() {
+        double busiest = 0;
+        for (ConnectionPoolMetrics pool : instancePools.values()) {
+            int max = pool.maxAllocatedSize();
+            if (max > 0) {
+                busiest = Math.max(busiest, (double) pool.acquiredSize() / max);
+            }
+        }
+        return busiest;
+    }
+
+    public int getInstanceCount() {
+        return instancePools.size();
+    }
+
+    public long getAcquireCount() {
+        return acquires.sum();
+    }
+
+    /**
+     * Acquisitions that failed: pending queue full, acquire timeout or connect error
+     */
+    public long getAcquireFailureCount() {
+        return acquireFailures.sum();
+    }
+
+    /**
+     * Acquire latencies, recomputed at most once a second so scrapes of several quantiles stay cheap
+     */
+    public LatencyHistogram.Snapshot acquireSnapshot() {
+        long now = System.currentTimeMillis();
+        LatencyHistogram.Snapshot snapshot = cachedSnapshot;
+        if (snapshot == null || now - cachedAtMs >= SNAPSHOT_TTL_MS) {
+            snapshot = acquireLatency.snapshot();
+            cachedSnapshot = snapshot;
+            cachedAtMs = now;
+        }
+        return snapshot;
+    }
+
+    private Mono<? extends Connection> timeAcquire(Mono<? extends Connection> acquire) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            return acquire
+                    .doOnSuccess(connection -> {
+                        acquireLatency.recordNanos(System.nanoTime() - started);
+                        acquires.increment();
+                    })
+                    .doOnError(error -> acquireFailures.increment());
+        });
+    }
+
+    static HttpClient withProtocol(HttpClient client, UpstreamPoolProperties.Protocol protocol) {
+        return switch (protocol) {
+            case HTTP11 -> client.protocol(HttpProtocol.HTTP11);
+            case H2C -> client.protocol(HttpProtocol.H2C);
+            case H2 -> client.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        };
+    }
+
+    private class Registrar implements ConnectionProvider.MeterRegistrar {
+
+        @Override
+        public void registerMetrics(String poolName, String id, SocketAddress remoteAddress,
+                                    ConnectionPoolMetrics metrics) {
+            instancePools.put(id, metrics);
+        }
+
+        @Override
+        public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+            instancePools.remove(id);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.campus.apigateway.upstream;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Connection pool settings per upstream service bound from {@code gateway.upstream-pools}.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.upstream-pools")
+public class UpstreamPoolProperties {
+
+    /** When off, everything shares the gateway's HttpClient and Reactor Netty's global pool as before */
+    private boolean enabled = true;
+
+    /** Settings of services without an entry of their own; each still gets a separate pool */
+    private Pool defaults = new Pool();
+
+    /** Settings by service id; an entry replaces the defaults as a whole */
+    private Map<String, Pool> services = new LinkedHashMap<>();
+
+    /** Requested on new instances to open their warm-up connections */
+    private String warmupPath = "/actuator/health";
+
+    private Duration warmupTimeout = Duration.ofSeconds(5);
+
+    public Pool poolFor(String serviceId) {
+        return services.getOrDefault(serviceId, defaults);
+    }
+
+    public enum Protocol {
+        HTTP11,
+        /** HTTP/2 with prior knowledge over plain TCP */
+        H2C,
+        /** HTTP/2 negotiated through TLS ALPN, HTTP/1.1 if the instance does not offer it */
+        H2
+    }
+
+    @Data
+    public static class Pool {
+        /** Per instance, Reactor Netty keeps a separate pool for every remote address */
+        private int maxConnections = 100;
+        /** Requests that may wait for a connection per instance, any beyond fail at once */
+        private int pendingAcquireMaxCount = 200;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+        /** Below the instances' keep-alive timeout, so the gateway closes idle connections first */
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        /** Connections are replaced after this, spreading load again after instances scale out */
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration evictionInterval = Duration.ofSeconds(10);
+        private Protocol protocol = Protocol.HTTP11;
+        /** Connections opened to every new instance before it takes traffic, 0 disables warm-up */
+        private int warmupConnections = 0;
+    }
+}
@@ -0,0 +1,202 @@
+package com.ecommerce.campus.apigateway.upstream;
+
+import com.ecommerce.campus.apigateway.registry.RegistrySnapshot;
+import com.ecommerce.campus.apigateway.service.DiscoveryService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * One {@link UpstreamPool} per upstream service, created and registered with Micrometer on first use,
+ * so a slow service can only exhaust its own connections.
+ * <p>
+ * WebClients address instances, not services, so {@link #connector()} maps the instance back to its
+ * service through the registry snapshot. Addresses no service owns share the {@code default} pool.
+ */
+@Slf4j
+public class UpstreamPoolRegistry {
+
+    public static final String DEFAULT_POOL = "default";
+
+    private final UpstreamPoolProperties properties;
+    private final Function<ConnectionProvider, HttpClient> clients;
+    private final DiscoveryService discoveryService;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, UpstreamPool> pools = new ConcurrentHashMap<>();
+    private final ClientHttpConnector connector;
+    /** Instances already warmed up, as service@host:port */
+    private final Set<String> warmed = ConcurrentHashMap.newKeySet();
+
+    private volatile AddressIndex addresses = new AddressIndex(-1, Map.of());
+    private volatile Disposable warmer;
+
+    /**
+     * @param clients builds an HttpClient with the gateway's settings on top of a pool
+     */
+    public UpstreamPoolRegistry(UpstreamPoolProperties properties,
+                                Function<ConnectionProvider, HttpClient> clients,
+                                DiscoveryService discoveryService,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.clients = clients;
+        this.discoveryService = discoveryService;
+        this.meterRegistry = meterRegistry;
+        this.connector = properties.isEnabled()
+                ? (method, uri, requestCallback) -> forAddress(uri).getConnector().connect(method, uri, requestCallback)
+                : new ReactorClientHttpConnector();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public UpstreamPool get(String serviceId) {
+        UpstreamPool pool = pools.get(serviceId);
+        return pool != null ? pool : pools.computeIfAbsent(serviceId, this::create);
+    }
+
+    public Map<String, UpstreamPool> getAll() {
+        return Collections.unmodifiableMap(pools);
+    }
+
+    /**
+     * Connector for WebClients that picks the pool of the service owning the request's address
+     */
+    public ClientHttpConnector connector() {
+        return connector;
+    }
+
+    /**
+     * Pool of the service the instance at the URI belongs to
+     */
+    public UpstreamPool forAddress(URI uri) {
+        RegistrySnapshot snapshot = discoveryService.getSnapshot();
+        AddressIndex index = addresses;
+        if (index.version() != snapshot.getVersion()) {
+            index = AddressIndex.of(snapshot);
+            addresses = index;
+        }
+        int port = uri.getPort() >= 0 ? uri.getPort() : "https".equals(uri.getScheme()) ? 443 : 80;
+        String serviceId = index.services().get(uri.getHost() + ':' + port);
+        return get(serviceId != null ? serviceId : DEFAULT_POOL);
+    }
+
+    /**
+     * Warm up instances as they join the registry
+     */
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        warmer = discoveryService.changes()
+                .concatMap(this::warmUp)
+                .subscribe();
+    }
+
+    public void stop() {
+        Disposable current = warmer;
+        if (current != null) {
+            current.dispose();
+        }
+        pools.values().forEach(UpstreamPool::dispose);
+    }
+
+    /**
+     * Open the configured warm-up connections to every instance not warmed up before
+     */
+    Mono<Void> warmUp(RegistrySnapshot snapshot) {
+        Set<String> live = new HashSet<>();
+        List<Mono<Void>> pending = new ArrayList<>();
+        snapshot.getAllInstances().forEach((serviceId, instances) -> {
+            int connections = properties.poolFor(serviceId).getWarmupConnections();
+            for (ServiceInstance instance : instances) {
+                String key = serviceId + '@' + instance.getHost() + ':' + instance.getPort();
+                live.add(key);
+                if (connections > 0 && warmed.add(key)) {
+                    pending.add(get(serviceId)
+                            .warmUp(instance.getUri().resolve(properties.getWarmupPath()), connections,
+                                    properties.getWarmupTimeout())
+                            .doOnNext(opened -> log.debug("Warmed up {} of {} connections to {} instance {}:{}",
+                                    opened, connections, serviceId, instance.getHost(), instance.getPort()))
+                            .then());
+                }
+            }
+        });
+        // Instances that left may come back later with a fresh server behind the same address
+        warmed.retainAll(live);
+        return Flux.merge(pending).then();
+    }
+
+    private UpstreamPool create(String name) {
+        UpstreamPoolProperties.Pool settings = DEFAULT_POOL.equals(name)
+                ? properties.getDefaults()
+                : properties.poolFor(name);
+        UpstreamPool pool = new UpstreamPool(name, settings, clients);
+        Tags tags = Tags.of("upstream", name);
+        Gauge.builder("gateway.upstream.pool.connections", pool, UpstreamPool::getActive)
+                .tags(tags.and("state", "active"))
+                .register(meterRegistry);
+        Gauge.builder("gateway.upstream.pool.connections", pool, UpstreamPool::getIdle)
+                .tags(tags.and("state", "idle"))
+                .register(meterRegistry);
+        Gauge.builder("gateway.upstream.pool.pending", pool, UpstreamPool::getPending)
+                .tags(tags)
+                .description("Requests waiting for a connection")
+                .register(meterRegistry);
+        Gauge.builder("gateway.upstream.pool.utilisation", pool, UpstreamPool::getUtilisation)
+                .tags(tags)
+                .description("Share of the busiest instance's connections in use")
+                .register(meterRegistry);
+        for (double quantile : new double[]{0.5, 0.99}) {
+            Gauge.builder("gateway.upstream.pool.acquire.latency", pool,
+                            p -> p.acquireSnapshot().valueAtPercentileMs(quantile * 100))
+                    .tags(tags.and("quantile", String.valueOf(quantile)))
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+        FunctionCounter.builder("gateway.upstream.pool.acquires", pool, UpstreamPool::getAcquireCount)
+                .tags(tags)
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.upstream.pool.acquire.failures", pool, UpstreamPool::getAcquireFailureCount)
+                .tags(tags)
+                .description("Pending queue full, acquire timeout or connect error")
+                .register(meterRegistry);
+        log.info("Connection pool for {}: {} connections and {} pending per instance, {}",
+                name, settings.getMaxConnections(), settings.getPendingAcquireMaxCount(), settings.getProtocol());
+        return pool;
+    }
+
+    private record AddressIndex(long version, Map<String, String> services) {
+
+        static AddressIndex of(RegistrySnapshot snapshot) {
+            Map<String, String> services = new HashMap<>();
+            snapshot.getAllInstances().forEach((serviceId, instances) -> {
+                for (ServiceInstance instance : instances) {
+                    services.putIfAbsent(instance.getHost() + ':' + instance.getPort(), serviceId);
+                }
+            });
+            return new AddressIndex(snapshot.getVersion(), services);
+        }
+    }
+}
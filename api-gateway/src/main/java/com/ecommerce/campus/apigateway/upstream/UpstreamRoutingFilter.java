@@ -0,0 +1,48 @@
+package com.ecommerce.campus.apigateway.upstream;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+/**
+ * Netty routing that sends lb:// routes through their service's own connection pool. Routes to plain
+ * URLs keep the gateway's shared HttpClient. Replaces the stock routing filter, which is switched off
+ * with {@code spring.cloud.gateway.global-filter.netty-routing.enabled=false}. That switch also drops
+ * {@link org.springframework.cloud.gateway.filter.NettyWriteResponseFilter}, so UpstreamPoolConfig declares it again.
+ */
+public class UpstreamRoutingFilter extends NettyRoutingFilter {
+
+    private final UpstreamPoolRegistry pools;
+
+    public UpstreamRoutingFilter(HttpClient httpClient,
+                                 ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                                 HttpClientProperties properties,
+                                 UpstreamPoolRegistry pools) {
+        super(httpClient, headersFiltersProvider, properties);
+        this.pools = pools;
+    }
+
+    @Override
+    protected HttpClient getHttpClient(Route route, ServerWebExchange exchange) {
+        if (!pools.isEnabled() || !"lb".equals(route.getUri().getScheme())) {
+            return super.getHttpClient(route, exchange);
+        }
+        HttpClient client = pools.get(route.getUri().getHost()).getHttpClient();
+        Object connectTimeout = route.getMetadata().get(RouteMetadataUtils.CONNECT_TIMEOUT_ATTR);
+        if (connectTimeout != null) {
+            int millis = connectTimeout instanceof Number number
+                    ? number.intValue()
+                    : Integer.parseInt(connectTimeout.toString());
+            client = client.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, millis);
+        }
+        return client;
+    }
+}
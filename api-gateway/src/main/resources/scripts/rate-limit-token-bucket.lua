@@ -0,0 +1,27 @@
+-- Shared token bucket for the gateway rate limiter.
+-- KEYS[1] bucket key, ARGV[1] capacity, ARGV[2] refill per ms, ARGV[3] requested permits.
+-- Returns the number of permits granted (0..requested).
+local key = KEYS[1]
+local capacity = tonumber(ARGV[1])
+local refill_per_ms = tonumber(ARGV[2])
+local requested = tonumber(ARGV[3])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local state = redis.call('HMGET', key, 'tokens', 'ts')
+local tokens = tonumber(state[1])
+local ts = tonumber(state[2])
+if tokens == nil or ts == nil then
+    tokens = capacity
+    ts = now
+end
+
+tokens = math.min(capacity, tokens + math.max(0, now - ts) * refill_per_ms)
+local granted = math.min(requested, math.floor(tokens))
+tokens = tokens - granted
+
+redis.call('HSET', key, 'tokens', tostring(tokens), 'ts', tostring(now))
+-- A full refill plus a margin, idle buckets disappear on their own
+redis.call('PEXPIRE', key, math.ceil(capacity / refill_per_ms) + 1000)
+return granted
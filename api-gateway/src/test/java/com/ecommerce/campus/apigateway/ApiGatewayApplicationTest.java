@@ -0,0 +1,28 @@
+package com.ecommerce.campus.apigateway;
+
+import com.ecommerce.campus.apigateway.retry.RetryRegistry;
+import com.ecommerce.campus.apigateway.service.MetricsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Consul is read while bootstrapping, before profile files are
+@SpringBootTest(properties = "spring.cloud.consul.enabled=false")
+@ActiveProfiles("test")
+class ApiGatewayApplicationTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void contextLoads() {
+        // The gateway's retry registry lives next to resilience4j's own, under a name of its own
+        assertNotNull(context.getBean(RetryRegistry.class));
+        assertNotNull(context.getBean(io.github.resilience4j.retry.RetryRegistry.class));
+        assertNotNull(context.getBean(MetricsService.class));
+    }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.campus.apigateway.accesslog;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessLogRingBufferTest {
+
+    private static final InetSocketAddress CLIENT = new InetSocketAddress("10.0.0.1", 40000);
+
+    @Test
+    void drainsRecordsInPublishOrder() {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(8);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(buffer.publish(0, "id-" + i, "GET", "/api/" + i, "route", CLIENT, 200, 1_000, 10));
+        }
+
+        List<String> ids = new ArrayList<>();
+        assertEquals(5, buffer.drain(record -> ids.add(record.getRequestId()), 100));
+        assertEquals(List.of("id-0", "id-1", "id-2", "id-3", "id-4"), ids);
+        assertEquals(0, buffer.drain(record -> fail("buffer should be empty"), 100));
+    }
+
+    @Test
+    void dropsAndCountsInsteadOfBlockingWhenFull() {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.publish(0, "id", "GET", "/", null, CLIENT, 200, 0, 0));
+        }
+        assertFalse(buffer.publish(0, "id", "GET", "/", null, CLIENT, 200, 0, 0));
+        assertEquals(1, buffer.getDroppedCount());
+
+        buffer.drain(record -> { }, 1);
+        assertTrue(buffer.publish(0, "id", "GET", "/", null, CLIENT, 200, 0, 0));
+    }
+
+    @Test
+    void writerFormatsOneJsonLinePerRecord() throws Exception {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AccessLogWriter writer = new AccessLogWriter(buffer, out, 100, Duration.ofMillis(1));
+
+        buffer.publish(0, "01ABC", "POST", "/api/auth/\"login\"", "auth-service", CLIENT, 401, 2_345_678, 42);
+        assertEquals(1, writer.flushOnce());
+
+        assertEquals("{\"ts\":\"1970-01-01T00:00:00Z\",\"requestId\":\"01ABC\",\"method\":\"POST\","
+                        + "\"path\":\"/api/auth/\\\"login\\\"\",\"route\":\"auth-service\",\"client\":\"10.0.0.1\","
+                        + "\"status\":401,\"latencyMs\":2.345,\"bytes\":42}\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void samplerAppliesRouteOverridesPerStatusClass() {
+        AccessLogSampler sampler = new AccessLogSampler(Map.of("2xx", 0.0),
+                Map.of("auth-service", Map.of("5xx", 0.0)));
+
+        assertFalse(sampler.shouldLog("other", 200));
+        assertTrue(sampler.shouldLog("other", 500));
+        assertFalse(sampler.shouldLog("auth-service", 200));
+        assertFalse(sampler.shouldLog("auth-service", 503));
+        assertTrue(sampler.shouldLog("auth-service", 404));
+    }
+}
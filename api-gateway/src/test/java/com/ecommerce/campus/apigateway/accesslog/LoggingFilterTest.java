@@ -0,0 +1,79 @@
+package com.ecommerce.campus.apigateway.accesslog;
+
+import com.ecommerce.campus.apigateway.filter.RequestHeaderFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Consul is read while bootstrapping, before profile files are
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.cloud.consul.enabled=false")
+@ActiveProfiles("test")
+class LoggingFilterTest {
+
+    private static final Path ACCESS_LOG = Path.of("target/test-access.log");
+
+    @Autowired
+    private WebTestClient client;
+
+    @Test
+    void exchangesRejectedBySecurityAreLoggedOnceWithTheirRequestId() throws Exception {
+        String requestId = "logging-test-" + System.nanoTime();
+        client.get().uri("/api/orders/1")
+                .header(RequestHeaderFilter.REQUEST_ID_HEADER, requestId)
+                .header("X-Forwarded-For", "203.0.113.20")
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectHeader().valueEquals(RequestHeaderFilter.REQUEST_ID_HEADER, requestId);
+
+        List<String> records = awaitRecords(requestId);
+        assertEquals(1, records.size(), records.toString());
+        assertTrue(records.get(0).contains("\"status\":401"), records.get(0));
+        assertTrue(records.get(0).contains("\"route\":null"), records.get(0));
+    }
+
+    @Test
+    void routedExchangesNameTheirRoute() throws Exception {
+        // No token needed under /api/auth; no auth-service instance is running, which does not matter here
+        String requestId = "logging-test-" + System.nanoTime();
+        client.get().uri("/api/auth/nothing-here")
+                .header(RequestHeaderFilter.REQUEST_ID_HEADER, requestId)
+                .header("X-Forwarded-For", "203.0.113.21")
+                .exchange();
+
+        List<String> records = awaitRecords(requestId);
+        assertEquals(1, records.size(), records.toString());
+        assertTrue(records.get(0).contains("\"route\":\"auth-service\""), records.get(0));
+    }
+
+    // The writer thread flushes in batches
+    private static List<String> awaitRecords(String requestId) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        List<String> records = List.of();
+        while (System.currentTimeMillis() < deadline) {
+            if (Files.exists(ACCESS_LOG)) {
+                records = Files.readAllLines(ACCESS_LOG).stream()
+                        .filter(line -> line.contains("\"" + requestId + "\""))
+                        .toList();
+                if (!records.isEmpty()) {
+                    // Give a duplicate the chance to show up
+                    Thread.sleep(100);
+                    return Files.readAllLines(ACCESS_LOG).stream()
+                            .filter(line -> line.contains("\"" + requestId + "\""))
+                            .toList();
+                }
+            }
+            Thread.sleep(20);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.campus.apigateway.benchmark;
+
+import com.ecommerce.campus.apigateway.ratelimit.ClientKeyResolver;
+import com.ecommerce.campus.apigateway.ratelimit.RateLimitPolicy;
+import com.ecommerce.campus.apigateway.ratelimit.SlidingWindowRateLimiter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hot path of the rate limiter: key resolution plus one permit check.
+ * The legacy variant reproduces the old RateLimitFilter (string key per request in an unbounded map).
+ * <p>
+ * Benchmarks are compiled with the tests but not run by surefire; launch {@link #main} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class RateLimiterBenchmark {
+
+    @Param({"1024", "262144"})
+    public int clients;
+
+    private String[] forwardedFor;
+    private SlidingWindowRateLimiter limiter;
+    private RateLimitPolicy policy;
+    private ConcurrentHashMap<String, AtomicInteger> legacyCounts;
+
+    @Setup
+    public void setUp() {
+        forwardedFor = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            forwardedFor[i] = "10." + (i >>> 16 & 0xFF) + "." + (i >>> 8 & 0xFF) + "." + (i & 0xFF) + ", 172.16.0.1";
+        }
+        limiter = new SlidingWindowRateLimiter(65536);
+        policy = RateLimitPolicy.of("bench", SlidingWindowRateLimiter.MAX_COUNT, Duration.ofMinutes(1));
+        legacyCounts = new ConcurrentHashMap<>();
+    }
+
+    @Benchmark
+    public boolean slidingWindow() {
+        String header = forwardedFor[ThreadLocalRandom.current().nextInt(clients)];
+        long key = ClientKeyResolver.keyOfForwardedFor(header);
+        return limiter.tryAcquire(key, policy, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public boolean legacyPerMinuteMap() {
+        String header = forwardedFor[ThreadLocalRandom.current().nextInt(clients)];
+        String clientIp = header.split(",")[0].trim();
+        String key = clientIp + ":" + System.currentTimeMillis() / 60000;
+        return legacyCounts.computeIfAbsent(key, k -> new AtomicInteger(0)).incrementAndGet() <= 100;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(RateLimiterBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
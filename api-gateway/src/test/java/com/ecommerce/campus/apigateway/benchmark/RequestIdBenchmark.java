@@ -0,0 +1,47 @@
+package com.ecommerce.campus.apigateway.benchmark;
+
+import com.ecommerce.campus.apigateway.tracing.RequestIdGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request id generation under contention from several event-loop threads.
+ * {@code legacy} is the old {@code "req-" + System.currentTimeMillis()}, which is cheap but not unique.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class RequestIdBenchmark {
+
+    private final RequestIdGenerator generator = new RequestIdGenerator(1);
+
+    @Benchmark
+    public String snowflake() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public String legacy() {
+        return "req-" + System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public String randomUuid() {
+        return UUID.randomUUID().toString();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(RequestIdBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,94 @@
+package com.ecommerce.campus.apigateway.benchmark;
+
+import com.ecommerce.campus.apigateway.routing.IndexedRoutePredicateHandlerMapping;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route lookup for a request to a route in the middle of the table and for one that only the final
+ * catch-all matches. {@code scan} is Spring Cloud Gateway's default handler mapping, which applies
+ * the predicates one route after the other; {@code indexed} goes through {@link IndexedRoutePredicateHandlerMapping}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteLookupBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int routes;
+
+    private RoutePredicateHandlerMapping scan;
+    private IndexedRoutePredicateHandlerMapping indexed;
+    private MockServerWebExchange middle;
+    private MockServerWebExchange unmatched;
+
+    @Setup
+    public void setUp() {
+        PathRoutePredicateFactory paths = new PathRoutePredicateFactory();
+        List<Route> table = new ArrayList<>(routes + 1);
+        for (int i = 0; i < routes; i++) {
+            String pattern = "/api/service-" + i + "/**";
+            table.add(Route.async().id("service-" + i).uri("lb://service-" + i)
+                    .predicate(paths.apply(config -> config.setPatterns(List.of(pattern))))
+                    .build());
+        }
+        table.add(Route.async().id("not-found").uri("forward:/not-found")
+                .predicate(paths.apply(config -> config.setPatterns(List.of("/api/**"))))
+                .build());
+        RouteLocator locator = () -> Flux.fromIterable(table);
+
+        FilteringWebHandler webHandler = new FilteringWebHandler(List.of());
+        scan = new RoutePredicateHandlerMapping(webHandler, locator, new GlobalCorsProperties(), new StandardEnvironment());
+        indexed = new IndexedRoutePredicateHandlerMapping(webHandler, locator, new GlobalCorsProperties(),
+                new StandardEnvironment(), true);
+        indexed.rebuildIndex().block();
+
+        middle = MockServerWebExchange.from(MockServerHttpRequest.get("/api/service-" + routes / 2 + "/items/42"));
+        unmatched = MockServerWebExchange.from(MockServerHttpRequest.get("/api/missing/items/42"));
+    }
+
+    @Benchmark
+    public Object scanMiddle() {
+        return scan.getHandler(middle).block();
+    }
+
+    @Benchmark
+    public Object indexedMiddle() {
+        return indexed.getHandler(middle).block();
+    }
+
+    @Benchmark
+    public Object scanCatchAll() {
+        return scan.getHandler(unmatched).block();
+    }
+
+    @Benchmark
+    public Object indexedCatchAll() {
+        return indexed.getHandler(unmatched).block();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(RouteLookupBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
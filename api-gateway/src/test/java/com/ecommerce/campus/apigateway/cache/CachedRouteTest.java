@@ -0,0 +1,123 @@
+package com.ecommerce.campus.apigateway.cache;
+
+import com.ecommerce.campus.apigateway.filter.ResponseCacheFilter;
+import com.ecommerce.campus.apigateway.upstream.StubUpstream;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Consul is read while bootstrapping, before profile files are
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.cloud.consul.enabled=false",
+        "gateway.response-cache.routes.auth-service.ttl=60s"})
+@ActiveProfiles("test")
+class CachedRouteTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-test-secret";
+    private static final StubUpstream upstream = new StubUpstream();
+
+    @Autowired
+    private WebTestClient client;
+
+    @DynamicPropertySource
+    static void upstream(DynamicPropertyRegistry registry) {
+        upstream.register("auth-service", registry);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop();
+    }
+
+    @Test
+    void hitsAreServedPerCallerWithoutTheUpstream() {
+        upstream.handle("/api/auth/profile", exchange -> {
+            exchange.getResponseHeaders().add(HttpHeaders.CACHE_CONTROL, "max-age=60");
+            StubUpstream.send(exchange, 200, "profile of " + exchange.getRequestHeaders().getFirst("X-User-Id"));
+        });
+
+        EntityExchangeResult<String> miss = get("/api/auth/profile", token("alice"), "192.0.2.20");
+        assertEquals("MISS", miss.getResponseHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals("profile of alice", miss.getResponseBody());
+
+        EntityExchangeResult<String> hit = get("/api/auth/profile", token("alice"), "192.0.2.20");
+        assertEquals("HIT", hit.getResponseHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals("profile of alice", hit.getResponseBody());
+        assertEquals(1, upstream.requests("/api/auth/profile"));
+
+        EntityExchangeResult<String> otherCaller = get("/api/auth/profile", token("bob"), "192.0.2.20");
+        assertEquals("MISS", otherCaller.getResponseHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals("profile of bob", otherCaller.getResponseBody());
+        assertEquals(2, upstream.requests("/api/auth/profile"));
+    }
+
+    @Test
+    void staleEntriesAreRefreshedInTheBackground() throws InterruptedException {
+        AtomicInteger version = new AtomicInteger();
+        upstream.handle("/api/auth/version", exchange -> {
+            exchange.getResponseHeaders().add(HttpHeaders.CACHE_CONTROL, "max-age=1, stale-while-revalidate=60");
+            StubUpstream.send(exchange, 200, "v" + version.incrementAndGet());
+        });
+
+        assertEquals("v1", get("/api/auth/version", null, "192.0.2.21").getResponseBody());
+        Thread.sleep(1_100);
+
+        EntityExchangeResult<String> stale = get("/api/auth/version", null, "192.0.2.21");
+        assertEquals("STALE", stale.getResponseHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals("v1", stale.getResponseBody());
+
+        // The refreshed body is read to the end and stored
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (upstream.requests("/api/auth/version") < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        EntityExchangeResult<String> refreshed;
+        do {
+            Thread.sleep(200);
+            refreshed = get("/api/auth/version", null, "192.0.2.21");
+        } while (!"v2".equals(refreshed.getResponseBody()) && System.currentTimeMillis() < deadline);
+        assertEquals("v2", refreshed.getResponseBody());
+        assertEquals("HIT", refreshed.getResponseHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals(2, upstream.requests("/api/auth/version"));
+    }
+
+    private EntityExchangeResult<String> get(String path, String token, String clientAddress) {
+        return client.mutate().responseTimeout(Duration.ofSeconds(5)).build()
+                .get().uri(path)
+                .headers(headers -> {
+                    headers.set("X-Forwarded-For", clientAddress);
+                    if (token != null) {
+                        headers.setBearerAuth(token);
+                    }
+                })
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult();
+    }
+
+    private static String token(String subject) {
+        return Jwts.builder()
+                .subject(subject)
+                .claim("role", "USER")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+    }
+}
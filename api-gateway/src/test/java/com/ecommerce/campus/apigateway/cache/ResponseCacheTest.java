@@ -0,0 +1,86 @@
+package com.ecommerce.campus.apigateway.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+
+    private static final HttpHeaders NO_HEADERS = new HttpHeaders();
+    private static final ResponseCacheProperties.Route ROUTE = new ResponseCacheProperties.Route();
+
+    private final ResponseCachePolicy policy = new ResponseCachePolicy(false);
+
+    @Test
+    void expiresIntoStaleThenUnusable() {
+        ResponseCache cache = new ResponseCache(1 << 20, 1 << 16);
+        cache.put("k", new CachedResponse(200, NO_HEADERS, new byte[10], false, 0, 1_000, 2_000));
+
+        assertTrue(cache.get("k", 500).isFresh(500));
+        assertFalse(cache.get("k", 1_500).isFresh(1_500));
+        assertNull(cache.get("k", 2_000));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getStaleHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0, cache.getSizeInBytes());
+    }
+
+    @Test
+    void staysWithinByteBudgetAndKeepsPopularEntries() {
+        // Room for about four 1 KB entries
+        ResponseCache cache = new ResponseCache(4 * 1_600, 2_000);
+        for (int i = 0; i < 4; i++) {
+            String key = "hot-" + i;
+            cache.put(key, response(1_000));
+            for (int reads = 0; reads < 5; reads++) {
+                cache.get(key, 0);
+            }
+        }
+
+        // A scan of one-off keys must not push out the entries that are read repeatedly
+        for (int i = 0; i < 100; i++) {
+            cache.put("scan-" + i, response(1_000));
+        }
+        for (int i = 0; i < 4; i++) {
+            assertNotNull(cache.get("hot-" + i, 0), "hot-" + i + " was evicted");
+        }
+        assertTrue(cache.getSizeInBytes() <= 4 * 1_600);
+        assertTrue(cache.getRejectionCount() > 0);
+
+        assertFalse(cache.put("huge", response(10_000)));
+    }
+
+    @Test
+    void honoursCacheControl() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl("public, max-age=60, stale-while-revalidate=30");
+        headers.set("X-Request-Id", "abc");
+        assertTrue(policy.isCacheable(200, headers));
+
+        CachedResponse cached = policy.toCachedResponse(200, headers, new byte[0], ROUTE, 0);
+        assertTrue(cached.isFresh(59_999));
+        assertFalse(cached.isFresh(60_000));
+        assertTrue(cached.isUsable(89_999));
+        assertFalse(cached.isUsable(90_000));
+        assertNull(cached.getHeaders().getFirst("X-Request-Id"));
+
+        headers.setCacheControl("private, s-maxage=5, max-age=60");
+        assertFalse(policy.toCachedResponse(200, headers, new byte[0], ROUTE, 0).isFresh(5_000));
+
+        for (String forbidden : new String[]{"no-store", "no-cache", "max-age=0"}) {
+            headers.setCacheControl(forbidden);
+            assertFalse(policy.isCacheable(200, headers), forbidden);
+        }
+        headers.setCacheControl("max-age=60");
+        assertFalse(policy.isCacheable(500, headers));
+        headers.setVary(List.of("Authorization"));
+        assertFalse(policy.isCacheable(200, headers));
+    }
+
+    private static CachedResponse response(int size) {
+        return new CachedResponse(200, NO_HEADERS, new byte[size], false, 0, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,74 @@
+package com.ecommerce.campus.apigateway.coalescing;
+
+import com.ecommerce.campus.apigateway.filter.CoalescingFilter;
+import com.ecommerce.campus.apigateway.upstream.StubUpstream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Consul is read while bootstrapping, before profile files are
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.cloud.consul.enabled=false",
+        "gateway.coalescing.routes=auth-service"})
+@ActiveProfiles("test")
+class CoalescedRouteTest {
+
+    private static final StubUpstream upstream = new StubUpstream();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void upstream(DynamicPropertyRegistry registry) {
+        upstream.register("auth-service", registry);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop();
+    }
+
+    @Test
+    void concurrentIdenticalRequestsShareOneUpstreamCall() {
+        upstream.handle("/api/auth/catalog", exchange -> {
+            try {
+                Thread.sleep(500); // Long enough for every request to arrive while the first is in flight
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StubUpstream.send(exchange, 200, "catalog");
+        });
+
+        WebClient client = WebClient.create("http://localhost:" + port);
+        List<ResponseEntity<String>> responses = Flux.range(0, 5)
+                .flatMap(i -> client.get().uri("/api/auth/catalog")
+                        .header("X-Forwarded-For", "192.0.2.30")
+                        .retrieve()
+                        .toEntity(String.class))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(1, upstream.requests("/api/auth/catalog"));
+        assertEquals(5, responses.size());
+        for (ResponseEntity<String> response : responses) {
+            assertEquals(200, response.getStatusCode().value());
+            assertEquals("catalog", response.getBody());
+        }
+        long shared = responses.stream()
+                .filter(response -> "true".equals(response.getHeaders().getFirst(CoalescingFilter.COALESCED_HEADER)))
+                .count();
+        assertEquals(4, shared);
+    }
+}
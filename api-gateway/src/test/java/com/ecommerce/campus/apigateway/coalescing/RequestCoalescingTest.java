@@ -0,0 +1,161 @@
+package com.ecommerce.campus.apigateway.coalescing;
+
+import com.ecommerce.campus.apigateway.filter.CoalescingFilter;
+import com.ecommerce.campus.apigateway.filter.JwtAuthenticationFilter;
+import com.ecommerce.campus.common.infrastructure.security.VerifiedToken;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescingTest {
+
+    @Test
+    void concurrentIdenticalRequestsShareOneUpstreamCall() {
+        Upstream upstream = new Upstream(100);
+        CoalescingFilter filter = filter(new RequestCoalescer(1000), 1024);
+
+        List<MockServerWebExchange> exchanges = runConcurrently(filter, upstream, 50, "alice");
+
+        assertEquals(1, upstream.calls.get());
+        for (MockServerWebExchange exchange : exchanges) {
+            assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+            assertEquals("x".repeat(100), exchange.getResponse().getBodyAsString().block());
+        }
+        long shared = exchanges.stream()
+                .filter(e -> "true".equals(e.getResponse().getHeaders().getFirst(CoalescingFilter.COALESCED_HEADER)))
+                .count();
+        assertEquals(49, shared);
+    }
+
+    @Test
+    void principalsAreNotCoalescedTogether() {
+        Upstream upstream = new Upstream(10);
+        CoalescingFilter filter = filter(new RequestCoalescer(1000), 1024);
+
+        List<MockServerWebExchange> alice = start(filter, upstream, 5, "alice");
+        List<MockServerWebExchange> bob = start(filter, upstream, 5, "bob");
+        upstream.gate.tryEmitEmpty();
+        await(alice);
+        await(bob);
+
+        assertEquals(2, upstream.calls.get());
+    }
+
+    @Test
+    void waiterCapSendsTheRestUpstream() {
+        Upstream upstream = new Upstream(10);
+        RequestCoalescer coalescer = new RequestCoalescer(3);
+
+        runConcurrently(filter(coalescer, 1024), upstream, 10, "alice");
+
+        assertEquals(1, coalescer.getLeaderCount());
+        assertEquals(3, coalescer.getCoalescedCount());
+        assertEquals(6, coalescer.getOverflowCount());
+        assertEquals(7, upstream.calls.get());
+        assertEquals(0, coalescer.getInFlightCount());
+    }
+
+    @Test
+    void oversizedBodyMakesWaitersFallBack() {
+        Upstream upstream = new Upstream(2048);
+        RequestCoalescer coalescer = new RequestCoalescer(1000);
+
+        List<MockServerWebExchange> exchanges = runConcurrently(filter(coalescer, 1024), upstream, 5, "alice");
+
+        // The leader could not buffer its response, so each waiter made its own call
+        assertEquals(5, upstream.calls.get());
+        assertEquals(4, coalescer.getFallbackCount());
+        for (MockServerWebExchange exchange : exchanges) {
+            assertEquals(2048, exchange.getResponse().getBodyAsString().block().length());
+            assertNull(exchange.getResponse().getHeaders().getFirst(CoalescingFilter.COALESCED_HEADER));
+        }
+    }
+
+    private static CoalescingFilter filter(RequestCoalescer coalescer, int maxBodySize) {
+        CoalescingProperties properties = new CoalescingProperties();
+        properties.setRoutes(List.of("products"));
+        properties.setMaxBodySize(DataSize.ofBytes(maxBodySize));
+        properties.setMaxWait(Duration.ofSeconds(5));
+        return new CoalescingFilter(coalescer, properties);
+    }
+
+    /**
+     * Start every request while the upstream is held back, then let it answer
+     */
+    private static List<MockServerWebExchange> runConcurrently(CoalescingFilter filter, Upstream upstream,
+                                                               int requests, String subject) {
+        List<MockServerWebExchange> exchanges = start(filter, upstream, requests, subject);
+        upstream.gate.tryEmitEmpty();
+        await(exchanges);
+        return exchanges;
+    }
+
+    private static List<MockServerWebExchange> start(CoalescingFilter filter, Upstream upstream,
+                                                     int requests, String subject) {
+        List<MockServerWebExchange> exchanges = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            MockServerWebExchange exchange = exchange(subject);
+            exchanges.add(exchange);
+            exchange.getAttributes().put("done", filter.filter(exchange, upstream).toFuture());
+        }
+        return exchanges;
+    }
+
+    private static void await(List<MockServerWebExchange> exchanges) {
+        for (MockServerWebExchange exchange : exchanges) {
+            CompletableFuture<?> done = exchange.getAttribute("done");
+            done.orTimeout(5, TimeUnit.SECONDS).join();
+        }
+    }
+
+    private static MockServerWebExchange exchange(String subject) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/products?page=1"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id("products").uri("lb://product-service").predicate(e -> true).build());
+        exchange.getAttributes().put(JwtAuthenticationFilter.VERIFIED_TOKEN_ATTR,
+                new VerifiedToken(subject, "jti-" + subject, "USER", 0, Long.MAX_VALUE));
+        return exchange;
+    }
+
+    /**
+     * Answers every call once the gate opens
+     */
+    private static final class Upstream implements GatewayFilterChain {
+
+        final AtomicInteger calls = new AtomicInteger();
+        final Sinks.Empty<Void> gate = Sinks.empty();
+        private final byte[] body;
+
+        Upstream(int bodySize) {
+            this.body = "x".repeat(bodySize).getBytes();
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange) {
+            calls.incrementAndGet();
+            return gate.asMono().then(Mono.defer(() -> {
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.OK);
+                return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+            }));
+        }
+    }
+}
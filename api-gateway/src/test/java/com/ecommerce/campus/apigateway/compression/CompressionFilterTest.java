@@ -0,0 +1,207 @@
+package com.ecommerce.campus.apigateway.compression;
+
+import com.ecommerce.campus.apigateway.cache.ResponseCache;
+import com.ecommerce.campus.apigateway.cache.ResponseCachePolicy;
+import com.ecommerce.campus.apigateway.cache.ResponseCacheProperties;
+import com.ecommerce.campus.apigateway.filter.CompressionFilter;
+import com.ecommerce.campus.apigateway.filter.ResponseCacheFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionFilterTest {
+
+    /** A TokenResponse-like JSON document of about 4 KB */
+    private static final String JSON = "{\"accessToken\":\"" + "eyJhbGciOiJIUzI1NiJ9.".repeat(100)
+            + "\",\"user\":{\"id\":1,\"email\":\"alice@example.com\",\"roles\":[\"USER\"]}}";
+
+    private final CompressionRegistry registry = registry();
+
+    @Test
+    void negotiatesByQualityAndPreference() {
+        assertEquals(ContentCoding.GZIP, registry.negotiate("gzip, deflate"));
+        assertEquals(ContentCoding.GZIP, registry.negotiate("deflate, gzip"));
+        assertEquals(ContentCoding.DEFLATE, registry.negotiate("gzip;q=0.5, deflate"));
+        assertEquals(ContentCoding.DEFLATE, registry.negotiate("gzip;q=0, *"));
+        assertEquals(ContentCoding.GZIP, registry.negotiate("*"));
+        assertNull(registry.negotiate("identity"));
+        assertNull(registry.negotiate("br"));
+        assertNull(registry.negotiate("*;q=0"));
+
+        assertTrue(registry.isCompressible(MediaType.APPLICATION_JSON));
+        assertTrue(registry.isCompressible(MediaType.APPLICATION_PROBLEM_JSON));
+        assertTrue(registry.isCompressible(MediaType.parseMediaType("text/html;charset=UTF-8")));
+        assertFalse(registry.isCompressible(MediaType.IMAGE_PNG));
+        assertFalse(registry.isCompressible(null));
+    }
+
+    @Test
+    void streamsLargeBodiesThroughTheNegotiatedCoding() throws IOException {
+        CompressionFilter filter = new CompressionFilter(registry, cache());
+
+        // Content-Length known: the decision is made up front
+        MockServerWebExchange gzip = exchange("gzip");
+        filter.filter(gzip, upstream(true, 3)).block();
+        HttpHeaders headers = gzip.getResponse().getHeaders();
+        assertEquals("gzip", headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(headers.getVary().contains(HttpHeaders.ACCEPT_ENCODING));
+        assertEquals(-1, headers.getContentLength());
+        assertEquals("W/\"v1\"", headers.getETag());
+        assertEquals(JSON, decode(new GZIPInputStream(new ByteArrayInputStream(body(gzip)))));
+
+        // Chunked: the first chunks reveal the body is over the threshold
+        MockServerWebExchange deflate = exchange("deflate");
+        filter.filter(deflate, upstream(false, 8)).block();
+        assertEquals("deflate", deflate.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(JSON, decode(new InflaterInputStream(new ByteArrayInputStream(body(deflate)))));
+
+        RouteCompression stats = registry.get("auth");
+        assertEquals(2, stats.getCompressedCount());
+        assertEquals(2L * JSON.length(), stats.getBytesIn());
+        assertTrue(stats.getBytesSaved() > JSON.length(), "saved " + stats.getBytesSaved());
+        assertTrue(stats.getCompressNanos() > 0);
+    }
+
+    @Test
+    void smallBodiesAreSentAsTheyAre() {
+        CompressionFilter filter = new CompressionFilter(registry, cache());
+        GatewayFilterChain small = exchange -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            // Two chunks and no Content-Length, together still below 1 KB
+            return response.writeWith(Flux.just("{\"ok\":", "true}")
+                    .map(part -> response.bufferFactory().wrap(part.getBytes(StandardCharsets.UTF_8))));
+        };
+
+        MockServerWebExchange exchange = exchange("gzip");
+        filter.filter(exchange, small).block();
+
+        assertNull(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("{\"ok\":true}", exchange.getResponse().getBodyAsString().block());
+        assertEquals(1, registry.get("auth").getSkippedCount());
+    }
+
+    @Test
+    void cachedResponsesAreCompressedOnce() throws IOException {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.getRoutes().put("auth", new ResponseCacheProperties.Route());
+        ResponseCache cache = cache();
+        ResponseCacheFilter cacheFilter = new ResponseCacheFilter(cache, new ResponseCachePolicy(false), properties);
+        CompressionFilter filter = new CompressionFilter(registry, cache);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        GatewayFilterChain upstream = upstream(true, 1);
+        GatewayFilterChain chain = exchange -> cacheFilter.filter(exchange, inner -> {
+            upstreamCalls.incrementAndGet();
+            return upstream.filter(inner);
+        });
+
+        // The miss stores the body as the upstream sent it
+        MockServerWebExchange miss = exchange("gzip");
+        filter.filter(miss, chain).block();
+        assertEquals("gzip", miss.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        long identitySize = cache.getSizeInBytes();
+
+        MockServerWebExchange plain = exchange(null);
+        filter.filter(plain, chain).block();
+        assertEquals("HIT", plain.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertNull(plain.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(JSON, plain.getResponse().getBodyAsString().block());
+
+        for (int i = 0; i < 3; i++) {
+            MockServerWebExchange hit = exchange("gzip");
+            filter.filter(hit, chain).block();
+            assertEquals("gzip", hit.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+            assertEquals(body(hit).length, hit.getResponse().getHeaders().getContentLength());
+            assertEquals(JSON, decode(new GZIPInputStream(new ByteArrayInputStream(body(hit)))));
+        }
+
+        assertEquals(1, upstreamCalls.get());
+        RouteCompression stats = registry.get("auth");
+        // Once on the miss, once for the stored variant; the other hits reuse it
+        assertEquals(2, stats.getCompressedCount());
+        assertEquals(2, stats.getReusedCount());
+        assertTrue(cache.getSizeInBytes() > identitySize, "the variant is counted against the cache budget");
+    }
+
+    private static CompressionRegistry registry() {
+        CompressionProperties properties = new CompressionProperties();
+        properties.setBrotli(false);
+        return new CompressionRegistry(properties, new SimpleMeterRegistry());
+    }
+
+    private static ResponseCache cache() {
+        return new ResponseCache(1 << 20, 1 << 16);
+    }
+
+    /**
+     * The JSON document in the given number of chunks, cacheable, with or without a Content-Length
+     */
+    private static GatewayFilterChain upstream(boolean contentLength, int chunks) {
+        return exchange -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            response.getHeaders().setCacheControl("max-age=60");
+            response.getHeaders().setETag("\"v1\"");
+            byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+            if (contentLength) {
+                response.getHeaders().setContentLength(bytes.length);
+            }
+            int size = (bytes.length + chunks - 1) / chunks;
+            return response.writeWith(Flux.range(0, chunks)
+                    .map(i -> response.bufferFactory().wrap(Arrays.copyOfRange(bytes,
+                            i * size, Math.min(bytes.length, (i + 1) * size)))));
+        };
+    }
+
+    private static MockServerWebExchange exchange(String acceptEncoding) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/auth/me");
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id("auth").uri("lb://auth-service").predicate(e -> true).build());
+        return exchange;
+    }
+
+    private static byte[] body(MockServerWebExchange exchange) {
+        return DataBufferUtils.join(exchange.getResponse().getBody())
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .block();
+    }
+
+    private static String decode(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.ecommerce.campus.apigateway.concurrency;
+
+import com.ecommerce.campus.apigateway.filter.ConcurrencyLimitFilter;
+import com.ecommerce.campus.apigateway.filter.ResilienceFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Discrete-event simulation on a virtual clock of an upstream whose latency rises with concurrency,
+ * offered 1.5 times the load it can serve, with and without the adaptive limiter in front.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    /** The stub serves WORKERS requests at full speed, more share them and all slow down */
+    private static final int WORKERS = 20;
+    private static final double SERVICE_MS = 10;
+    private static final double ARRIVALS_PER_MS = 1.5 * WORKERS / SERVICE_MS;
+    private static final double DURATION_MS = 20_000;
+
+    @Test
+    void limiterKeepsLatencyBoundedUnderOverload() {
+        Result unlimited = simulate(null);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(new ConcurrencyLimitProperties(), 0);
+        Result limited = simulate(limiter);
+
+        double capacityPerMs = WORKERS / SERVICE_MS;
+        // Exponential service times alone put p99 at 4.6x the mean; the limiter may queue a few more
+        assertTrue(limited.p99Ms < 8 * SERVICE_MS, "limited p99 " + limited.p99Ms + " ms");
+        assertTrue(unlimited.p99Ms > 20 * limited.p99Ms,
+                "unlimited p99 " + unlimited.p99Ms + " ms vs limited " + limited.p99Ms + " ms");
+        // Shedding the excess must not cost much of the upstream's real capacity
+        assertTrue(limited.goodputPerMs > 0.85 * capacityPerMs, "goodput " + limited.goodputPerMs + "/ms");
+        assertTrue(limiter.getLimit() >= WORKERS && limiter.getLimit() <= 2 * WORKERS,
+                "limit " + limiter.getLimit());
+        assertTrue(limiter.getShedCount() > 0);
+        assertEquals(SERVICE_MS, limiter.getNoLoadRttMs(), 2);
+    }
+
+    @Test
+    void limitBacksOffOnErrorsAndFloorsAtMinimum() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, 0);
+        long now = 0;
+        for (int window = 0; window < 100; window++) {
+            now += properties.getWindow().toNanos();
+            for (int i = 0; i < properties.getMinWindowSamples(); i++) {
+                assertTrue(limiter.tryAcquire());
+                limiter.onSample(now - 1_000_000, now, true);
+            }
+        }
+        assertEquals(properties.getMinLimit(), limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void filterShedsWithRetryAfterAtTheLimit() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(1);
+        properties.setMinLimit(1);
+        ConcurrencyLimiterRegistry registry = new ConcurrencyLimiterRegistry(properties, new SimpleMeterRegistry());
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(registry, properties);
+        Sinks.Empty<Void> upstream = Sinks.empty();
+
+        MockServerWebExchange first = exchange();
+        filter.filter(first, exchange -> upstream.asMono()).subscribe();
+        MockServerWebExchange second = exchange();
+        filter.filter(second, exchange -> Mono.error(new AssertionError("must not reach the upstream"))).block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, second.getResponse().getStatusCode());
+        assertEquals("1", second.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("overloaded", second.getResponse().getHeaders().getFirst(ResilienceFilter.FALLBACK_HEADER));
+        assertEquals(1, registry.get("orders").getShedCount());
+
+        upstream.tryEmitEmpty();
+        assertEquals(0, registry.get("orders").getInFlight());
+    }
+
+    private static MockServerWebExchange exchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/orders"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id("orders").uri("lb://order-service").predicate(e -> true).build());
+        return exchange;
+    }
+
+    private record Result(double p99Ms, double goodputPerMs) {}
+
+    /**
+     * @param limiter null to let every request through
+     */
+    private static Result simulate(AdaptiveConcurrencyLimiter limiter) {
+        Random random = new Random(42);
+        // {finish ms, start ms}
+        PriorityQueue<double[]> completions = new PriorityQueue<>((x, y) -> Double.compare(x[0], y[0]));
+        double[] latencies = new double[(int) (DURATION_MS * ARRIVALS_PER_MS * 1.1)];
+        int admitted = 0;
+        int completed = 0;
+        double time = 0;
+
+        while (time < DURATION_MS) {
+            time += -Math.log(1 - random.nextDouble()) / ARRIVALS_PER_MS;
+            while (!completions.isEmpty() && completions.peek()[0] <= time) {
+                double[] done = completions.poll();
+                if (limiter != null) {
+                    limiter.onSample(nanos(done[1]), nanos(done[0]), false);
+                }
+                completed++;
+            }
+            if (limiter != null && !limiter.tryAcquire()) {
+                continue;
+            }
+            int concurrency = completions.size() + 1;
+            double service = -Math.log(1 - random.nextDouble()) * SERVICE_MS;
+            double latency = service * Math.max(1.0, (double) concurrency / WORKERS);
+            completions.add(new double[]{time + latency, time});
+            latencies[admitted++] = latency;
+        }
+
+        double[] sorted = Arrays.copyOf(latencies, admitted);
+        Arrays.sort(sorted);
+        return new Result(sorted[(int) (admitted * 0.99)], completed / DURATION_MS);
+    }
+
+    private static long nanos(double ms) {
+        return (long) (ms * 1_000_000);
+    }
+}
@@ -0,0 +1,219 @@
+package com.ecommerce.campus.apigateway.concurrency;
+
+import com.ecommerce.campus.apigateway.filter.ConcurrencyLimitFilter;
+import com.ecommerce.campus.apigateway.filter.ResilienceFilter;
+import com.ecommerce.campus.apigateway.resilience.ResilienceProperties;
+import com.ecommerce.campus.apigateway.resilience.ResilienceRegistry;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The filter in front of a real HTTP stub whose latency rises with the number of requests it serves at once
+ */
+class ConcurrencyLimitFilterTest {
+
+    /** The stub serves WORKERS requests at full speed, more share them and all slow down */
+    private static final int WORKERS = 8;
+    private static final long SERVICE_MS = 20;
+    private static final int CLIENTS = 128;
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private ConnectionProvider connections;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    /** When set, the stub holds every request until it is released */
+    private volatile CountDownLatch hold;
+    private GatewayFilterChain upstream;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serverThreads = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(serverThreads);
+        server.createContext("/", exchange -> {
+            upstreamCalls.incrementAndGet();
+            int concurrent = active.incrementAndGet();
+            try {
+                CountDownLatch held = hold;
+                if (held != null) {
+                    held.await(5, TimeUnit.SECONDS);
+                }
+                Thread.sleep(SERVICE_MS * Math.max(WORKERS, concurrent) / WORKERS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                active.decrementAndGet();
+            }
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            } catch (IOException ignored) {
+                // The gateway gave up on the call
+            }
+        });
+        server.start();
+
+        // Enough connections that the client pool never queues requests itself
+        connections = ConnectionProvider.builder("stub").maxConnections(CLIENTS * 2).build();
+        WebClient client = WebClient.builder()
+                .baseUrl("http://127.0.0.1:" + server.getAddress().getPort())
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+        upstream = exchange -> client.get().uri("/work")
+                .exchangeToMono(upstreamResponse -> upstreamResponse.bodyToMono(byte[].class)
+                        .defaultIfEmpty(new byte[0])
+                        .flatMap(body -> {
+                            ServerHttpResponse response = exchange.getResponse();
+                            response.setStatusCode(upstreamResponse.statusCode());
+                            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+                        }));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+        connections.dispose();
+    }
+
+    @Test
+    void shedsOverloadInsteadOfQueueingAtTheUpstream() {
+        Load unlimited = offerLoad((exchange, chain) -> chain.filter(exchange));
+
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        // Below the stub's capacity, so the first windows measure its unloaded round trip
+        properties.setInitialLimit(WORKERS / 2);
+        ConcurrencyLimiterRegistry registry = new ConcurrencyLimiterRegistry(properties, new SimpleMeterRegistry());
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(registry, properties);
+        Load limited = offerLoad(filter::filter);
+
+        AdaptiveConcurrencyLimiter limiter = registry.get("orders");
+        assertTrue(limiter.getShedCount() > 0);
+        assertEquals(limiter.getShedCount(), limited.shed);
+        // Unlimited, every client queues at the stub; limited, admitted calls stay near the unloaded round trip
+        assertTrue(limited.p90AdmittedMs * 2 < unlimited.p90AdmittedMs,
+                "limited p90 " + limited.p90AdmittedMs + " ms vs unlimited " + unlimited.p90AdmittedMs + " ms");
+        assertTrue(limiter.getLimit() < CLIENTS, "limit " + limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void shedRequestsDoNotOpenTheCircuitBreaker() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(2);
+        properties.setMinLimit(2);
+        ConcurrencyLimitFilter limiter = new ConcurrencyLimitFilter(
+                new ConcurrencyLimiterRegistry(properties, new SimpleMeterRegistry()), properties);
+        ResilienceProperties.Policy policy = new ResilienceProperties.Policy();
+        policy.setSlidingWindowSize(10);
+        policy.setMinimumCalls(5);
+        ResilienceProperties resilienceProperties = new ResilienceProperties();
+        resilienceProperties.setRoutes(Map.of("orders", policy));
+        ResilienceRegistry resilience = new ResilienceRegistry(resilienceProperties);
+        ResilienceFilter breaker = new ResilienceFilter(resilience);
+
+        hold = new CountDownLatch(1);
+        List<MockServerWebExchange> exchanges = new ArrayList<>();
+        List<CompletableFuture<Void>> done = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            MockServerWebExchange exchange = exchange();
+            exchanges.add(exchange);
+            done.add(breaker.filter(exchange, e -> limiter.filter(e, upstream)).toFuture());
+        }
+        hold.countDown();
+        CompletableFuture.allOf(done.toArray(CompletableFuture[]::new)).join();
+
+        long shed = exchanges.stream()
+                .filter(e -> "overloaded".equals(e.getResponse().getHeaders().getFirst(ResilienceFilter.FALLBACK_HEADER)))
+                .count();
+        assertEquals(8, shed);
+        assertEquals(2, upstreamCalls.get());
+        CircuitBreaker circuitBreaker = resilience.get("orders").getCircuitBreaker();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        // Only the calls that reached the upstream are judged
+        assertEquals(2, circuitBreaker.getMetrics().getNumberOfBufferedCalls());
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    /**
+     * CLIENTS closed-loop clients calling for two seconds through the filter
+     */
+    private Load offerLoad(RouteFilter filter) {
+        List<Long> admittedMs = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger shed = new AtomicInteger();
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        List<CompletableFuture<Void>> clients = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.add(Mono.defer(() -> {
+                        MockServerWebExchange exchange = exchange();
+                        long start = System.nanoTime();
+                        return filter.filter(exchange, upstream).then(Mono.defer(() -> {
+                            if (exchange.getResponse().getStatusCode() != HttpStatus.SERVICE_UNAVAILABLE) {
+                                admittedMs.add((System.nanoTime() - start) / 1_000_000);
+                                return Mono.empty();
+                            }
+                            shed.incrementAndGet();
+                            // Shed clients back off for a moment before calling again
+                            return Mono.delay(Duration.ofMillis(5)).then();
+                        }));
+                    })
+                    .repeat(() -> System.nanoTime() < deadline)
+                    .then()
+                    .toFuture());
+        }
+        CompletableFuture.allOf(clients.toArray(CompletableFuture[]::new)).join();
+
+        List<Long> sorted = new ArrayList<>(admittedMs);
+        Collections.sort(sorted);
+        return new Load(sorted.get((int) (sorted.size() * 0.9)), shed.get());
+    }
+
+    private static MockServerWebExchange exchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/orders"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id("orders").uri("lb://order-service").predicate(e -> true).build());
+        return exchange;
+    }
+
+    private interface RouteFilter {
+        Mono<Void> filter(MockServerWebExchange exchange, GatewayFilterChain chain);
+    }
+
+    private record Load(long p90AdmittedMs, long shed) {}
+}
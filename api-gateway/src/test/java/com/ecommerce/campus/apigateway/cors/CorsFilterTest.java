@@ -0,0 +1,137 @@
+package com.ecommerce.campus.apigateway.cors;
+
+import com.ecommerce.campus.apigateway.filter.CorsFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorsFilterTest {
+
+    private final AtomicInteger chainCalls = new AtomicInteger();
+    private final WebFilterChain chain = exchange -> {
+        chainCalls.incrementAndGet();
+        return Mono.empty();
+    };
+
+    @Test
+    void exactOriginGetsItsHeadersOnceWithoutDuplicates() {
+        CorsEngine engine = new CorsEngine(properties(policy(List.of("https://shop.example.com"), true)));
+        CorsFilter filter = new CorsFilter(engine, new CorsProperties());
+
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/products")
+                .header(HttpHeaders.ORIGIN, "https://shop.example.com"));
+        exchange.getResponse().getHeaders().add(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "*");
+        filter.filter(exchange, chain).block();
+
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        assertEquals(1, chainCalls.get());
+        assertEquals(List.of("https://shop.example.com"), headers.get(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN));
+        assertEquals(List.of("true"), headers.get(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS));
+        assertEquals(List.of(HttpHeaders.ORIGIN), headers.get(HttpHeaders.VARY));
+        assertSame(engine.resolve("https://shop.example.com"), engine.resolve("https://shop.example.com"));
+    }
+
+    @Test
+    void preflightFromPatternOriginIsAnsweredWithoutTheChain() {
+        CorsEngine engine = new CorsEngine(properties(policy(List.of("https://*.example.com"), false)));
+        CorsFilter filter = new CorsFilter(engine, new CorsProperties());
+
+        for (int i = 0; i < 2; i++) {
+            MockServerWebExchange exchange = preflight("https://admin.example.com", "PUT", "content-type, authorization");
+            filter.filter(exchange, chain).block();
+
+            HttpHeaders headers = exchange.getResponse().getHeaders();
+            assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+            assertEquals("https://admin.example.com", headers.getFirst(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN));
+            assertEquals("DELETE, GET, OPTIONS, POST, PUT", headers.getFirst(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS));
+            assertEquals("Content-Type, Authorization", headers.getFirst(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS));
+            assertEquals("3600", headers.getFirst(HttpHeaders.ACCESS_CONTROL_MAX_AGE));
+        }
+        assertEquals(0, chainCalls.get());
+        assertEquals(1, engine.getCachedOriginCount());
+        assertEquals(2, engine.getPreflightsAnswered());
+        assertNull(engine.resolve("https://example.com"));
+        assertNull(engine.resolve("http://admin.example.com"));
+        assertNull(engine.resolve("https://admin.example.com.evil.io"));
+    }
+
+    @Test
+    void disallowedPreflightsGetForbidden() {
+        CorsEngine engine = new CorsEngine(properties(policy(List.of("https://shop.example.com"), false)));
+        CorsFilter filter = new CorsFilter(engine, new CorsProperties());
+
+        List<MockServerWebExchange> rejected = List.of(
+                preflight("https://evil.io", "GET", null),
+                preflight("https://shop.example.com", "PATCH", null),
+                preflight("https://shop.example.com", "POST", "X-Debug"));
+        for (MockServerWebExchange exchange : rejected) {
+            filter.filter(exchange, chain).block();
+            assertEquals(HttpStatus.FORBIDDEN, exchange.getResponse().getStatusCode());
+            assertNull(exchange.getResponse().getHeaders().getFirst(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN));
+        }
+        assertEquals(0, chainCalls.get());
+        assertEquals(3, engine.getPreflightsRejected());
+
+        MockServerWebExchange actual = MockServerWebExchange.from(MockServerHttpRequest.get("/api/products")
+                .header(HttpHeaders.ORIGIN, "https://evil.io"));
+        filter.filter(actual, chain).block();
+        assertEquals(1, chainCalls.get());
+        assertNull(actual.getResponse().getHeaders().getFirst(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN));
+        assertEquals(1, engine.getDeniedCount());
+    }
+
+    @Test
+    void wildcardWithCredentialsIsRejectedAtStartup() {
+        CorsEngine wildcard = new CorsEngine(properties(policy(List.of("*"), false)));
+        CorsHeaders headers = wildcard.resolve("https://anywhere.io").actual();
+        assertEquals("*", headers.getFirst(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN));
+        assertNull(headers.getFirst(HttpHeaders.VARY));
+
+        assertThrows(IllegalArgumentException.class, () -> new CorsEngine(properties(policy(List.of("*"), true))));
+        assertThrows(IllegalArgumentException.class,
+                () -> new CorsEngine(properties(policy(List.of("https://example.*"), false))));
+    }
+
+    @Test
+    void upstreamCorsHeadersAreDropped() {
+        HttpHeaders upstream = new HttpHeaders();
+        upstream.add(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "*");
+        upstream.add(HttpHeaders.CONTENT_TYPE, "application/json");
+
+        HttpHeaders filtered = new UpstreamCorsHeadersFilter(true).filter(upstream, null);
+        assertNull(filtered.getFirst(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN));
+        assertEquals("application/json", filtered.getFirst(HttpHeaders.CONTENT_TYPE));
+    }
+
+    private static MockServerWebExchange preflight(String origin, String method, String headers) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.options("/api/products")
+                .header(HttpHeaders.ORIGIN, origin)
+                .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, method);
+        if (headers != null) {
+            request.header(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, headers);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    private static CorsProperties.Policy policy(List<String> origins, boolean credentials) {
+        CorsProperties.Policy policy = new CorsProperties.Policy();
+        policy.setAllowedOrigins(origins);
+        policy.setAllowCredentials(credentials);
+        return policy;
+    }
+
+    private static CorsProperties properties(CorsProperties.Policy policy) {
+        CorsProperties properties = new CorsProperties();
+        properties.setPolicies(List.of(policy));
+        return properties;
+    }
+}
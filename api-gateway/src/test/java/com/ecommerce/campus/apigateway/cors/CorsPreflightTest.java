@@ -0,0 +1,66 @@
+package com.ecommerce.campus.apigateway.cors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+// Consul is read while bootstrapping, before profile files are
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.cloud.consul.enabled=false")
+@ActiveProfiles("test")
+class CorsPreflightTest {
+
+    private static final String ORIGIN = "https://shop.example.com";
+
+    @Autowired
+    private WebTestClient client;
+
+    @Test
+    void preflightsOfProtectedPathsAreAnsweredWithoutCredentials() {
+        preflight("/api/orders/1", "DELETE", "authorization", "198.51.100.1")
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "*")
+                .expectHeader().valueEquals(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, "Content-Type, Authorization")
+                .expectHeader().exists(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS);
+    }
+
+    @Test
+    void preflightsOfPublicPathsAreAnswered() {
+        preflight("/api/auth/login", "POST", "content-type", "198.51.100.2")
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "*");
+    }
+
+    @Test
+    void disallowedPreflightsAreForbidden() {
+        preflight("/api/orders/1", "PATCH", null, "198.51.100.3")
+                .expectStatus().isForbidden()
+                .expectHeader().doesNotExist(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN);
+    }
+
+    @Test
+    void rejectedRequestsStillCarryCorsHeaders() {
+        // Without them the browser hides the 401 from the page, which then cannot send the user to log in
+        client.get().uri("/api/orders/1")
+                .header(HttpHeaders.ORIGIN, ORIGIN)
+                .header("X-Forwarded-For", "198.51.100.4")
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectHeader().valueEquals(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "*")
+                .expectHeader().valueEquals(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, "X-Request-Id");
+    }
+
+    private WebTestClient.ResponseSpec preflight(String path, String method, String headers, String client) {
+        WebTestClient.RequestHeadersSpec<?> request = this.client.options().uri(path)
+                .header(HttpHeaders.ORIGIN, ORIGIN)
+                .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, method)
+                .header("X-Forwarded-For", client);
+        if (headers != null) {
+            request.header(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, headers);
+        }
+        return request.exchange();
+    }
+}
@@ -0,0 +1,107 @@
+package com.ecommerce.campus.apigateway.health;
+
+import com.ecommerce.campus.apigateway.registry.ServiceRegistryCache;
+import com.ecommerce.campus.apigateway.service.DiscoveryService;
+import com.ecommerce.campus.apigateway.service.HealthCheckService;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HealthCheckServiceTest {
+
+    private HttpServer server;
+    private ServiceInstance healthy;
+    private ServiceInstance dead;
+    private HealthCheckService healthCheckService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/actuator/health", exchange -> {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        healthy = new DefaultServiceInstance("a", "orders", "127.0.0.1", server.getAddress().getPort(), false);
+        dead = new DefaultServiceInstance("b", "orders", "127.0.0.1", closedPort, false);
+
+        HealthProbeProperties properties = new HealthProbeProperties();
+        properties.setJitter(Duration.ZERO);
+        properties.setTimeout(Duration.ofSeconds(1));
+        ServiceRegistryCache registry = new ServiceRegistryCache();
+        registry.replaceAll(Map.of("orders", List.of(healthy, dead), "consul", List.of(dead)));
+        healthCheckService = new HealthCheckService(new DiscoveryService(registry), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void marksInstanceDownAfterConsecutiveFailures() {
+        HealthSnapshot first = healthCheckService.probeAll().block();
+        assertEquals(InstanceHealth.Status.UP, first.get(healthy).status());
+        assertEquals(InstanceHealth.Status.UNKNOWN, first.get(dead).status());
+        assertTrue(first.isRoutable(dead));
+
+        HealthSnapshot second = healthCheckService.probeAll().block();
+        assertEquals(InstanceHealth.Status.DOWN, second.get(dead).status());
+        assertEquals(2, second.get(dead).consecutiveFailures());
+        assertFalse(second.isRoutable(dead));
+        // The same instance as listed by a newer registry version
+        assertFalse(second.isRoutable(new DefaultServiceInstance("b", "orders", "127.0.0.1", dead.getPort(), false)));
+        assertSame(second, healthCheckService.getSnapshot());
+
+        HealthCheckService.GatewayHealth health = healthCheckService.getGatewayHealth().block();
+        assertEquals("DEGRADED", health.overallStatus());
+        assertEquals(1, health.serviceHealth().get("orders").upInstances());
+    }
+
+    @Test
+    void loadBalancerSkipsDownInstancesButNeverEmptiesTheList() {
+        healthCheckService.probeAll().block();
+        healthCheckService.probeAll().block();
+
+        HealthAwareServiceInstanceListSupplier supplier = new HealthAwareServiceInstanceListSupplier(
+                new StubListSupplier(List.of(healthy, dead)), healthCheckService);
+        assertEquals(List.of(healthy), supplier.get().blockFirst());
+
+        HealthAwareServiceInstanceListSupplier onlyDead = new HealthAwareServiceInstanceListSupplier(
+                new StubListSupplier(List.of(dead)), healthCheckService);
+        assertEquals(List.of(dead), onlyDead.get().blockFirst());
+    }
+
+    private record StubListSupplier(List<ServiceInstance> instances)
+            implements ServiceInstanceListSupplier {
+
+        @Override
+        public String getServiceId() {
+            return "orders";
+        }
+
+        @Override
+        public Flux<List<ServiceInstance>> get() {
+            return Flux.just(instances);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.ecommerce.campus.apigateway.hedging;
+
+import com.ecommerce.campus.apigateway.filter.HedgingFilter;
+import com.ecommerce.campus.apigateway.health.HealthProbeProperties;
+import com.ecommerce.campus.apigateway.loadbalancer.InstanceStats;
+import com.ecommerce.campus.apigateway.loadbalancer.InstanceStatsLifecycle;
+import com.ecommerce.campus.apigateway.loadbalancer.InstanceStatsRegistry;
+import com.ecommerce.campus.apigateway.loadbalancer.LoadBalancingProperties;
+import com.ecommerce.campus.apigateway.registry.ServiceRegistryCache;
+import com.ecommerce.campus.apigateway.service.DiscoveryService;
+import com.ecommerce.campus.apigateway.service.HealthCheckService;
+import com.ecommerce.campus.apigateway.upstream.UpstreamClient;
+import com.ecommerce.campus.apigateway.upstream.UpstreamPoolProperties;
+import com.ecommerce.campus.apigateway.upstream.UpstreamPoolRegistry;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgingFilterTest {
+
+    private ExecutorService serverThreads;
+    private HttpServer slow;
+    private HttpServer fast;
+    private ServiceInstance slowInstance;
+    private ServiceInstance fastInstance;
+    private DiscoveryService discoveryService;
+    private HealthCheckService healthCheckService;
+    private InstanceStatsRegistry instanceStats;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serverThreads = Executors.newCachedThreadPool();
+        slow = stub("slow", 1_000);
+        fast = stub("fast", 0);
+        ServiceRegistryCache registry = new ServiceRegistryCache();
+        slowInstance = new DefaultServiceInstance("slow", "orders", "127.0.0.1", slow.getAddress().getPort(), false);
+        fastInstance = new DefaultServiceInstance("fast", "orders", "127.0.0.1", fast.getAddress().getPort(), false);
+        registry.replaceAll(Map.of("orders", List.of(slowInstance, fastInstance)));
+        discoveryService = new DiscoveryService(registry);
+        healthCheckService = new HealthCheckService(discoveryService, new HealthProbeProperties());
+        LoadBalancingProperties loadBalancing = new LoadBalancingProperties();
+        loadBalancing.setInitialLatency(Duration.ofMillis(1));
+        instanceStats = new InstanceStatsRegistry(loadBalancing);
+        // The first call pays for starting Reactor Netty, keep it out of the timings
+        call(filter(registry(policy())), fast);
+    }
+
+    @AfterEach
+    void tearDown() {
+        slow.stop(0);
+        fast.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void slowFirstAttemptIsOvertakenByHedge() {
+        HedgingRegistry registry = registry(policy());
+        long start = System.nanoTime();
+        MockServerWebExchange exchange = call(filter(registry), slow);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals("fast", exchange.getResponse().getBodyAsString().block());
+        assertTrue(elapsedMs < 500, "took " + elapsedMs + " ms, the first attempt takes 1000 ms");
+        RouteHedging route = registry.get("orders");
+        assertEquals(1, route.getHedgeCount());
+        assertEquals(1, route.getHedgeWinCount());
+        assertEquals(1.0, route.getWinRatio());
+    }
+
+    @Test
+    void eachAttemptIsRecordedUnderItsOwnInstance() {
+        MockServerWebExchange exchange = call(filter(registry(policy())), slow);
+
+        assertEquals("fast", exchange.getResponse().getBodyAsString().block());
+        assertEquals(Boolean.TRUE, exchange.getAttribute(InstanceStatsLifecycle.ATTEMPTS_RECORDED_ATTR));
+        InstanceStats overtaken = instanceStats.get(slowInstance);
+        InstanceStats hedged = instanceStats.get(fastInstance);
+        assertEquals(0, overtaken.getInFlight());
+        assertEquals(0, hedged.getInFlight());
+        // The overtaken attempt had waited at least the hedge delay when it was cancelled
+        assertTrue(overtaken.getEwmaMs() >= 50, "slow EWMA " + overtaken.getEwmaMs());
+        assertTrue(hedged.getEwmaMs() < overtaken.getEwmaMs(), "fast EWMA " + hedged.getEwmaMs());
+    }
+
+    @Test
+    void failedFirstAttemptLeavesTheHedgeToAnswer() throws IOException {
+        HedgingRegistry registry = registry(policy());
+        ServiceInstance gone = goneInstance();
+        MockServerWebExchange exchange = call(filter(registry), gone);
+
+        // The refused connection fails long before the hedge is sent, and must not cancel it
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals(1, registry.get("orders").getHedgeCount());
+        assertEquals(0, instanceStats.get(gone).getInFlight());
+    }
+
+    @Test
+    void firstAttemptErrorIsReportedWhenThereIsNoHedge() throws IOException {
+        HedgingProperties.Route policy = policy();
+        policy.setBudget(0);
+        policy.setMaxBurst(1);
+        HedgingRegistry registry = registry(policy);
+        registry.get("orders").tryHedge();
+        HedgingFilter filter = filter(registry);
+        ServiceInstance gone = goneInstance();
+
+        assertThrows(WebClientRequestException.class, () -> call(filter, gone));
+    }
+
+    @Test
+    void fastFirstAttemptIsNotHedged() {
+        HedgingRegistry registry = registry(policy());
+        MockServerWebExchange exchange = call(filter(registry), fast);
+
+        assertEquals("fast", exchange.getResponse().getBodyAsString().block());
+        assertEquals(0, registry.get("orders").getHedgeCount());
+        assertEquals(1, registry.get("orders").getRequestCount());
+    }
+
+    @Test
+    void budgetCapsHedges() {
+        HedgingProperties.Route policy = policy();
+        policy.setBudget(0);
+        policy.setMaxBurst(1);
+        HedgingRegistry registry = registry(policy);
+        HedgingFilter filter = filter(registry);
+
+        assertEquals("fast", call(filter, slow).getResponse().getBodyAsString().block());
+        assertEquals("slow", call(filter, slow).getResponse().getBodyAsString().block());
+        assertEquals(1, registry.get("orders").getHedgeCount());
+        assertEquals(1, registry.get("orders").getBudgetExhaustedCount());
+    }
+
+    @Test
+    void delayFollowsPercentileOfRecentAttempts() {
+        HedgingProperties.Route policy = policy();
+        policy.setPercentile(90);
+        policy.setWindow(100);
+        RouteHedging route = new RouteHedging("orders", policy);
+        assertEquals(policy.getMaxDelay(), route.getDelay());
+
+        for (int i = 1; i <= 100; i++) {
+            route.recordLatency(Duration.ofMillis(i % 10 == 0 ? 40 : 10).toNanos());
+        }
+        assertEquals(10, route.getDelay().toMillis(), 1);
+    }
+
+    /**
+     * An instance nothing listens on
+     */
+    private static ServiceInstance goneInstance() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return new DefaultServiceInstance("gone", "orders", "127.0.0.1", socket.getLocalPort(), false);
+        }
+    }
+
+    private HttpServer stub(String body, long delayMs) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(serverThreads);
+        server.createContext("/", exchange -> {
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            } catch (IOException ignored) {
+                // Cancelled as the losing attempt
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private HedgingFilter filter(HedgingRegistry registry) {
+        return new HedgingFilter(registry, new UpstreamClient(discoveryService, healthCheckService,
+                new DefaultListableBeanFactory().getBeanProvider(HttpHeadersFilter.class),
+                new UpstreamPoolRegistry(new UpstreamPoolProperties(), HttpClient::create, discoveryService,
+                        new SimpleMeterRegistry())), loadBalancers());
+    }
+
+    private ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancers() {
+        return new ReactiveLoadBalancer.Factory<>() {
+            @Override
+            public ReactiveLoadBalancer<ServiceInstance> getInstance(String serviceId) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public <X> Map<String, X> getInstances(String name, Class<X> type) {
+                return Map.of();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <X> X getInstance(String name, Class<?> clazz, Class<?>... generics) {
+                return clazz == InstanceStatsRegistry.class ? (X) instanceStats : null;
+            }
+        };
+    }
+
+    private MockServerWebExchange call(HedgingFilter filter, HttpServer chosen) {
+        return call(filter, chosen == slow ? slowInstance : fastInstance);
+    }
+
+    private MockServerWebExchange call(HedgingFilter filter, ServiceInstance chosen) {
+        // As the load balancer lifecycle does for the instance it chose
+        instanceStats.onStart(chosen);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/orders/1"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id("orders").uri("lb://orders").predicate(e -> true).build());
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR,
+                URI.create("http://127.0.0.1:" + chosen.getPort() + "/api/orders/1"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR, new DefaultResponse(chosen));
+        filter.filter(exchange, e -> Mono.error(new AssertionError("hedged requests are routed by the filter")))
+                .block(Duration.ofSeconds(5));
+        return exchange;
+    }
+
+    private static HedgingProperties.Route policy() {
+        HedgingProperties.Route policy = new HedgingProperties.Route();
+        policy.setMaxDelay(Duration.ofMillis(50));
+        return policy;
+    }
+
+    private static HedgingRegistry registry(HedgingProperties.Route policy) {
+        HedgingProperties properties = new HedgingProperties();
+        properties.setRoutes(Map.of("orders", policy));
+        return new HedgingRegistry(properties);
+    }
+}
@@ -0,0 +1,108 @@
+package com.ecommerce.campus.apigateway.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Discrete-event simulation of a mixed-latency fleet on a virtual clock, comparing the tail latency
+ * seen by clients under round-robin and peak-EWMA power of two choices.
+ */
+class PeakEwmaLoadBalancerTest {
+
+    private static final int REQUESTS = 50_000;
+    private static final double ARRIVALS_PER_MS = 0.5;
+    /** Mean service time per instance: eight healthy, one sluggish, one close to saturation under an even share */
+    private static final double[] MEAN_LATENCY_MS = {4, 4, 4, 4, 4, 4, 4, 4, 10, 18};
+
+    private final List<ServiceInstance> fleet = new ArrayList<>();
+
+    PeakEwmaLoadBalancerTest() {
+        for (int i = 0; i < MEAN_LATENCY_MS.length; i++) {
+            fleet.add(new DefaultServiceInstance("i" + i, "orders", "10.0.0." + i, 8080, false));
+        }
+    }
+
+    @Test
+    void peakEwmaBeatsRoundRobinAtP99() {
+        int[] counter = {0};
+        double roundRobinP99 = simulate(clock -> instances -> instances.get(counter[0]++ % instances.size()));
+
+        double peakEwmaP99 = simulate(clock -> {
+            PeakEwmaLoadBalancer balancer = new PeakEwmaLoadBalancer(null, "orders", clock);
+            return balancer::choose;
+        });
+
+        assertTrue(peakEwmaP99 * 2 < roundRobinP99,
+                "peak-EWMA p99 " + peakEwmaP99 + " ms vs round-robin " + roundRobinP99 + " ms");
+    }
+
+    @Test
+    void failingInstanceIsCooledDown() {
+        long[] now = {0};
+        InstanceStatsRegistry stats = new InstanceStatsRegistry(new LoadBalancingProperties(), () -> now[0]);
+        PeakEwmaLoadBalancer balancer = new PeakEwmaLoadBalancer(null, "orders", stats);
+        List<ServiceInstance> pair = fleet.subList(0, 2);
+
+        for (int i = 0; i < 3; i++) {
+            stats.onStart(pair.get(0));
+            stats.onComplete(pair.get(0), 1_000_000, true);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertSame(pair.get(1), balancer.choose(pair));
+        }
+
+        now[0] += Duration.ofSeconds(6).toNanos();
+        stats.onStart(pair.get(0));
+        stats.onComplete(pair.get(0), 1_000_000, false);
+        assertFalse(stats.get(pair.get(0)).isCoolingDown(now[0]));
+    }
+
+    /**
+     * @return p99 latency in ms of the requests, including time spent queued behind others
+     */
+    private double simulate(Function<InstanceStatsRegistry, Function<List<ServiceInstance>, ServiceInstance>> strategy) {
+        long[] nowNanos = {0};
+        InstanceStatsRegistry stats = new InstanceStatsRegistry(new LoadBalancingProperties(), () -> nowNanos[0]);
+        Function<List<ServiceInstance>, ServiceInstance> chooser = strategy.apply(stats);
+        Random random = new Random(42);
+
+        // Each instance serves one request at a time, the rest wait in its queue
+        double[] busyUntilMs = new double[fleet.size()];
+        PriorityQueue<double[]> completions = new PriorityQueue<>((x, y) -> Double.compare(x[0], y[0]));
+        double[] latencies = new double[REQUESTS];
+        double time = 0;
+
+        for (int request = 0; request < REQUESTS; request++) {
+            time += -Math.log(1 - random.nextDouble()) / ARRIVALS_PER_MS;
+            while (!completions.isEmpty() && completions.peek()[0] <= time) {
+                double[] done = completions.poll();
+                nowNanos[0] = (long) (done[0] * 1_000_000);
+                stats.onComplete(fleet.get((int) done[1]), (long) (done[2] * 1_000_000), false);
+            }
+            nowNanos[0] = (long) (time * 1_000_000);
+
+            ServiceInstance chosen = chooser.apply(fleet);
+            int index = fleet.indexOf(chosen);
+            stats.onStart(chosen);
+            double service = -Math.log(1 - random.nextDouble()) * MEAN_LATENCY_MS[index];
+            double finish = Math.max(time, busyUntilMs[index]) + service;
+            busyUntilMs[index] = finish;
+            latencies[request] = finish - time;
+            completions.add(new double[]{finish, index, finish - time});
+        }
+
+        Arrays.sort(latencies);
+        return latencies[(int) (REQUESTS * 0.99)];
+    }
+}
@@ -0,0 +1,86 @@
+package com.ecommerce.campus.apigateway.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsAreContiguousAndWithinThreePercent() {
+        int previous = -1;
+        for (long value = 0; value < 5_000_000; value += 1 + value / 100) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(index >= previous, "index must not go backwards at " + value);
+            assertTrue(index < LatencyHistogram.BUCKETS);
+            long highest = LatencyHistogram.highestValueAt(index);
+            assertTrue(highest >= value);
+            assertTrue(highest - value <= Math.max(1, value * 0.035), "too coarse at " + value);
+            previous = index;
+        }
+    }
+
+    @Test
+    void percentilesOfUniformLatencies() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(10_000, snapshot.count());
+        assertEquals(5_000, snapshot.valueAtPercentile(50), 5_000 * 0.035);
+        assertEquals(9_900, snapshot.valueAtPercentile(99), 9_900 * 0.035);
+        assertEquals(9_990, snapshot.valueAtPercentile(99.9), 9_990 * 0.035);
+        assertEquals(10_000, snapshot.valueAtPercentile(100));
+        assertEquals(5.0005, snapshot.meanMs(), 1e-9);
+    }
+
+    @Test
+    void windowedHistogramForgetsOldLatencies() {
+        LatencyHistogram histogram = new LatencyHistogram(Duration.ofSeconds(60));
+        long start = 1_000_000_000L;
+        histogram.record(50_000, start);
+        for (int i = 0; i < 100; i++) {
+            histogram.record(1_000, start + 20_000);
+        }
+
+        LatencyHistogram.Snapshot both = histogram.snapshot(start + 50_000);
+        assertEquals(101, both.count());
+        assertEquals(50.0, both.maxMs(), 50 * 0.035);
+
+        // The slow request is more than a window and a half old, the fast ones not yet
+        LatencyHistogram.Snapshot recent = histogram.snapshot(start + 90_000);
+        assertEquals(100, recent.count());
+        assertEquals(1_000, recent.valueAtPercentile(100), 1_000 * 0.035);
+        assertEquals(1.0, recent.maxMs(), 1e-9);
+
+        // Recording into a phase again clears what it held
+        histogram.record(2_000, start + 120_000);
+        assertEquals(1, histogram.snapshot(start + 120_000).count());
+        assertEquals(0, histogram.snapshot(start + 300_000).count());
+    }
+
+    @Test
+    void concurrentRecordingLosesNothing() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.record(i % 1_000);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(400_000, histogram.snapshot().count());
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().count());
+    }
+}
@@ -0,0 +1,72 @@
+package com.ecommerce.campus.apigateway.metrics;
+
+import com.ecommerce.campus.apigateway.filter.MetricsFilter;
+import com.ecommerce.campus.apigateway.service.MetricsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Consul is read while bootstrapping, before profile files are
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.cloud.consul.enabled=false")
+@ActiveProfiles("test")
+class MetricsFilterTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Test
+    void exchangesRejectedBeforeRoutingAreCounted() throws InterruptedException {
+        RouteMetrics unrouted = metricsService.routeMetrics(MetricsFilter.UNROUTED);
+        long total = totalRequests();
+        long before = unrouted.getRequestCount();
+        long clientErrors = unrouted.getStatusClassCount(4);
+
+        client.get().uri("/api/orders/1").header("X-Forwarded-For", "203.0.113.30").exchange()
+                .expectStatus().isUnauthorized();
+
+        awaitCount(this::totalRequests, total + 1);
+        awaitCount(unrouted::getRequestCount, before + 1);
+        assertEquals(clientErrors + 1, unrouted.getStatusClassCount(4));
+        assertEquals(0, unrouted.getInFlight());
+    }
+
+    @Test
+    void routedExchangesAreCountedUnderTheirRouteOnly() throws InterruptedException {
+        RouteMetrics unrouted = metricsService.routeMetrics(MetricsFilter.UNROUTED);
+        RouteMetrics auth = metricsService.routeMetrics("auth-service");
+        long total = totalRequests();
+        long unroutedBefore = unrouted.getRequestCount();
+        long authBefore = auth.getRequestCount();
+
+        // No auth-service instance is running: a 503 from the route
+        client.get().uri("/api/auth/nothing-here").header("X-Forwarded-For", "203.0.113.31").exchange();
+
+        awaitCount(this::totalRequests, total + 1);
+        awaitCount(auth::getRequestCount, authBefore + 1);
+        assertEquals(unroutedBefore, unrouted.getRequestCount());
+        assertEquals(0, auth.getInFlight());
+    }
+
+    private long totalRequests() {
+        return metricsService.getMetrics().block().totalRequests();
+    }
+
+    // Completion is recorded once the response is written, possibly after the client saw it
+    private static void awaitCount(LongSupplier count, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (count.getAsLong() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, count.getAsLong());
+    }
+}
@@ -0,0 +1,50 @@
+package com.ecommerce.campus.apigateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientKeyResolverTest {
+
+    @Test
+    void forwardedForUsesFirstEntry() {
+        assertEquals(ClientKeyResolver.keyOf("203.0.113.7"),
+                ClientKeyResolver.keyOfForwardedFor(" 203.0.113.7 , 10.0.0.1, 10.0.0.2"));
+        assertNotEquals(ClientKeyResolver.keyOf("10.0.0.1"),
+                ClientKeyResolver.keyOfForwardedFor("203.0.113.7, 10.0.0.1"));
+    }
+
+    @Test
+    void textualAndSocketAddressesAgree() throws Exception {
+        assertEquals(ClientKeyResolver.keyOf("192.168.1.20"),
+                ClientKeyResolver.keyOf(new InetSocketAddress(InetAddress.getByName("192.168.1.20"), 8080)));
+        assertEquals(ClientKeyResolver.keyOf("2001:db8::1"),
+                ClientKeyResolver.keyOf(new InetSocketAddress(InetAddress.getByName("2001:db8::1"), 8080)));
+    }
+
+    @Test
+    void equivalentSpellingsShareAKey() {
+        long ipv4 = ClientKeyResolver.keyOf("10.1.2.3");
+        assertEquals(ipv4, ClientKeyResolver.keyOf("::ffff:10.1.2.3"));
+        assertEquals(ipv4, ClientKeyResolver.keyOf("::ffff:a01:203"));
+        assertEquals(ipv4, ClientKeyResolver.keyOf("10.1.2.3:51234"));
+
+        long ipv6 = ClientKeyResolver.keyOf("2001:db8:0:0:0:0:0:1");
+        assertEquals(ipv6, ClientKeyResolver.keyOf("2001:DB8::1"));
+        assertEquals(ipv6, ClientKeyResolver.keyOf("[2001:db8::1]:443"));
+        assertEquals(ipv6, ClientKeyResolver.keyOf("2001:db8::1%eth0"));
+        assertEquals(ClientKeyResolver.keyOf("0:0:0:0:0:0:0:1"), ClientKeyResolver.keyOf("::1"));
+        assertEquals(ClientKeyResolver.keyOf("fe80:0:0:0:0:0:0:0"), ClientKeyResolver.keyOf("fe80::"));
+    }
+
+    @Test
+    void invalidLiteralsFallBackToTextHash() {
+        assertEquals(ClientKeyResolver.keyOf("unknown"), ClientKeyResolver.keyOf("unknown"));
+        assertNotEquals(ClientKeyResolver.keyOf("unknown"), ClientKeyResolver.keyOf("_hidden"));
+        assertNotEquals(ClientKeyResolver.keyOf("10.1.2.3"), ClientKeyResolver.keyOf("10.1.2.300"));
+        assertEquals(ClientKeyResolver.UNKNOWN_CLIENT, ClientKeyResolver.keyOf((InetSocketAddress) null));
+    }
+}
@@ -0,0 +1,82 @@
+package com.ecommerce.campus.apigateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistributedRateLimiterTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final RateLimitPolicy policy = RateLimitPolicy.of("test", 100, Duration.ofMinutes(1));
+    private final long client = ClientKeyResolver.keyOf("203.0.113.7");
+
+    @Test
+    void replicasShareOneLimit() {
+        InMemoryPermitStore store = new InMemoryPermitStore(() -> NOW);
+        DistributedRateLimiter[] replicas = {replica(store), replica(store), replica(store)};
+
+        int allowed = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (replicas[i % replicas.length].tryAcquire(client, policy, NOW)) {
+                allowed++;
+            }
+        }
+
+        // Independent replicas would have let 300 through
+        assertEquals(100, allowed);
+        // One round trip per batch of 10, not one per request
+        assertTrue(store.calls() <= 15, "store calls " + store.calls());
+        assertTrue(replicas[0].getLocalHitRatio() > 0.05);
+        assertTrue(replicas[0].getRejectedCount() > 0);
+    }
+
+    @Test
+    void mostDecisionsAreLocalWhileWithinLimit() {
+        InMemoryPermitStore store = new InMemoryPermitStore(() -> NOW);
+        DistributedRateLimiter limiter = replica(store);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire(client, policy, NOW));
+        }
+
+        assertEquals(1.0, limiter.getLocalHitRatio(), 0.0001);
+        // Batches of 10 are prefetched when half spent
+        assertTrue(limiter.getLeaseRequestCount() <= 11);
+        assertEquals(0, limiter.getFallbackCount());
+    }
+
+    @Test
+    void degradesToLocalLimitsWhenStoreIsDown() {
+        InMemoryPermitStore store = new InMemoryPermitStore(() -> NOW);
+        store.setAvailable(false);
+        DistributedRateLimiter limiter = replica(store);
+        long now = System.currentTimeMillis();
+
+        int allowed = 0;
+        for (int i = 0; i < 150; i++) {
+            if (limiter.tryAcquire(client, policy, now)) {
+                allowed++;
+            }
+        }
+
+        assertEquals(100, allowed);
+        assertTrue(limiter.isDegraded());
+        assertEquals(1, limiter.getLeaseFailureCount());
+        // Only the first request tried the store, the rest went straight to the local limiter
+        assertEquals(1, store.calls());
+    }
+
+    private DistributedRateLimiter replica(PermitStore store) {
+        return new DistributedRateLimiter(
+                store,
+                new SlidingWindowRateLimiter(1024),
+                1024,
+                10,
+                Duration.ofMinutes(5),
+                Duration.ofSeconds(1),
+                Duration.ofSeconds(30));
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.campus.apigateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process stand-in for Redis running the same algorithm as rate-limit-token-bucket.lua.
+ */
+class InMemoryPermitStore implements PermitStore {
+
+    private final Map<String, double[]> buckets = new HashMap<>();
+    private final LongSupplier clock;
+    private final AtomicInteger calls = new AtomicInteger();
+    private volatile boolean available = true;
+
+    InMemoryPermitStore(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized Mono<Long> lease(String bucketKey, int capacity, double refillPerMs, int requested) {
+        calls.incrementAndGet();
+        if (!available) {
+            return Mono.error(new IllegalStateException("Connection refused"));
+        }
+        long now = clock.getAsLong();
+        double[] state = buckets.computeIfAbsent(bucketKey, k -> new double[]{capacity, now});
+        double tokens = Math.min(capacity, state[0] + Math.max(0, now - state[1]) * refillPerMs);
+        long granted = Math.min(requested, (long) Math.floor(tokens));
+        state[0] = tokens - granted;
+        state[1] = now;
+        return Mono.just(granted);
+    }
+
+    void setAvailable(boolean available) {
+        this.available = available;
+    }
+
+    int calls() {
+        return calls.get();
+    }
+}
@@ -0,0 +1,52 @@
+package com.ecommerce.campus.apigateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Consul is read while bootstrapping, before profile files are
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.cloud.consul.enabled=false")
+@ActiveProfiles("test")
+class RateLimitFilterTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Test
+    void floodsOfBogusTokensAreLimitedBeforeAuthentication() {
+        // The test profile allows 20 requests a minute per client
+        for (int i = 0; i < 20; i++) {
+            request("203.0.113.7").expectStatus().isUnauthorized();
+        }
+        request("203.0.113.7")
+                .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+                .expectHeader().exists(HttpHeaders.RETRY_AFTER);
+
+        // Other clients are unaffected
+        request("203.0.113.8").expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void unroutedExchangesFallUnderTheDefaultLimit() {
+        for (int i = 0; i < 20; i++) {
+            client.get().uri("/actuator/health").header("X-Forwarded-For", "203.0.113.9").exchange()
+                    .expectStatus().value(status -> assertNotEquals(429, status));
+        }
+        client.get().uri("/actuator/health").header("X-Forwarded-For", "203.0.113.9").exchange()
+                .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    private WebTestClient.ResponseSpec request(String client) {
+        return this.client.get().uri("/api/orders/1")
+                .header("X-Forwarded-For", client)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer not.a.token")
+                .exchange();
+    }
+}
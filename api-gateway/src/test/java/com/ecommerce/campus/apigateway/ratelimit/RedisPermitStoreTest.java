@@ -0,0 +1,103 @@
+package com.ecommerce.campus.apigateway.ratelimit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the token bucket script against a real Redis; skipped where Docker is not available
+ */
+class RedisPermitStoreTest {
+
+    private static GenericContainer<?> redis;
+    private static LettuceConnectionFactory connectionFactory;
+    private static ReactiveStringRedisTemplate template;
+
+    private final RedisPermitStore store = new RedisPermitStore(template);
+
+    @BeforeAll
+    static void startRedis() {
+        assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Docker is not available");
+        redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+        redis.start();
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(redis.getHost(), redis.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        template = new ReactiveStringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (redis != null) {
+            redis.stop();
+        }
+    }
+
+    @BeforeEach
+    void flush() {
+        template.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+    }
+
+    @Test
+    void leasesBatchesUntilTheBucketIsEmpty() {
+        // 25 permits, no meaningful refill during the test
+        double refillPerMs = 25 / 3_600_000.0;
+
+        assertEquals(10, lease("bucket", 25, refillPerMs, 10));
+        assertEquals(10, lease("bucket", 25, refillPerMs, 10));
+        // The remainder of a partial batch, then nothing
+        assertEquals(5, lease("bucket", 25, refillPerMs, 10));
+        assertEquals(0, lease("bucket", 25, refillPerMs, 10));
+
+        // Idle buckets expire once they would have refilled completely
+        Long ttl = template.getExpire("bucket").map(d -> d.toMillis()).block();
+        assertTrue(ttl != null && ttl > 3_600_000 && ttl <= 3_601_000, "ttl " + ttl);
+    }
+
+    @Test
+    void refillsWithElapsedRedisTime() throws InterruptedException {
+        // 10 permits a second
+        assertEquals(10, lease("bucket", 10, 0.01, 10));
+        assertEquals(0, lease("bucket", 10, 0.01, 10));
+
+        Thread.sleep(350);
+        long refilled = lease("bucket", 10, 0.01, 10);
+        assertTrue(refilled >= 3 && refilled <= 5, "refilled " + refilled);
+
+        // Never beyond capacity, however long the bucket sat idle
+        Thread.sleep(1_200);
+        assertEquals(10, lease("bucket", 10, 0.01, 20));
+    }
+
+    @Test
+    void aTimestampAheadOfRedisTimeDoesNotDrainTheBucket() {
+        // Left by a primary whose clock ran ahead before a failover
+        long redisNow = template.execute(connection -> connection.serverCommands().time()).blockLast();
+        template.opsForHash().putAll("bucket", Map.of("tokens", "4", "ts", Long.toString(redisNow + 60_000))).block();
+
+        // No negative refill: the stored permits are still there, and the timestamp moves back to Redis time
+        assertEquals(4, lease("bucket", 10, 0.01, 10));
+        long ts = Long.parseLong((String) template.opsForHash().get("bucket", "ts").block());
+        assertTrue(ts <= redisNow + 1_000, "ts " + ts);
+    }
+
+    private long lease(String key, int capacity, double refillPerMs, int requested) {
+        return store.lease(key, capacity, refillPerMs, requested).block();
+    }
+}
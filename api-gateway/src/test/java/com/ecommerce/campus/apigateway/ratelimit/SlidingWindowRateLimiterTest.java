@@ -0,0 +1,119 @@
+package com.ecommerce.campus.apigateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowRateLimiterTest {
+
+    private static final long WINDOW_START = 60_000L * 1_000;
+
+    private final RateLimitPolicy policy = RateLimitPolicy.of("test", 10, Duration.ofMinutes(1));
+
+    @Test
+    void allowsUpToLimitWithinWindow() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1024);
+        long client = ClientKeyResolver.keyOf("10.0.0.1");
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire(client, policy, WINDOW_START + i));
+        }
+        assertFalse(limiter.tryAcquire(client, policy, WINDOW_START + 10));
+        assertEquals(1, limiter.getRejectedCount());
+    }
+
+    @Test
+    void clientsAndPoliciesAreCountedSeparately() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1024);
+        long first = ClientKeyResolver.keyOf("10.0.0.1");
+        long second = ClientKeyResolver.keyOf("10.0.0.2");
+        RateLimitPolicy other = RateLimitPolicy.of("other", 10, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire(first, policy, WINDOW_START);
+        }
+        assertFalse(limiter.tryAcquire(first, policy, WINDOW_START));
+        assertTrue(limiter.tryAcquire(second, policy, WINDOW_START));
+        assertTrue(limiter.tryAcquire(first, other, WINDOW_START));
+    }
+
+    @Test
+    void slidingWindowPreventsBurstAtBoundary() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1024);
+        long client = ClientKeyResolver.keyOf("10.0.0.1");
+
+        // Whole budget spent at the very end of a window
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire(client, policy, WINDOW_START + 59_000));
+        }
+
+        // A fixed window would hand out 10 more right away; the sliding estimate still counts ~9
+        int allowedAfterBoundary = 0;
+        for (int i = 0; i < 10; i++) {
+            if (limiter.tryAcquire(client, policy, WINDOW_START + 60_001)) {
+                allowedAfterBoundary++;
+            }
+        }
+        assertTrue(allowedAfterBoundary <= 1, "allowed " + allowedAfterBoundary);
+
+        // Half way through the next window half of the previous count has slid out
+        assertTrue(limiter.tryAcquire(client, policy, WINDOW_START + 90_000));
+        // Two windows later everything is forgotten
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire(client, policy, WINDOW_START + 180_000));
+        }
+    }
+
+    @Test
+    void longIdleClientIsNotMistakenForACurrentOne() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1024);
+        long client = ClientKeyResolver.keyOf("10.0.0.1");
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire(client, policy, WINDOW_START);
+        }
+
+        // 4096 windows later, where a 12-bit window number came back round to the same value
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire(client, policy, WINDOW_START + 4_096 * 60_000L));
+        }
+    }
+
+    @Test
+    void memoryStaysFlatUnderOneMillionDistinctClients() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(65536);
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        // Warm up so the JIT and lazily initialised state do not count
+        for (int i = 0; i < 100_000; i++) {
+            limiter.tryAcquire(ClientKeyResolver.fmix64(-i), policy, WINDOW_START);
+        }
+
+        long heapBefore = usedHeapAfterGc();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+
+        for (int i = 0; i < 1_000_000; i++) {
+            limiter.tryAcquire(ClientKeyResolver.fmix64(i), policy, WINDOW_START + (i & 1023));
+        }
+
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        long retained = usedHeapAfterGc() - heapBefore;
+
+        assertEquals(65536, limiter.capacity());
+        assertTrue(limiter.getEvictionCount() > 0);
+        // The per-minute map used to keep a String key and an AtomicInteger per client (>100 MB here)
+        assertTrue(allocated < 1_000_000, "allocated " + allocated + " bytes on the hot path");
+        assertTrue(retained < 8 * 1024 * 1024, "retained " + retained + " bytes");
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
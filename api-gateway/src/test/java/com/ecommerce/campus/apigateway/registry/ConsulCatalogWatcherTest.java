@@ -0,0 +1,140 @@
+package com.ecommerce.campus.apigateway.registry;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the watcher against a local stub of the Consul catalog and health endpoints,
+ * including blocking queries that only answer when the index moves or the wait elapses.
+ */
+class ConsulCatalogWatcherTest {
+
+    private static final Pattern INDEX = Pattern.compile("index=(\\d+)");
+
+    private final Object lock = new Object();
+    private long consulIndex = 10;
+    private String catalog = "{\"orders\":[]}";
+    private String orders = instance("orders-1", "10.0.0.1", 8080);
+    private int queries;
+
+    private HttpServer server;
+    private ServiceRegistryCache cache;
+    private ConsulCatalogWatcher watcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/v1/catalog/services", exchange -> respond(exchange, () -> catalog));
+        server.createContext("/v1/health/service/orders", exchange -> respond(exchange, () -> "[" + orders + "]"));
+        server.start();
+
+        RegistryProperties properties = new RegistryProperties();
+        properties.setConsulUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        properties.setConsulWait(Duration.ofSeconds(1));
+        properties.setRetryDelay(Duration.ofMillis(50));
+        cache = new ServiceRegistryCache();
+        watcher = new ConsulCatalogWatcher(cache, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        watcher.stop();
+        server.stop(0);
+    }
+
+    @Test
+    void loadsCatalogAndFollowsChanges() throws Exception {
+        watcher.start();
+        RegistrySnapshot initial = cache.changes()
+                .filter(snapshot -> snapshot.getInstances("orders").size() == 1)
+                .blockFirst(Duration.ofSeconds(5));
+        ServiceInstance instance = initial.getInstances("orders").get(0);
+        assertEquals("10.0.0.1", instance.getHost());
+        assertEquals(8080, instance.getPort());
+        assertEquals("orders-1", instance.getInstanceId());
+
+        int queriesBefore;
+        synchronized (lock) {
+            queriesBefore = queries;
+            orders = instance("orders-1", "10.0.0.1", 8080) + "," + instance("orders-2", "10.0.0.2", 8080);
+            catalog = "{\"orders\":[],\"payments\":[]}";
+            consulIndex++;
+            lock.notifyAll();
+        }
+
+        RegistrySnapshot updated = cache.changes()
+                .filter(snapshot -> snapshot.getInstances("orders").size() == 2)
+                .blockFirst(Duration.ofSeconds(5));
+        assertTrue(updated.getVersion() > initial.getVersion());
+        assertTrue(updated.getServices().contains("payments"));
+        assertEquals(updated, cache.getSnapshot());
+
+        // Blocking queries are parked by the server, so the watcher is not spinning
+        Thread.sleep(300);
+        synchronized (lock) {
+            assertTrue(queries - queriesBefore < 20, "watcher issued " + (queries - queriesBefore) + " queries");
+        }
+    }
+
+    @Test
+    void unchangedInstancesDoNotBumpTheVersion() {
+        cache.updateService("orders", List.of());
+        long version = cache.getSnapshot().getVersion();
+
+        cache.updateService("orders", List.of());
+        cache.retainServices(List.of("orders"));
+
+        assertEquals(version, cache.getSnapshot().getVersion());
+    }
+
+    private void respond(HttpExchange exchange, Supplier<String> body) throws IOException {
+        String query = exchange.getRequestURI().getQuery();
+        Matcher matcher = INDEX.matcher(query != null ? query : "");
+        long requested = matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+        String payload;
+        long index;
+        synchronized (lock) {
+            queries++;
+            long deadline = System.currentTimeMillis() + 1_000;
+            while (requested == consulIndex && System.currentTimeMillis() < deadline) {
+                try {
+                    lock.wait(Math.max(1, deadline - System.currentTimeMillis()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            payload = body.get();
+            index = consulIndex;
+        }
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.getResponseHeaders().add("X-Consul-Index", Long.toString(index));
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private static String instance(String id, String address, int port) {
+        return "{\"Node\":{\"Address\":\"192.168.0.1\"},"
+                + "\"Service\":{\"ID\":\"" + id + "\",\"Service\":\"orders\",\"Address\":\"" + address + "\","
+                + "\"Port\":" + port + ",\"Meta\":{\"zone\":\"a\"}},\"Checks\":[]}";
+    }
+}
@@ -0,0 +1,197 @@
+package com.ecommerce.campus.apigateway.resilience;
+
+import com.ecommerce.campus.apigateway.filter.ResilienceFilter;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilienceFilterTest {
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private volatile long delayMs;
+    private volatile int status = 200;
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private GatewayFilterChain upstream;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serverThreads = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(serverThreads);
+        server.createContext("/", exchange -> {
+            upstreamCalls.incrementAndGet();
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            } catch (IOException ignored) {
+                // The gateway gave up on the call
+            }
+        });
+        server.start();
+
+        WebClient client = WebClient.create("http://127.0.0.1:" + server.getAddress().getPort());
+        upstream = exchange -> client.get().uri("/slow")
+                .exchangeToMono(upstreamResponse -> upstreamResponse.bodyToMono(byte[].class)
+                        .defaultIfEmpty(new byte[0])
+                        .flatMap(body -> {
+                            ServerHttpResponse response = exchange.getResponse();
+                            response.setStatusCode(upstreamResponse.statusCode());
+                            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+                        }));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void latencyStaysBoundedWhenUpstreamDegrades() {
+        ResilienceProperties.Policy policy = policy();
+        policy.setTimeout(Duration.ofMillis(200));
+        policy.setOpenDuration(Duration.ofSeconds(30));
+        ResilienceRegistry registry = registry(policy);
+        ResilienceFilter filter = new ResilienceFilter(registry);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(HttpStatus.OK, call(filter).getResponse().getStatusCode());
+        }
+
+        delayMs = 2_000;
+        long worstMs = 0;
+        List<Long> latencies = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            long start = System.nanoTime();
+            MockServerWebExchange exchange = call(filter);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            latencies.add(elapsedMs);
+            worstMs = Math.max(worstMs, elapsedMs);
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exchange.getResponse().getStatusCode());
+        }
+
+        RouteResilience route = registry.get("orders");
+        assertEquals(CircuitBreaker.State.OPEN, route.getCircuitBreaker().getState());
+        // Half of the window of ten failed: five timeouts, then every call fails fast
+        assertEquals(5, route.getRejectionCount(RouteResilience.Rejection.TIMEOUT));
+        assertEquals(35, route.getRejectionCount(RouteResilience.Rejection.CIRCUIT_OPEN));
+        assertEquals(15, upstreamCalls.get());
+        assertTrue(worstMs < 1_000, "worst latency " + worstMs + " ms, upstream takes 2000 ms");
+        long openLatencyMs = latencies.subList(5, latencies.size()).stream().mapToLong(Long::longValue).max().orElseThrow();
+        assertTrue(openLatencyMs < 100, "fail-fast latency " + openLatencyMs + " ms");
+    }
+
+    @Test
+    void serverErrorsOpenTheBreakerUntilTrialCallsSucceed() throws InterruptedException {
+        ResilienceProperties.Policy policy = policy();
+        policy.setOpenDuration(Duration.ofMillis(200));
+        ResilienceRegistry registry = registry(policy);
+        ResilienceFilter filter = new ResilienceFilter(registry);
+        CircuitBreaker breaker = registry.get("orders").getCircuitBreaker();
+
+        status = 500;
+        for (int i = 0; i < 5; i++) {
+            assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, call(filter).getResponse().getStatusCode());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        MockServerWebExchange rejected = call(filter);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getResponse().getStatusCode());
+        assertEquals("circuit-open", rejected.getResponse().getHeaders().getFirst(ResilienceFilter.FALLBACK_HEADER));
+        assertEquals("1", rejected.getResponse().getHeaders().getFirst("Retry-After"));
+        assertTrue(rejected.getResponse().getBodyAsString().block().contains("\"route\":\"orders\""));
+
+        status = 200;
+        Thread.sleep(250);
+        for (int i = 0; i < policy.getHalfOpenCalls(); i++) {
+            assertEquals(HttpStatus.OK, call(filter).getResponse().getStatusCode());
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void bulkheadRejectsExcessConcurrentCallsAtOnce() {
+        ResilienceProperties.Policy policy = policy();
+        policy.setMaxConcurrentCalls(2);
+        ResilienceRegistry registry = registry(policy);
+        ResilienceFilter filter = new ResilienceFilter(registry);
+        delayMs = 300;
+
+        List<MockServerWebExchange> exchanges = new ArrayList<>();
+        List<CompletableFuture<Void>> done = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            MockServerWebExchange exchange = exchange();
+            exchanges.add(exchange);
+            done.add(filter.filter(exchange, upstream).toFuture());
+        }
+        CompletableFuture.allOf(done.toArray(CompletableFuture[]::new)).join();
+
+        long ok = exchanges.stream().filter(e -> e.getResponse().getStatusCode() == HttpStatus.OK).count();
+        long full = exchanges.stream()
+                .filter(e -> "bulkhead-full".equals(e.getResponse().getHeaders().getFirst(ResilienceFilter.FALLBACK_HEADER)))
+                .count();
+        assertEquals(2, ok);
+        assertEquals(4, full);
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(2, registry.get("orders").getBulkhead().getMetrics().getAvailableConcurrentCalls());
+    }
+
+    private MockServerWebExchange call(ResilienceFilter filter) {
+        MockServerWebExchange exchange = exchange();
+        filter.filter(exchange, upstream).block(Duration.ofSeconds(5));
+        return exchange;
+    }
+
+    private static ResilienceProperties.Policy policy() {
+        ResilienceProperties.Policy policy = new ResilienceProperties.Policy();
+        policy.setSlidingWindowSize(10);
+        policy.setMinimumCalls(5);
+        policy.setTimeout(Duration.ofSeconds(2));
+        return policy;
+    }
+
+    private static ResilienceRegistry registry(ResilienceProperties.Policy policy) {
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.setRoutes(Map.of("orders", policy));
+        return new ResilienceRegistry(properties);
+    }
+
+    private static MockServerWebExchange exchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/orders"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id("orders").uri("lb://order-service").predicate(e -> true).build());
+        return exchange;
+    }
+}
@@ -0,0 +1,220 @@
+package com.ecommerce.campus.apigateway.retry;
+
+import com.ecommerce.campus.apigateway.filter.RetryFilter;
+import com.ecommerce.campus.apigateway.health.HealthProbeProperties;
+import com.ecommerce.campus.apigateway.loadbalancer.InstanceStats;
+import com.ecommerce.campus.apigateway.loadbalancer.InstanceStatsLifecycle;
+import com.ecommerce.campus.apigateway.loadbalancer.InstanceStatsRegistry;
+import com.ecommerce.campus.apigateway.loadbalancer.LoadBalancingProperties;
+import com.ecommerce.campus.apigateway.registry.ServiceRegistryCache;
+import com.ecommerce.campus.apigateway.retry.UpstreamRetries.Outcome;
+import com.ecommerce.campus.apigateway.service.DiscoveryService;
+import com.ecommerce.campus.apigateway.service.HealthCheckService;
+import com.ecommerce.campus.apigateway.upstream.UpstreamClient;
+import com.ecommerce.campus.apigateway.upstream.UpstreamPoolProperties;
+import com.ecommerce.campus.apigateway.upstream.UpstreamPoolRegistry;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryFilterTest {
+
+    private final List<HttpServer> servers = new ArrayList<>();
+    private final AtomicInteger failingCalls = new AtomicInteger();
+    private ServiceInstance failing;
+    private ServiceInstance healthy;
+    private ServiceInstance closed;
+    private InstanceStatsRegistry instanceStats;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        LoadBalancingProperties loadBalancing = new LoadBalancingProperties();
+        loadBalancing.setInitialLatency(Duration.ZERO);
+        instanceStats = new InstanceStatsRegistry(loadBalancing);
+        failing = instance("failing", stub(503, "down", failingCalls));
+        healthy = instance("healthy", stub(200, "ok", new AtomicInteger()));
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closed = instance("closed", socket.getLocalPort());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        servers.forEach(server -> server.stop(0));
+    }
+
+    @Test
+    void retryableStatusIsRetriedOnAnotherInstance() {
+        RetryRegistry registry = registry(new RetryProperties.Budget());
+        MockServerWebExchange exchange = call(filter(registry, failing, healthy), failing);
+
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals("ok", exchange.getResponse().getBodyAsString().block());
+        UpstreamRetries retries = registry.get("orders");
+        assertEquals(1, retries.getRetryCount());
+        assertEquals(1, retries.getOutcomeCount(Outcome.RECOVERED));
+    }
+
+    @Test
+    void connectionFailureIsRetried() {
+        RetryRegistry registry = registry(new RetryProperties.Budget());
+        MockServerWebExchange exchange = call(filter(registry, closed, healthy), closed);
+
+        assertEquals("ok", exchange.getResponse().getBodyAsString().block());
+        assertEquals(1, registry.get("orders").getOutcomeCount(Outcome.RECOVERED));
+    }
+
+    @Test
+    void eachAttemptIsRecordedUnderItsOwnInstance() {
+        MockServerWebExchange exchange = call(filter(registry(new RetryProperties.Budget()), failing, healthy), failing);
+
+        assertEquals("ok", exchange.getResponse().getBodyAsString().block());
+        assertEquals(Boolean.TRUE, exchange.getAttribute(InstanceStatsLifecycle.ATTEMPTS_RECORDED_ATTR));
+        InstanceStats first = instanceStats.get(failing);
+        InstanceStats retried = instanceStats.get(healthy);
+        assertEquals(0, first.getInFlight());
+        assertEquals(0, retried.getInFlight());
+        // Both completed with a measured latency, starting from none
+        assertTrue(first.getEwmaMs() > 0, "failing EWMA " + first.getEwmaMs());
+        assertTrue(retried.getEwmaMs() > 0, "healthy EWMA " + retried.getEwmaMs());
+    }
+
+    @Test
+    void spentBudgetRelaysTheFailure() {
+        RetryProperties.Budget budget = new RetryProperties.Budget();
+        budget.setRatio(0);
+        budget.setMaxBurst(1);
+        RetryRegistry registry = registry(budget);
+        RetryFilter filter = filter(registry, failing, healthy);
+
+        assertEquals(HttpStatus.OK, call(filter, failing).getResponse().getStatusCode());
+        MockServerWebExchange denied = call(filter, failing);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, denied.getResponse().getStatusCode());
+        assertEquals("down", denied.getResponse().getBodyAsString().block());
+        assertEquals(1, registry.get("orders").getOutcomeCount(Outcome.BUDGET_EXHAUSTED));
+        assertEquals(2, failingCalls.get());
+    }
+
+    @Test
+    void neverRetriesTheSameInstance() throws IOException {
+        AtomicInteger otherCalls = new AtomicInteger();
+        ServiceInstance alsoFailing = instance("also-failing", stub(503, "down", otherCalls));
+        RetryRegistry registry = registry(new RetryProperties.Budget());
+
+        MockServerWebExchange exchange = call(filter(registry, failing, alsoFailing), failing);
+
+        // Three attempts allowed but only two instances: each is tried once
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exchange.getResponse().getStatusCode());
+        assertEquals(1, failingCalls.get());
+        assertEquals(1, otherCalls.get());
+        assertEquals(1, registry.get("orders").getOutcomeCount(Outcome.FAILED));
+    }
+
+    private HttpServer stub(int status, String body, AtomicInteger calls) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            calls.incrementAndGet();
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        servers.add(server);
+        return server;
+    }
+
+    private static ServiceInstance instance(String id, HttpServer server) {
+        return instance(id, server.getAddress().getPort());
+    }
+
+    private static ServiceInstance instance(String id, int port) {
+        return new DefaultServiceInstance(id, "orders", "127.0.0.1", port, false);
+    }
+
+    private RetryFilter filter(RetryRegistry registry, ServiceInstance... instances) {
+        ServiceRegistryCache cache = new ServiceRegistryCache();
+        cache.replaceAll(Map.of("orders", List.of(instances)));
+        DiscoveryService discoveryService = new DiscoveryService(cache);
+        UpstreamClient client = new UpstreamClient(discoveryService,
+                new HealthCheckService(discoveryService, new HealthProbeProperties()),
+                new DefaultListableBeanFactory().getBeanProvider(HttpHeadersFilter.class),
+                new UpstreamPoolRegistry(new UpstreamPoolProperties(), HttpClient::create, discoveryService,
+                        new SimpleMeterRegistry()));
+        return new RetryFilter(registry, client, loadBalancers());
+    }
+
+    private ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancers() {
+        return new ReactiveLoadBalancer.Factory<>() {
+            @Override
+            public ReactiveLoadBalancer<ServiceInstance> getInstance(String serviceId) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public <X> Map<String, X> getInstances(String name, Class<X> type) {
+                return Map.of();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <X> X getInstance(String name, Class<?> clazz, Class<?>... generics) {
+                return clazz == InstanceStatsRegistry.class ? (X) instanceStats : null;
+            }
+        };
+    }
+
+    private static RetryRegistry registry(RetryProperties.Budget budget) {
+        RetryProperties.Route policy = new RetryProperties.Route();
+        policy.setBackoff(Duration.ofMillis(5));
+        RetryProperties properties = new RetryProperties();
+        properties.setRoutes(Map.of("orders", policy));
+        properties.setBudget(budget);
+        return new RetryRegistry(properties, new SimpleMeterRegistry());
+    }
+
+    private MockServerWebExchange call(RetryFilter filter, ServiceInstance chosen) {
+        // Started by the load balancer, as InstanceStatsLifecycle does
+        instanceStats.onStart(chosen);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/orders/1"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id("orders").uri("lb://orders").predicate(e -> true).build());
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR,
+                URI.create("http://127.0.0.1:" + chosen.getPort() + "/api/orders/1"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR, new DefaultResponse(chosen));
+        filter.filter(exchange, e -> Mono.error(new AssertionError("retried requests are routed by the filter")))
+                .block(Duration.ofSeconds(5));
+        return exchange;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.campus.apigateway.routing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Consul is read while bootstrapping, before profile files are
+@SpringBootTest(properties = "spring.cloud.consul.enabled=false")
+@ActiveProfiles("test")
+class DynamicRoutesTest {
+
+    @Autowired
+    private RouteReloader reloader;
+
+    @Autowired
+    private RouteLocator routeLocator;
+
+    @Test
+    void submittedTableIsSettledByTheRefreshItTriggered() {
+        assertTrue(reloader.submit("test", "1", """
+                routes:
+                  - id: reports
+                    uri: lb://report-service
+                    predicates:
+                      - Path=/api/reports/**
+                """));
+
+        assertEquals(1, reloader.getActiveTable().version());
+        assertEquals(1, reloader.getAppliedCount());
+        assertTrue(routeLocator.getRoutes().map(Route::getId).collectList().block().contains("reports"));
+    }
+}
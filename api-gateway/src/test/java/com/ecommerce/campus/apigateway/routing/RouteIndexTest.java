@@ -0,0 +1,159 @@
+package com.ecommerce.campus.apigateway.routing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.predicate.HostRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.MethodRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteIndexTest {
+
+    private static final List<HttpMethod> METHODS = List.of(HttpMethod.GET, HttpMethod.POST, HttpMethod.DELETE);
+    private static final List<String> HOSTS = List.of("api.example.com", "admin.example.com:8443", "other.io");
+    private static final List<String> PATHS = List.of("/", "/api", "/api/auth", "/api/auth/login", "/api/auth/",
+            "/api/users/42", "/api/users/42/orders", "/api/users", "/api/admin/stats", "/api/v2/items",
+            "/api/products/7/reviews/3", "/static/app.js", "/api/products/a%20b", "/unknown/deep/path");
+
+    @Test
+    void indexedLookupPicksTheSameRouteAsTheSequentialScan() {
+        List<Route> routes = List.of(
+                route("admin-host", path("/api/admin/**").and(host("**.example.com"))),
+                route("auth", path("/api/auth/**")),
+                route("user-orders", path("/api/users/{id}/orders").and(method(HttpMethod.GET))),
+                route("user", path("/api/users/{id}")),
+                route("reviews", path("/api/products/*/reviews/{review}")),
+                route("versioned", path("/api/v{version}/items")),
+                route("either", path("/static/**").or(path("/assets/**"))),
+                route("not-admin", path("/api/admin/**").negate().and(method(HttpMethod.DELETE))),
+                route("post-anything", method(HttpMethod.POST)),
+                route("not-found", path("/api/**")));
+        RouteIndex index = RouteIndex.build(routes);
+        assertEquals(3, index.getUnindexedCount());
+
+        for (String path : PATHS) {
+            for (HttpMethod method : METHODS) {
+                for (String host : HOSTS) {
+                    ServerWebExchange exchange = exchange(method, host, path);
+                    String scanned = firstMatch(routes, exchange);
+                    String indexed = firstMatch(index.candidates(method, host, path), exchange);
+                    assertEquals(scanned, indexed, method + " " + host + path);
+                }
+            }
+        }
+    }
+
+    @Test
+    void hostWildcardsNeverMissAHostThePredicateAccepts() {
+        List<Route> routes = List.of(
+                route("any-depth", path("/api/**").and(host("**.example.com"))),
+                route("one-label", path("/api/**").and(host("*.example.org"))),
+                route("variable", path("/api/**").and(host("{tenant}.example.net"))),
+                route("exact", path("/api/**").and(host("example.io"))));
+        RouteIndex index = RouteIndex.build(routes);
+        assertEquals(0, index.getUnindexedCount());
+
+        List<String> hosts = List.of("example.com", "EXAMPLE.com:8080", "a.example.com", "a.b.example.com",
+                "notexample.com", "example.com.evil.io", "example.org", "shop.example.org", "a.b.example.org",
+                "example.net", "acme.example.net", "example.io", "www.example.io");
+        for (String host : hosts) {
+            ServerWebExchange exchange = exchange(HttpMethod.GET, host, "/api/items");
+            assertEquals(firstMatch(routes, exchange),
+                    firstMatch(index.candidates(HttpMethod.GET, host, "/api/items"), exchange), host);
+        }
+    }
+
+    @Test
+    void candidatesDoNotGrowWithTheRouteTable() {
+        List<Route> routes = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            routes.add(route("service-" + i, path("/api/service-" + i + "/**")));
+        }
+        routes.add(route("not-found", path("/api/**")));
+        RouteIndex index = RouteIndex.build(routes);
+
+        Random random = new Random(17);
+        for (int i = 0; i < 1_000; i++) {
+            int service = random.nextInt(10_000);
+            List<Route> candidates = index.candidates(HttpMethod.GET, "api.example.com",
+                    "/api/service-" + service + "/items/" + i);
+            assertEquals(List.of("service-" + service, "not-found"), candidates.stream().map(Route::getId).toList());
+        }
+        assertEquals(List.of("not-found"), index.candidates(HttpMethod.GET, null, "/api/missing")
+                .stream().map(Route::getId).toList());
+    }
+
+    @Test
+    void handlerMappingUsesTheRebuiltIndex() {
+        List<Route> routes = new ArrayList<>(List.of(route("auth", path("/api/auth/**")),
+                route("not-found", path("/api/**"))));
+        IndexedRoutePredicateHandlerMapping mapping = new IndexedRoutePredicateHandlerMapping(
+                new FilteringWebHandler(List.of()), () -> Flux.fromIterable(routes), new GlobalCorsProperties(),
+                new StandardEnvironment(), true);
+        assertEquals("auth", routeOf(mapping, "/api/auth/login"));
+        assertEquals(0, mapping.getLookupCount());
+
+        mapping.rebuildIndex().block();
+        assertEquals("auth", routeOf(mapping, "/api/auth/login"));
+        assertEquals("not-found", routeOf(mapping, "/api/orders"));
+        assertNull(routeOf(mapping, "/health"));
+
+        routes.add(0, route("orders", path("/api/orders/**")));
+        mapping.rebuildIndex().block();
+        assertEquals("orders", routeOf(mapping, "/api/orders"));
+        assertEquals(4, mapping.getLookupCount());
+    }
+
+    private static String routeOf(IndexedRoutePredicateHandlerMapping mapping, String path) {
+        ServerWebExchange exchange = exchange(HttpMethod.GET, "api.example.com", path);
+        mapping.getHandler(exchange).block();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route == null ? null : route.getId();
+    }
+
+    private static String firstMatch(List<Route> routes, ServerWebExchange exchange) {
+        for (Route route : routes) {
+            if (Boolean.TRUE.equals(Mono.from(route.getPredicate().apply(exchange)).block())) {
+                return route.getId();
+            }
+        }
+        return null;
+    }
+
+    private static ServerWebExchange exchange(HttpMethod method, String host, String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.method(method, path).header(HttpHeaders.HOST, host));
+    }
+
+    private static Route route(String id, Predicate<ServerWebExchange> predicate) {
+        return Route.async().id(id).uri("lb://" + id).predicate(predicate).build();
+    }
+
+    private static Predicate<ServerWebExchange> path(String... patterns) {
+        return new PathRoutePredicateFactory().apply(config -> config.setPatterns(List.of(patterns)));
+    }
+
+    private static Predicate<ServerWebExchange> method(HttpMethod... methods) {
+        return new MethodRoutePredicateFactory().apply(config -> config.setMethods(methods));
+    }
+
+    private static Predicate<ServerWebExchange> host(String... patterns) {
+        return new HostRoutePredicateFactory().apply(config -> config.setPatterns(List.of(patterns)));
+    }
+}
@@ -0,0 +1,158 @@
+package com.ecommerce.campus.apigateway.routing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteReloaderTest {
+
+    private static final String ORDERS = """
+            routes:
+              - id: orders
+                uri: lb://order-service
+                predicates:
+                  - Path=/api/orders/**
+                  - Method=GET,POST
+                filters:
+                  - StripPrefix=1
+                order: 5
+            """;
+
+    private final RouteTableParser parser = new RouteTableParser(
+            Set.of("Path", "Method", "Host"), Set.of("StripPrefix"), Set.of("auth-service"));
+    private final DynamicRouteDefinitionLocator locator = new DynamicRouteDefinitionLocator();
+    private final AtomicInteger refreshes = new AtomicInteger();
+    private final AtomicBoolean gatewayFails = new AtomicBoolean();
+    private RouteReloader reloader;
+
+    {
+        // Stands in for Spring Cloud Gateway, which reads the routes and answers a refresh with a result event
+        reloader = new RouteReloader(locator, parser, event -> {
+            if (event instanceof RefreshRoutesEvent) {
+                refreshes.incrementAndGet();
+                locator.getRouteDefinitions().blockLast();
+                reloader.onApplicationEvent(gatewayFails.get()
+                        ? new RefreshRoutesResultEvent(this, new IllegalStateException("bad filter args"))
+                        : new RefreshRoutesResultEvent(this));
+            }
+        });
+    }
+
+    @Test
+    void documentIsBoundLikeApplicationYml() {
+        List<RouteDefinition> routes = parser.parse(ORDERS);
+
+        RouteDefinition orders = routes.get(0);
+        assertEquals("orders", orders.getId());
+        assertEquals(URI.create("lb://order-service"), orders.getUri());
+        assertEquals(5, orders.getOrder());
+        assertEquals("Path", orders.getPredicates().get(0).getName());
+        assertEquals("/api/orders/**", orders.getPredicates().get(0).getArgs().values().iterator().next());
+        assertEquals("StripPrefix", orders.getFilters().get(0).getName());
+
+        IllegalArgumentException invalid = assertThrows(IllegalArgumentException.class, () -> parser.parse("""
+                routes:
+                  - id: auth-service
+                    uri: lb://auth-service
+                    predicates: [Path=/api/auth/**]
+                  - id: reports
+                    uri: lb://report-service
+                    predicates: [Path=/api/reports/**, Cookie=beta]
+                  - id: reports
+                    predicates: [Path=/api/reports/**]
+                """));
+        assertTrue(invalid.getMessage().contains("auth-service is already defined"), invalid.getMessage());
+        assertTrue(invalid.getMessage().contains("unknown predicate Cookie"), invalid.getMessage());
+        assertTrue(invalid.getMessage().contains("reports is defined twice"), invalid.getMessage());
+        assertTrue(invalid.getMessage().contains("needs an absolute uri"), invalid.getMessage());
+    }
+
+    @Test
+    void validTablesAreSwappedInAndBrokenOnesKeepThePreviousTable() {
+        assertTrue(reloader.submit("test", "1", ORDERS));
+        RouteTable first = reloader.getActiveTable();
+        assertEquals(1, first.version());
+        assertSame(first, locator.getTable());
+        assertEquals(List.of("orders"), locator.getRouteDefinitions().map(RouteDefinition::getId).collectList().block());
+        assertTrue(reloader.getLastReloadMs() >= 0);
+
+        // Unchanged content is not applied again
+        assertFalse(reloader.submit("test", "2", ORDERS));
+        assertEquals(1, refreshes.get());
+
+        // Rejected by validation: the gateway is never asked to refresh
+        assertFalse(reloader.submit("test", "3", "routes:\n  - id: broken\n"));
+        assertEquals(1, refreshes.get());
+
+        // Rejected by the gateway while building routes: the locator goes back to the previous table
+        gatewayFails.set(true);
+        assertTrue(reloader.submit("test", "4", ORDERS.replace("order: 5", "order: 6")));
+        assertSame(first, locator.getTable());
+        assertSame(first, reloader.getActiveTable());
+        assertEquals(2, reloader.getRejectedCount());
+        assertTrue(reloader.getLastError().contains("bad filter args"));
+
+        gatewayFails.set(false);
+        assertTrue(reloader.submit("test", "5", ORDERS.replace("order: 5", "order: 7")));
+        assertEquals(3, reloader.getActiveTable().version());
+        assertEquals(7, locator.getTable().definitions().get(0).getOrder());
+        assertEquals(2, reloader.getAppliedCount());
+    }
+
+    @Test
+    void resultOfARefreshThatReadAnEarlierTableIsIgnored() {
+        RouteReloader slowGateway = new RouteReloader(locator, parser, event -> {
+        });
+        // Another refresh reads the routes, then the table is swapped before it reports back
+        locator.getRouteDefinitions().blockLast();
+        assertTrue(slowGateway.submit("test", "1", ORDERS));
+
+        slowGateway.onApplicationEvent(new RefreshRoutesResultEvent(this, new IllegalStateException("stale")));
+        assertEquals(1, locator.getTable().version());
+        assertEquals(0, slowGateway.getRejectedCount());
+
+        // The refresh the reloader asked for reads the new table
+        locator.getRouteDefinitions().blockLast();
+        slowGateway.onApplicationEvent(new RefreshRoutesResultEvent(this));
+        assertEquals(1, slowGateway.getActiveTable().version());
+        assertEquals(1, slowGateway.getAppliedCount());
+    }
+
+    @Test
+    void fileSourceReloadsWhenTheFileChanges(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("routes.yml");
+        FileRouteSource source = new FileRouteSource(file, Duration.ofSeconds(1), reloader);
+
+        source.check();
+        assertEquals(0, reloader.getActiveTable().version());
+
+        Files.writeString(file, ORDERS);
+        source.check();
+        assertEquals(1, reloader.getActiveTable().version());
+        assertTrue(reloader.getActiveTable().source().startsWith("file:"));
+
+        source.check();
+        assertEquals(1, refreshes.get());
+
+        Files.writeString(file, ORDERS.replace("/api/orders/**", "/api/v2/orders/**"));
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+        source.check();
+        assertEquals(2, reloader.getActiveTable().version());
+    }
+}
@@ -0,0 +1,74 @@
+package com.ecommerce.campus.apigateway.security;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for the Redis keys and channels auth-service revokes tokens through.
+ */
+public class InMemoryRevocationStore implements RevocationStore {
+
+    private final Set<String> blacklist = ConcurrentHashMap.newKeySet();
+    private final Sinks.Many<String> revocations = Sinks.many().multicast().directBestEffort();
+    private final Map<String, Long> watermarks = new ConcurrentHashMap<>();
+    private final Sinks.Many<String> watermarkChanges = Sinks.many().multicast().directBestEffort();
+    private final AtomicInteger lookups = new AtomicInteger();
+    private volatile boolean available = true;
+
+    /**
+     * What auth-service does on logout
+     */
+    public void blacklist(String jti) {
+        blacklist.add(jti);
+        revocations.tryEmitNext(jti);
+    }
+
+    /**
+     * What auth-service does on logout from every device
+     */
+    public void revokeAll(String userId) {
+        long watermark = System.currentTimeMillis();
+        watermarks.put(userId, watermark);
+        watermarkChanges.tryEmitNext(userId + ":" + watermark);
+    }
+
+    @Override
+    public Mono<Boolean> isBlacklisted(String jti) {
+        lookups.incrementAndGet();
+        return available ? Mono.just(blacklist.contains(jti)) : Mono.error(new IllegalStateException("Connection refused"));
+    }
+
+    @Override
+    public Flux<String> blacklistedIds() {
+        return available ? Flux.fromIterable(Set.copyOf(blacklist)) : Flux.error(new IllegalStateException("Connection refused"));
+    }
+
+    @Override
+    public Flux<String> revocations() {
+        return revocations.asFlux();
+    }
+
+    @Override
+    public Mono<Long> watermark(String userId) {
+        return available ? Mono.justOrEmpty(watermarks.get(userId)) : Mono.error(new IllegalStateException("Connection refused"));
+    }
+
+    @Override
+    public Flux<String> watermarkChanges() {
+        return watermarkChanges.asFlux();
+    }
+
+    public int getLookupCount() {
+        return lookups.get();
+    }
+
+    public void setAvailable(boolean available) {
+        this.available = available;
+    }
+}
@@ -0,0 +1,196 @@
+package com.ecommerce.campus.apigateway.security;
+
+import com.ecommerce.campus.apigateway.filter.JwtAuthenticationFilter;
+import com.ecommerce.campus.common.infrastructure.security.TokenDigest;
+import com.ecommerce.campus.common.infrastructure.security.VerifiedToken;
+import com.ecommerce.campus.common.infrastructure.security.VerifiedTokenCache;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-test-secret";
+
+    private final JwksKeySet keySet = new JwksKeySet(WebClient.builder(), "", Duration.ofMinutes(5), Duration.ofSeconds(10));
+    private final JwtVerifier verifier = new JwtVerifier(SECRET, 100, Duration.ofSeconds(60), keySet);
+    private final InMemoryRevocationStore revocationStore = new InMemoryRevocationStore();
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(verifier,
+            new TokenRevocations(revocationStore, new RevocationProperties()));
+
+    private final AtomicReference<ServerHttpRequest> forwarded = new AtomicReference<>();
+    private final GatewayFilterChain upstream = exchange -> {
+        forwarded.set(exchange.getRequest());
+        return Mono.empty();
+    };
+
+    @Test
+    void forwardsTheVerifiedIdentityInPlaceOfWhatTheClientSent() {
+        MockServerWebExchange exchange = exchange("/api/orders/1", token("42", "USER", 60_000));
+        filter.filter(exchange, upstream).block();
+
+        HttpHeaders headers = forwarded.get().getHeaders();
+        assertEquals("42", headers.getFirst(JwtAuthenticationFilter.USER_ID_HEADER));
+        assertEquals("USER", headers.getFirst(JwtAuthenticationFilter.USER_ROLES_HEADER));
+        assertNotNull(exchange.getAttribute(JwtAuthenticationFilter.VERIFIED_TOKEN_ATTR));
+
+        // A token without roles, like a refresh token, is no access token
+        forwarded.set(null);
+        MockServerWebExchange roleless = exchange("/api/orders/1", token("42", null, 60_000));
+        filter.filter(roleless, upstream).block();
+        assertNull(forwarded.get());
+        assertEquals(HttpStatus.UNAUTHORIZED, roleless.getResponse().getStatusCode());
+    }
+
+    @Test
+    void publicPathsNeverForwardSpoofedIdentity() {
+        filter.filter(exchange("/api/auth/login", null), upstream).block();
+        assertFalse(forwarded.get().getHeaders().containsKey(JwtAuthenticationFilter.USER_ID_HEADER));
+        assertFalse(forwarded.get().getHeaders().containsKey(JwtAuthenticationFilter.USER_ROLES_HEADER));
+
+        // e.g. an expired token sent to /refresh
+        filter.filter(exchange("/api/auth/refresh", "not.a.token"), upstream).block();
+        assertFalse(forwarded.get().getHeaders().containsKey(JwtAuthenticationFilter.USER_ID_HEADER));
+        assertFalse(forwarded.get().getHeaders().containsKey(JwtAuthenticationFilter.USER_ROLES_HEADER));
+    }
+
+    @Test
+    void protectedPathsNeedAValidToken() {
+        for (String token : new String[] {null, "not.a.token"}) {
+            forwarded.set(null);
+            MockServerWebExchange exchange = exchange("/api/orders/1", token);
+            filter.filter(exchange, upstream).block();
+
+            assertNull(forwarded.get());
+            assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+            assertEquals("Bearer", exchange.getResponse().getHeaders().getFirst(HttpHeaders.WWW_AUTHENTICATE));
+        }
+    }
+
+    @Test
+    void revokedTokensAreRejected() {
+        String token = token("42", "USER", 60_000);
+        filter.filter(exchange("/api/orders/1", token), upstream).block();
+        assertNotNull(forwarded.get());
+
+        // Logged out: still well signed and unexpired, and already in the verified token cache
+        revocationStore.blacklist(TokenDigest.of(token).shortId());
+        forwarded.set(null);
+        MockServerWebExchange revoked = exchange("/api/orders/1", token);
+        filter.filter(revoked, upstream).block();
+        assertNull(forwarded.get());
+        assertEquals(HttpStatus.UNAUTHORIZED, revoked.getResponse().getStatusCode());
+
+        // Public paths treat it like any invalid token
+        filter.filter(exchange("/api/auth/refresh", token), upstream).block();
+        assertFalse(forwarded.get().getHeaders().containsKey(JwtAuthenticationFilter.USER_ID_HEADER));
+    }
+
+    @Test
+    void tokensIssuedBeforeLogoutFromEveryDeviceAreRejected() {
+        String before = token("42", "USER", 60_000, System.currentTimeMillis() - 1_000);
+        revocationStore.revokeAll("42");
+        // Logging in again right away, within the same second
+        String after = token("42", "USER", 60_000, System.currentTimeMillis());
+
+        MockServerWebExchange revoked = exchange("/api/orders/1", before);
+        filter.filter(revoked, upstream).block();
+        assertNull(forwarded.get());
+        assertEquals(HttpStatus.UNAUTHORIZED, revoked.getResponse().getStatusCode());
+
+        filter.filter(exchange("/api/orders/1", after), upstream).block();
+        assertEquals("42", forwarded.get().getHeaders().getFirst(JwtAuthenticationFilter.USER_ID_HEADER));
+        // Only that user's tokens
+        filter.filter(exchange("/api/orders/1", token("7", "USER", 60_000, System.currentTimeMillis() - 1_000)), upstream).block();
+        assertEquals("7", forwarded.get().getHeaders().getFirst(JwtAuthenticationFilter.USER_ID_HEADER));
+    }
+
+    @Test
+    void cachedTokensStopBeingAcceptedWhenTheyExpire() throws InterruptedException {
+        // exp has second resolution: expire on the next whole second but one
+        long expiresAt = (System.currentTimeMillis() / 1000 + 2) * 1000;
+        String token = token("42", "USER", expiresAt - System.currentTimeMillis());
+
+        filter.filter(exchange("/api/orders/1", token), upstream).block();
+        assertEquals(1, verifier.getCache().size());
+
+        Thread.sleep(expiresAt - System.currentTimeMillis() + 10);
+        forwarded.set(null);
+        MockServerWebExchange expired = exchange("/api/orders/1", token);
+        filter.filter(expired, upstream).block();
+        assertNull(forwarded.get());
+        assertEquals(HttpStatus.UNAUTHORIZED, expired.getResponse().getStatusCode());
+        assertEquals(0, verifier.getCache().size());
+    }
+
+    @Test
+    void cacheEntriesLiveNoLongerThanTheMaxTtl() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10, 1_000);
+        TokenDigest digest = TokenDigest.of("token");
+        cache.put(digest, new VerifiedToken("42", "jti-42", "USER", 0, 60_000), 0);
+
+        assertNotNull(cache.get(digest, 999));
+        assertNull(cache.get(digest, 1_000));
+        assertEquals(0, cache.size());
+
+        // Or the token's own exp, when that comes first
+        cache.put(digest, new VerifiedToken("42", "jti-42", "USER", 0, 500), 0);
+        assertNull(cache.get(digest, 500));
+    }
+
+    @Test
+    void fullCacheEvictsOnlyWhatTheNewEntryNeeds() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(8, 60_000);
+        for (int i = 0; i < 8; i++) {
+            cache.put(TokenDigest.of("token-" + i), new VerifiedToken("42", "jti-" + i, "USER", 0, 60_000), 0);
+        }
+        cache.put(TokenDigest.of("token-8"), new VerifiedToken("42", "jti-8", "USER", 0, 60_000), 0);
+
+        assertEquals(8, cache.size());
+        int kept = 0;
+        for (int i = 0; i < 8; i++) {
+            kept += cache.get(TokenDigest.of("token-" + i), 0) != null ? 1 : 0;
+        }
+        assertEquals(7, kept);
+        assertNotNull(cache.get(TokenDigest.of("token-8"), 0));
+    }
+
+    private static MockServerWebExchange exchange(String path, String token) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path)
+                .header(JwtAuthenticationFilter.USER_ID_HEADER, "1")
+                .header(JwtAuthenticationFilter.USER_ROLES_HEADER, "ADMIN");
+        if (token != null) {
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    private static String token(String subject, String role, long ttlMs) {
+        return token(subject, role, ttlMs, System.currentTimeMillis());
+    }
+
+    private static String token(String subject, String role, long ttlMs, long issuedAtMs) {
+        return Jwts.builder()
+                .subject(subject)
+                .claim("role", role)
+                .claim(JwtVerifier.ISSUED_AT_MS_CLAIM, issuedAtMs)
+                .issuedAt(new Date(issuedAtMs))
+                .expiration(new Date(System.currentTimeMillis() + ttlMs))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+    }
+}
@@ -0,0 +1,91 @@
+package com.ecommerce.campus.apigateway.security;
+
+import com.ecommerce.campus.common.infrastructure.security.VerifiedToken;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.security.KeyPair;
+import java.time.Duration;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtVerifierTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-test-secret";
+
+    private final KeyPair signingKey = Jwts.SIG.ES256.keyPair().build();
+    private final JwksKeySet keySet = new JwksKeySet(WebClient.builder(), "", Duration.ofMinutes(5), Duration.ofSeconds(10));
+    private final JwtVerifier verifier = new JwtVerifier(SECRET, 100, Duration.ofSeconds(60), keySet);
+
+    @Test
+    void verifiesTokensAgainstThePublishedKeyTheyName() {
+        keySet.update("{\"keys\":[" + Jwks.json(Jwks.builder().key(signingKey.getPublic()).id("2026-01").build()) + "]}");
+        assertEquals(1, keySet.size());
+
+        VerifiedToken verified = verifier.verify(token("2026-01"));
+        assertEquals("42", verified.subject());
+        assertEquals("USER", verified.roles());
+
+        // Not published (yet): rejected until a refresh brings the key
+        assertThrows(JwtException.class, () -> verifier.verify(token("2026-02")));
+    }
+
+    @Test
+    void sharedSecretOnlyVerifiesTokensWithoutKeyId() {
+        keySet.update("{\"keys\":[" + Jwks.json(Jwks.builder().key(signingKey.getPublic()).id("2026-01").build()) + "]}");
+        String legacy = Jwts.builder()
+                .subject("42")
+                .claim("role", "USER")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+        assertEquals("42", verifier.verify(legacy).subject());
+
+        // An HMAC token naming a published key must not be checked with the public key as secret
+        String confused = Jwts.builder()
+                .header().keyId("2026-01").and()
+                .subject("1")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(signingKey.getPublic().getEncoded()))
+                .compact();
+        assertThrows(JwtException.class, () -> verifier.verify(confused));
+    }
+
+    @Test
+    void onlyAccessTokensAreAccepted() {
+        assertEquals("42", verifier.verify(hmacToken(JwtVerifier.ACCESS_TOKEN_TYPE, "USER")).subject());
+        // Issued before the type claim: told apart by their role
+        assertEquals("42", verifier.verify(hmacToken(null, "USER")).subject());
+
+        // Refresh tokens are signed with the same key and carry sub and exp too
+        assertThrows(JwtException.class, () -> verifier.verify(hmacToken("refresh", null)));
+        assertThrows(JwtException.class, () -> verifier.verify(hmacToken("refresh", "USER")));
+        assertThrows(JwtException.class, () -> verifier.verify(hmacToken(null, null)));
+    }
+
+    private static String hmacToken(String type, String role) {
+        return Jwts.builder()
+                .subject("42")
+                .claim(JwtVerifier.TOKEN_TYPE_CLAIM, type)
+                .claim("role", role)
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+    }
+
+    private String token(String kid) {
+        return Jwts.builder()
+                .header().keyId(kid).and()
+                .subject("42")
+                .claim("role", "USER")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(signingKey.getPrivate(), Jwts.SIG.ES256)
+                .compact();
+    }
+}
@@ -0,0 +1,88 @@
+package com.ecommerce.campus.apigateway.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Consul is read while bootstrapping, before profile files are
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.cloud.consul.enabled=false", "gateway.security.revocation.enabled=true"})
+@ActiveProfiles("test")
+class RevokedTokenTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-test-secret";
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private InMemoryRevocationStore store;
+
+    @TestConfiguration
+    static class Store {
+
+        @Bean
+        @Primary
+        InMemoryRevocationStore inMemoryRevocationStore() {
+            return new InMemoryRevocationStore();
+        }
+    }
+
+    @Test
+    void loggedOutTokensAreRejectedAtTheEdge() {
+        String token = token("session-1");
+        request(token, "192.0.2.1").expectStatus().value(status -> assertNotEquals(401, status));
+
+        store.blacklist("session-1");
+        request(token, "192.0.2.1").expectStatus().isUnauthorized();
+        // Other sessions of the same user carry on
+        request(token("session-2"), "192.0.2.1").expectStatus().value(status -> assertNotEquals(401, status));
+    }
+
+    @Test
+    void tokensIssuedBeforeLogoutFromEveryDeviceAreRejectedAtTheEdge() {
+        String before = token("43", "device-1", System.currentTimeMillis() - 1_000);
+        request(before, "192.0.2.2").expectStatus().value(status -> assertNotEquals(401, status));
+
+        store.revokeAll("43");
+        request(before, "192.0.2.2").expectStatus().isUnauthorized();
+        // Logging in again right away
+        request(token("43", "device-1", System.currentTimeMillis()), "192.0.2.2")
+                .expectStatus().value(status -> assertNotEquals(401, status));
+    }
+
+    private WebTestClient.ResponseSpec request(String token, String client) {
+        return this.client.get().uri("/api/orders/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .header("X-Forwarded-For", client)
+                .exchange();
+    }
+
+    private static String token(String jti) {
+        return token("42", jti, System.currentTimeMillis());
+    }
+
+    private static String token(String subject, String jti, long issuedAtMs) {
+        return Jwts.builder()
+                .subject(subject)
+                .id(jti)
+                .claim("role", "USER")
+                .claim(JwtVerifier.ISSUED_AT_MS_CLAIM, issuedAtMs)
+                .issuedAt(new Date(issuedAtMs))
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+    }
+}
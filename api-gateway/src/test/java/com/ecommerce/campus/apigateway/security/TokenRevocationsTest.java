@@ -0,0 +1,73 @@
+package com.ecommerce.campus.apigateway.security;
+
+import com.ecommerce.campus.common.infrastructure.security.VerifiedToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationsTest {
+
+    private final InMemoryRevocationStore store = new InMemoryRevocationStore();
+    private final TokenRevocations revocations = new TokenRevocations(store, new RevocationProperties());
+
+    @AfterEach
+    void tearDown() {
+        revocations.stop();
+    }
+
+    @Test
+    void unrevokedTokensAreAnsweredWithoutTheStore() {
+        store.blacklist("logged-out");
+        // Until the filter is loaded every check asks the store
+        assertFalse(revocations.isRevoked(token("fresh")).block());
+        assertEquals(1, store.getLookupCount());
+
+        revocations.rebuild().block();
+        for (int i = 0; i < 100; i++) {
+            assertFalse(revocations.isRevoked(token("fresh-" + i)).block());
+        }
+        assertTrue(revocations.isRevoked(token("logged-out")).block());
+        // Only the revoked id needed confirming, give or take a false positive
+        assertTrue(store.getLookupCount() <= 3, "lookups " + store.getLookupCount());
+    }
+
+    @Test
+    void revocationsPublishedAfterLoadingAreSeen() {
+        revocations.start();
+        assertFalse(revocations.isRevoked(token("session")).block());
+
+        store.blacklist("session");
+        assertTrue(revocations.isRevoked(token("session")).block());
+    }
+
+    @Test
+    void tokensAreAcceptedWhileTheStoreIsDown() {
+        store.setAvailable(false);
+        revocations.rebuild().block();
+        store.blacklist("logged-out");
+
+        assertFalse(revocations.isRevoked(token("logged-out")).block());
+        // Neither the watermark nor the blacklist could be read
+        assertEquals(2, revocations.getStoreErrorCount());
+
+        store.setAvailable(true);
+        assertTrue(revocations.isRevoked(token("logged-out")).block());
+    }
+
+    @Test
+    void watermarksMovedAfterLoadingAreSeen() {
+        revocations.start();
+        long issuedAtMs = System.currentTimeMillis() - 1_000;
+        // Caches that user 42 has no watermark
+        assertFalse(revocations.isRevoked(new VerifiedToken("42", "old", "USER", issuedAtMs, Long.MAX_VALUE)).block());
+
+        store.revokeAll("42");
+        assertTrue(revocations.isRevoked(new VerifiedToken("42", "old", "USER", issuedAtMs, Long.MAX_VALUE)).block());
+        assertFalse(revocations.isRevoked(new VerifiedToken("42", "new", "USER", System.currentTimeMillis(), Long.MAX_VALUE)).block());
+    }
+
+    private static VerifiedToken token(String jti) {
+        return new VerifiedToken("42", jti, "USER", 0, Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,87 @@
+package com.ecommerce.campus.apigateway.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestIdGeneratorTest {
+
+    @Test
+    void idsAreUniqueAcrossCores() throws Exception {
+        RequestIdGenerator generator = new RequestIdGenerator(7);
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int perThread = 200_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<String[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    String[] ids = new String[perThread];
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+
+            Set<String> all = new HashSet<>(threads * perThread * 2);
+            for (Future<String[]> future : futures) {
+                String[] ids = future.get();
+                for (int i = 0; i < ids.length; i++) {
+                    assertEquals(RequestIdGenerator.LENGTH, ids[i].length());
+                    assertTrue(all.add(ids[i]), "duplicate id " + ids[i]);
+                    if (i > 0) {
+                        // Each thread sees strictly increasing ids
+                        assertTrue(ids[i].compareTo(ids[i - 1]) > 0, ids[i - 1] + " >= " + ids[i]);
+                    }
+                }
+            }
+            assertEquals(threads * perThread, all.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void neverGoesBackwardsWhenClockDoes() {
+        RequestIdGenerator generator = new RequestIdGenerator(1);
+        long first = generator.nextState(1_000_000);
+        long second = generator.nextState(999_000);
+        long third = generator.nextState(1_000_000);
+        assertTrue(second > first);
+        assertTrue(third > second);
+    }
+
+    @Test
+    void encodingIsFixedWidthAndOrdered() {
+        assertEquals("0000000000000000", RequestIdGenerator.encode(0, 0));
+        assertEquals("ZZZZZZZZZZZZZZZZ", RequestIdGenerator.encode((1L << 48) - 1, 0xFFFFFFFFL));
+        assertTrue(RequestIdGenerator.encode(1_700_000_000_001L, 0)
+                .compareTo(RequestIdGenerator.encode(1_700_000_000_000L, 0xFFFFFFFFL)) > 0);
+    }
+
+    @Test
+    void differentNodesNeverCollide() {
+        RequestIdGenerator a = new RequestIdGenerator(1);
+        RequestIdGenerator b = new RequestIdGenerator(2);
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(ids.add(a.nextId()));
+            assertTrue(ids.add(b.nextId()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new RequestIdGenerator(1024));
+    }
+}
@@ -0,0 +1,45 @@
+package com.ecommerce.campus.apigateway.upstream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+
+// Consul is read while bootstrapping, before profile files are
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.cloud.consul.enabled=false")
+@ActiveProfiles("test")
+class ProxiedRouteTest {
+
+    private static final StubUpstream upstream = new StubUpstream();
+
+    @Autowired
+    private WebTestClient client;
+
+    @DynamicPropertySource
+    static void upstream(DynamicPropertyRegistry registry) {
+        upstream.register("auth-service", registry);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop();
+    }
+
+    @Test
+    void upstreamBodiesReachTheClient() {
+        upstream.respond("/api/auth/ping", "{\"pong\":true}", "Content-Type", "application/json");
+
+        client.mutate().responseTimeout(Duration.ofSeconds(5)).build()
+                .get().uri("/api/auth/ping")
+                .header("X-Forwarded-For", "192.0.2.10")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("{\"pong\":true}");
+    }
+}
@@ -0,0 +1,100 @@
+package com.ecommerce.campus.apigateway.upstream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A real HTTP server standing in for a service behind the gateway, registered through the simple
+ * discovery client so lb:// routes reach it over the gateway's own routing and response writing.
+ */
+public class StubUpstream {
+
+    /**
+     * Answers one request; runs on a server thread, so it may block
+     */
+    @FunctionalInterface
+    public interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+    private final HttpServer server;
+    private final Map<String, Handler> handlers = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+    public StubUpstream() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        server.setExecutor(threads);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            requests.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+            try (exchange) {
+                Handler handler = handlers.get(path);
+                if (handler == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                } else {
+                    handler.handle(exchange);
+                }
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * Serve the service's instance at this stub
+     */
+    public void register(String serviceId, DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances." + serviceId + "[0].uri",
+                () -> "http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    public void handle(String path, Handler handler) {
+        handlers.put(path, handler);
+    }
+
+    /**
+     * Answer the path with a 200 and this body, after the given headers (name, value, name, value...)
+     */
+    public void respond(String path, String body, String... headers) {
+        handle(path, exchange -> {
+            for (int i = 0; i + 1 < headers.length; i += 2) {
+                exchange.getResponseHeaders().add(headers[i], headers[i + 1]);
+            }
+            send(exchange, 200, body);
+        });
+    }
+
+    public int requests(String path) {
+        AtomicInteger count = requests.get(path);
+        return count != null ? count.get() : 0;
+    }
+
+    public void stop() {
+        server.stop(0);
+        threads.shutdownNow();
+    }
+
+    public static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
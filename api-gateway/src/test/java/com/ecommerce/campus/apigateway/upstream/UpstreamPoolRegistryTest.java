@@ -0,0 +1,139 @@
+package com.ecommerce.campus.apigateway.upstream;
+
+import com.ecommerce.campus.apigateway.registry.ServiceRegistryCache;
+import com.ecommerce.campus.apigateway.service.DiscoveryService;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamPoolRegistryTest {
+
+    private ExecutorService serverThreads;
+    private HttpServer server;
+    private ServiceRegistryCache registryCache;
+    private UpstreamPoolProperties properties;
+    private UpstreamPoolRegistry pools;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serverThreads = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(serverThreads);
+        server.createContext("/", exchange -> {
+            if (exchange.getRequestURI().getPath().startsWith("/slow")) {
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] bytes = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+
+        registryCache = new ServiceRegistryCache();
+        registryCache.replaceAll(Map.of("orders", List.of(new DefaultServiceInstance(
+                "orders-1", "orders", "127.0.0.1", server.getAddress().getPort(), false))));
+        properties = new UpstreamPoolProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        pools = new UpstreamPoolRegistry(properties, HttpClient::create, new DiscoveryService(registryCache),
+                meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pools.stop();
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void newInstancesAreWarmedUpOnce() throws InterruptedException {
+        UpstreamPoolProperties.Pool orders = new UpstreamPoolProperties.Pool();
+        orders.setWarmupConnections(3);
+        properties.setServices(Map.of("orders", orders));
+
+        pools.warmUp(registryCache.getSnapshot()).block(Duration.ofSeconds(5));
+
+        UpstreamPool pool = pools.get("orders");
+        awaitIdle(pool, 3);
+        assertEquals(3, pool.getIdle());
+        assertEquals(0, pool.getActive());
+        assertEquals(3, pool.getAcquireCount());
+
+        // Already warm: the next registry change opens nothing
+        pools.warmUp(registryCache.getSnapshot()).block(Duration.ofSeconds(5));
+        assertEquals(3, pool.getAcquireCount());
+        assertEquals(3.0, meterRegistry.get("gateway.upstream.pool.connections")
+                .tags("upstream", "orders", "state", "idle").gauge().value());
+    }
+
+    @Test
+    void webClientRequestsUseThePoolOfTheInstancesService() {
+        WebClient webClient = WebClient.builder().clientConnector(pools.connector()).build();
+        String known = "http://127.0.0.1:" + server.getAddress().getPort() + "/api/orders";
+        String unknown = "http://localhost:" + server.getAddress().getPort() + "/api/orders";
+
+        assertEquals("ok", webClient.get().uri(known).retrieve().bodyToMono(String.class).block());
+        assertEquals("ok", webClient.get().uri(unknown).retrieve().bodyToMono(String.class).block());
+
+        assertEquals(1, pools.get("orders").getAcquireCount());
+        assertEquals(1, pools.get(UpstreamPoolRegistry.DEFAULT_POOL).getAcquireCount());
+        assertTrue(pools.get("orders").acquireSnapshot().count() > 0);
+    }
+
+    @Test
+    void requestsBeyondThePendingLimitFailFast() {
+        UpstreamPoolProperties.Pool orders = new UpstreamPoolProperties.Pool();
+        orders.setMaxConnections(1);
+        orders.setPendingAcquireMaxCount(1);
+        properties.setServices(Map.of("orders", orders));
+        HttpClient client = pools.get("orders").getHttpClient();
+        String slow = "http://127.0.0.1:" + server.getAddress().getPort() + "/slow";
+
+        List<Boolean> results = Flux.range(0, 3)
+                .flatMap(i -> client.get().uri(slow).responseContent().aggregate().asString()
+                        .map(body -> true)
+                        .onErrorResume(error -> Mono.just(false)))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(2, results.stream().filter(Boolean::booleanValue).count());
+        assertEquals(1, pools.get("orders").getAcquireFailureCount());
+        assertEquals(0, pools.get("orders").getPending());
+    }
+
+    /**
+     * Connections return to the pool on the event loop just after their response completes
+     */
+    private static void awaitIdle(UpstreamPool pool, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1_000;
+        while (pool.getIdle() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
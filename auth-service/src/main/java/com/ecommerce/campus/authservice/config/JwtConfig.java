@@ -0,0 +1,38 @@
+package com.ecommerce.campus.authservice.config;
+
+import com.ecommerce.campus.authservice.security.JwtSigningProperties;
+import com.ecommerce.campus.authservice.security.SigningKey;
+import com.ecommerce.campus.authservice.security.SigningKeyRing;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(JwtSigningProperties.class)
+public class JwtConfig {
+
+    @Bean
+    public SigningKeyRing signingKeyRing(JwtSigningProperties properties,
+                                         @Value("${jwt.access-token-expiration}") long accessTokenExpiration,
+                                         @Value("${jwt.refresh-token-expiration}") long refreshTokenExpiration) {
+        // A superseded key stays published while tokens it signed may still be presented
+        Duration retention = Duration.ofMillis(Math.max(accessTokenExpiration, refreshTokenExpiration));
+        SigningKeyRing ring = SigningKeyRing.create(properties, retention, Instant.now());
+        if (!ring.isAsymmetric()) {
+            log.info("Signing tokens with HS256 and the shared secret");
+        } else if (ring.isGenerated()) {
+            log.warn("Signing tokens with generated {} keys rotated every {}: configure jwt.signing.keys when running more than one instance",
+                    ring.getAlgorithm(), properties.getRotationInterval());
+        } else {
+            log.info("Signing tokens with {} keys {}", ring.getAlgorithm(),
+                    ring.getKeys().stream().map(SigningKey::kid).toList());
+        }
+        return ring;
+    }
+}
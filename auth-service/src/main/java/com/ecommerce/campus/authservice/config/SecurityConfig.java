@@ -6,6 +6,7 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -18,6 +19,12 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder(); // You can configure strength if needed
     }
 
+    // Public keys are public: verifiers fetch them without credentials
+    @Bean
+    public WebSecurityCustomizer jwksWebSecurityCustomizer() {
+        return web -> web.ignoring().requestMatchers("/.well-known/jwks.json");
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
         return config.getAuthenticationManager();
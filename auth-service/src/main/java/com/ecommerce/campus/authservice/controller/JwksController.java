@@ -0,0 +1,36 @@
+package com.ecommerce.campus.authservice.controller;
+
+import com.ecommerce.campus.authservice.security.JwtSigningProperties;
+import com.ecommerce.campus.authservice.security.SigningKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Publishes the public signing keys so other services verify tokens offline.
+ * The document only changes on rotation, so it is cacheable and revalidated by ETag.
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final SigningKeyRing signingKeys;
+    private final JwtSigningProperties properties;
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks(WebRequest request) {
+        String etag = signingKeys.getJwksEtag();
+        CacheControl cacheControl = CacheControl.maxAge(properties.getJwksMaxAge()).cachePublic();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(304).cacheControl(cacheControl).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(etag)
+                .body(signingKeys.getJwks());
+    }
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.campus.authservice.exception;
+
+/**
+ * The password hashing pool has no room left; the client should come back after {@link #getRetryAfterSeconds()}
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingBusyException(long retryAfterSeconds) {
+        super("Too many password checks in progress, retry in " + retryAfterSeconds + "s");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
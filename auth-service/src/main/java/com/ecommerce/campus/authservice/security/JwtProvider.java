@@ -1,22 +1,33 @@
 package com.ecommerce.campus.authservice.security;
 
+import com.ecommerce.campus.common.infrastructure.security.TokenDigest;
+import com.ecommerce.campus.common.infrastructure.security.VerifiedToken;
+import com.ecommerce.campus.common.infrastructure.security.VerifiedTokenCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
-import io.jsonwebtoken.SignatureAlgorithm;
-import jakarta.persistence.Transient;
+import io.jsonwebtoken.security.SecurityException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.security.Key;
+import java.security.PublicKey;
+import java.security.SecureRandom;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -25,16 +36,45 @@ import java.util.Map;
 @Slf4j
 public class JwtProvider {
 
+    /**
+     * Issue time in epoch milliseconds: iat only has whole seconds, too coarse to tell a token issued
+     * just after a logout from every device from one issued just before it
+     */
+    public static final String ISSUED_AT_MS_CLAIM = "iat_ms";
+
+    /**
+     * Access and refresh tokens are signed with the same keys; only access tokens are bearer credentials
+     */
+    public static final String TOKEN_TYPE_CLAIM = "token_type";
+    public static final String ACCESS_TOKEN_TYPE = "access";
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+
     private final SecretKey key;
+    private final SigningKeyRing signingKeys;
+    private final JwtParser parser;
+    private final VerifiedTokenCache verifiedTokens;
+    private final SecureRandom random = new SecureRandom();
     private final long accessTokenExpiration;
     private final long refreshTokenExpiration;
 
     public JwtProvider(
-            @Value("${jwt.secret}") String secret,
+            @Value("${jwt.secret:}") String secret,
             @Value("${jwt.access-token-expiration}") long accessTokenExpiration,
-            @Value("${jwt.refresh-token-expiration}") long refreshTokenExpiration) {
+            @Value("${jwt.refresh-token-expiration}") long refreshTokenExpiration,
+            @Value("${jwt.verified-token-cache.max-entries:10000}") int verifiedTokenCacheSize,
+            SigningKeyRing signingKeys) {
 
-        this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        // Once tokens are signed with the key ring, the secret only verifies HS256 tokens issued before the switch
+        this.key = secret.isBlank() ? null : Keys.hmacShaKeyFor(secret.getBytes());
+        if (key == null && !signingKeys.isAsymmetric()) {
+            throw new IllegalStateException("jwt.secret is required to sign with HS256");
+        }
+        this.signingKeys = signingKeys;
+        // JwtParser is immutable and thread-safe, build it once
+        this.parser = Jwts.parser()
+                .keyLocator(new VerificationKeyLocator())
+                .build();
+        this.verifiedTokens = new VerifiedTokenCache(verifiedTokenCacheSize);
         this.accessTokenExpiration = accessTokenExpiration;
         this.refreshTokenExpiration = refreshTokenExpiration;
     }
@@ -49,13 +89,15 @@ public class JwtProvider {
 
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", roles); // Single string, not array for smaller size
+        claims.put(ISSUED_AT_MS_CLAIM, issuedAt.getTime());
+        claims.put(TOKEN_TYPE_CLAIM, ACCESS_TOKEN_TYPE);
 
-        return Jwts.builder()
+        return sign(Jwts.builder()
                 .subject(userId.toString()) // Just user ID, fetch details if needed
+                .id(newTokenId()) // Short id the blacklist is keyed on
                 .claims(claims)
                 .issuedAt(issuedAt)
-                .expiration(expiresAt)
-                .signWith(this.key)
+                .expiration(expiresAt))
                 .compact();
     }
 
@@ -67,21 +109,39 @@ public class JwtProvider {
         Date issuedAt = Date.from(now.atZone(ZoneId.systemDefault()).toInstant());
         Date expiresAt = Date.from(expiryDate.atZone(ZoneId.systemDefault()).toInstant());
 
-        return Jwts.builder()
+        return sign(Jwts.builder()
                 .subject(userId.toString())
+                .claim(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE)
                 .issuedAt(issuedAt)
-                .expiration(expiresAt)
-                .signWith(this.key)
+                .expiration(expiresAt))
                 .compact();
     }
 
+    /**
+     * Parse and verify an access token once, answering from the cache of recently verified tokens when possible
+     *
+     * @param token raw compact JWT (without the Bearer prefix)
+     * @return the verified claims
+     * @throws JwtException if the token is malformed, badly signed, expired or not an access token
+     */
+    public VerifiedToken verify(String token) {
+        long now = System.currentTimeMillis();
+        TokenDigest digest = TokenDigest.of(token);
+
+        VerifiedToken cached = verifiedTokens.get(digest, now);
+        if (cached != null) {
+            return cached;
+        }
+
+        VerifiedToken verified = parse(token, digest);
+        verifiedTokens.put(digest, verified, now);
+        return verified;
+    }
+
     // Validate token - simple and fast
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
+            verify(token);
             return true;
         } catch (SecurityException ex) {
             log.error("Invalid JWT signature");
@@ -91,46 +151,113 @@ public class JwtProvider {
             log.error("Expired JWT token");
         } catch (UnsupportedJwtException ex) {
             log.error("Unsupported JWT token");
-        } catch (IllegalArgumentException ex) {
-            log.error("JWT claims string is empty");
+        } catch (JwtException ex) {
+            log.error(ex.getMessage());
         }
         return false;
     }
 
-    private Claims getClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
     // Get user ID from token
     public Long getUserIdFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return Long.parseLong(claims.getSubject());
+        return verify(token).userId();
     }
 
     // Get roles from token
     public String getRolesFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return claims.get("role", String.class);
+        return verify(token).roles();
     }
 
-    public long getTimeToLiveMs(String token){
-        LocalDateTime now = LocalDateTime.now();
+    public long getTimeToLiveMs(String token) {
+        return verify(token).timeToLiveMs(System.currentTimeMillis());
+    }
 
-        Claims claims = getClaimsFromToken(token);
-        LocalDateTime expiration = claims.getExpiration()
-                .toInstant()
-                .atZone(ZoneId.systemDefault())
-                .toLocalDateTime();
+    public VerifiedTokenCache getVerifiedTokenCache() {
+        return verifiedTokens;
+    }
 
-        return Duration.between(now, expiration).toMillis();
+    public SigningKeyRing getSigningKeys() {
+        return signingKeys;
     }
 
     public long getAccessTokenExpirationMs() {
         return accessTokenExpiration;
     }
 
-}
\ No newline at end of file
+    // 96 random bits as 16 URL-safe characters
+    private String newTokenId() {
+        byte[] bytes = new byte[12];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // Sign with the current key of the ring and name it in the kid header, or with the shared secret
+    private JwtBuilder sign(JwtBuilder builder) {
+        if (!signingKeys.isAsymmetric()) {
+            return builder.signWith(key);
+        }
+        SigningKey signingKey = signingKeys.current(Instant.now());
+        return builder
+                .header().keyId(signingKey.kid()).and()
+                .signWith(signingKey.privateKey(), signingKey.algorithm().jws());
+    }
+
+    private VerifiedToken parse(String token, TokenDigest digest) {
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (IllegalArgumentException ex) {
+            throw new JwtException("JWT claims string is empty", ex);
+        }
+
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            throw new JwtException("JWT is missing subject or expiration");
+        }
+        String roles = claims.get("role", String.class);
+        String type = claims.get(TOKEN_TYPE_CLAIM, String.class);
+        // Access tokens issued before the type claim was added are the only ones with a role
+        if (roles == null || (type != null && !ACCESS_TOKEN_TYPE.equals(type))) {
+            throw new JwtException("JWT is not an access token");
+        }
+
+        return new VerifiedToken(
+                claims.getSubject(),
+                // Tokens issued before jti was added are revoked by an id derived from their digest
+                claims.getId() != null ? claims.getId() : digest.shortId(),
+                roles,
+                issuedAtMs(claims),
+                claims.getExpiration().getTime()
+        );
+    }
+
+    // Tokens issued before the millisecond claim was added fall back to iat, rounded down to its second
+    private static long issuedAtMs(Claims claims) {
+        Long issuedAtMs = claims.get(ISSUED_AT_MS_CLAIM, Long.class);
+        if (issuedAtMs != null) {
+            return issuedAtMs;
+        }
+        return claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
+    }
+
+    /**
+     * Tokens naming a kid are verified with that key of the ring, tokens without one with the shared secret.
+     * jjwt rejects a key that does not fit the header's alg, so neither can stand in for the other.
+     */
+    private final class VerificationKeyLocator extends LocatorAdapter<Key> {
+
+        @Override
+        protected Key locate(JwsHeader header) {
+            String kid = header.getKeyId();
+            if (kid == null) {
+                if (key == null) {
+                    throw new JwtException("JWT has no key id");
+                }
+                return key;
+            }
+            PublicKey publicKey = signingKeys.publicKey(kid);
+            if (publicKey == null) {
+                throw new JwtException("Unknown signing key " + kid);
+            }
+            return publicKey;
+        }
+    }
+}
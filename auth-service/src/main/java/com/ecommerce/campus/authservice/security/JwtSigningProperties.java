@@ -0,0 +1,44 @@
+package com.ecommerce.campus.authservice.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "jwt.signing")
+public class JwtSigningProperties {
+
+    /** HS256 keeps signing with jwt.secret; EdDSA, ES256 and RS256 sign with the key ring */
+    private SigningAlgorithm algorithm = SigningAlgorithm.HS256;
+
+    /**
+     * Key pairs shared by every replica. The newest activated key signs; all are published, so a key
+     * listed with a future activate-at is known to verifiers before its first token.
+     * Empty: each replica generates and rotates its own keys (single instance only).
+     */
+    private List<Key> keys = new ArrayList<>();
+
+    /** How long a generated key signs before the next one takes over */
+    private Duration rotationInterval = Duration.ofDays(7);
+
+    /** How long before taking over a generated key is published; keep it above the verifiers' JWKS cache time */
+    private Duration prePublish = Duration.ofHours(1);
+
+    /** Cache-Control max-age of the JWKS document */
+    private Duration jwksMaxAge = Duration.ofMinutes(10);
+
+    @Data
+    public static class Key {
+        private String kid;
+        /** PKCS#8 PEM */
+        private String privateKey;
+        /** X.509 SubjectPublicKeyInfo PEM */
+        private String publicKey;
+        /** Unset: signs from startup */
+        private Instant activateAt;
+    }
+}
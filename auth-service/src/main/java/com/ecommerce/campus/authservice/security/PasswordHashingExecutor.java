@@ -0,0 +1,131 @@
+package com.ecommerce.campus.authservice.security;
+
+import com.ecommerce.campus.authservice.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt hashing and verification on a pool sized to the cores, so a login burst keeps the CPU work
+ * off request threads and cheap endpoints keep answering. The queue is bounded: once it is full callers
+ * fail fast with {@link PasswordHashingBusyException} instead of piling up.
+ * <p>
+ * Results are handed to the application task executor, so the stages callers chain on (database writes,
+ * token signing) never hold a hashing thread.
+ */
+@Component
+@Slf4j
+public class PasswordHashingExecutor {
+
+    public static final String ENCODE = "encode";
+    public static final String VERIFY = "verify";
+
+    private final ThreadPoolExecutor pool;
+    private final Executor completions;
+    private final Timer waitTime;
+    private final Timer encodeTime;
+    private final Timer verifyTime;
+    private final Counter rejected;
+
+    public PasswordHashingExecutor(
+            @Value("${password-hashing.threads:0}") int threads,
+            @Value("${password-hashing.queue-capacity:64}") int queueCapacity,
+            MeterRegistry meterRegistry,
+            @Qualifier("applicationTaskExecutor") ObjectProvider<Executor> completions) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger created = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + created.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        // Without one, chained stages run on the hashing thread that completed the work
+        this.completions = completions.getIfAvailable(() -> Runnable::run);
+
+        Gauge.builder("auth.password.hashing.queue", pool, p -> p.getQueue().size())
+                .description("Password hashing tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hashing.active", pool, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        this.waitTime = Timer.builder("auth.password.hashing.wait")
+                .description("Time a password hashing task spent queued")
+                .register(meterRegistry);
+        this.encodeTime = Timer.builder("auth.password.hashing.time")
+                .tag("operation", ENCODE)
+                .register(meterRegistry);
+        this.verifyTime = Timer.builder("auth.password.hashing.time")
+                .tag("operation", VERIFY)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.hashing.rejected")
+                .description("Password hashing tasks refused because the queue was full")
+                .register(meterRegistry);
+        log.info("Password hashing pool: {} threads, {} queued at most", size, queueCapacity);
+    }
+
+    /**
+     * Queue a hashing task
+     *
+     * @param operation {@link #ENCODE} or {@link #VERIFY}, the timer its run time is recorded in
+     * @throws PasswordHashingBusyException right away if the queue is full
+     */
+    public <T> CompletableFuture<T> submit(String operation, Callable<T> task) {
+        Timer hashTime = VERIFY.equals(operation) ? verifyTime : encodeTime;
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        try {
+            pool.execute(() -> {
+                long started = System.nanoTime();
+                waitTime.record(started - queuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    T value = task.call();
+                    hashTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    completions.execute(() -> result.complete(value));
+                } catch (Throwable e) {
+                    hashTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    completions.execute(() -> result.completeExceptionally(e));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException(retryAfterSeconds());
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Time for the pool to work through a full queue at the average hashing time, at least a second
+     */
+    long retryAfterSeconds() {
+        long count = encodeTime.count() + verifyTime.count();
+        if (count == 0) {
+            return 1;
+        }
+        double meanNanos = (encodeTime.totalTime(TimeUnit.NANOSECONDS) + verifyTime.totalTime(TimeUnit.NANOSECONDS)) / count;
+        double drainNanos = meanNanos * (pool.getQueue().size() + 1) / pool.getMaximumPoolSize();
+        return Math.max(1, (long) Math.ceil(drainNanos / TimeUnit.SECONDS.toNanos(1)));
+    }
+}
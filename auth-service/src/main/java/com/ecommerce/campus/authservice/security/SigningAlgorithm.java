@@ -0,0 +1,54 @@
+package com.ecommerce.campus.authservice.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+
+import java.security.KeyPair;
+
+/**
+ * Algorithms tokens can be signed with. HS256 uses the shared {@code jwt.secret}; the others sign with a
+ * private key and publish the public key, so verifiers need no secret.
+ */
+public enum SigningAlgorithm {
+
+    HS256(null, null),
+    EDDSA(Jwts.SIG.EdDSA, "Ed25519"),
+    ES256(Jwts.SIG.ES256, "EC"),
+    RS256(Jwts.SIG.RS256, "RSA");
+
+    private final SignatureAlgorithm jws;
+    private final String keyFactory;
+
+    SigningAlgorithm(SignatureAlgorithm jws, String keyFactory) {
+        this.jws = jws;
+        this.keyFactory = keyFactory;
+    }
+
+    public boolean isAsymmetric() {
+        return jws != null;
+    }
+
+    /**
+     * The jjwt algorithm, null for HS256
+     */
+    public SignatureAlgorithm jws() {
+        return jws;
+    }
+
+    /**
+     * JCA KeyFactory name for decoding configured keys
+     */
+    public String keyFactory() {
+        return keyFactory;
+    }
+
+    public KeyPair generateKeyPair() {
+        return switch (this) {
+            case HS256 -> throw new IllegalStateException("HS256 signs with the shared secret");
+            // Ed25519 rather than jjwt's default Ed448: smaller keys and signatures, wider verifier support
+            case EDDSA -> Jwks.CRV.Ed25519.keyPair().build();
+            default -> jws.keyPair().build();
+        };
+    }
+}
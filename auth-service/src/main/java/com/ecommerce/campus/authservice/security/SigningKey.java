@@ -0,0 +1,32 @@
+package com.ecommerce.campus.authservice.security;
+
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Instant;
+
+/**
+ * One key pair of the signing key ring. Tokens signed with it carry its kid, and it signs from
+ * activateAt until the next key activates.
+ */
+public record SigningKey(String kid, SigningAlgorithm algorithm, PrivateKey privateKey, PublicKey publicKey,
+                         Instant activateAt) {
+
+    public boolean isActive(Instant now) {
+        return !now.isBefore(activateAt);
+    }
+
+    /**
+     * Public half as a JWK, as published in the JWKS document
+     */
+    public PublicJwk<?> toJwk() {
+        return Jwks.builder()
+                .key(publicKey)
+                .id(kid)
+                .algorithm(algorithm.jws().getId())
+                .publicKeyUse("sig")
+                .build();
+    }
+}
@@ -0,0 +1,212 @@
+package com.ecommerce.campus.authservice.security;
+
+import io.jsonwebtoken.security.Jwks;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The keys tokens are signed with and verified against, and the JWKS document publishing them.
+ * <p>
+ * Keys overlap: a key is published before it signs its first token and stays published after the
+ * next one takes over, until no token it signed can still be alive. Verifiers caching the JWKS
+ * document therefore always know the key of any token they are shown.
+ * <p>
+ * Configured keys are fixed and shared by every replica. Generated keys are rotated by {@link #rotate},
+ * which is only safe with a single instance since each replica would publish its own.
+ */
+@Slf4j
+public class SigningKeyRing {
+
+    private final SigningAlgorithm algorithm;
+    private final boolean generated;
+    private final Duration rotationInterval;
+    private final Duration prePublish;
+    private final Duration retention;
+    private volatile State state;
+
+    SigningKeyRing(SigningAlgorithm algorithm, List<SigningKey> keys, boolean generated,
+                   Duration rotationInterval, Duration prePublish, Duration retention) {
+        this.algorithm = algorithm;
+        this.generated = generated;
+        this.rotationInterval = rotationInterval;
+        this.prePublish = prePublish;
+        this.retention = retention;
+        this.state = new State(keys);
+    }
+
+    /**
+     * Build the ring from configuration
+     *
+     * @param retention how long a superseded key stays published, at least the longest token lifetime
+     */
+    public static SigningKeyRing create(JwtSigningProperties properties, Duration retention, Instant now) {
+        SigningAlgorithm algorithm = properties.getAlgorithm();
+        if (!algorithm.isAsymmetric()) {
+            return new SigningKeyRing(algorithm, List.of(), false, properties.getRotationInterval(),
+                    properties.getPrePublish(), retention);
+        }
+        boolean generated = properties.getKeys().isEmpty();
+        List<SigningKey> keys = generated
+                ? List.of(generate(algorithm, now))
+                : properties.getKeys().stream().map(key -> decode(algorithm, key)).toList();
+        if (keys.stream().noneMatch(key -> key.isActive(now))) {
+            throw new IllegalStateException("No jwt.signing key is active yet, one needs an activate-at in the past");
+        }
+        return new SigningKeyRing(algorithm, keys, generated, properties.getRotationInterval(),
+                properties.getPrePublish(), retention);
+    }
+
+    public SigningAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public boolean isAsymmetric() {
+        return algorithm.isAsymmetric();
+    }
+
+    public boolean isGenerated() {
+        return generated;
+    }
+
+    /**
+     * The key to sign with now: the most recently activated one
+     */
+    public SigningKey current(Instant now) {
+        List<SigningKey> keys = state.keys;
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            if (keys.get(i).isActive(now)) {
+                return keys.get(i);
+            }
+        }
+        throw new IllegalStateException("No active signing key");
+    }
+
+    /**
+     * Public key of a published key, or null if the kid is unknown
+     */
+    public PublicKey publicKey(String kid) {
+        SigningKey key = state.byKid.get(kid);
+        return key != null ? key.publicKey() : null;
+    }
+
+    public List<SigningKey> getKeys() {
+        return state.keys;
+    }
+
+    public String getJwks() {
+        return state.jwks;
+    }
+
+    public String getJwksEtag() {
+        return state.etag;
+    }
+
+    /**
+     * Roll generated keys: publish the next key {@code prePublish} before it takes over and drop keys
+     * superseded for longer than any token lives. Configured keys never change.
+     *
+     * @return whether the published key set changed
+     */
+    public synchronized boolean rotate(Instant now) {
+        if (!generated) {
+            return false;
+        }
+        List<SigningKey> keys = new ArrayList<>(state.keys);
+        boolean changed = false;
+
+        Instant handover = keys.get(keys.size() - 1).activateAt().plus(rotationInterval);
+        if (!now.isBefore(handover.minus(prePublish))) {
+            Instant earliest = now.plus(prePublish);
+            SigningKey next = generate(algorithm, handover.isAfter(earliest) ? handover : earliest);
+            keys.add(next);
+            changed = true;
+            log.info("Published signing key {}, signing from {}", next.kid(), next.activateAt());
+        }
+        while (keys.size() > 1 && !now.isBefore(keys.get(1).activateAt().plus(retention))) {
+            SigningKey retired = keys.remove(0);
+            changed = true;
+            log.info("Retired signing key {}", retired.kid());
+        }
+
+        if (changed) {
+            state = new State(keys);
+        }
+        return changed;
+    }
+
+    private static SigningKey generate(SigningAlgorithm algorithm, Instant activateAt) {
+        KeyPair pair = algorithm.generateKeyPair();
+        String kid = Jwks.builder().key(pair.getPublic()).idFromThumbprint().build().getId();
+        return new SigningKey(kid, algorithm, pair.getPrivate(), pair.getPublic(), activateAt);
+    }
+
+    private static SigningKey decode(SigningAlgorithm algorithm, JwtSigningProperties.Key key) {
+        if (key.getKid() == null || key.getKid().isBlank()) {
+            throw new IllegalStateException("Every jwt.signing key needs a kid");
+        }
+        try {
+            KeyFactory factory = KeyFactory.getInstance(algorithm.keyFactory());
+            PrivateKey privateKey = factory.generatePrivate(new PKCS8EncodedKeySpec(pem(key.getPrivateKey())));
+            PublicKey publicKey = factory.generatePublic(new X509EncodedKeySpec(pem(key.getPublicKey())));
+            Instant activateAt = key.getActivateAt() != null ? key.getActivateAt() : Instant.EPOCH;
+            return new SigningKey(key.getKid(), algorithm, privateKey, publicKey, activateAt);
+        } catch (GeneralSecurityException | IllegalArgumentException | NullPointerException e) {
+            throw new IllegalStateException("Invalid " + algorithm + " signing key " + key.getKid(), e);
+        }
+    }
+
+    private static byte[] pem(String pem) {
+        String base64 = pem.lines()
+                .filter(line -> !line.startsWith("-----"))
+                .collect(Collectors.joining());
+        return Base64.getMimeDecoder().decode(base64);
+    }
+
+    /**
+     * Keys ordered by activation with their kid index and the JWKS document, swapped as a whole
+     */
+    private static final class State {
+
+        private final List<SigningKey> keys;
+        private final Map<String, SigningKey> byKid;
+        private final String jwks;
+        private final String etag;
+
+        State(List<SigningKey> keys) {
+            this.keys = keys.stream().sorted(Comparator.comparing(SigningKey::activateAt)).toList();
+            this.byKid = this.keys.stream().collect(Collectors.toUnmodifiableMap(SigningKey::kid, Function.identity()));
+            this.jwks = this.keys.stream()
+                    .map(key -> Jwks.json(key.toJwk()))
+                    .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+            this.etag = '"' + sha256(jwks).substring(0, 16) + '"';
+        }
+
+        private static String sha256(String value) {
+            try {
+                MessageDigest sha = MessageDigest.getInstance("SHA-256");
+                return HexFormat.of().formatHex(sha.digest(value.getBytes(StandardCharsets.UTF_8)));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+}
@@ -8,17 +8,18 @@ import com.ecommerce.campus.authservice.model.User;
 import com.ecommerce.campus.authservice.persistence.jpa.RefreshTokenRepository;
 import com.ecommerce.campus.authservice.persistence.jpa.UserRepository;
 import com.ecommerce.campus.authservice.security.JwtProvider;
+import com.ecommerce.campus.authservice.security.PasswordHashingExecutor;
+import com.ecommerce.campus.common.infrastructure.security.VerifiedToken;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,44 +31,80 @@ public class AuthService {
     private final RefreshTokenRepository refreshTokenRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtProvider jwtProvider;
-    private final AuthenticationManager authenticationManager;
+    private final UserDetailsService userDetailsService;
+    private final PasswordHashingExecutor passwordHashing;
     private final TokenBlackListService tokenBlacklistService;
+    private final TokenWatermarkService tokenWatermarkService;
+
+    // Hash compared against for unknown usernames, created on first use
+    private volatile String unknownUserPassword;
 
     /**
-     * TokenResponse
-      * @param request The Login data to generate token
-     * @return TokenResponse the token generated
+     * Look the user up on the calling thread, then compare the password on the password hashing pool
+     *
+     * @param request The Login data to check
+     * @return the authenticated user, or an {@link AuthException} if the credentials are wrong
+     * @throws com.ecommerce.campus.authservice.exception.PasswordHashingBusyException if the pool is saturated
      */
-    @Transactional
-    public TokenResponse login(LoginRequest request) {
-        try {
-            // Authenticate user - it internally matches the hashed password with the one in repository
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(request.username(), request.password())
-            );
+    public CompletableFuture<User> authenticate(LoginRequest request) {
+        // Blocking database work stays off the hashing threads, which are sized to the cores
+        User user = findUser(request.username());
+        return passwordHashing.submit(PasswordHashingExecutor.VERIFY, () -> {
+                    if (user == null) {
+                        // Unknown users cost one hash too, so timing does not tell which usernames exist
+                        passwordEncoder.matches(request.password(), unknownUserPassword());
+                        return false;
+                    }
+                    return passwordEncoder.matches(request.password(), user.getPassword());
+                })
+                .thenApply(matches -> {
+                    if (!matches || !user.isEnabled() || !user.isAccountNonLocked()) {
+                        log.error("Login failed for user: {}", request.username());
+                        throw new AuthException("Invalid username or password");
+                    }
+                    return user;
+                });
+    }
 
-            User user = (User) authentication.getPrincipal();
+    private User findUser(String username) {
+        try {
+            return (User) userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
 
-            // Update last login
-            userRepository.updateLastLogin(user.getUserId(), LocalDateTime.now());
+    private String unknownUserPassword() {
+        String encoded = unknownUserPassword;
+        if (encoded == null) {
+            encoded = passwordEncoder.encode("unknown-user-password");
+            unknownUserPassword = encoded;
+        }
+        return encoded;
+    }
 
-            // Generate tokens
-            String accessToken = generateAccessToken(user);
-            RefreshToken refreshToken = createRefreshToken(user);
+    /**
+     * TokenResponse
+      * @param user The user {@link #authenticate(LoginRequest)} returned
+     * @return TokenResponse the token generated
+     */
+    @Transactional
+    public TokenResponse login(User user) {
+        // Update last login
+        userRepository.updateLastLogin(user.getUserId(), LocalDateTime.now());
 
-            log.info("User {} logged in successfully", user.getUsername());
+        // Generate tokens
+        String accessToken = generateAccessToken(user);
+        RefreshToken refreshToken = createRefreshToken(user);
 
-            return new TokenResponse(
-                    accessToken,
-                    refreshToken.getToken(),
-                    jwtProvider.getAccessTokenExpirationMs() / 1000, // Convert to seconds
-                    UserResponse.from(user)
-            );
+        log.info("User {} logged in successfully", user.getUsername());
 
-        } catch (AuthenticationException e) {
-            log.error("Login failed for user: {}", request.username());
-            throw new AuthException("Invalid username or password");
-        }
+        return new TokenResponse(
+                accessToken,
+                refreshToken.getToken(),
+                jwtProvider.getAccessTokenExpirationMs() / 1000, // Convert to seconds
+                UserResponse.from(user)
+        );
     }
 
     @Transactional
@@ -100,18 +137,20 @@ public class AuthService {
         // Delete refresh token associated with this session
         refreshTokenRepository.deleteTokensByUserId(userId);
 
-        // Get Time To Live from JWT Token
-        long timeToLive = jwtProvider.getTimeToLiveMs(token) / 1000;
+        // Get id and Time To Live from JWT Token, verified once
+        VerifiedToken verified = jwtProvider.verify(token);
+        long timeToLive = verified.timeToLiveMs(System.currentTimeMillis()) / 1000;
 
         // Add token to BlackList - redis
-        tokenBlacklistService.blacklistToken(token, timeToLive);
+        tokenBlacklistService.blacklistToken(verified.jti(), timeToLive);
     }
 
     @Transactional
 //    @CacheEvict(value = "user", key = "#userId")
     public void logoutFromAllDevices(Long userId) {
         refreshTokenRepository.deleteTokensByUserId(userId);
-        //thinking to consider devices
+        // Every access token issued so far, on any device, stops being accepted
+        tokenWatermarkService.revokeAll(userId);
     }
 
     private String generateAccessToken(User user) {
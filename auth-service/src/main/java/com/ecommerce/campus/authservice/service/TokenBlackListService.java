@@ -1,75 +1,158 @@
 package com.ecommerce.campus.authservice.service;
 
-import lombok.RequiredArgsConstructor;
+import com.ecommerce.campus.common.infrastructure.security.BloomFilter;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.stereotype.Service;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Service to manage blacklisted JWT tokens in Redis.
+ * Service to manage blacklisted JWT tokens in Redis, keyed by the token's jti.
  * Tokens are automatically removed when they expire.
+ * <p>
+ * Nearly every token checked was never revoked, so a local Bloom filter of the revoked ids answers those
+ * checks without calling Redis; only ids the filter might contain are confirmed there. Revocations reach
+ * every instance's filter through Redis pub/sub, and the filter is rebuilt from Redis periodically to drop
+ * expired ids and pick up messages missed while disconnected.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
-public class TokenBlackListService {
+public class TokenBlackListService implements MessageListener {
+
+    public static final String BLACKLIST_PREFIX = "blacklist:jti:";
+    public static final String REVOCATIONS_CHANNEL = "blacklist:revoked";
 
     private final StringRedisTemplate redisTemplate;
-    private static final String BLACKLIST_PREFIX = "blacklist:token:";
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+
+    private final Object lock = new Object();
+    private volatile BloomFilter revoked; // null until first loaded: every check goes to Redis
+    private Set<String> revokedDuringRebuild;
+
+    public TokenBlackListService(
+            StringRedisTemplate redisTemplate,
+            @Value("${jwt.blacklist.expected-revocations:100000}") int expectedRevocations,
+            @Value("${jwt.blacklist.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.redisTemplate = redisTemplate;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+    }
 
     /**
      * Add a token to the blacklist.
      * Token will be automatically removed when it expires.
      *
-     * @param token The JWT token to blacklist
-     * @param timeToLive Time until token expires
+     * @param jti The id of the JWT token to blacklist
+     * @param timeToLive Seconds until the token expires
      */
-    public void blacklistToken(String token, long timeToLive) {
-        String key = BLACKLIST_PREFIX + token;
-
+    public void blacklistToken(String jti, long timeToLive) {
+        if (timeToLive <= 0) {
+            return; // Already expired, nothing left to revoke
+        }
         // Store token with TTL matching its expiration time
-        redisTemplate.opsForValue().set(
-                key,
-                "blacklisted",
-                timeToLive,
-                TimeUnit.SECONDS
-        );
-
+        redisTemplate.opsForValue().set(BLACKLIST_PREFIX + jti, "1", timeToLive, TimeUnit.SECONDS);
+        // Locally first, so this instance rejects the token even before its own message comes back
+        addRevoked(jti);
+        redisTemplate.convertAndSend(REVOCATIONS_CHANNEL, jti);
     }
 
     /**
      * Check if a token is blacklisted.
      *
-     * @param token The JWT token to check
+     * @param jti The id of the JWT token to check
      * @return true if the token is blacklisted, false otherwise
      */
-    public boolean isTokenBlacklisted(String token) {
-        String key = BLACKLIST_PREFIX + token;
-        return Boolean.TRUE.equals(redisTemplate.hasKey(key));//to handle null
+    public boolean isTokenBlacklisted(String jti) {
+        BloomFilter filter = revoked;
+        if (filter != null && !filter.mightContain(jti)) {
+            return false;
+        }
+        return Boolean.TRUE.equals(redisTemplate.hasKey(BLACKLIST_PREFIX + jti));//to handle null
     }
 
     /**
      * Remove a token from the blacklist (if needed for admin purposes).
+     * The id stays in the local filters until the next rebuild, which only costs a Redis check.
      *
-     * @param token The JWT token to remove from blacklist
+     * @param jti The id of the JWT token to remove from blacklist
      */
-    public void removeFromBlacklist(String token) {
-        String key = BLACKLIST_PREFIX + token;
-        redisTemplate.delete(key);
+    public void removeFromBlacklist(String jti) {
+        redisTemplate.delete(BLACKLIST_PREFIX + jti);
     }
 
     /**
      * Get remaining TTL for a blacklisted token.
      *
-     * @param token The JWT token
+     * @param jti The id of the JWT token
      * @return TTL in seconds, -1 if not found
      */
-    public long getTokenTTL(String token) {
-        String key = BLACKLIST_PREFIX + token;
-        Long ttl = redisTemplate.getExpire(key, TimeUnit.SECONDS);
+    public long getTokenTTL(String jti) {
+        Long ttl = redisTemplate.getExpire(BLACKLIST_PREFIX + jti, TimeUnit.SECONDS);
         return ttl != null ? ttl : -1;
     }
-}
\ No newline at end of file
+
+    /**
+     * A revocation published by any instance, this one included
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        addRevoked(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Rebuild the filter from the ids in Redis, sized for what it holds. Runs at startup, then every 5 minutes
+     */
+    @Scheduled(fixedDelayString = "${jwt.blacklist.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        synchronized (lock) {
+            revokedDuringRebuild = new HashSet<>();
+        }
+        Set<String> ids = new HashSet<>();
+        try (Cursor<String> keys = redisTemplate.scan(ScanOptions.scanOptions()
+                .match(BLACKLIST_PREFIX + "*")
+                .count(1000)
+                .build())) {
+            keys.forEachRemaining(key -> ids.add(key.substring(BLACKLIST_PREFIX.length())));
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                revokedDuringRebuild = null;
+            }
+            log.warn("Could not load blacklisted tokens, keeping the current filter: {}", e.getMessage());
+            return;
+        }
+
+        // Room to grow until the next rebuild without losing accuracy
+        BloomFilter filter = new BloomFilter(Math.max(expectedRevocations, ids.size() * 2), falsePositiveRate);
+        ids.forEach(filter::put);
+        synchronized (lock) {
+            revokedDuringRebuild.forEach(filter::put);
+            revokedDuringRebuild = null;
+            revoked = filter;
+        }
+        log.debug("Rebuilt blacklist filter with {} revoked tokens ({} bits)", ids.size(), filter.getBitCount());
+    }
+
+    private void addRevoked(String jti) {
+        synchronized (lock) {
+            BloomFilter filter = revoked;
+            if (filter != null) {
+                filter.put(jti);
+            }
+            // A rebuild in progress may have scanned past this id already
+            if (revokedDuringRebuild != null) {
+                revokedDuringRebuild.add(jti);
+            }
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package com.ecommerce.campus.authservice.service;
 
 import com.ecommerce.campus.authservice.persistence.jpa.RefreshTokenRepository;
+import com.ecommerce.campus.authservice.security.SigningKeyRing;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 
 @Service
@@ -15,6 +17,7 @@ import java.time.LocalDateTime;
 public class TokenService {
 
     private final RefreshTokenRepository refreshTokenRepository;
+    private final SigningKeyRing signingKeyRing;
 
     // Clean up expired tokens every hour
     @Scheduled(fixedDelay = 3600000) // 1 hour
@@ -28,4 +31,10 @@ public class TokenService {
             log.info("Cleaned up {} expired refresh tokens", deleted);
         }
     }
+
+    // Publish the next generated signing key ahead of use and retire old ones, every minute
+    @Scheduled(fixedDelay = 60000)
+    public void rotateSigningKeys() {
+        signingKeyRing.rotate(Instant.now());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.ecommerce.campus.authservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user "not valid before" watermark: every token of a user issued before it is rejected, so
+ * revoking all of a user's sessions is a single Redis write instead of blacklisting each token.
+ * <p>
+ * Only written here. The gateway checks it on every request, and moves it into its local cache
+ * as soon as it is announced on {@link #WATERMARKS_CHANNEL}.
+ */
+@Service
+public class TokenWatermarkService {
+
+    public static final String WATERMARK_PREFIX = "watermark:user:";
+    public static final String WATERMARKS_CHANNEL = "watermark:changed";
+
+    private final StringRedisTemplate redisTemplate;
+    private final long retentionSeconds;
+
+    public TokenWatermarkService(
+            StringRedisTemplate redisTemplate,
+            @Value("${jwt.access-token-expiration}") long accessTokenExpiration,
+            @Value("${jwt.refresh-token-expiration}") long refreshTokenExpiration) {
+        this.redisTemplate = redisTemplate;
+        // Past the longest token lifetime every token the watermark rejects has expired anyway
+        this.retentionSeconds = Math.max(accessTokenExpiration, refreshTokenExpiration) / 1000;
+    }
+
+    /**
+     * Reject every token of the user issued up to now.
+     * Compared in milliseconds, so logging in again right after is not caught by it.
+     */
+    public void revokeAll(Long userId) {
+        long watermark = System.currentTimeMillis();
+        redisTemplate.opsForValue().set(WATERMARK_PREFIX + userId, Long.toString(watermark),
+                retentionSeconds, TimeUnit.SECONDS);
+        redisTemplate.convertAndSend(WATERMARKS_CHANNEL, userId + ":" + watermark);
+    }
+}
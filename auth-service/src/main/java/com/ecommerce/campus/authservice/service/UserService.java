@@ -6,17 +6,19 @@ import com.ecommerce.campus.authservice.exception.AuthException;
 import com.ecommerce.campus.authservice.model.Role;
 import com.ecommerce.campus.authservice.model.User;
 import com.ecommerce.campus.authservice.persistence.jpa.UserRepository;
+import com.ecommerce.campus.authservice.security.PasswordHashingExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -25,6 +27,7 @@ public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashing;
 
     @Override
     @Cacheable(value = "user", key = "#username")
@@ -33,9 +36,13 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
 
-    @Transactional
-    public UserResponse register(RegisterRequest request) {
-        // Check if user already exists
+    /**
+     * Register a new user, hashing the password on the password hashing pool
+     *
+     * @throws com.ecommerce.campus.authservice.exception.PasswordHashingBusyException if the pool is saturated
+     */
+    public CompletableFuture<UserResponse> register(RegisterRequest request) {
+        // Check if user already exists - concurrent sign-ups can both pass, the unique constraints settle those
         if (userRepository.existsByUsername(request.username())) {
             throw new AuthException("Username already exists");
         }
@@ -44,18 +51,35 @@ public class UserService implements UserDetailsService {
             throw new AuthException("Email already exists");
         }
 
+        return passwordHashing.submit(PasswordHashingExecutor.ENCODE, () -> passwordEncoder.encode(request.password()))
+                .thenApply(encodedPassword -> createUser(request, encodedPassword));
+    }
+
+    private UserResponse createUser(RegisterRequest request, String encodedPassword) {
         // Create new user
         User user = User.builder()
                 .username(request.username())
                 .email(request.email())
-                .password(passwordEncoder.encode(request.password()))
+                .password(encodedPassword)
                 .firstName(request.firstName())
                 .paternalSurname(request.paternalSurname())
                 .maternalSurname(request.maternalSurname())
                 .roles(Set.of(new Role("ROLE_USER"))) // Default role
                 .build();
 
-        user = userRepository.save(user);
+        // Runs once the hash is ready; a single save is transactional on its own
+        try {
+            user = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // Taken in the meantime by a concurrent registration
+            if (userRepository.existsByUsername(request.username())) {
+                throw new AuthException("Username already exists");
+            }
+            if (userRepository.existsByEmail(request.email())) {
+                throw new AuthException("Email already exists");
+            }
+            throw e;
+        }
 
         log.info("New user registered: {}", user.getUsername());
 
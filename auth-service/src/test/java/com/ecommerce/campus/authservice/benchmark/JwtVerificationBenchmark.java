@@ -0,0 +1,82 @@
+package com.ecommerce.campus.authservice.benchmark;
+
+import com.ecommerce.campus.authservice.security.JwtProvider;
+import com.ecommerce.campus.authservice.security.JwtSigningProperties;
+import com.ecommerce.campus.authservice.security.SigningKeyRing;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU time and allocations of what one request needs from its token: validity, user id, roles and
+ * time to live. {@code perCall} is the old JwtProvider, which built a parser and parsed and verified the
+ * token for each of those questions; {@code sharedParser} parses once with a parser built once;
+ * {@code verify} is {@link JwtProvider#verify} answering from its cache. Run with the gc profiler
+ * ({@link #main}) for allocations per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+
+    private final SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes());
+    private final JwtProvider provider = new JwtProvider(SECRET, 900_000, 3_600_000, 10_000,
+            SigningKeyRing.create(new JwtSigningProperties(), Duration.ofHours(1), Instant.now()));
+    private final JwtParser parser = Jwts.parser().verifyWith(key).build();
+    private String token;
+
+    @Setup
+    public void setUp() {
+        token = provider.generateAccessToken(42L, "alice", "USER,ADMIN");
+        provider.verify(token);
+    }
+
+    @Benchmark
+    public void perCall(Blackhole blackhole) {
+        blackhole.consume(Jwts.parser().verifyWith(key).build().parseSignedClaims(token));
+        Claims claims = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        blackhole.consume(Long.parseLong(claims.getSubject()));
+        claims = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        blackhole.consume(claims.get("role", String.class));
+        claims = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        blackhole.consume(claims.getExpiration().getTime() - System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public void sharedParser(Blackhole blackhole) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        blackhole.consume(Long.parseLong(claims.getSubject()));
+        blackhole.consume(claims.get("role", String.class));
+        blackhole.consume(claims.getExpiration().getTime() - System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public void verify(Blackhole blackhole) {
+        var verified = provider.verify(token);
+        blackhole.consume(verified.userId());
+        blackhole.consume(verified.roles());
+        blackhole.consume(verified.timeToLiveMs(System.currentTimeMillis()));
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,154 @@
+package com.ecommerce.campus.authservice.benchmark;
+
+import com.ecommerce.campus.authservice.security.JwtProvider;
+import com.ecommerce.campus.authservice.security.JwtSigningProperties;
+import com.ecommerce.campus.authservice.security.SigningKeyRing;
+import com.ecommerce.campus.authservice.service.TokenBlackListService;
+import com.ecommerce.campus.common.infrastructure.security.BloomFilter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of checking a token that was never revoked, the common case. {@code legacyHasKey} is the old
+ * check, a Redis round trip on {@code blacklist:token:<JWT>}; {@code jtiHasKey} the same on the jti key;
+ * {@code filterCheck} the local Bloom filter answering alone and {@code serviceCheck} TokenBlackListService
+ * end to end. {@link #main} also prints Redis memory per revoked token for both key layouts.
+ * <p>
+ * The Redis benchmarks need {@code -Dredis.url=redis://host:port}; without it only {@code filterCheck} runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenBlacklistBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+    private static final int LIVE_IDS = 1 << 16;
+
+    @Param({"100000"})
+    private int revoked;
+
+    private BloomFilter filter;
+    private String[] liveIds;
+    private int next;
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redis;
+    private TokenBlackListService service;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        filter = new BloomFilter(revoked * 2, 0.001);
+        for (int i = 0; i < revoked; i++) {
+            filter.put("revoked-" + i);
+        }
+        liveIds = new String[LIVE_IDS];
+        JwtProvider provider = new JwtProvider(SECRET, 900_000, 3_600_000, 16,
+                SigningKeyRing.create(new JwtSigningProperties(), Duration.ofHours(1), Instant.now()));
+        for (int i = 0; i < LIVE_IDS; i++) {
+            liveIds[i] = provider.verify(provider.generateAccessToken((long) i, "user", "USER")).jti();
+        }
+        token = provider.generateAccessToken(1L, "user", "USER");
+
+        String url = System.getProperty("redis.url");
+        if (url != null) {
+            connectionFactory = connect(url);
+            redis = new StringRedisTemplate(connectionFactory);
+            service = new TokenBlackListService(redis, revoked * 2, 0.001);
+            service.rebuild();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    @Benchmark
+    public boolean filterCheck() {
+        return filter.mightContain(nextLiveId());
+    }
+
+    @Benchmark
+    public boolean serviceCheck() {
+        return service.isTokenBlacklisted(nextLiveId());
+    }
+
+    @Benchmark
+    public Boolean jtiHasKey() {
+        return redis.hasKey(TokenBlackListService.BLACKLIST_PREFIX + nextLiveId());
+    }
+
+    @Benchmark
+    public Boolean legacyHasKey() {
+        return redis.hasKey("blacklist:token:" + token);
+    }
+
+    private String nextLiveId() {
+        return liveIds[next++ & (LIVE_IDS - 1)];
+    }
+
+    private static LettuceConnectionFactory connect(String url) {
+        URI uri = URI.create(url);
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(uri.getHost(), uri.getPort() > 0 ? uri.getPort() : 6379));
+        factory.afterPropertiesSet();
+        factory.start();
+        return factory;
+    }
+
+    /**
+     * MEMORY USAGE of one revoked token stored under each key layout, as the old and new code write it
+     */
+    private static void printMemoryPerToken(String url) {
+        LettuceConnectionFactory factory = connect(url);
+        try (RedisConnection connection = factory.getConnection()) {
+            JwtProvider provider = new JwtProvider(SECRET, 900_000, 3_600_000, 16,
+                    SigningKeyRing.create(new JwtSigningProperties(), Duration.ofHours(1), Instant.now()));
+            String jwt = provider.generateAccessToken(1L, "user", "USER");
+            String legacyKey = "blacklist:token:" + jwt;
+            String jtiKey = TokenBlackListService.BLACKLIST_PREFIX + provider.verify(jwt).jti();
+            connection.stringCommands().setEx(bytes(legacyKey), 600, bytes("blacklisted"));
+            connection.stringCommands().setEx(bytes(jtiKey), 600, bytes("1"));
+            System.out.printf("Redis memory per revoked token: legacy %s bytes, jti %s bytes%n",
+                    connection.execute("MEMORY", bytes("USAGE"), bytes(legacyKey)),
+                    connection.execute("MEMORY", bytes("USAGE"), bytes(jtiKey)));
+            connection.keyCommands().del(bytes(legacyKey), bytes(jtiKey));
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("redis.url");
+        ChainedOptionsBuilder options = new OptionsBuilder();
+        if (url != null) {
+            printMemoryPerToken(url);
+            options.include(TokenBlacklistBenchmark.class.getSimpleName())
+                    .jvmArgsAppend("-Dredis.url=" + url);
+        } else {
+            options.include(TokenBlacklistBenchmark.class.getSimpleName() + ".filterCheck");
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,181 @@
+package com.ecommerce.campus.authservice.security;
+
+import com.ecommerce.campus.common.infrastructure.security.TokenDigest;
+import com.ecommerce.campus.common.infrastructure.security.VerifiedToken;
+import com.ecommerce.campus.common.infrastructure.security.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtProviderTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-test-secret";
+
+    private final JwtProvider provider = new JwtProvider(SECRET, 900_000, 3_600_000, 2,
+            SigningKeyRing.create(new JwtSigningProperties(), Duration.ofHours(1), Instant.now()));
+
+    @Test
+    void verifiesOnceAndAnswersEveryQuestionFromTheSameClaims() {
+        long before = System.currentTimeMillis();
+        String token = provider.generateAccessToken(42L, "alice", "USER,ADMIN");
+
+        VerifiedToken verified = provider.verify(token);
+        assertEquals("42", verified.subject());
+        assertEquals(42L, verified.userId());
+        assertEquals("USER,ADMIN", verified.roles());
+        assertEquals(16, verified.jti().length());
+        // To the millisecond, not rounded down to iat's second
+        assertTrue(verified.issuedAtMs() >= before && verified.issuedAtMs() <= System.currentTimeMillis());
+        assertTrue(verified.timeToLiveMs(System.currentTimeMillis()) > 0);
+
+        // Later questions about the same token are cache hits returning the same instance
+        assertSame(verified, provider.verify(token));
+        assertTrue(provider.validateToken(token));
+        assertEquals(42L, provider.getUserIdFromToken(token));
+        assertEquals(1, provider.getVerifiedTokenCache().size());
+    }
+
+    @Test
+    void rejectsForgedAndExpiredTokens() {
+        String forged = Jwts.builder()
+                .subject("1")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor("another-secret-another-secret-another-secret".getBytes()))
+                .compact();
+        String expired = Jwts.builder()
+                .subject("1")
+                .expiration(new Date(System.currentTimeMillis() - 1_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+
+        assertThrows(JwtException.class, () -> provider.verify(forged));
+        assertThrows(ExpiredJwtException.class, () -> provider.verify(expired));
+        assertThrows(JwtException.class, () -> provider.verify(""));
+        // Well signed and unexpired, but not a bearer credential
+        assertThrows(JwtException.class, () -> provider.verify(provider.generateRefreshToken(1L)));
+        assertFalse(provider.validateToken(forged));
+        assertEquals(0, provider.getVerifiedTokenCache().size());
+    }
+
+    @Test
+    void cacheStaysBoundedAndDropsExpiredEntries() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(2);
+        long now = 1_000;
+        cache.put(TokenDigest.of("a"), new VerifiedToken("1", "jti-1", "USER", 0, now + 10), now);
+        cache.put(TokenDigest.of("b"), new VerifiedToken("2", "jti-2", "USER", 0, now + 10_000), now);
+        cache.put(TokenDigest.of("c"), new VerifiedToken("3", "jti-3", "USER", 0, now + 10_000), now + 20);
+
+        // "a" expired and made room for "c"
+        assertEquals(2, cache.size());
+        assertNull(cache.get(TokenDigest.of("a"), now + 20));
+        assertNotNull(cache.get(TokenDigest.of("c"), now + 20));
+        assertNull(cache.get(TokenDigest.of("c"), now + 10_000));
+    }
+
+    @Test
+    void signsWithTheKeyRingSoVerifiersOnlyNeedThePublishedKeys() {
+        JwtSigningProperties properties = new JwtSigningProperties();
+        properties.setAlgorithm(SigningAlgorithm.EDDSA);
+        SigningKeyRing ring = SigningKeyRing.create(properties, Duration.ofHours(1), Instant.now());
+        JwtProvider signer = new JwtProvider(SECRET, 900_000, 3_600_000, 16, ring);
+
+        String token = signer.generateAccessToken(7L, "bob", "USER");
+        String kid = ring.current(Instant.now()).kid();
+        assertEquals(7L, signer.verify(token).userId());
+
+        // Offline verification from the JWKS document alone
+        JwkSet jwks = Jwks.setParser().build().parse(ring.getJwks());
+        Jwk<?> jwk = jwks.getKeys().stream().filter(key -> kid.equals(key.getId())).findFirst().orElseThrow();
+        assertEquals("EdDSA", jwk.getAlgorithm());
+        Jws<Claims> verified = Jwts.parser().verifyWith((PublicKey) jwk.toKey()).build().parseSignedClaims(token);
+        assertEquals(kid, verified.getHeader().getKeyId());
+        assertEquals("7", verified.getPayload().getSubject());
+
+        // HS256 tokens issued before the switch stay valid while the secret is configured
+        String legacy = provider.generateAccessToken(7L, "bob", "USER");
+        assertEquals(7L, signer.verify(legacy).userId());
+        JwtProvider withoutSecret = new JwtProvider("", 900_000, 3_600_000, 16, ring);
+        assertThrows(JwtException.class, () -> withoutSecret.verify(legacy));
+        assertEquals(7L, withoutSecret.verify(token).userId());
+    }
+
+    @Test
+    void generatedKeysArePublishedBeforeUseAndRetiredAfterTheirTokens() {
+        JwtSigningProperties properties = new JwtSigningProperties();
+        properties.setAlgorithm(SigningAlgorithm.ES256);
+        properties.setRotationInterval(Duration.ofDays(7));
+        properties.setPrePublish(Duration.ofHours(1));
+        Instant start = Instant.parse("2026-01-05T00:00:00Z");
+        SigningKeyRing ring = SigningKeyRing.create(properties, Duration.ofDays(1), start);
+        String first = ring.current(start).kid();
+
+        assertFalse(ring.rotate(start.plus(Duration.ofDays(6))));
+
+        // The successor is published an hour ahead, the first key keeps signing until the handover
+        Instant published = start.plus(Duration.ofDays(7)).minus(Duration.ofHours(1));
+        assertTrue(ring.rotate(published));
+        assertEquals(2, ring.getKeys().size());
+        assertEquals(first, ring.current(published).kid());
+        String second = ring.getKeys().get(1).kid();
+        assertTrue(ring.getJwks().contains(second));
+
+        Instant handover = start.plus(Duration.ofDays(7));
+        assertEquals(second, ring.current(handover).kid());
+        assertFalse(ring.rotate(handover.plus(Duration.ofDays(1)).minusSeconds(1)));
+        assertNotNull(ring.publicKey(first));
+
+        // Once no token signed with the first key can be alive it is no longer published
+        assertTrue(ring.rotate(handover.plus(Duration.ofDays(1))));
+        assertNull(ring.publicKey(first));
+        assertFalse(ring.getJwks().contains(first));
+    }
+
+    @Test
+    void configuredKeysTakeOverAtTheirActivationTime() {
+        KeyPair current = SigningAlgorithm.RS256.generateKeyPair();
+        KeyPair next = SigningAlgorithm.RS256.generateKeyPair();
+        Instant now = Instant.now();
+        JwtSigningProperties properties = new JwtSigningProperties();
+        properties.setAlgorithm(SigningAlgorithm.RS256);
+        properties.setKeys(List.of(key("2026-01", current, null), key("2026-02", next, now.plus(Duration.ofDays(1)))));
+
+        SigningKeyRing ring = SigningKeyRing.create(properties, Duration.ofHours(1), now);
+
+        assertEquals("2026-01", ring.current(now).kid());
+        assertEquals("2026-02", ring.current(now.plus(Duration.ofDays(1))).kid());
+        assertEquals(next.getPublic(), ring.publicKey("2026-02"));
+        assertFalse(ring.rotate(now.plus(Duration.ofDays(30))));
+    }
+
+    private static JwtSigningProperties.Key key(String kid, KeyPair pair, Instant activateAt) {
+        JwtSigningProperties.Key key = new JwtSigningProperties.Key();
+        key.setKid(kid);
+        key.setPrivateKey(pem("PRIVATE KEY", pair.getPrivate().getEncoded()));
+        key.setPublicKey(pem("PUBLIC KEY", pair.getPublic().getEncoded()));
+        key.setActivateAt(activateAt);
+        return key;
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+    }
+}
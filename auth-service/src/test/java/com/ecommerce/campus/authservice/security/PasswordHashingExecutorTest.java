@@ -0,0 +1,96 @@
+package com.ecommerce.campus.authservice.security;
+
+import com.ecommerce.campus.authservice.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService completions = Executors.newSingleThreadExecutor(r -> new Thread(r, "completions"));
+    private final PasswordHashingExecutor hashing = new PasswordHashingExecutor(1, 2, meterRegistry, provider(completions));
+
+    @AfterEach
+    void tearDown() {
+        hashing.shutdown();
+        completions.shutdownNow();
+    }
+
+    @Test
+    void hashesOffTheCallerAndHandsResultsToTheCompletionExecutor() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+        String encoded = hashing.submit(PasswordHashingExecutor.ENCODE, () -> encoder.encode("secret")).join();
+
+        String[] threads = new String[2];
+        boolean matches = hashing.submit(PasswordHashingExecutor.VERIFY, () -> {
+                    threads[0] = Thread.currentThread().getName();
+                    return encoder.matches("secret", encoded);
+                })
+                .thenApply(result -> {
+                    threads[1] = Thread.currentThread().getName();
+                    return result;
+                })
+                .join();
+
+        assertTrue(matches);
+        assertEquals("password-hash-1", threads[0]);
+        assertEquals("completions", threads[1]);
+        assertEquals(2, meterRegistry.get("auth.password.hashing.wait").timer().count());
+        assertEquals(1, meterRegistry.get("auth.password.hashing.time").tag("operation", "verify").timer().count());
+        assertTrue(meterRegistry.get("auth.password.hashing.time").tag("operation", "encode").timer()
+                .totalTime(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    @Test
+    void rejectsRightAwayOnceTheQueueIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<Boolean> busy = hashing.submit(PasswordHashingExecutor.VERIFY, () -> {
+            running.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        });
+        running.await(5, TimeUnit.SECONDS);
+        CompletableFuture<String> first = hashing.submit(PasswordHashingExecutor.ENCODE, () -> "a");
+        CompletableFuture<String> second = hashing.submit(PasswordHashingExecutor.ENCODE, () -> "b");
+        assertEquals(2.0, meterRegistry.get("auth.password.hashing.queue").gauge().value());
+
+        PasswordHashingBusyException rejected = assertThrows(PasswordHashingBusyException.class,
+                () -> hashing.submit(PasswordHashingExecutor.ENCODE, () -> "c"));
+        assertTrue(rejected.getRetryAfterSeconds() >= 1);
+        assertEquals(1.0, meterRegistry.get("auth.password.hashing.rejected").counter().count());
+
+        // Queued work still completes once the pool catches up
+        release.countDown();
+        assertTrue(busy.join());
+        assertEquals("a", first.join());
+        assertEquals("b", second.join());
+    }
+
+    @Test
+    void failuresReachTheCaller() {
+        CompletableFuture<String> failed = hashing.submit(PasswordHashingExecutor.VERIFY, () -> {
+            throw new IllegalStateException("bad hash");
+        });
+        Exception e = assertThrows(Exception.class, failed::join);
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    private static ObjectProvider<Executor> provider(Executor executor) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("applicationTaskExecutor", executor);
+        return beans.getBeanProvider(Executor.class);
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.campus.authservice.service;
+
+import com.ecommerce.campus.authservice.dto.LoginRequest;
+import com.ecommerce.campus.authservice.exception.AuthException;
+import com.ecommerce.campus.authservice.model.User;
+import com.ecommerce.campus.authservice.persistence.jpa.RefreshTokenRepository;
+import com.ecommerce.campus.authservice.persistence.jpa.UserRepository;
+import com.ecommerce.campus.authservice.security.JwtProvider;
+import com.ecommerce.campus.authservice.security.PasswordHashingExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AuthServiceTest {
+
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private final PasswordHashingExecutor hashing = new PasswordHashingExecutor(1, 4, new SimpleMeterRegistry(),
+            new StaticListableBeanFactory().getBeanProvider(Executor.class));
+    private final AuthService authService = new AuthService(mock(UserRepository.class), mock(RefreshTokenRepository.class),
+            encoder, mock(JwtProvider.class), userDetailsService, hashing,
+            mock(TokenBlackListService.class), mock(TokenWatermarkService.class));
+
+    @AfterEach
+    void tearDown() {
+        hashing.shutdown();
+    }
+
+    @Test
+    void looksTheUserUpOnTheCallerAndOnlyHashesOnThePool() {
+        User alice = User.builder().userId(1L).username("alice").password(encoder.encode("secret")).build();
+        AtomicReference<String> lookupThread = new AtomicReference<>();
+        when(userDetailsService.loadUserByUsername("alice")).thenAnswer(invocation -> {
+            lookupThread.set(Thread.currentThread().getName());
+            return alice;
+        });
+
+        assertSame(alice, authService.authenticate(new LoginRequest("alice", "secret")).join());
+        assertEquals(Thread.currentThread().getName(), lookupThread.get());
+
+        CompletionException wrongPassword = assertThrows(CompletionException.class,
+                () -> authService.authenticate(new LoginRequest("alice", "wrong")).join());
+        assertInstanceOf(AuthException.class, wrongPassword.getCause());
+    }
+
+    @Test
+    void unknownUsersFailLikeAWrongPassword() {
+        when(userDetailsService.loadUserByUsername("nobody")).thenThrow(new UsernameNotFoundException("nobody"));
+
+        CompletionException unknown = assertThrows(CompletionException.class,
+                () -> authService.authenticate(new LoginRequest("nobody", "secret")).join());
+        assertInstanceOf(AuthException.class, unknown.getCause());
+        assertEquals("Invalid username or password", unknown.getCause().getMessage());
+    }
+}
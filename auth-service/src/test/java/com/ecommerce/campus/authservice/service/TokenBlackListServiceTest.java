@@ -0,0 +1,99 @@
+package com.ecommerce.campus.authservice.service;
+
+import com.ecommerce.campus.common.infrastructure.security.BloomFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TokenBlackListServiceTest {
+
+    private StringRedisTemplate redisTemplate;
+    private TokenBlackListService blacklist;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(mock(ValueOperations.class));
+        when(redisTemplate.hasKey(any())).thenReturn(true);
+        blacklist = new TokenBlackListService(redisTemplate, 1000, 0.001);
+    }
+
+    @Test
+    void unrevokedTokensAreAnsweredLocally() {
+        // Before the first load every check goes to Redis
+        assertTrue(blacklist.isTokenBlacklisted("revoked-id-0001"));
+        verify(redisTemplate, times(1)).hasKey(any());
+
+        scanReturns("blacklist:jti:revoked-id-0001");
+        blacklist.rebuild();
+
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(blacklist.isTokenBlacklisted("live-id-" + i));
+        }
+        assertTrue(blacklist.isTokenBlacklisted("revoked-id-0001"));
+        // The revoked id, plus at most a rare false positive
+        verify(redisTemplate, atMost(4)).hasKey(any());
+    }
+
+    @Test
+    void revocationsReachTheFilterLocallyAndFromOtherInstances() {
+        scanReturns();
+        blacklist.rebuild();
+
+        blacklist.blacklistToken("mine", 600);
+        verify(redisTemplate.opsForValue()).set("blacklist:jti:mine", "1", 600, TimeUnit.SECONDS);
+        verify(redisTemplate).convertAndSend(TokenBlackListService.REVOCATIONS_CHANNEL, "mine");
+
+        blacklist.onMessage(new DefaultMessage(TokenBlackListService.REVOCATIONS_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "theirs".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertTrue(blacklist.isTokenBlacklisted("mine"));
+        assertTrue(blacklist.isTokenBlacklisted("theirs"));
+        verify(redisTemplate, times(2)).hasKey(any());
+
+        // An expired token is not written at all
+        blacklist.blacklistToken("expired", 0);
+        verify(redisTemplate, never()).convertAndSend(TokenBlackListService.REVOCATIONS_CHANNEL, "expired");
+    }
+
+    @Test
+    void bloomFilterStaysNearItsFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("revoked-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.mightContain("revoked-" + (i % 10_000)));
+            if (filter.mightContain("live-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, falsePositives + " false positives");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void scanReturns(String... keys) {
+        Cursor<String> cursor = mock(Cursor.class);
+        doAnswer(invocation -> {
+            Consumer<String> action = invocation.getArgument(0);
+            List.of(keys).forEach(action);
+            return null;
+        }).when(cursor).forEachRemaining(any());
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.campus.authservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TokenWatermarkServiceTest {
+
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> values;
+    private TokenWatermarkService watermarks;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        watermarks = new TokenWatermarkService(redisTemplate, 900_000, 604_800_000);
+    }
+
+    @Test
+    void revokingAllSessionsIsOneWriteAndOneAnnouncement() {
+        long before = System.currentTimeMillis();
+        watermarks.revokeAll(7L);
+        long after = System.currentTimeMillis();
+
+        // Kept as long as the longest-lived token, in milliseconds so logging in again right after is not caught
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(values).set(eq("watermark:user:7"), stored.capture(), eq(604_800L), eq(TimeUnit.SECONDS));
+        long watermark = Long.parseLong(stored.getValue());
+        assertTrue(watermark >= before && watermark <= after);
+        verify(redisTemplate).convertAndSend(TokenWatermarkService.WATERMARKS_CHANNEL, "7:" + watermark);
+    }
+}
@@ -0,0 +1,45 @@
+package com.ecommerce.campus.authservice.service;
+
+import com.ecommerce.campus.authservice.dto.RegisterRequest;
+import com.ecommerce.campus.authservice.exception.AuthException;
+import com.ecommerce.campus.authservice.model.User;
+import com.ecommerce.campus.authservice.persistence.jpa.UserRepository;
+import com.ecommerce.campus.authservice.security.PasswordHashingExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UserServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PasswordHashingExecutor hashing = new PasswordHashingExecutor(1, 4, new SimpleMeterRegistry(),
+            new StaticListableBeanFactory().getBeanProvider(Executor.class));
+    private final UserService userService = new UserService(userRepository, new BCryptPasswordEncoder(4), hashing);
+
+    @AfterEach
+    void tearDown() {
+        hashing.shutdown();
+    }
+
+    @Test
+    void aUsernameTakenWhileHashingIsReportedAsTaken() {
+        // Free when checked, then registered by a concurrent request before this one saves
+        when(userRepository.existsByUsername("alice")).thenReturn(false, true);
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("uq_person_person_user"));
+
+        CompletionException taken = assertThrows(CompletionException.class, () -> userService.register(
+                new RegisterRequest("alice", "alice@example.com", "secret", null, null, null)).join());
+        assertInstanceOf(AuthException.class, taken.getCause());
+        assertEquals("Username already exists", taken.getCause().getMessage());
+    }
+}
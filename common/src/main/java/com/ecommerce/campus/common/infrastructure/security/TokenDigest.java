@@ -0,0 +1,53 @@
+package com.ecommerce.campus.common.infrastructure.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * SHA-256 digest of a raw token, used as cache key so the cache never holds bearer tokens themselves.
+ */
+public record TokenDigest(long h0, long h1, long h2, long h3) {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    public static TokenDigest of(String token) {
+        MessageDigest sha = SHA_256.get();
+        byte[] hash = sha.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return new TokenDigest(
+                readLong(hash, 0),
+                readLong(hash, 8),
+                readLong(hash, 16),
+                readLong(hash, 24));
+    }
+
+    /**
+     * 16-character id derived from the digest, standing in for the jti of tokens issued without one.
+     * auth-service blacklists such tokens under this id and the gateway looks them up by it.
+     */
+    public String shortId() {
+        byte[] bytes = new byte[12];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (h0 >>> (56 - 8 * i));
+        }
+        for (int i = 0; i < 4; i++) {
+            bytes[8 + i] = (byte) (h1 >>> (56 - 8 * i));
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.campus.common.infrastructure.security;
+
+/**
+ * Claims of an access token whose signature and expiry were checked, read once and shared by every caller.
+ * Mirrors the claim layout written by auth-service's JwtProvider (sub = user id, role = comma separated roles,
+ * jti = the id revocations are keyed on).
+ */
+public record VerifiedToken(String subject, String jti, String roles, long issuedAtMs, long expiresAtMs) {
+
+    public Long userId() {
+        return Long.parseLong(subject);
+    }
+
+    public boolean isExpired(long nowMs) {
+        return nowMs >= expiresAtMs;
+    }
+
+    /**
+     * Milliseconds until the token expires, 0 once it has
+     */
+    public long timeToLiveMs(long nowMs) {
+        return Math.max(0, expiresAtMs - nowMs);
+    }
+}
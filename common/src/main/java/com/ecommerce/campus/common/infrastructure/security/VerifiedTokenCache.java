@@ -0,0 +1,94 @@
+package com.ecommerce.campus.common.infrastructure.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of recently verified tokens keyed by token digest.
+ * Every entry lives until the token's own exp or the configured max TTL, whichever comes first.
+ * Only the signature and expiry checks are cached; callers check revocation on every request.
+ */
+public class VerifiedTokenCache {
+
+    // A full table is swept for expired tokens at most this often; in between, a put evicts one entry
+    private static final long SWEEP_INTERVAL_MS = 1_000;
+
+    private final ConcurrentHashMap<TokenDigest, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long maxTtlMs;
+    private volatile long lastSweepMs;
+
+    /**
+     * Entries live until the token's own exp
+     */
+    public VerifiedTokenCache(int maxEntries) {
+        this(maxEntries, Long.MAX_VALUE);
+    }
+
+    public VerifiedTokenCache(int maxEntries, long maxTtlMs) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxTtlMs = maxTtlMs;
+    }
+
+    /**
+     * Get a cached token, or null if absent or no longer valid
+     */
+    public VerifiedToken get(TokenDigest digest, long nowMs) {
+        Entry entry = entries.get(digest);
+        if (entry == null) {
+            return null;
+        }
+        if (nowMs >= entry.validUntilMs()) {
+            entries.remove(digest, entry);
+            return null;
+        }
+        return entry.token();
+    }
+
+    /**
+     * Cache a verified token, evicting expired and then arbitrary entries when full, only as many as it needs
+     */
+    public void put(TokenDigest digest, VerifiedToken token, long nowMs) {
+        // Compared as durations, as nowMs + maxTtlMs overflows for an unbounded TTL
+        long validUntil = token.expiresAtMs() - nowMs <= maxTtlMs ? token.expiresAtMs() : nowMs + maxTtlMs;
+        if (validUntil <= nowMs) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            evict(nowMs);
+        }
+        entries.put(digest, new Entry(token, validUntil));
+    }
+
+    public void invalidate(TokenDigest digest) {
+        entries.remove(digest);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private void evict(long nowMs) {
+        if (nowMs - lastSweepMs >= SWEEP_INTERVAL_MS) {
+            lastSweepMs = nowMs;
+            entries.values().removeIf(entry -> nowMs >= entry.validUntilMs());
+        }
+
+        // Still full of live tokens: make room for the new one only (hash order is effectively random)
+        Iterator<Map.Entry<TokenDigest, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() >= maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private record Entry(VerifiedToken token, long validUntilMs) {}
+}